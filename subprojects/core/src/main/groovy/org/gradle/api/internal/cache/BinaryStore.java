@@ -25,6 +25,12 @@ import java.io.IOException;
 public interface BinaryStore {
     void write(WriteAction write);
 
+    /**
+     * Returns the position at which the next value will be written, relative to the start of the data that is currently being written.
+     * The value can be read back later using {@link BinaryData#read(int, ReadAction)}.
+     */
+    int getPosition();
+
     //done writing data, release any resources
     BinaryData done();
 
@@ -38,5 +44,11 @@ public interface BinaryStore {
 
     interface BinaryData extends Closeable {
         <T> T read(ReadAction<T> readAction);
+
+        /**
+         * Reads the value at the given position, as returned by {@link BinaryStore#getPosition()} when the value was written. Does not affect
+         * where {@link #read(ReadAction)} continues reading.
+         */
+        <T> T read(int position, ReadAction<T> readAction);
     }
 }
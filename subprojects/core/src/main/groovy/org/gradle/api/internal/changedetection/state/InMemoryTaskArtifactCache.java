@@ -18,6 +18,7 @@ package org.gradle.api.internal.changedetection.state;
 
 import com.google.common.cache.*;
 import org.gradle.api.internal.cache.HeapProportionalCacheSizer;
+import org.gradle.api.internal.cache.MemoryPressureListener;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -29,9 +30,10 @@ import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 
-public class InMemoryTaskArtifactCache implements CacheDecorator {
+public class InMemoryTaskArtifactCache implements CacheDecorator, MemoryPressureListener {
     private final static Logger LOG = Logging.getLogger(InMemoryTaskArtifactCache.class);
     private final static Object NULL = new Object();
+    private static final int MAX_CAP_DIVISOR = 8;
     private static final Map<String, Integer> CACHE_CAPS = new CacheCapSizer().calculateCaps();
 
     static class CacheCapSizer {
@@ -70,6 +72,8 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
             .build();
 
     private final Map<String, FileLock.State> states = new HashMap<String, FileLock.State>();
+    // Guarded by lock
+    private int capDivisor = 1;
 
     public <K, V> MultiProcessSafePersistentIndexedCache<K, V> decorate(final String cacheId, String cacheName, final MultiProcessSafePersistentIndexedCache<K, V> original) {
         final Cache<Object, Object> data = loadData(cacheId, cacheName);
@@ -131,8 +135,9 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
             if (theData != null) {
                 LOG.info("In-memory cache of {}: Size{{}}, {}", cacheId, theData.size() , theData.stats());
             } else {
-                Integer maxSize = CACHE_CAPS.get(cacheName);
-                assert maxSize != null : "Unknown cache.";
+                Integer cap = CACHE_CAPS.get(cacheName);
+                assert cap != null : "Unknown cache.";
+                int maxSize = cap / capDivisor;
                 LOG.info("Creating In-memory cache of {}: MaxSize{{}}", cacheId, maxSize);
                 LoggingEvictionListener evictionListener = new LoggingEvictionListener(cacheId, maxSize);
                 theData = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().removalListener(evictionListener).build();
@@ -143,6 +148,22 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
         return theData;
     }
 
+    /**
+     * Discards the cached data, and halves the maximum size of the caches that are created from now on, down to a fraction of the default size.
+     * Caches that are still open continue to work, and read through to the persistent cache.
+     */
+    @Override
+    public void releaseMemory() {
+        synchronized (lock) {
+            for (Cache<Object, Object> data : cache.asMap().values()) {
+                data.invalidateAll();
+            }
+            cache.invalidateAll();
+            capDivisor = Math.min(capDivisor * 2, MAX_CAP_DIVISOR);
+            LOG.info("Released in-memory task artifact caches. New caches will use 1/{} of the default size.", capDivisor);
+        }
+    }
+
     private static class LoggingEvictionListener implements RemovalListener<Object, Object> {
         private static Logger logger = Logging.getLogger(LoggingEvictionListener.class);
         private static final String EVICTION_MITIGATION_MESSAGE = "\nPerformance may suffer from in-memory cache misses. Increase max heap size of Gradle build process to reduce cache misses.";
@@ -22,13 +22,14 @@ import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multiset;
 import org.gradle.api.Nullable;
+import org.gradle.api.internal.cache.MemoryPressureListener;
 import org.gradle.internal.classloader.FilteringClassLoader;
 import org.gradle.internal.classloader.MutableURLClassLoader;
 import org.gradle.internal.classpath.ClassPath;
 
 import java.util.Map;
 
-public class DefaultClassLoaderCache implements ClassLoaderCache {
+public class DefaultClassLoaderCache implements ClassLoaderCache, MemoryPressureListener {
 
     private final Object lock = new Object();
     private final Map<ClassLoaderId, CachedClassLoader> byId = Maps.newHashMap();
@@ -89,6 +90,17 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
         return cachedLoader.retain(id);
     }
 
+    /**
+     * Discards all cached class loaders. The class loaders are recreated when next requested.
+     */
+    @Override
+    public void releaseMemory() {
+        synchronized (lock) {
+            byId.clear();
+            bySpec.clear();
+        }
+    }
+
     @Override
     public int size() {
         synchronized (lock) {
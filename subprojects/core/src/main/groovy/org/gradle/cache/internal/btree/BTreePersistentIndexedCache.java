@@ -17,16 +17,16 @@ package org.gradle.cache.internal.btree;
 
 import org.gradle.api.UncheckedIOException;
 import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.serialize.ByteBufferDecoder;
+import org.gradle.internal.serialize.ByteBufferEncoder;
 import org.gradle.internal.serialize.Serializer;
-import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
-import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 // todo - stream serialised value to file
@@ -48,6 +48,8 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
     private final short maxChildIndexEntries;
     private final int minIndexChildNodes;
     private final StateCheckBlockStore store;
+    // Reused to encode keys and values, to avoid allocating a buffer for each
+    private final ByteBufferEncoder encoder = new ByteBufferEncoder(ByteBuffer.allocate(256));
     private HeaderBlock header;
 
     public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
@@ -129,13 +131,19 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
         }
     }
 
+    private long checksumOf(K key) throws Exception {
+        encoder.reset();
+        keySerializer.write(encoder, key);
+        MessageDigest messageDigest = MessageDigest.getInstance("MD5");
+        messageDigest.update(encoder.getBuffer());
+        byte[] digest = messageDigest.digest();
+        assert digest.length == 16;
+        return new BigInteger(digest).longValue();
+    }
+
     public void put(K key, V value) {
         try {
-            MessageDigestStream digestStream = new MessageDigestStream();
-            KryoBackedEncoder encoder = new KryoBackedEncoder(digestStream);
-            keySerializer.write(encoder, key);
-            encoder.flush();
-            long hashCode = digestStream.getChecksum();
+            long hashCode = checksumOf(key);
             Lookup lookup = header.getRoot().find(hashCode);
             boolean needNewBlock = true;
             if (lookup.entry != null) {
@@ -449,12 +457,7 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
         }
 
         public Lookup find(K key) throws Exception {
-            MessageDigestStream digestStream = new MessageDigestStream();
-            KryoBackedEncoder encoder = new KryoBackedEncoder(digestStream);
-            keySerializer.write(encoder, key);
-            encoder.flush();
-            long checksum = digestStream.getChecksum();
-            return find(checksum);
+            return find(checksumOf(key));
         }
 
         private Lookup find(long hashCode) throws Exception {
@@ -649,16 +652,16 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
         }
 
         public void setValue(V value) throws Exception {
-            ByteArrayOutputStream outStr = new ByteArrayOutputStream();
-            KryoBackedEncoder encoder = new KryoBackedEncoder(outStr);
+            encoder.reset();
             serializer.write(encoder, value);
-            encoder.flush();
-            this.serialisedValue = outStr.toByteArray();
+            ByteBuffer encoded = encoder.getBuffer();
+            this.serialisedValue = new byte[encoded.remaining()];
+            encoded.get(serialisedValue);
         }
 
         public V getValue() throws Exception {
             if (value == null) {
-                value = serializer.read(new KryoBackedDecoder(new ByteArrayInputStream(serialisedValue)));
+                value = serializer.read(new ByteBufferDecoder(ByteBuffer.wrap(serialisedValue)));
             }
             return value;
         }
@@ -695,33 +698,4 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
             return ok;
         }
     }
-
-    private static class MessageDigestStream extends OutputStream {
-        MessageDigest messageDigest;
-
-        private MessageDigestStream() throws NoSuchAlgorithmException {
-            messageDigest = MessageDigest.getInstance("MD5");
-        }
-
-        @Override
-        public void write(int b) throws IOException {
-            messageDigest.update((byte) b);
-        }
-
-        @Override
-        public void write(byte[] b) throws IOException {
-            messageDigest.update(b);
-        }
-
-        @Override
-        public void write(byte[] b, int off, int len) throws IOException {
-            messageDigest.update(b, off, len);
-        }
-
-        long getChecksum() {
-            byte[] digest = messageDigest.digest();
-            assert digest.length == 16;
-            return new BigInteger(digest).longValue();
-        }
-    }
 }
@@ -191,7 +191,7 @@ public class GlobalScopeServices {
         return new ClassGeneratorBackedInstantiator(classGenerator, DirectInstantiator.INSTANCE);
     }
 
-    ExecutorFactory createExecutorFactory() {
+    protected ExecutorFactory createExecutorFactory() {
         return new DefaultExecutorFactory();
     }
 
@@ -202,8 +202,10 @@ public class GlobalScopeServices {
             fileLockContentionHandler);
     }
 
-    InMemoryTaskArtifactCache createInMemoryTaskArtifactCache() {
-        return new InMemoryTaskArtifactCache();
+    InMemoryTaskArtifactCache createInMemoryTaskArtifactCache(ListenerManager listenerManager) {
+        InMemoryTaskArtifactCache cache = new InMemoryTaskArtifactCache();
+        listenerManager.addListener(cache);
+        return cache;
     }
 
     DefaultFileLockContentionHandler createFileLockContentionHandler(ExecutorFactory executorFactory, MessagingServices messagingServices) {
@@ -251,8 +253,10 @@ public class GlobalScopeServices {
         return new CachingFileSnapshotter(new DefaultHasher(), inMemoryStore, stringInterner);
     }
 
-    ClassLoaderCache createClassLoaderCache(ClassPathSnapshotter classPathSnapshotter) {
-        return new DefaultClassLoaderCache(classPathSnapshotter);
+    ClassLoaderCache createClassLoaderCache(ClassPathSnapshotter classPathSnapshotter, ListenerManager listenerManager) {
+        DefaultClassLoaderCache cache = new DefaultClassLoaderCache(classPathSnapshotter);
+        listenerManager.addListener(cache);
+        return cache;
     }
 
     protected ModelSchemaAspectExtractor createModelSchemaAspectExtractor(ServiceRegistry serviceRegistry) {
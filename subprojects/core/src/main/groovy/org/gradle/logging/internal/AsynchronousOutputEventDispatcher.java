@@ -0,0 +1,189 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.logging.internal;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands output events to a single rendering thread, so that the threads that produce events do not wait for each other while the events are rendered.
+ * Events are rendered in the order in which they were queued, each while holding the given lock.
+ *
+ * <p>The number of queued events is bounded. A thread that produces an event while the queue is full waits until the rendering thread has caught up.
+ * Events produced by the rendering thread itself, or after this dispatcher has been stopped, are rendered immediately.</p>
+ */
+class AsynchronousOutputEventDispatcher implements OutputEventListener, Stoppable {
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final OutputEventListener renderer;
+    private final Object renderLock;
+    private final Queue<OutputEvent> queue = new ConcurrentLinkedQueue<OutputEvent>();
+    private final Semaphore capacity;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final Thread thread;
+    private volatile boolean waiting;
+    private volatile boolean stopped;
+    private volatile Throwable failure;
+
+    AsynchronousOutputEventDispatcher(OutputEventListener renderer, Object renderLock, int capacity) {
+        this.renderer = renderer;
+        this.renderLock = renderLock;
+        this.capacity = new Semaphore(capacity);
+        thread = new Thread(new Runnable() {
+            public void run() {
+                render();
+            }
+        }, "Output event renderer");
+        thread.setDaemon(true);
+    }
+
+    public void onOutput(OutputEvent event) {
+        if (Thread.currentThread() == thread || stopped) {
+            synchronized (renderLock) {
+                if (event instanceof RenderedEvent) {
+                    // Nothing is queued any more, so everything has been rendered
+                    ((RenderedEvent) event).rendered.countDown();
+                } else {
+                    renderer.onOutput(event);
+                }
+            }
+            return;
+        }
+        capacity.acquireUninterruptibly();
+        queue.add(event);
+        if (started.compareAndSet(false, true)) {
+            thread.start();
+        } else if (waiting) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Blocks until the events queued so far have been rendered. Rethrows the first failure to render an event, if any.
+     */
+    public void awaitRendered() {
+        if (started.get() && !stopped && Thread.currentThread() != thread) {
+            RenderedEvent renderedEvent = new RenderedEvent();
+            onOutput(renderedEvent);
+            renderedEvent.await();
+        }
+        Throwable failure = this.failure;
+        if (failure != null) {
+            this.failure = null;
+            throw UncheckedException.throwAsUncheckedException(failure);
+        }
+    }
+
+    /**
+     * Renders the queued events and stops the rendering thread. Events produced later are rendered on the thread that produces them.
+     */
+    public void stop() {
+        if (!started.get() || Thread.currentThread() == thread) {
+            stopped = true;
+            return;
+        }
+        try {
+            awaitRendered();
+        } finally {
+            stopped = true;
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            // Render anything queued by a producer that did not yet see the stopped flag
+            OutputEvent event;
+            while ((event = queue.poll()) != null) {
+                synchronized (renderLock) {
+                    render(event);
+                }
+                capacity.release();
+            }
+        }
+    }
+
+    private void render() {
+        List<OutputEvent> batch = new ArrayList<OutputEvent>(MAX_BATCH_SIZE);
+        while (!stopped) {
+            OutputEvent event;
+            while (batch.size() < MAX_BATCH_SIZE && (event = queue.poll()) != null) {
+                batch.add(event);
+            }
+            if (batch.isEmpty()) {
+                // The flag is set before the queue is checked again, and producers check it after queueing, so an event cannot be missed
+                waiting = true;
+                if (queue.isEmpty() && !stopped) {
+                    LockSupport.park(this);
+                }
+                waiting = false;
+                continue;
+            }
+            for (OutputEvent queued : batch) {
+                // Take the lock for each event, so that a thread that changes the configuration of the renderer does not wait for a whole batch
+                synchronized (renderLock) {
+                    render(queued);
+                }
+            }
+            capacity.release(batch.size());
+            batch.clear();
+        }
+    }
+
+    private void render(OutputEvent event) {
+        try {
+            if (event instanceof RenderedEvent) {
+                ((RenderedEvent) event).rendered.countDown();
+            } else {
+                renderer.onOutput(event);
+            }
+        } catch (Throwable t) {
+            if (failure == null) {
+                failure = t;
+            }
+        }
+    }
+
+    private static class RenderedEvent extends OutputEvent {
+        private final CountDownLatch rendered = new CountDownLatch(1);
+
+        @Nullable
+        @Override
+        public LogLevel getLogLevel() {
+            return null;
+        }
+
+        void await() {
+            try {
+                rendered.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+}
@@ -25,7 +25,9 @@ import org.gradle.logging.LoggingManagerInternal;
 
 import java.io.Closeable;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 public class DefaultLoggingManager implements LoggingManagerInternal, Closeable {
@@ -194,7 +196,7 @@ public class DefaultLoggingManager implements LoggingManagerInternal, Closeable
     private static class StartableLoggingSystem implements Stoppable {
         private final LoggingSystem loggingSystem;
         private LogLevel level;
-        private LoggingSystem.Snapshot originalState;
+        private final List<LoggingSystem.Snapshot> originalStates = new ArrayList<LoggingSystem.Snapshot>();
 
         private StartableLoggingSystem(LoggingSystem loggingSystem, LogLevel level) {
             this.loggingSystem = loggingSystem;
@@ -203,9 +205,9 @@ public class DefaultLoggingManager implements LoggingManagerInternal, Closeable
 
         public void start() {
             if (level != null) {
-                originalState = loggingSystem.on(level, level);
+                originalStates.add(loggingSystem.on(level, level));
             } else {
-                originalState = loggingSystem.snapshot();
+                originalStates.add(loggingSystem.snapshot());
             }
         }
 
@@ -215,20 +217,21 @@ public class DefaultLoggingManager implements LoggingManagerInternal, Closeable
             }
 
             this.level = logLevel;
-            if (originalState == null) {
+            if (originalStates.isEmpty()) {
                 // Not started, don't apply the changes
                 return;
             }
-            loggingSystem.on(logLevel, logLevel);
+            // Keep each snapshot, so that a logging system that is shared with other managers is handed back every snapshot that it handed out
+            originalStates.add(loggingSystem.on(logLevel, logLevel));
         }
 
         public void stop() {
             try {
-                if (originalState != null) {
-                    loggingSystem.restore(originalState);
+                for (int i = originalStates.size() - 1; i >= 0; i--) {
+                    loggingSystem.restore(originalStates.get(i));
                 }
             } finally {
-                originalState = null;
+                originalStates.clear();
             }
         }
     }
@@ -30,10 +30,10 @@ public class DefaultLoggingManagerFactory implements Factory<LoggingManagerInter
 
     public DefaultLoggingManagerFactory(LoggingConfigurer loggingConfigurer, LoggingOutputInternal loggingOutput, LoggingSystem javaUtilLoggingSystem, LoggingSystem stdOutLoggingSystem, LoggingSystem stdErrLoggingSystem) {
         this.loggingOutput = loggingOutput;
-        this.javaUtilLoggingSystem = javaUtilLoggingSystem;
-        this.stdOutLoggingSystem = stdOutLoggingSystem;
-        this.stdErrLoggingSystem = stdErrLoggingSystem;
-        slfLoggingSystem = new LoggingSystemAdapter(loggingConfigurer);
+        this.javaUtilLoggingSystem = new SharedLoggingSystem(javaUtilLoggingSystem);
+        this.stdOutLoggingSystem = new SharedLoggingSystem(stdOutLoggingSystem);
+        this.stdErrLoggingSystem = new SharedLoggingSystem(stdErrLoggingSystem);
+        slfLoggingSystem = new SharedLoggingSystem(new LoggingSystemAdapter(loggingConfigurer));
         rootManager = newManager();
     }
 
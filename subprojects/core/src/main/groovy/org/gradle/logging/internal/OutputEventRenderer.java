@@ -20,6 +20,7 @@ import org.gradle.api.Action;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.StandardOutputListener;
 import org.gradle.internal.TrueTimeProvider;
+import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.nativeintegration.console.ConsoleMetaData;
 import org.gradle.internal.nativeintegration.console.FallbackConsoleMetaData;
 import org.gradle.internal.event.ListenerBroadcast;
@@ -27,21 +28,36 @@ import org.gradle.logging.ConsoleOutput;
 
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * A {@link org.gradle.logging.internal.OutputEventListener} implementation which renders output events to various
  * destinations. This implementation is thread-safe.
+ *
+ * <p>By default, events are rendered on the thread that produces them. When {@value #ASYNC_RENDERING_PROPERTY} is set, events are rendered to
+ * standard output, standard error and the console by a single rendering thread, and the listeners added using {@link #addOutputEventListener(OutputEventListener)}
+ * are still notified on the thread that produces the event, one event at a time, without holding the lock used for rendering. {@link #flush()} and the
+ * methods that remove a standard output or error listener wait until the events produced so far have been rendered. The rendering thread is stopped
+ * when this renderer is stopped.</p>
  */
 @ThreadSafe
-public class OutputEventRenderer implements OutputEventListener, LoggingConfigurer, LoggingOutputInternal {
+public class OutputEventRenderer implements OutputEventListener, LoggingConfigurer, LoggingOutputInternal, Stoppable {
+    public static final String ASYNC_RENDERING_PROPERTY = "org.gradle.logging.async-rendering";
+    private static final int MAX_QUEUED_EVENTS = 10000;
+
     private final ListenerBroadcast<OutputEventListener> stdOutAndErrorFormatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
-    private final ListenerBroadcast<OutputEventListener> formatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
+    private final ListenerBroadcast<OutputEventListener> consoleFormatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
+    private final List<OutputEventListener> formatters = new CopyOnWriteArrayList<OutputEventListener>();
     private final ListenerBroadcast<StandardOutputListener> stdoutListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
     private final ListenerBroadcast<StandardOutputListener> stderrListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
     private final Object lock = new Object();
+    // Serializes the notifications of the output event listeners when rendering asynchronously, as the listeners are not required to be thread-safe
+    private final Object listenerLock = new Object();
     private final DefaultColorMap colourMap = new DefaultColorMap();
-    private LogLevel logLevel = LogLevel.LIFECYCLE;
+    private volatile LogLevel logLevel = LogLevel.LIFECYCLE;
     private final Action<? super OutputEventRenderer> consoleConfigureAction;
+    private final AsynchronousOutputEventDispatcher asyncDispatcher;
     private OutputStream originalStdOut;
     private OutputStream originalStdErr;
     private StreamBackedStandardOutputListener stdOutListener;
@@ -49,11 +65,20 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     private ConsoleOutput consoleOutput;
 
     public OutputEventRenderer(Action<? super OutputEventRenderer> consoleConfigureAction) {
+        this(consoleConfigureAction, Boolean.getBoolean(ASYNC_RENDERING_PROPERTY));
+    }
+
+    OutputEventRenderer(Action<? super OutputEventRenderer> consoleConfigureAction, boolean asyncRendering) {
         OutputEventListener stdOutChain = onNonError(new ProgressLogEventGenerator(new StyledTextOutputBackedRenderer(new StreamingStyledTextOutput(stdoutListeners.getSource())), false));
         stdOutAndErrorFormatters.add(stdOutChain);
         OutputEventListener stdErrChain = onError(new ProgressLogEventGenerator(new StyledTextOutputBackedRenderer(new StreamingStyledTextOutput(stderrListeners.getSource())), false));
         stdOutAndErrorFormatters.add(stdErrChain);
         this.consoleConfigureAction = consoleConfigureAction;
+        this.asyncDispatcher = asyncRendering ? new AsynchronousOutputEventDispatcher(new OutputEventListener() {
+            public void onOutput(OutputEvent event) {
+                render(event);
+            }
+        }, lock, MAX_QUEUED_EVENTS) : null;
     }
 
     public ColorMap getColourMap() {
@@ -115,6 +140,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void removeStandardOutputAndError() {
+        awaitRendered();
         removeStandardOutputListener();
         removeStandardErrorListener();
     }
@@ -138,15 +164,11 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void addOutputEventListener(OutputEventListener listener) {
-        synchronized (lock) {
-            formatters.add(listener);
-        }
+        formatters.add(listener);
     }
 
     public void removeOutputEventListener(OutputEventListener listener) {
-        synchronized (lock) {
-            formatters.remove(listener);
-        }
+        formatters.remove(listener);
     }
 
     public OutputEventRenderer addConsole(Console console, boolean stdout, boolean stderr, ConsoleMetaData consoleMetaData) {
@@ -158,13 +180,14 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
                 new TrueTimeProvider());
         synchronized (lock) {
             if (stdout && stderr) {
-                formatters.add(consoleChain);
-                removeStandardOutputAndError();
+                consoleFormatters.add(consoleChain);
+                removeStandardOutputListener();
+                removeStandardErrorListener();
             } else if (stdout) {
-                formatters.add(onNonError(consoleChain));
+                consoleFormatters.add(onNonError(consoleChain));
                 removeStandardOutputListener();
             } else {
-                formatters.add(onError(consoleChain));
+                consoleFormatters.add(onError(consoleChain));
                 removeStandardErrorListener();
             }
             consoleChain.onOutput(new LogLevelChangeEvent(logLevel));
@@ -214,12 +237,14 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
 
 
     public void removeStandardOutputListener(StandardOutputListener listener) {
+        awaitRendered();
         synchronized (lock) {
             stdoutListeners.remove(listener);
         }
     }
 
     public void removeStandardErrorListener(StandardOutputListener listener) {
+        awaitRendered();
         synchronized (lock) {
             stderrListeners.remove(listener);
         }
@@ -231,23 +256,74 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
 
     public void flush() {
         onOutput(new FlushToOutputsEvent());
+        awaitRendered();
+    }
+
+    private void awaitRendered() {
+        // The rendering thread needs the lock, so cannot wait while holding it
+        if (asyncDispatcher != null && !Thread.holdsLock(lock)) {
+            asyncDispatcher.awaitRendered();
+        }
     }
 
     public void onOutput(OutputEvent event) {
-        synchronized (lock) {
-            if (event.getLogLevel() != null && event.getLogLevel().compareTo(logLevel) < 0) {
-                return;
+        // Events produced while holding the lock, for example by a listener, are rendered immediately as the rendering thread cannot take the lock
+        if (asyncDispatcher == null || Thread.holdsLock(lock)) {
+            synchronized (lock) {
+                if (accept(event)) {
+                    render(event);
+                    notifyListeners(event);
+                }
             }
-            if (event instanceof LogLevelChangeEvent) {
-                LogLevelChangeEvent changeEvent = (LogLevelChangeEvent) event;
-                LogLevel newLogLevel = changeEvent.getNewLogLevel();
-                if (newLogLevel == this.logLevel) {
+            return;
+        }
+
+        if (event instanceof LogLevelChangeEvent) {
+            synchronized (lock) {
+                if (!accept(event)) {
                     return;
                 }
-                this.logLevel = newLogLevel;
             }
-            stdOutAndErrorFormatters.getSource().onOutput(event);
-            formatters.getSource().onOutput(event);
+        } else if (!accept(event)) {
+            return;
         }
+        if (!formatters.isEmpty()) {
+            synchronized (listenerLock) {
+                notifyListeners(event);
+            }
+        }
+        asyncDispatcher.onOutput(event);
+    }
+
+    private void notifyListeners(OutputEvent event) {
+        for (OutputEventListener listener : formatters) {
+            listener.onOutput(event);
+        }
+    }
+
+    public void stop() {
+        if (asyncDispatcher != null) {
+            asyncDispatcher.stop();
+        }
+    }
+
+    private boolean accept(OutputEvent event) {
+        if (event.getLogLevel() != null && event.getLogLevel().compareTo(logLevel) < 0) {
+            return false;
+        }
+        if (event instanceof LogLevelChangeEvent) {
+            LogLevelChangeEvent changeEvent = (LogLevelChangeEvent) event;
+            LogLevel newLogLevel = changeEvent.getNewLogLevel();
+            if (newLogLevel == this.logLevel) {
+                return false;
+            }
+            this.logLevel = newLogLevel;
+        }
+        return true;
+    }
+
+    private void render(OutputEvent event) {
+        stdOutAndErrorFormatters.getSource().onOutput(event);
+        consoleFormatters.getSource().onOutput(event);
     }
 }
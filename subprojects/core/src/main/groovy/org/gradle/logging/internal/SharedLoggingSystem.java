@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.logging.internal;
+
+import org.gradle.api.logging.LogLevel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link LoggingSystem} that is shared by several logging managers, which may restore their snapshots in a different order to the order in which
+ * they were taken, for example when builds overlap in a daemon.
+ *
+ * <p>Restoring the most recent snapshot restores the state of the target logging system. Restoring an older snapshot leaves the state alone, and instead
+ * hands the snapshot over to the change that was made after it, so that the state is restored once that change is restored as well.</p>
+ */
+public class SharedLoggingSystem implements LoggingSystem {
+    private final LoggingSystem target;
+    private final List<SnapshotImpl> snapshots = new ArrayList<SnapshotImpl>();
+
+    public SharedLoggingSystem(LoggingSystem target) {
+        this.target = target;
+    }
+
+    @Override
+    public synchronized Snapshot snapshot() {
+        return push(target.snapshot());
+    }
+
+    @Override
+    public synchronized Snapshot on(LogLevel minimumLevel, LogLevel defaultLevel) {
+        return push(target.on(minimumLevel, defaultLevel));
+    }
+
+    @Override
+    public synchronized void restore(Snapshot state) {
+        int index = snapshots.indexOf(state);
+        if (index < 0) {
+            // Already restored
+            return;
+        }
+        SnapshotImpl snapshot = snapshots.remove(index);
+        if (index == snapshots.size()) {
+            target.restore(snapshot.state);
+        } else {
+            snapshots.get(index).state = snapshot.state;
+        }
+    }
+
+    private Snapshot push(Snapshot state) {
+        SnapshotImpl snapshot = new SnapshotImpl(state);
+        snapshots.add(snapshot);
+        return snapshot;
+    }
+
+    private static class SnapshotImpl implements Snapshot {
+        private Snapshot state;
+
+        private SnapshotImpl(Snapshot state) {
+            this.state = state;
+        }
+    }
+}
@@ -28,6 +28,7 @@ import org.gradle.internal.serialize.OutputStreamBackedEncoder;
 import org.gradle.messaging.remote.Address;
 import org.gradle.messaging.remote.internal.inet.MultiChoiceAddress;
 import org.gradle.messaging.remote.internal.inet.MultiChoiceAddressSerializer;
+import org.gradle.messaging.remote.internal.inet.SharedMemoryConnection;
 import org.gradle.process.internal.DefaultWorkerProcessBuilder;
 import org.gradle.process.internal.JavaExecHandleBuilder;
 import org.gradle.process.internal.launcher.GradleWorkerMain;
@@ -91,6 +92,11 @@ public class ApplicationClassesInSystemClassLoaderWorkerFactory implements Worke
             execSpec.systemProperty("java.security.manager", "jarjar." + BootstrapSecurityManager.class.getName());
         }
 
+        if (SharedMemoryConnection.isEnabled()) {
+            // The worker needs to accept the offer of shared memory when it connects back to this process
+            execSpec.systemProperty(SharedMemoryConnection.ENABLED_PROPERTY, "true");
+        }
+
         // Serialize configuration for the worker process to it stdin
 
         ByteArrayOutputStream bytes = new ByteArrayOutputStream();
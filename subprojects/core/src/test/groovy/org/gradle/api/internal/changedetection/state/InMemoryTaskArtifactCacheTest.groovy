@@ -133,4 +133,80 @@ class InMemoryTaskArtifactCacheTest extends Specification {
         0 * target._
     }
 
+    def "discards cached results when memory is released"() {
+        given:
+        def cache = cacheFactory.decorate("path/fileSnapshots.bin", "fileSnapshots", target)
+        cache.get("key")
+
+        when:
+        cacheFactory.releaseMemory()
+        def result = cache.get("key")
+
+        then:
+        result == "new result"
+
+        and:
+        1 * target.get("key") >> "new result"
+        0 * target._
+    }
+
+    def "cache continues to write through and remove after memory is released"() {
+        given:
+        def cache = cacheFactory.decorate("path/fileSnapshots.bin", "fileSnapshots", target)
+
+        when:
+        cacheFactory.releaseMemory()
+        cache.put("key", "value")
+        def result = cache.get("key")
+
+        then:
+        result == "value"
+        1 * target.put("key", "value")
+        0 * target._
+
+        when:
+        cache.remove("key")
+        result = cache.get("key")
+
+        then:
+        result == null
+        1 * target.remove("key")
+        0 * target._
+    }
+
+    def "creates new caches with half the maximum size each time memory is released"() {
+        when:
+        cacheFactory.releaseMemory()
+
+        then:
+        cacheFactory.@capDivisor == 2
+
+        when:
+        cacheFactory.releaseMemory()
+
+        then:
+        cacheFactory.@capDivisor == 4
+
+        when:
+        3.times { cacheFactory.releaseMemory() }
+
+        then:
+        cacheFactory.@capDivisor == 8
+    }
+
+    def "creates a new cache for a cache id after memory is released"() {
+        given:
+        def cache = cacheFactory.decorate("path/fileSnapshots.bin", "fileSnapshots", target)
+        cache.get("key")
+
+        when:
+        cacheFactory.releaseMemory()
+        def newCache = cacheFactory.decorate("path/fileSnapshots.bin", "fileSnapshots", target)
+        def result = newCache.get("key")
+
+        then:
+        result == "result"
+        1 * target.get("key") >> "result"
+        0 * target._
+    }
 }
@@ -165,4 +165,52 @@ class DefaultClassLoaderCacheTest extends Specification {
         then:
         cache.size() == 0
     }
+
+    def "discards class loaders when memory is released"() {
+        def root = classLoader(classPath("root"))
+        def f1 = new FilteringClassLoader.Spec(["1"], [], [], [], [], [], [])
+        def loader = cache.get(id1, classPath("c1"), root, null)
+        cache.get(id2, classPath("c1"), root, f1)
+
+        when:
+        cache.releaseMemory()
+
+        then:
+        cache.size() == 0
+        cache.assertInternalIntegrity()
+
+        and:
+        !cache.get(id1, classPath("c1"), root, null).is(loader)
+        cache.size() == 1
+        cache.assertInternalIntegrity()
+    }
+
+    def "class loaders can be requested and removed after memory is released"() {
+        def root = classLoader(classPath("root"))
+        cache.get(id1, classPath("c1"), root, null)
+        cache.get(id2, classPath("c2"), root, null)
+
+        when:
+        cache.releaseMemory()
+        cache.remove(id1)
+
+        then:
+        noExceptionThrown()
+        cache.size() == 0
+
+        when:
+        def loader = cache.get(id2, classPath("c2"), root, null)
+
+        then:
+        cache.get(id2, classPath("c2"), root, null).is(loader)
+        cache.size() == 1
+        cache.assertInternalIntegrity()
+
+        when:
+        cache.remove(id2)
+
+        then:
+        cache.size() == 0
+        cache.assertInternalIntegrity()
+    }
 }
@@ -179,13 +179,16 @@ public class DefaultLoggingManagerTest {
 
         loggingManager.start();
 
+        final LoggingSystem.Snapshot changedStdOutSnapshot = context.mock(LoggingSystem.Snapshot.class);
         context.checking(new Expectations() {{
             one(stdOutLoggingSystem).on(LogLevel.WARN, LogLevel.WARN);
+            will(returnValue(changedStdOutSnapshot));
         }});
 
         loggingManager.captureStandardOutput(LogLevel.WARN);
 
         context.checking(new Expectations() {{
+            one(stdOutLoggingSystem).restore(changedStdOutSnapshot);
             one(stdOutLoggingSystem).restore(stdOutSnapshot);
             one(stdErrLoggingSystem).restore(stdErrSnapshot);
         }});
@@ -206,15 +209,17 @@ public class DefaultLoggingManagerTest {
 
         loggingManager.start();
 
+        final LoggingSystem.Snapshot changedSnapshot = context.mock(LoggingSystem.Snapshot.class);
         context.checking(new Expectations() {{
             ignoring(stdOutLoggingSystem);
             one(loggingSystem).on(LogLevel.LIFECYCLE, LogLevel.LIFECYCLE);
-            will(returnValue(context.mock(LoggingSystem.Snapshot.class)));
+            will(returnValue(changedSnapshot));
         }});
 
         loggingManager.setLevel(LogLevel.LIFECYCLE);
 
         context.checking(new Expectations() {{
+            one(loggingSystem).restore(changedSnapshot);
             one(loggingSystem).restore(snapshot);
         }});
 
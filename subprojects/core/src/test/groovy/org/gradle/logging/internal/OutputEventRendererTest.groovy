@@ -301,16 +301,142 @@ class OutputEventRendererTest extends OutputSpecification {
         outputs.stdOut.readLines() == ['info']
         outputs.stdErr == ''
     }
+
+    def rendersLogEventsOnRenderingThreadWhenAsynchronous() {
+        def renderer = new OutputEventRenderer(consoleConfigureAction, true)
+        def listener = new TestListener()
+
+        when:
+        renderer.configure(LogLevel.INFO)
+        renderer.addStandardOutputListener(listener)
+        renderer.onOutput(event('ignored', LogLevel.DEBUG))
+        (1..100).each { renderer.onOutput(event("message $it", LogLevel.INFO)) }
+        renderer.flush()
+
+        then:
+        listener.value.readLines() == (1..100).collect { "message $it" }
+        listener.threads*.name == ["Output event renderer"]
+    }
+
+    def forwardsOutputEventsToListenerOnProducingThreadWhenAsynchronous() {
+        def renderer = new OutputEventRenderer(consoleConfigureAction, true)
+        OutputEventListener listener = Mock()
+        LogEvent event = event('message', LogLevel.INFO)
+
+        when:
+        renderer.addOutputEventListener(listener)
+        renderer.onOutput(event)
+
+        then:
+        1 * listener.onOutput(event) >> { assert Thread.currentThread().name != "Output event renderer" }
+    }
+
+    def doesNotHoldRenderingLockWhileNotifyingOutputEventListenerWhenAsynchronous() {
+        def renderer = new OutputEventRenderer(consoleConfigureAction, true)
+        OutputEventListener listener = Mock()
+        LogEvent event = event('message', LogLevel.INFO)
+
+        when:
+        renderer.addOutputEventListener(listener)
+        renderer.onOutput(event)
+
+        then:
+        1 * listener.onOutput(event) >> { assert !Thread.holdsLock(renderer.@lock) }
+    }
+
+    def rendersQueuedEventsAndStopsRenderingThreadWhenStopped() {
+        def renderer = new OutputEventRenderer(consoleConfigureAction, true)
+        def listener = new TestListener()
+        renderer.addStandardOutputListener(listener)
+
+        when:
+        (1..100).each { renderer.onOutput(event("message $it", LogLevel.LIFECYCLE)) }
+        renderer.stop()
+
+        then:
+        listener.value.readLines() == (1..100).collect { "message $it" }
+        !renderer.@asyncDispatcher.@thread.alive
+
+        when:
+        renderer.onOutput(event("after stop", LogLevel.LIFECYCLE))
+
+        then:
+        listener.value.readLines().last() == "after stop"
+        listener.threads.contains(Thread.currentThread())
+    }
+
+    def canFlushAndRemoveListenersAfterStopped() {
+        def renderer = new OutputEventRenderer(consoleConfigureAction, true)
+        def listener = new TestListener()
+        def errorListener = new TestListener()
+        renderer.addStandardOutputListener(listener)
+        renderer.addStandardErrorListener(errorListener)
+        renderer.onOutput(event("before stop", LogLevel.LIFECYCLE))
+        renderer.stop()
+
+        when:
+        renderer.onOutput(event("after stop", LogLevel.LIFECYCLE))
+        renderer.flush()
+        renderer.removeStandardOutputListener(listener)
+        renderer.removeStandardErrorListener(errorListener)
+        renderer.onOutput(event("ignored", LogLevel.LIFECYCLE))
+        renderer.onOutput(event("ignored", LogLevel.ERROR))
+        renderer.flush()
+        renderer.removeStandardOutputAndError()
+
+        then:
+        listener.value.readLines() == ["before stop", "after stop"]
+        errorListener.value == ""
+    }
+
+    def rendersPendingEventsBeforeStdOutListenerIsRemovedWhenAsynchronous() {
+        def renderer = new OutputEventRenderer(consoleConfigureAction, true)
+        def listener = new TestListener()
+
+        when:
+        renderer.addStandardOutputListener(listener)
+        renderer.onOutput(event('message', LogLevel.INFO))
+        renderer.removeStandardOutputListener(listener)
+        renderer.onOutput(event('ignored', LogLevel.INFO))
+        renderer.flush()
+
+        then:
+        listener.value.readLines() == ['message']
+    }
+
+    def rendersEventsFromManyThreadsWhenAsynchronous() {
+        def renderer = new OutputEventRenderer(consoleConfigureAction, true)
+        def listener = new TestListener()
+        renderer.addStandardOutputListener(listener)
+
+        when:
+        def threads = (1..8).collect { t ->
+            Thread.start {
+                (1..1000).each { renderer.onOutput(event("$t:$it", LogLevel.LIFECYCLE)) }
+            }
+        }
+        threads*.join()
+        renderer.flush()
+
+        then:
+        def lines = listener.value.readLines()
+        lines.size() == 8000
+        (1..8).each { t ->
+            assert lines.findAll { it.startsWith("$t:") } == (1..1000).collect { "$t:$it" }
+        }
+    }
 }
 
 class TestListener implements StandardOutputListener {
     private final StringWriter writer = new StringWriter();
+    final Set<Thread> threads = new HashSet<Thread>()
 
     def getValue() {
         return writer.toString()
     }
 
     public void onOutput(CharSequence output) {
+        threads.add(Thread.currentThread())
         writer.append(output);
     }
 }
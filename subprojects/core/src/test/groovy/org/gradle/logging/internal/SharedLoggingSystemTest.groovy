@@ -0,0 +1,145 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.logging.internal
+
+import org.gradle.api.logging.LogLevel
+import spock.lang.Specification
+
+class SharedLoggingSystemTest extends Specification {
+    def target = Mock(LoggingSystem)
+    def loggingSystem = new SharedLoggingSystem(target)
+
+    def "restores state when snapshots are restored in reverse order"() {
+        def original = Mock(LoggingSystem.Snapshot)
+        def changed = Mock(LoggingSystem.Snapshot)
+
+        given:
+        target.on(LogLevel.INFO, LogLevel.INFO) >> original
+        target.on(LogLevel.DEBUG, LogLevel.DEBUG) >> changed
+        def snapshot1 = loggingSystem.on(LogLevel.INFO, LogLevel.INFO)
+        def snapshot2 = loggingSystem.on(LogLevel.DEBUG, LogLevel.DEBUG)
+
+        when:
+        loggingSystem.restore(snapshot2)
+
+        then:
+        1 * target.restore(changed)
+        0 * target._
+
+        when:
+        loggingSystem.restore(snapshot1)
+
+        then:
+        1 * target.restore(original)
+        0 * target._
+    }
+
+    def "leaves state alone when an older snapshot is restored before a newer one"() {
+        def original = Mock(LoggingSystem.Snapshot)
+        def changed = Mock(LoggingSystem.Snapshot)
+
+        given:
+        target.snapshot() >> original
+        target.on(LogLevel.DEBUG, LogLevel.DEBUG) >> changed
+        def snapshot1 = loggingSystem.snapshot()
+        def snapshot2 = loggingSystem.on(LogLevel.DEBUG, LogLevel.DEBUG)
+
+        when:
+        loggingSystem.restore(snapshot1)
+
+        then:
+        0 * target._
+
+        when:
+        loggingSystem.restore(snapshot2)
+
+        then:
+        1 * target.restore(original)
+        0 * target._
+    }
+
+    def "hands older snapshot over to the next newer snapshot"() {
+        def original = Mock(LoggingSystem.Snapshot)
+        def first = Mock(LoggingSystem.Snapshot)
+        def second = Mock(LoggingSystem.Snapshot)
+
+        given:
+        target.on(LogLevel.INFO, LogLevel.INFO) >> original
+        target.on(LogLevel.DEBUG, LogLevel.DEBUG) >> first
+        target.on(LogLevel.WARN, LogLevel.WARN) >> second
+        def snapshot1 = loggingSystem.on(LogLevel.INFO, LogLevel.INFO)
+        def snapshot2 = loggingSystem.on(LogLevel.DEBUG, LogLevel.DEBUG)
+        def snapshot3 = loggingSystem.on(LogLevel.WARN, LogLevel.WARN)
+
+        when:
+        loggingSystem.restore(snapshot2)
+        loggingSystem.restore(snapshot1)
+
+        then:
+        0 * target._
+
+        when:
+        loggingSystem.restore(snapshot3)
+
+        then:
+        1 * target.restore(original)
+        0 * target._
+    }
+
+    def "ignores snapshot that has already been restored"() {
+        def original = Mock(LoggingSystem.Snapshot)
+
+        given:
+        target.snapshot() >> original
+        def snapshot = loggingSystem.snapshot()
+        loggingSystem.restore(snapshot)
+
+        when:
+        loggingSystem.restore(snapshot)
+
+        then:
+        0 * target._
+    }
+
+    def "overlapping logging managers do not restore state while the other manager is started"() {
+        def stdout = Mock(LoggingSystem)
+        def original = Mock(LoggingSystem.Snapshot)
+        def sharedStdout = new SharedLoggingSystem(stdout)
+        def noOp = new NoOpLoggingSystem()
+        def manager1 = new DefaultLoggingManager(noOp, noOp, sharedStdout, noOp, Stub(LoggingOutputInternal))
+        def manager2 = new DefaultLoggingManager(noOp, noOp, sharedStdout, noOp, Stub(LoggingOutputInternal))
+        manager1.captureStandardOutput(LogLevel.QUIET)
+        manager2.captureStandardOutput(LogLevel.QUIET)
+
+        given:
+        stdout.on(LogLevel.QUIET, LogLevel.QUIET) >>> [original, Mock(LoggingSystem.Snapshot)]
+        manager1.start()
+        manager2.start()
+
+        when:
+        manager1.stop()
+
+        then:
+        0 * stdout.restore(_)
+
+        when:
+        manager2.stop()
+
+        then:
+        1 * stdout.restore(original)
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.integtests.resolve.artifactreuse
+
+import org.gradle.api.internal.artifacts.ivyservice.ReadOnlyArtifactCache
+import org.gradle.integtests.fixtures.AbstractHttpDependencyResolutionTest
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.maven.MavenHttpModule
+
+class ReadOnlyArtifactCacheIntegrationTest extends AbstractHttpDependencyResolutionTest {
+    MavenHttpModule remoteModule
+    TestFile readOnlyHome
+
+    def setup() {
+        remoteModule = mavenHttpRepo.module('org.test', 'foo', '1.0').publish()
+        buildFile << """
+repositories {
+    maven { url "${mavenHttpRepo.uri}" }
+}
+configurations { compile }
+dependencies {
+    compile 'org.test:foo:1.0'
+}
+task retrieve(type: Sync) {
+    from configurations.compile
+    into 'build'
+}
+"""
+        // Seed the read-only cache from a separate user home
+        readOnlyHome = file('read-only-home')
+        remoteModule.pom.expectGet()
+        remoteModule.artifact.expectGet()
+        executer.withGradleUserHomeDir(readOnlyHome)
+        run 'retrieve'
+        server.resetExpectations()
+    }
+
+    def "uses files from the read-only cache that match the repository checksum"() {
+        given:
+        remoteModule.pom.expectHead()
+        remoteModule.pom.sha1.expectGet()
+        remoteModule.artifact.expectHead()
+        remoteModule.artifact.sha1.expectGet()
+
+        when:
+        runWithReadOnlyCache(readOnlyHome.file('caches'))
+
+        then:
+        file('build/foo-1.0.jar').assertIsCopyOf(remoteModule.artifactFile)
+
+        when:
+        server.resetExpectations()
+        runWithReadOnlyCache(readOnlyHome.file('caches'))
+
+        then:
+        file('build/foo-1.0.jar').assertIsCopyOf(remoteModule.artifactFile)
+    }
+
+    def "downloads files that differ from those in the read-only cache"() {
+        given:
+        remoteModule.publishWithChangedContent()
+        remoteModule.pom.expectHead()
+        remoteModule.pom.sha1.expectGet()
+        remoteModule.pom.expectGet()
+        remoteModule.artifact.expectHead()
+        remoteModule.artifact.sha1.expectGet()
+        remoteModule.artifact.expectGet()
+
+        when:
+        runWithReadOnlyCache(readOnlyHome.file('caches'))
+
+        then:
+        file('build/foo-1.0.jar').assertIsCopyOf(remoteModule.artifactFile)
+    }
+
+    def "ignores read-only cache location without a file store"() {
+        given:
+        remoteModule.pom.expectGet()
+        remoteModule.artifact.expectGet()
+
+        when:
+        runWithReadOnlyCache(file('empty-caches').createDir())
+
+        then:
+        file('build/foo-1.0.jar').assertIsCopyOf(remoteModule.artifactFile)
+    }
+
+    private void runWithReadOnlyCache(File cachesDir) {
+        executer.requireOwnGradleUserHomeDir()
+        executer.withArgument("-D${ReadOnlyArtifactCache.CACHE_DIR_PROPERTY}=${cachesDir}")
+        run 'retrieve'
+    }
+}
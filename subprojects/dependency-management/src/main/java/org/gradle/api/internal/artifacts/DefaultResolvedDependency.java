@@ -22,6 +22,7 @@ import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.ResolvedArtifact;
 import org.gradle.api.artifacts.ResolvedDependency;
 import org.gradle.api.artifacts.ResolvedModuleVersion;
+import org.gradle.internal.Factory;
 
 import java.util.*;
 
@@ -29,6 +30,8 @@ public class DefaultResolvedDependency implements ResolvedDependency {
     private final Set<ResolvedDependency> children = new LinkedHashSet<ResolvedDependency>();
     private final Set<ResolvedDependency> parents = new LinkedHashSet<ResolvedDependency>();
     private final Map<ResolvedDependency, Set<ResolvedArtifact>> parentArtifacts = new LinkedHashMap<ResolvedDependency, Set<ResolvedArtifact>>();
+    // Parent specific artifacts that have not been resolved yet
+    private final Map<ResolvedDependency, List<Factory<Set<ResolvedArtifact>>>> pendingParentArtifacts = new LinkedHashMap<ResolvedDependency, List<Factory<Set<ResolvedArtifact>>>>();
     private final String name;
     private final ResolvedConfigurationIdentifier id;
     private final Set<ResolvedArtifact> moduleArtifacts;
@@ -77,7 +80,10 @@ public class DefaultResolvedDependency implements ResolvedDependency {
         return children;
     }
 
-    public Set<ResolvedArtifact> getModuleArtifacts() {
+    public synchronized Set<ResolvedArtifact> getModuleArtifacts() {
+        while (!pendingParentArtifacts.isEmpty()) {
+            resolvePendingArtifacts(pendingParentArtifacts.keySet().iterator().next());
+        }
         return moduleArtifacts;
     }
 
@@ -97,7 +103,11 @@ public class DefaultResolvedDependency implements ResolvedDependency {
         if (!parents.contains(parent)) {
             throw new InvalidUserDataException("Provided dependency (" + parent + ") must be a parent of: " + this);
         }
-        Set<ResolvedArtifact> artifacts = parentArtifacts.get(parent);
+        Set<ResolvedArtifact> artifacts;
+        synchronized (this) {
+            resolvePendingArtifacts(parent);
+            artifacts = parentArtifacts.get(parent);
+        }
         return artifacts == null ? Collections.<ResolvedArtifact>emptySet() : artifacts;
     }
 
@@ -150,7 +160,28 @@ public class DefaultResolvedDependency implements ResolvedDependency {
         child.parents.add(this);
     }
 
-    public void addParentSpecificArtifacts(ResolvedDependency parent, Set<ResolvedArtifact> artifacts) {
+    /**
+     * Adds artifacts for the given parent that are resolved only when the artifacts of this dependency are queried.
+     */
+    public synchronized void addParentSpecificArtifacts(ResolvedDependency parent, Factory<Set<ResolvedArtifact>> artifacts) {
+        List<Factory<Set<ResolvedArtifact>>> pending = pendingParentArtifacts.get(parent);
+        if (pending == null) {
+            pending = new ArrayList<Factory<Set<ResolvedArtifact>>>();
+            pendingParentArtifacts.put(parent, pending);
+        }
+        pending.add(artifacts);
+    }
+
+    private void resolvePendingArtifacts(ResolvedDependency parent) {
+        List<Factory<Set<ResolvedArtifact>>> pending = pendingParentArtifacts.remove(parent);
+        if (pending != null) {
+            for (Factory<Set<ResolvedArtifact>> artifacts : pending) {
+                addParentSpecificArtifacts(parent, artifacts.create());
+            }
+        }
+    }
+
+    public synchronized void addParentSpecificArtifacts(ResolvedDependency parent, Set<ResolvedArtifact> artifacts) {
         Set<ResolvedArtifact> parentArtifacts = this.parentArtifacts.get(parent);
         if (parentArtifacts == null) {
             parentArtifacts = new TreeSet<ResolvedArtifact>(new ResolvedArtifactComparator());
@@ -160,7 +191,7 @@ public class DefaultResolvedDependency implements ResolvedDependency {
         moduleArtifacts.addAll(artifacts);
     }
 
-    public void addModuleArtifact(ResolvedArtifact artifact) {
+    public synchronized void addModuleArtifact(ResolvedArtifact artifact) {
         moduleArtifacts.add(artifact);
     }
 
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.gradle.api.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+
+/**
+ * A pre-seeded copy of the artifact file store, for example on a volume shared by CI agents, that is used in addition to the writable
+ * file store in the Gradle user home. The copy is never written to and no locks are taken on it, so it must not be modified while builds use it.
+ * A file from the copy is only used in place of a download when its SHA1 matches the checksum published by the repository.
+ *
+ * <p>The location is given by the {@value #CACHE_DIR_PROPERTY} system property, and points to a directory with the same layout as
+ * the {@code caches} directory of a Gradle user home.</p>
+ */
+public class ReadOnlyArtifactCache {
+    public static final String CACHE_DIR_PROPERTY = "org.gradle.cache.readonly";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadOnlyArtifactCache.class);
+
+    private final File fileStoreDirectory;
+
+    public ReadOnlyArtifactCache(@Nullable File cachesDirectory) {
+        File fileStoreDirectory = cachesDirectory == null ? null : CacheLayout.FILE_STORE.getPath(CacheLayout.ROOT.getPath(cachesDirectory));
+        if (fileStoreDirectory != null && !fileStoreDirectory.isDirectory()) {
+            LOGGER.warn("Ignoring read-only artifact cache {} as it does not contain a {} file store.", cachesDirectory, CacheLayout.FILE_STORE.getKey());
+            fileStoreDirectory = null;
+        }
+        this.fileStoreDirectory = fileStoreDirectory;
+    }
+
+    public static ReadOnlyArtifactCache fromSystemProperty() {
+        String cachesDirectory = System.getProperty(CACHE_DIR_PROPERTY);
+        return new ReadOnlyArtifactCache(cachesDirectory == null || cachesDirectory.length() == 0 ? null : new File(cachesDirectory));
+    }
+
+    /**
+     * Returns the root of the read-only file store, or null when there is no read-only cache.
+     */
+    @Nullable
+    public File getFileStoreDirectory() {
+        return fileStoreDirectory;
+    }
+}
@@ -20,6 +20,7 @@ import org.gradle.api.Action;
 import org.gradle.api.Transformer;
 import org.gradle.api.artifacts.ModuleVersionSelector;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
 import org.gradle.internal.component.external.model.ModuleComponentResolveMetaData;
 import org.gradle.internal.component.model.DefaultComponentOverrideMetadata;
@@ -43,10 +44,13 @@ public class DynamicVersionResolver implements DependencyToComponentIdResolver {
     private final List<String> repositoryNames = new ArrayList<String>();
     private final VersionedComponentChooser versionedComponentChooser;
     private final Transformer<ModuleComponentResolveMetaData, RepositoryChainModuleResolution> metaDataFactory;
+    private final RepositoryListingExecutor listingExecutor;
 
-    public DynamicVersionResolver(VersionedComponentChooser versionedComponentChooser, Transformer<ModuleComponentResolveMetaData, RepositoryChainModuleResolution> metaDataFactory) {
+    public DynamicVersionResolver(VersionedComponentChooser versionedComponentChooser, Transformer<ModuleComponentResolveMetaData, RepositoryChainModuleResolution> metaDataFactory,
+                                  RepositoryListingExecutor listingExecutor) {
         this.versionedComponentChooser = versionedComponentChooser;
         this.metaDataFactory = metaDataFactory;
+        this.listingExecutor = listingExecutor;
     }
 
     public void add(ModuleComponentRepository repository) {
@@ -109,6 +113,8 @@ public class DynamicVersionResolver implements DependencyToComponentIdResolver {
     }
 
     private RepositoryChainModuleResolution findLatestModule(LinkedList<RepositoryResolveState> queue, Collection<Throwable> failures, Collection<RepositoryResolveState> missing) {
+        listVersions(queue);
+
         RepositoryChainModuleResolution best = null;
         while (!queue.isEmpty()) {
             RepositoryResolveState request = queue.removeFirst();
@@ -141,6 +147,21 @@ public class DynamicVersionResolver implements DependencyToComponentIdResolver {
         return best;
     }
 
+    /**
+     * Lists the versions for each of the given requests, listing the remote repositories concurrently. The requests are then processed in repository order.
+     */
+    private void listVersions(Collection<RepositoryResolveState> requests) {
+        List<VersionListResult> remoteListings = new ArrayList<VersionListResult>();
+        for (RepositoryResolveState request : requests) {
+            if (request.versionListingResult.prepare()) {
+                remoteListings.add(request.versionListingResult);
+            }
+        }
+        if (remoteListings.size() > 1) {
+            listingExecutor.runAll("List versions of " + requests.iterator().next().selector, remoteListings);
+        }
+    }
+
     private RepositoryChainModuleResolution chooseBest(RepositoryChainModuleResolution one, RepositoryChainModuleResolution two) {
         if (one == null || two == null) {
             return two == null ? one : two;
@@ -320,13 +341,16 @@ public class DynamicVersionResolver implements DependencyToComponentIdResolver {
         }
     }
 
-    private static class VersionListResult {
+    private static class VersionListResult implements Runnable {
         private final DefaultBuildableModuleVersionListingResolveResult result = new DefaultBuildableModuleVersionListingResolveResult();
         private final ModuleComponentRepository repository;
         private final DependencyMetaData dependency;
 
         private boolean searchedLocally;
         private boolean searchedRemotely;
+        private boolean prepared;
+        private boolean remoteListingRequired;
+        private Throwable failure;
 
         public VersionListResult(DependencyMetaData dependency, ModuleComponentRepository repository) {
             this.dependency = dependency;
@@ -334,24 +358,61 @@ public class DynamicVersionResolver implements DependencyToComponentIdResolver {
         }
 
         void resolve() {
-            if (!searchedLocally) {
-                searchedLocally = true;
-                process(dependency, repository.getLocalAccess());
-                if (result.hasResult()) {
-                    if (result.isAuthoritative()) {
-                        // Authoritative result - don't need to try remote
-                        searchedRemotely = true;
+            if (!prepared) {
+                prepare();
+            }
+            prepared = false;
+            if (remoteListingRequired) {
+                run();
+            }
+            if (failure != null) {
+                Throwable t = failure;
+                failure = null;
+                throw UncheckedException.throwAsUncheckedException(t);
+            }
+        }
+
+        /**
+         * Carries out the local part of the next {@link #resolve()}. Returns true when the versions must also be listed remotely, which is done by {@link #run()}.
+         */
+        boolean prepare() {
+            prepared = true;
+            remoteListingRequired = false;
+            try {
+                if (!searchedLocally) {
+                    searchedLocally = true;
+                    process(dependency, repository.getLocalAccess());
+                    if (result.hasResult()) {
+                        if (result.isAuthoritative()) {
+                            // Authoritative result - don't need to try remote
+                            searchedRemotely = true;
+                        }
+                        return false;
                     }
-                    return;
+                    // Otherwise, try remotely
+                }
+                if (!searchedRemotely) {
+                    searchedRemotely = true;
+                    remoteListingRequired = true;
                 }
-                // Otherwise, try remotely
+
+                // Otherwise, just reuse previous result
+            } catch (Throwable t) {
+                failure = t;
             }
-            if (!searchedRemotely) {
-                searchedRemotely = true;
+            return remoteListingRequired;
+        }
+
+        /**
+         * Lists the versions remotely. Any failure is rethrown by {@link #resolve()}.
+         */
+        public void run() {
+            remoteListingRequired = false;
+            try {
                 process(dependency, repository.getRemoteAccess());
+            } catch (Throwable t) {
+                failure = t;
             }
-
-            // Otherwise, just reuse previous result
         }
 
         public boolean canMakeFurtherAttempts() {
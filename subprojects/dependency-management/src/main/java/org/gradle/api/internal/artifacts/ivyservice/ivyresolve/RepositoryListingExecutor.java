@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve;
+
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Runs repository listing operations concurrently, so that the versions of a module can be listed in several remote repositories at the same time.
+ *
+ * <p>The caller is expected to hold the artifact cache lock. The lock is released while the operations run, and each operation takes the lock
+ * again while it accesses the caches. Remote requests made by the operations release the lock, so that only cache access is serialized.</p>
+ */
+public class RepositoryListingExecutor implements Stoppable {
+    public static final String MAX_THREADS_PROPERTY = "org.gradle.internal.repository.max.listing.threads";
+
+    private static final int DEFAULT_MAX_THREADS = 8;
+    private static final ThreadLocal<Boolean> WORKER_THREAD = new ThreadLocal<Boolean>();
+
+    private final ExecutorFactory executorFactory;
+    private final CacheLockingManager cacheLockingManager;
+    private final int maxThreads;
+    private StoppableExecutor executor;
+
+    public RepositoryListingExecutor(ExecutorFactory executorFactory, CacheLockingManager cacheLockingManager) {
+        this(executorFactory, cacheLockingManager, Integer.getInteger(MAX_THREADS_PROPERTY, DEFAULT_MAX_THREADS));
+    }
+
+    RepositoryListingExecutor(ExecutorFactory executorFactory, CacheLockingManager cacheLockingManager, int maxThreads) {
+        this.executorFactory = executorFactory;
+        this.cacheLockingManager = cacheLockingManager;
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * Runs the given operations and waits for them to complete. Rethrows the first failure, after all operations have completed.
+     */
+    public void runAll(final String displayName, final Collection<? extends Runnable> operations) {
+        if (operations.size() < 2 || maxThreads < 2 || WORKER_THREAD.get() != null) {
+            // Not worth handing off, or called from one of the operations: run in this thread
+            for (Runnable operation : operations) {
+                operation.run();
+            }
+            return;
+        }
+
+        final StoppableExecutor executor = getExecutor();
+        cacheLockingManager.longRunningOperation(displayName, new Runnable() {
+            public void run() {
+                List<Future<?>> results = new ArrayList<Future<?>>(operations.size());
+                for (final Runnable operation : operations) {
+                    results.add(executor.submit(new Runnable() {
+                        public void run() {
+                            WORKER_THREAD.set(Boolean.TRUE);
+                            try {
+                                cacheLockingManager.useCache(displayName, operation);
+                            } finally {
+                                WORKER_THREAD.remove();
+                            }
+                        }
+                    }));
+                }
+                waitFor(results);
+            }
+        });
+    }
+
+    private static void waitFor(List<Future<?>> results) {
+        Throwable failure = null;
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        if (failure != null) {
+            throw UncheckedException.throwAsUncheckedException(failure);
+        }
+    }
+
+    private synchronized StoppableExecutor getExecutor() {
+        if (executor == null) {
+            executor = executorFactory.create("repository listing", maxThreads);
+        }
+        return executor;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.stop();
+            executor = null;
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache;
 
 import com.google.common.collect.MapMaker;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionComparator;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.concurrent.Stoppable;
@@ -37,6 +38,12 @@ public class InMemoryCachedRepositoryFactory implements Stoppable {
 
     final InMemoryCacheStats stats = new InMemoryCacheStats();
 
+    private final VersionComparator versionComparator;
+
+    public InMemoryCachedRepositoryFactory(VersionComparator versionComparator) {
+        this.versionComparator = versionComparator;
+    }
+
     public ModuleComponentRepository cached(ModuleComponentRepository input) {
         if ("false".equalsIgnoreCase(System.getProperty(TOGGLE_PROPERTY))) {
             return input;
@@ -46,7 +53,7 @@ public class InMemoryCachedRepositoryFactory implements Stoppable {
         stats.reposWrapped++;
         if (caches == null) {
             LOG.debug("Creating new in-memory cache for repo '{}' [{}].", input.getName(), input.getId());
-            caches = new InMemoryModuleComponentRepositoryCaches(stats);
+            caches = new InMemoryModuleComponentRepositoryCaches(stats, versionComparator);
             stats.cacheInstances++;
             cachePerRepo.put(input.getId(), caches);
         } else {
@@ -18,10 +18,15 @@ package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache;
 
 import org.gradle.api.artifacts.ModuleVersionSelector;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionComparator;
 import org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult;
 import org.gradle.internal.resolve.result.BuildableModuleVersionListingResolveResult;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -31,9 +36,11 @@ class InMemoryMetaDataCache {
     private final Map<ModuleVersionSelector, Set<String>> moduleVersionListing = new HashMap<ModuleVersionSelector, Set<String>>();
     private final Map<ModuleComponentIdentifier, CachedModuleVersionResult> metaData = new HashMap<ModuleComponentIdentifier, CachedModuleVersionResult>();
     private InMemoryCacheStats stats;
+    private final VersionComparator versionComparator;
 
-    InMemoryMetaDataCache(InMemoryCacheStats stats) {
+    InMemoryMetaDataCache(InMemoryCacheStats stats, VersionComparator versionComparator) {
         this.stats = stats;
+        this.versionComparator = versionComparator;
     }
 
     public boolean supplyModuleVersions(ModuleVersionSelector requested, BuildableModuleVersionListingResolveResult result) {
@@ -47,10 +54,19 @@ class InMemoryMetaDataCache {
 
     public void newModuleVersions(ModuleVersionSelector requested, BuildableModuleVersionListingResolveResult result) {
         if (result.getState() == Listed) {
-            moduleVersionListing.put(requested, result.getVersions());
+            moduleVersionListing.put(requested, sortLatestFirst(result.getVersions()));
         }
     }
 
+    /**
+     * Keeps the listing in the order in which versions are considered for selection, so that sorting the cached listing again is cheap.
+     */
+    private Set<String> sortLatestFirst(Set<String> versions) {
+        List<String> sorted = new ArrayList<String>(versions);
+        Collections.sort(sorted, Collections.reverseOrder(versionComparator.asStringComparator()));
+        return new LinkedHashSet<String>(sorted);
+    }
+
     boolean supplyMetaData(ModuleComponentIdentifier requested, BuildableModuleComponentMetaDataResolveResult result) {
         CachedModuleVersionResult fromCache = metaData.get(requested);
         if (fromCache == null) {
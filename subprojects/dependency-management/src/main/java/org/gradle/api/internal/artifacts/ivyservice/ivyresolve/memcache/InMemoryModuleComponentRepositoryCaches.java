@@ -15,6 +15,8 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache;
 
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionComparator;
+
 public class InMemoryModuleComponentRepositoryCaches {
     public final InMemoryMetaDataCache localMetaDataCache;
     public final InMemoryMetaDataCache remoteMetaDataCache;
@@ -22,11 +24,11 @@ public class InMemoryModuleComponentRepositoryCaches {
     public final InMemoryArtifactsCache remoteArtifactsCache;
     public final InMemoryCacheStats stats;
 
-    public InMemoryModuleComponentRepositoryCaches(InMemoryCacheStats stats) {
+    public InMemoryModuleComponentRepositoryCaches(InMemoryCacheStats stats, VersionComparator versionComparator) {
         this(new InMemoryArtifactsCache(stats),
                 new InMemoryArtifactsCache(stats),
-                new InMemoryMetaDataCache(stats),
-                new InMemoryMetaDataCache(stats),
+                new InMemoryMetaDataCache(stats, versionComparator),
+                new InMemoryMetaDataCache(stats, versionComparator),
                 stats);
     }
 
@@ -36,22 +36,27 @@ class StaticVersionComparator implements Comparator<Version> {
 
         String[] parts1 = version1.getParts();
         String[] parts2 = version2.getParts();
+        Long[] numbers1 = version1.getNumericParts();
+        Long[] numbers2 = version2.getNumericParts();
 
         int i = 0;
         for (; i < parts1.length && i < parts2.length; i++) {
             if (parts1[i].equals(parts2[i])) {
                 continue;
             }
-            boolean is1Number = isNumber(parts1[i]);
-            boolean is2Number = isNumber(parts2[i]);
-            if (is1Number && !is2Number) {
+            boolean isNumber1 = isNumber(parts1[i], numbers1[i]);
+            boolean isNumber2 = isNumber(parts2[i], numbers2[i]);
+            if (isNumber1 && !isNumber2) {
                 return 1;
             }
-            if (is2Number && !is1Number) {
+            if (isNumber2 && !isNumber1) {
                 return -1;
             }
-            if (is1Number && is2Number) {
-                return Long.valueOf(parts1[i]).compareTo(Long.valueOf(parts2[i]));
+            if (isNumber1) {
+                if (numbers1[i] != null && numbers2[i] != null) {
+                    return numbers1[i].compareTo(numbers2[i]);
+                }
+                return compareDigits(parts1[i], parts2[i]);
             }
             // both are strings, we compare them taking into account special meaning
             Integer sm1 = SPECIAL_MEANINGS.get(parts1[i].toLowerCase(Locale.US));
@@ -66,16 +71,49 @@ class StaticVersionComparator implements Comparator<Version> {
             return parts1[i].compareTo(parts2[i]);
         }
         if (i < parts1.length) {
-            return isNumber(parts1[i]) ? 1 : -1;
+            return isNumber(parts1[i], numbers1[i]) ? 1 : -1;
         }
         if (i < parts2.length) {
-            return isNumber(parts2[i]) ? -1 : 1;
+            return isNumber(parts2[i], numbers2[i]) ? -1 : 1;
         }
 
         return 0;
     }
 
-    private boolean isNumber(String str) {
-        return str.matches("\\d+");
+    private static boolean isNumber(String part, Long number) {
+        if (number != null) {
+            return true;
+        }
+        // A run of digits that is too large for a Long is still a number
+        if (part.length() == 0) {
+            return false;
+        }
+        for (int i = 0; i < part.length(); i++) {
+            char ch = part.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares two runs of digits by their numeric value, without limiting their size.
+     */
+    private static int compareDigits(String digits1, String digits2) {
+        String significant1 = stripLeadingZeros(digits1);
+        String significant2 = stripLeadingZeros(digits2);
+        if (significant1.length() != significant2.length()) {
+            return significant1.length() - significant2.length();
+        }
+        return significant1.compareTo(significant2);
+    }
+
+    private static String stripLeadingZeros(String digits) {
+        int start = 0;
+        while (start < digits.length() - 1 && digits.charAt(start) == '0') {
+            start++;
+        }
+        return digits.substring(start);
     }
 }
@@ -27,6 +27,11 @@ public interface Version {
      */
     String[] getParts();
 
+    /**
+     * Returns the numeric value of each part of this version, or null for those parts that are not numbers. e.g. 1.2-beta4 returns [1,2,null,4].
+     */
+    Long[] getNumericParts();
+
     /**
      * Returns the base version for this version, which removes any qualifiers. Generally this is the first '.' separated parts of this version.
      * e.g. 1.2.3-beta-4 returns 1.2.3, or 7.0.12beta5 returns 7.0.12.
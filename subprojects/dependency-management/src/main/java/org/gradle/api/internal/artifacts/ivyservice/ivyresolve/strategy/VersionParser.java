@@ -20,10 +20,27 @@ import org.gradle.api.Transformer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Parses version strings. The same version string is usually parsed many times during resolution, for example each time a version listing is sorted,
+ * so the parsed versions are kept for the lifetime of this parser.
+ */
 public class VersionParser implements Transformer<Version, String> {
+    private final ConcurrentMap<String, Version> cache = new ConcurrentHashMap<String, Version>();
+
     @Override
     public Version transform(String original) {
+        Version version = cache.get(original);
+        if (version == null) {
+            version = parse(original);
+            cache.putIfAbsent(original, version);
+        }
+        return version;
+    }
+
+    private Version parse(String original) {
         List<String> parts = new ArrayList<String>();
         boolean digit = false;
         int startPart = 0;
@@ -75,14 +92,37 @@ public class VersionParser implements Transformer<Version, String> {
     private static class DefaultVersion implements Version {
         private final String source;
         private final String[] parts;
+        private final Long[] numericParts;
         private final DefaultVersion baseVersion;
 
         public DefaultVersion(String source, List<String> parts, DefaultVersion baseVersion) {
             this.source = source;
             this.parts = parts.toArray(new String[0]);
+            this.numericParts = new Long[this.parts.length];
+            for (int i = 0; i < this.parts.length; i++) {
+                this.numericParts[i] = parseNumber(this.parts[i]);
+            }
             this.baseVersion = baseVersion == null ? this : baseVersion;
         }
 
+        private static Long parseNumber(String part) {
+            if (part.length() == 0) {
+                return null;
+            }
+            for (int i = 0; i < part.length(); i++) {
+                char ch = part.charAt(i);
+                if (ch < '0' || ch > '9') {
+                    return null;
+                }
+            }
+            try {
+                return Long.valueOf(part);
+            } catch (NumberFormatException e) {
+                // Too large to be a number, so treat it as a string
+                return null;
+            }
+        }
+
         @Override
         public String toString() {
             return source;
@@ -118,5 +158,10 @@ public class VersionParser implements Transformer<Version, String> {
         public String[] getParts() {
             return parts;
         }
+
+        @Override
+        public Long[] getNumericParts() {
+            return numericParts;
+        }
     }
 }
@@ -82,38 +82,30 @@ public class DefaultCachePolicy implements CachePolicy, ResolutionRules {
     }
 
     public void cacheDynamicVersionsFor(final int value, final TimeUnit unit) {
-        eachDependency(new Action<DependencyResolutionControl>() {
-            public void execute(DependencyResolutionControl dependencyResolutionControl) {
-                dependencyResolutionControl.cacheFor(value, unit);
-            }
-        });
+        eachDependency(new CacheDynamicVersionsRule(value, unit));
     }
 
     public void cacheChangingModulesFor(final int value, final TimeUnit units) {
-        eachModule(new Action<ModuleResolutionControl>() {
-            public void execute(ModuleResolutionControl moduleResolutionControl) {
-                if (moduleResolutionControl.isChanging()) {
-                    moduleResolutionControl.cacheFor(value, units);
-                }
-            }
-        });
-        eachArtifact(new Action<ArtifactResolutionControl>() {
-            public void execute(ArtifactResolutionControl artifactResolutionControl) {
-                if (artifactResolutionControl.belongsToChangingModule()) {
-                    artifactResolutionControl.cacheFor(value, units);
-                }
-            }
-        });
+        eachModule(new CacheChangingModulesRule(value, units));
+        eachArtifact(new CacheChangingModuleArtifactsRule(value, units));
     }
 
     private void cacheMissingArtifactsFor(final int value, final TimeUnit units) {
-        eachArtifact(new Action<ArtifactResolutionControl>() {
-            public void execute(ArtifactResolutionControl artifactResolutionControl) {
-                if (artifactResolutionControl.getCachedResult() == null) {
-                    artifactResolutionControl.cacheFor(value, units);
-                }
-            }
-        });
+        eachArtifact(new CacheMissingArtifactsRule(value, units));
+    }
+
+    /**
+     * Returns a value that is equal for policies that apply the same rules. Timeouts set using {@link #cacheDynamicVersionsFor(int, TimeUnit)}
+     * and {@link #cacheChangingModulesFor(int, TimeUnit)} are compared by duration, other rules by identity.
+     */
+    public Object getRulesKey() {
+        List<Object> key = new ArrayList<Object>(dependencyCacheRules.size() + moduleCacheRules.size() + artifactCacheRules.size() + 2);
+        key.addAll(dependencyCacheRules);
+        key.add("modules");
+        key.addAll(moduleCacheRules);
+        key.add("artifacts");
+        key.addAll(artifactCacheRules);
+        return key;
     }
 
     public boolean mustRefreshVersionList(final ModuleIdentifier moduleIdentifier, Set<ModuleVersionIdentifier> matchingVersions, long ageMillis) {
@@ -184,6 +176,80 @@ public class DefaultCachePolicy implements CachePolicy, ResolutionRules {
         return new DefaultCachePolicy(this);
     }
 
+    private abstract static class TimeoutRule {
+        final int value;
+        final TimeUnit units;
+
+        TimeoutRule(int value, TimeUnit units) {
+            this.value = value;
+            this.units = units;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            TimeoutRule other = (TimeoutRule) obj;
+            return units.toMillis(value) == other.units.toMillis(other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            long millis = units.toMillis(value);
+            return getClass().hashCode() ^ (int) (millis ^ (millis >>> 32));
+        }
+    }
+
+    private static class CacheDynamicVersionsRule extends TimeoutRule implements Action<DependencyResolutionControl> {
+        CacheDynamicVersionsRule(int value, TimeUnit units) {
+            super(value, units);
+        }
+
+        public void execute(DependencyResolutionControl dependencyResolutionControl) {
+            dependencyResolutionControl.cacheFor(value, units);
+        }
+    }
+
+    private static class CacheChangingModulesRule extends TimeoutRule implements Action<ModuleResolutionControl> {
+        CacheChangingModulesRule(int value, TimeUnit units) {
+            super(value, units);
+        }
+
+        public void execute(ModuleResolutionControl moduleResolutionControl) {
+            if (moduleResolutionControl.isChanging()) {
+                moduleResolutionControl.cacheFor(value, units);
+            }
+        }
+    }
+
+    private static class CacheChangingModuleArtifactsRule extends TimeoutRule implements Action<ArtifactResolutionControl> {
+        CacheChangingModuleArtifactsRule(int value, TimeUnit units) {
+            super(value, units);
+        }
+
+        public void execute(ArtifactResolutionControl artifactResolutionControl) {
+            if (artifactResolutionControl.belongsToChangingModule()) {
+                artifactResolutionControl.cacheFor(value, units);
+            }
+        }
+    }
+
+    private static class CacheMissingArtifactsRule extends TimeoutRule implements Action<ArtifactResolutionControl> {
+        CacheMissingArtifactsRule(int value, TimeUnit units) {
+            super(value, units);
+        }
+
+        public void execute(ArtifactResolutionControl artifactResolutionControl) {
+            if (artifactResolutionControl.getCachedResult() == null) {
+                artifactResolutionControl.cacheFor(value, units);
+            }
+        }
+    }
+
     private abstract static class AbstractResolutionControl<A, B> implements ResolutionControl<A, B> {
         private final A request;
         private final B cachedResult;
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
+
+import org.gradle.api.internal.artifacts.ArtifactDependencyResolver;
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules;
+import org.gradle.api.internal.artifacts.ResolveContext;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.RecordedDependencyGraph;
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.component.model.ComponentResolveMetaData;
+import org.gradle.internal.concurrent.Stoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shares the dependency graph of configurations that contain only external dependencies, across all configurations of the build that have
+ * identical inputs. The first configuration with a given {@link DependencyGraphFingerprint} resolves the graph, and concurrent resolves
+ * of other configurations with the same fingerprint wait for it and then replay the recorded graph for their own root.
+ */
+public class DeduplicatingArtifactDependencyResolver implements ArtifactDependencyResolver, Stoppable {
+
+    public final static String TOGGLE_PROPERTY = "org.gradle.resolution.sharedgraphs";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeduplicatingArtifactDependencyResolver.class);
+
+    private final ArtifactDependencyResolver resolver;
+    private final ConcurrentMap<DependencyGraphFingerprint, SharedGraph> graphs = new ConcurrentHashMap<DependencyGraphFingerprint, SharedGraph>();
+    private final AtomicInteger eligibleResolves = new AtomicInteger();
+    private final AtomicInteger sharedResolves = new AtomicInteger();
+
+    public DeduplicatingArtifactDependencyResolver(ArtifactDependencyResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    @Override
+    public void resolve(ResolveContext resolveContext, List<? extends ResolutionAwareRepository> repositories, GlobalDependencyResolutionRules metadataHandler,
+                        DependencyGraphVisitor graphVisitor, DependencyArtifactsVisitor artifactsVisitor) {
+        DependencyGraphFingerprint fingerprint = null;
+        if (!"false".equalsIgnoreCase(System.getProperty(TOGGLE_PROPERTY)) && resolveContext instanceof ConfigurationInternal) {
+            fingerprint = DependencyGraphFingerprint.of((ConfigurationInternal) resolveContext, repositories, metadataHandler);
+        }
+        if (fingerprint == null) {
+            resolver.resolve(resolveContext, repositories, metadataHandler, graphVisitor, artifactsVisitor);
+            return;
+        }
+
+        eligibleResolves.incrementAndGet();
+        SharedGraph candidate = new SharedGraph(fingerprint);
+        SharedGraph shared = graphs.putIfAbsent(fingerprint, candidate);
+        if (shared == null) {
+            resolveAndShare(candidate, resolveContext, repositories, metadataHandler, graphVisitor, artifactsVisitor);
+            return;
+        }
+
+        RecordedDependencyGraph graph = shared.await();
+        ComponentResolveMetaData rootComponent = resolveContext.toRootComponentMetaData();
+        if (graph == null || !graph.canReplayFor(rootComponent.getId().getModule())) {
+            resolver.resolve(resolveContext, repositories, metadataHandler, graphVisitor, artifactsVisitor);
+            return;
+        }
+
+        LOGGER.debug("Reusing dependency graph resolved for another configuration to resolve {}", resolveContext);
+        sharedResolves.incrementAndGet();
+        graph.replay(rootComponent, resolveContext.getName(), shared.fingerprint.mapDependenciesTo(fingerprint), graphVisitor, artifactsVisitor);
+    }
+
+    private void resolveAndShare(SharedGraph shared, ResolveContext resolveContext, List<? extends ResolutionAwareRepository> repositories, GlobalDependencyResolutionRules metadataHandler,
+                                 DependencyGraphVisitor graphVisitor, DependencyArtifactsVisitor artifactsVisitor) {
+        RecordedDependencyGraph.Recorder recorder = new RecordedDependencyGraph.Recorder(graphVisitor, artifactsVisitor);
+        RecordedDependencyGraph graph = null;
+        try {
+            resolver.resolve(resolveContext, repositories, metadataHandler, recorder, recorder);
+            graph = recorder.complete();
+        } finally {
+            if (graph == null) {
+                // Let a later configuration with the same inputs try again
+                graphs.remove(shared.fingerprint, shared);
+            }
+            shared.complete(graph);
+        }
+    }
+
+    public void stop() {
+        int eligible = eligibleResolves.getAndSet(0);
+        int shared = sharedResolves.getAndSet(0);
+        if (eligible > 0) {
+            LOGGER.info("Shared dependency graphs: {} of {} external-only configuration resolves reused a graph ({}% hit rate, {} distinct graphs).",
+                shared, eligible, shared * 100 / eligible, graphs.size());
+        }
+        graphs.clear();
+    }
+
+    private static class SharedGraph {
+        private final DependencyGraphFingerprint fingerprint;
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private RecordedDependencyGraph graph;
+
+        SharedGraph(DependencyGraphFingerprint fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        void complete(RecordedDependencyGraph graph) {
+            this.graph = graph;
+            completed.countDown();
+        }
+
+        /**
+         * Waits for the graph to be resolved, and returns it. Returns null when the graph could not be resolved or cannot be shared.
+         */
+        RecordedDependencyGraph await() {
+            try {
+                completed.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            return graph;
+        }
+    }
+}
@@ -37,10 +37,18 @@ import java.util.*;
  * <p>Also, this class attempts to be quite accurate in determining if 2 specs will match exactly the same set of modules. {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphBuilder} uses this to avoid traversing the
  * dependency graph of a particular version that has already been traversed when a new incoming edge is added (eg a newly discovered dependency) and when an incoming edge is removed (eg a conflict
  * evicts a version that depends on the given version). </p>
+ *
+ * <p>The most recent results of union and intersection operations are cached by each spec, and an operation that produces a spec equal to one of its inputs returns that input. This means that the
+ * same combination of exclude rules is usually represented by the same spec instance, so that comparing and combining specs is cheap for graphs with many edges and many exclude rules.
+ * Each cache holds a bounded number of results, so that a spec that lives longer than a single resolution does not retain the specs of every resolution it took part in.</p>
  */
 public abstract class DefaultModuleResolutionFilter implements ModuleResolutionFilter {
     private static final AcceptAllSpec ALL_SPEC = new AcceptAllSpec();
     private static final String WILDCARD = "*";
+    private static final int MAX_CACHED_OPERATIONS = 32;
+
+    private Map<DefaultModuleResolutionFilter, DefaultModuleResolutionFilter> unions;
+    private Map<DefaultModuleResolutionFilter, DefaultModuleResolutionFilter> intersections;
 
     /**
      * Returns a spec that accepts everything.
@@ -83,9 +91,24 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
         if (this == ALL_SPEC) {
             return this;
         }
+        DefaultModuleResolutionFilter otherSpec = (DefaultModuleResolutionFilter) other;
+        synchronized (this) {
+            if (unions == null) {
+                unions = new OperationCache();
+            }
+            DefaultModuleResolutionFilter result = unions.get(otherSpec);
+            if (result == null) {
+                result = canonicalize(calculateUnion(otherSpec), otherSpec);
+                unions.put(otherSpec, result);
+            }
+            return result;
+        }
+    }
+
+    private DefaultModuleResolutionFilter calculateUnion(DefaultModuleResolutionFilter other) {
         List<DefaultModuleResolutionFilter> specs = new ArrayList<DefaultModuleResolutionFilter>();
         unpackUnion(specs);
-        ((DefaultModuleResolutionFilter) other).unpackUnion(specs);
+        other.unpackUnion(specs);
         for (int i = 0; i < specs.size();) {
             DefaultModuleResolutionFilter spec = specs.get(i);
             DefaultModuleResolutionFilter merged = null;
@@ -162,18 +185,54 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
         if (this == ALL_SPEC) {
             return other;
         }
+        DefaultModuleResolutionFilter otherSpec = (DefaultModuleResolutionFilter) other;
+        synchronized (this) {
+            if (intersections == null) {
+                intersections = new OperationCache();
+            }
+            DefaultModuleResolutionFilter result = intersections.get(otherSpec);
+            if (result == null) {
+                List<DefaultModuleResolutionFilter> specs = new ArrayList<DefaultModuleResolutionFilter>();
+                unpackIntersection(specs);
+                otherSpec.unpackIntersection(specs);
+                result = canonicalize(new ExcludeRuleBackedSpec(specs), otherSpec);
+                intersections.put(otherSpec, result);
+            }
+            return result;
+        }
+    }
 
-        List<DefaultModuleResolutionFilter> specs = new ArrayList<DefaultModuleResolutionFilter>();
-        unpackIntersection(specs);
-        ((DefaultModuleResolutionFilter) other).unpackIntersection(specs);
-
-        return new ExcludeRuleBackedSpec(specs);
+    /**
+     * Returns one of the inputs of an operation when the result is equal to it, so that equal specs tend to be the same instance.
+     */
+    private DefaultModuleResolutionFilter canonicalize(DefaultModuleResolutionFilter result, DefaultModuleResolutionFilter other) {
+        if (result.equals(this)) {
+            return this;
+        }
+        if (result.equals(other)) {
+            return other;
+        }
+        return result;
     }
 
     protected void unpackIntersection(Collection<DefaultModuleResolutionFilter> specs) {
         specs.add(this);
     }
 
+    /**
+     * Holds the results of the most recently used operations of a spec.
+     */
+    private static class OperationCache extends LinkedHashMap<DefaultModuleResolutionFilter, DefaultModuleResolutionFilter> {
+        OperationCache() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<DefaultModuleResolutionFilter, DefaultModuleResolutionFilter> eldest) {
+            return size() > MAX_CACHED_OPERATIONS;
+        }
+    }
+
     private static class AcceptAllSpec extends DefaultModuleResolutionFilter {
         @Override
         public String toString() {
@@ -261,6 +320,15 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
     private static class ExcludeRuleBackedSpec extends CompositeSpec {
         private final Set<DefaultModuleResolutionFilter> excludeSpecs = new HashSet<DefaultModuleResolutionFilter>();
 
+        // Index of the exact match rules, so that a module can be checked against any number of them with a few lookups
+        private final Set<String> excludedGroups = new HashSet<String>();
+        private final Set<String> excludedModuleNames = new HashSet<String>();
+        private final Set<ModuleIdentifier> excludedModuleIds = new HashSet<ModuleIdentifier>();
+        private boolean excludesAllModules;
+        private final List<DefaultModuleResolutionFilter> moduleSpecs = new ArrayList<DefaultModuleResolutionFilter>();
+        private final List<DefaultModuleResolutionFilter> artifactSpecs = new ArrayList<DefaultModuleResolutionFilter>();
+        private int hashCode;
+
         private ExcludeRuleBackedSpec(Iterable<ExcludeRule> excludeRules) {
             for (ExcludeRule rule : excludeRules) {
 
@@ -289,10 +357,49 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
                     excludeSpecs.add(new ArtifactExcludeSpec(rule));
                 }
             }
+            index();
         }
 
         public ExcludeRuleBackedSpec(Collection<DefaultModuleResolutionFilter> specs) {
             this.excludeSpecs.addAll(specs);
+            index();
+        }
+
+        private void index() {
+            for (DefaultModuleResolutionFilter excludeSpec : excludeSpecs) {
+                if (excludeSpec instanceof ModuleIdExcludeSpec) {
+                    excludedModuleIds.add(((ModuleIdExcludeSpec) excludeSpec).moduleId);
+                } else if (excludeSpec instanceof ModuleNameExcludeSpec) {
+                    excludedModuleNames.add(((ModuleNameExcludeSpec) excludeSpec).module);
+                } else if (excludeSpec instanceof GroupNameExcludeSpec) {
+                    excludedGroups.add(((GroupNameExcludeSpec) excludeSpec).group);
+                } else if (excludeSpec instanceof ExcludeAllModulesSpec) {
+                    excludesAllModules = true;
+                } else if (!excludeSpec.acceptsAllModules()) {
+                    moduleSpecs.add(excludeSpec);
+                }
+                if (!excludeSpec.acceptsAllArtifacts()) {
+                    artifactSpecs.add(excludeSpec);
+                }
+            }
+            hashCode = excludeSpecs.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            ExcludeRuleBackedSpec other = (ExcludeRuleBackedSpec) obj;
+            return hashCode == other.hashCode && excludeSpecs.equals(other.excludeSpecs);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
         }
 
         @Override
@@ -307,16 +414,23 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
 
         @Override
         protected boolean acceptsAllModules() {
-            for (DefaultModuleResolutionFilter excludeSpec : excludeSpecs) {
-                if (!excludeSpec.acceptsAllModules()) {
-                    return false;
-                }
-            }
-            return true;
+            return !excludesAllModules && excludedGroups.isEmpty() && excludedModuleNames.isEmpty() && excludedModuleIds.isEmpty() && moduleSpecs.isEmpty();
         }
 
         public boolean acceptModule(ModuleIdentifier element) {
-            for (DefaultModuleResolutionFilter excludeSpec : excludeSpecs) {
+            if (excludesAllModules) {
+                return false;
+            }
+            if (!excludedGroups.isEmpty() && excludedGroups.contains(element.getGroup())) {
+                return false;
+            }
+            if (!excludedModuleNames.isEmpty() && excludedModuleNames.contains(element.getName())) {
+                return false;
+            }
+            if (!excludedModuleIds.isEmpty() && excludedModuleIds.contains(element)) {
+                return false;
+            }
+            for (DefaultModuleResolutionFilter excludeSpec : moduleSpecs) {
                 if (!excludeSpec.acceptModule(element)) {
                     return false;
                 }
@@ -325,7 +439,7 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
         }
 
         public boolean acceptArtifact(ModuleIdentifier module, IvyArtifactName artifact) {
-            for (DefaultModuleResolutionFilter excludeSpec : excludeSpecs) {
+            for (DefaultModuleResolutionFilter excludeSpec : artifactSpecs) {
                 if (!excludeSpec.acceptArtifact(module, artifact)) {
                     return false;
                 }
@@ -334,13 +448,7 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
         }
 
         public boolean acceptsAllArtifacts() {
-            for (DefaultModuleResolutionFilter spec : excludeSpecs) {
-                if (!spec.acceptsAllArtifacts()) {
-                    return false;
-                }
-            }
-
-            return true;
+            return artifactSpecs.isEmpty();
         }
 
         @Override
@@ -451,9 +559,16 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
 
     private static class UnionSpec extends CompositeSpec {
         private final List<DefaultModuleResolutionFilter> specs;
+        private final int hashCode;
 
         public UnionSpec(List<DefaultModuleResolutionFilter> specs) {
             this.specs = specs;
+            this.hashCode = specs.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
         }
 
         @Override
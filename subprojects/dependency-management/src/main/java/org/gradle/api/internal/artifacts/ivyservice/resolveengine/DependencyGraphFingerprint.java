@@ -0,0 +1,212 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.artifacts.*;
+import org.gradle.api.artifacts.repositories.FlatDirectoryArtifactRepository;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.artifacts.repositories.PasswordCredentials;
+import org.gradle.api.credentials.AwsCredentials;
+import org.gradle.api.credentials.Credentials;
+import org.gradle.api.internal.artifacts.ComponentMetadataProcessor;
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy;
+import org.gradle.api.internal.artifacts.dsl.ComponentModuleMetadataContainer;
+import org.gradle.api.internal.artifacts.dsl.DefaultComponentMetadataHandler;
+import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData;
+import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.DefaultCachePolicy;
+import org.gradle.api.internal.artifacts.repositories.AbstractAuthenticationSupportedRepository;
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.authentication.Authentication;
+import org.gradle.internal.hash.HashUtil;
+
+import java.util.*;
+
+/**
+ * The inputs of a dependency graph that contains only external modules, independent of the project that owns the root configuration.
+ * Two configurations with equal fingerprints resolve to the same graph, apart from the root.
+ */
+class DependencyGraphFingerprint {
+    private final List<Object> inputs;
+    private final List<ModuleDependency> dependencies;
+    private final int hashCode;
+
+    private DependencyGraphFingerprint(List<Object> inputs, List<ModuleDependency> dependencies) {
+        this.inputs = inputs;
+        this.dependencies = dependencies;
+        this.hashCode = inputs.hashCode();
+    }
+
+    /**
+     * Calculates the fingerprint of the given configuration, or returns null when its graph may depend on more than the inputs captured by the fingerprint.
+     */
+    @Nullable
+    static DependencyGraphFingerprint of(ConfigurationInternal configuration, List<? extends ResolutionAwareRepository> repositories, GlobalDependencyResolutionRules metadataHandler) {
+        List<Object> inputs = new ArrayList<Object>();
+        List<ModuleDependency> dependencies = new ArrayList<ModuleDependency>();
+
+        for (Configuration current : configuration.getHierarchy()) {
+            inputs.add("configuration " + current.getName() + " transitive=" + current.isTransitive());
+            addExcludeRules(current.getExcludeRules(), inputs);
+            for (Dependency dependency : current.getDependencies()) {
+                if (!(dependency instanceof ExternalModuleDependency) || dependency instanceof ClientModule) {
+                    return null;
+                }
+                ExternalModuleDependency moduleDependency = (ExternalModuleDependency) dependency;
+                addDependency(moduleDependency, inputs);
+                dependencies.add(moduleDependency);
+            }
+        }
+
+        ResolutionStrategyInternal resolutionStrategy = configuration.getResolutionStrategy();
+        if (resolutionStrategy.getDependencySubstitution().hasDependencySubstitutionRules() || !resolutionStrategy.getComponentSelection().getRules().isEmpty()) {
+            return null;
+        }
+        inputs.add("conflict resolution " + resolutionStrategy.getConflictResolution().getClass().getName());
+        List<String> forcedModules = new ArrayList<String>();
+        for (ModuleVersionSelector forcedModule : resolutionStrategy.getForcedModules()) {
+            forcedModules.add(forcedModule.getGroup() + ":" + forcedModule.getName() + ":" + forcedModule.getVersion());
+        }
+        Collections.sort(forcedModules);
+        inputs.add("forced " + forcedModules);
+        CachePolicy cachePolicy = resolutionStrategy.getCachePolicy();
+        if (!(cachePolicy instanceof DefaultCachePolicy)) {
+            return null;
+        }
+        inputs.add(((DefaultCachePolicy) cachePolicy).getRulesKey());
+
+        for (ResolutionAwareRepository repository : repositories) {
+            inputs.add(repositoryKey(repository));
+        }
+
+        // Rules are arbitrary code, so configurations only share a graph when they share the rules
+        ComponentMetadataProcessor metadataProcessor = metadataHandler.getComponentMetadataProcessor();
+        if (metadataProcessor != ComponentMetadataProcessor.NO_OP
+            && !(metadataProcessor instanceof DefaultComponentMetadataHandler && !((DefaultComponentMetadataHandler) metadataProcessor).hasRules())) {
+            inputs.add(metadataProcessor);
+        }
+        ModuleReplacementsData moduleReplacements = metadataHandler.getModuleMetadataProcessor().getModuleReplacements();
+        if (moduleReplacements != ModuleReplacementsData.NO_OP
+            && !(moduleReplacements instanceof ComponentModuleMetadataContainer && !((ComponentModuleMetadataContainer) moduleReplacements).hasReplacements())) {
+            inputs.add(moduleReplacements);
+        }
+
+        return new DependencyGraphFingerprint(inputs, dependencies);
+    }
+
+    private static String repositoryKey(ResolutionAwareRepository repository) {
+        return locationKey(repository) + credentialsKey(repository);
+    }
+
+    private static String locationKey(ResolutionAwareRepository repository) {
+        // Creating a resolver also creates the transport of the repository, so use the configuration of the common repository types instead
+        if (repository instanceof MavenArtifactRepository) {
+            MavenArtifactRepository mavenRepository = (MavenArtifactRepository) repository;
+            return "repository " + repository.getClass().getName() + " " + mavenRepository.getUrl() + " " + mavenRepository.getArtifactUrls();
+        }
+        if (repository instanceof FlatDirectoryArtifactRepository) {
+            return "repository " + repository.getClass().getName() + " " + ((FlatDirectoryArtifactRepository) repository).getDirs();
+        }
+        return "repository " + repository.createResolver().getId();
+    }
+
+    // Repositories that use different credentials may not see the same modules
+    private static String credentialsKey(ResolutionAwareRepository repository) {
+        if (!(repository instanceof AbstractAuthenticationSupportedRepository)) {
+            return "";
+        }
+        AbstractAuthenticationSupportedRepository authenticationSupported = (AbstractAuthenticationSupportedRepository) repository;
+        StringBuilder key = new StringBuilder();
+        Credentials credentials = authenticationSupported.getConfiguredCredentials();
+        if (credentials instanceof PasswordCredentials) {
+            PasswordCredentials passwordCredentials = (PasswordCredentials) credentials;
+            key.append(" credentials ").append(passwordCredentials.getUsername()).append(":").append(secretKey(passwordCredentials.getPassword()));
+        } else if (credentials instanceof AwsCredentials) {
+            AwsCredentials awsCredentials = (AwsCredentials) credentials;
+            key.append(" credentials ").append(awsCredentials.getAccessKey()).append(":").append(secretKey(awsCredentials.getSecretKey()));
+        } else if (credentials != null) {
+            key.append(" credentials ").append(credentials.getClass().getName()).append("@").append(System.identityHashCode(credentials));
+        }
+        List<String> authentications = new ArrayList<String>();
+        for (Authentication authentication : authenticationSupported.getAuthentication()) {
+            authentications.add(authentication.getName());
+        }
+        Collections.sort(authentications);
+        if (!authentications.isEmpty()) {
+            key.append(" authentication ").append(authentications);
+        }
+        return key.toString();
+    }
+
+    // Only a hash of a secret is kept in the fingerprint
+    private static String secretKey(@Nullable String secret) {
+        return secret == null ? "null" : HashUtil.createHash(secret, "SHA1").asHexString();
+    }
+
+    private static void addDependency(ExternalModuleDependency dependency, List<Object> inputs) {
+        inputs.add("dependency " + dependency.getGroup() + ":" + dependency.getName() + ":" + dependency.getVersion()
+            + " configuration=" + dependency.getConfiguration()
+            + " transitive=" + dependency.isTransitive()
+            + " force=" + dependency.isForce()
+            + " changing=" + dependency.isChanging());
+        addExcludeRules(dependency.getExcludeRules(), inputs);
+        for (DependencyArtifact artifact : dependency.getArtifacts()) {
+            inputs.add("artifact " + artifact.getName() + ":" + artifact.getType() + ":" + artifact.getExtension() + ":" + artifact.getClassifier() + ":" + artifact.getUrl());
+        }
+    }
+
+    private static void addExcludeRules(Set<ExcludeRule> excludeRules, List<Object> inputs) {
+        // The order of the rules does not affect the graph
+        List<String> rules = new ArrayList<String>(excludeRules.size());
+        for (ExcludeRule excludeRule : excludeRules) {
+            rules.add("exclude " + excludeRule.getGroup() + ":" + excludeRule.getModule());
+        }
+        Collections.sort(rules);
+        inputs.addAll(rules);
+    }
+
+    /**
+     * Maps each dependency that contributed to this fingerprint to the corresponding dependency of the given, equal, fingerprint.
+     */
+    Map<ModuleDependency, ModuleDependency> mapDependenciesTo(DependencyGraphFingerprint other) {
+        Map<ModuleDependency, ModuleDependency> mapping = new IdentityHashMap<ModuleDependency, ModuleDependency>();
+        for (int i = 0; i < dependencies.size(); i++) {
+            mapping.put(dependencies.get(i), other.dependencies.get(i));
+        }
+        return mapping;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        DependencyGraphFingerprint other = (DependencyGraphFingerprint) obj;
+        return hashCode == other.hashCode && inputs.equals(other.inputs);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
@@ -24,16 +24,24 @@ import org.gradle.api.internal.artifacts.ivyservice.dynamicversions.DefaultResol
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ModuleResolutionFilter;
 import org.gradle.internal.Factory;
 import org.gradle.internal.component.model.ComponentArtifactMetaData;
+import org.gradle.internal.component.model.ComponentResolveMetaData;
+import org.gradle.internal.component.model.ComponentUsage;
 import org.gradle.internal.component.model.IvyArtifactName;
 import org.gradle.internal.component.model.ModuleSource;
 import org.gradle.internal.resolve.resolver.ArtifactResolver;
+import org.gradle.internal.resolve.result.BuildableArtifactSetResolveResult;
 import org.gradle.internal.resolve.result.DefaultBuildableArtifactResolveResult;
+import org.gradle.internal.resolve.result.DefaultBuildableArtifactSetResolveResult;
 
 import java.io.File;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * The artifacts of a component that are selected by a dependency. The artifacts of the component are only resolved when they are first requested, so that
+ * resolving the dependency graph does not require the artifact meta-data of every component in the graph.
+ */
 public class DefaultArtifactSet implements ArtifactSet {
     private final ModuleVersionIdentifier moduleVersionIdentifier;
     private final ModuleSource moduleSource;
@@ -41,7 +49,10 @@ public class DefaultArtifactSet implements ArtifactSet {
     private final ArtifactResolver artifactResolver;
     private final Map<ComponentArtifactIdentifier, ResolvedArtifact> allResolvedArtifacts;
     private final long id;
-    private final Set<ComponentArtifactMetaData> artifacts;
+    private ComponentResolveMetaData component;
+    private ComponentUsage usage;
+    private Set<ComponentArtifactMetaData> artifacts;
+    private Set<ResolvedArtifact> resolvedArtifacts;
 
     public DefaultArtifactSet(ModuleVersionIdentifier ownerId, ModuleSource moduleSource, ModuleResolutionFilter selector, Set<ComponentArtifactMetaData> artifacts,
                               ArtifactResolver artifactResolver, Map<ComponentArtifactIdentifier, ResolvedArtifact> allResolvedArtifacts, long id) {
@@ -54,11 +65,35 @@ public class DefaultArtifactSet implements ArtifactSet {
         this.id = id;
     }
 
+    /**
+     * Creates a set containing the artifacts of the given component usage, which are resolved when the set is first queried.
+     */
+    public DefaultArtifactSet(ComponentResolveMetaData component, ComponentUsage usage, ModuleResolutionFilter selector,
+                              ArtifactResolver artifactResolver, Map<ComponentArtifactIdentifier, ResolvedArtifact> allResolvedArtifacts, long id) {
+        this(component.getId(), component.getSource(), selector, null, artifactResolver, allResolvedArtifacts, id);
+        this.component = component;
+        this.usage = usage;
+    }
+
     public long getId() {
         return id;
     }
 
-    public Set<ResolvedArtifact> getArtifacts() {
+    public synchronized Set<ResolvedArtifact> getArtifacts() {
+        if (resolvedArtifacts == null) {
+            resolvedArtifacts = resolveArtifacts();
+        }
+        return resolvedArtifacts;
+    }
+
+    private Set<ResolvedArtifact> resolveArtifacts() {
+        if (artifacts == null) {
+            BuildableArtifactSetResolveResult result = new DefaultBuildableArtifactSetResolveResult();
+            artifactResolver.resolveModuleArtifacts(component, usage, result);
+            artifacts = result.getArtifacts();
+            // Release the meta-data, as it is no longer required
+            component = null;
+        }
         Set<ResolvedArtifact> resolvedArtifacts = new LinkedHashSet<ResolvedArtifact>(artifacts.size());
         for (ComponentArtifactMetaData artifact : artifacts) {
             IvyArtifactName artifactName = artifact.getName();
@@ -66,11 +101,14 @@ public class DefaultArtifactSet implements ArtifactSet {
                 continue;
             }
 
-            ResolvedArtifact resolvedArtifact = allResolvedArtifacts.get(artifact.getId());
-            if (resolvedArtifact == null) {
-                Factory<File> artifactSource = new LazyArtifactSource(artifact, moduleSource, artifactResolver);
-                resolvedArtifact = new DefaultResolvedArtifact(new DefaultResolvedModuleVersion(moduleVersionIdentifier), artifactName, artifact.getId(), artifactSource);
-                allResolvedArtifacts.put(artifact.getId(), resolvedArtifact);
+            ResolvedArtifact resolvedArtifact;
+            synchronized (allResolvedArtifacts) {
+                resolvedArtifact = allResolvedArtifacts.get(artifact.getId());
+                if (resolvedArtifact == null) {
+                    Factory<File> artifactSource = new LazyArtifactSource(artifact, moduleSource, artifactResolver);
+                    resolvedArtifact = new DefaultResolvedArtifact(new DefaultResolvedModuleVersion(moduleVersionIdentifier), artifactName, artifact.getId(), artifactSource);
+                    allResolvedArtifacts.put(artifact.getId(), resolvedArtifact);
+                }
             }
             resolvedArtifacts.add(resolvedArtifact);
         }
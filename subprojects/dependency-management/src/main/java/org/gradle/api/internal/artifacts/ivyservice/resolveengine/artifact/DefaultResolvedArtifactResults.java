@@ -24,25 +24,44 @@ import java.util.Set;
 import static com.google.common.collect.Maps.newLinkedHashMap;
 import static com.google.common.collect.Sets.newLinkedHashSet;
 
+/**
+ * Holds the artifact sets of a resolved graph. The artifacts of each set are resolved when they are first requested, so that a graph can be
+ * resolved and traversed without resolving the artifacts of its components.
+ */
 public class DefaultResolvedArtifactResults implements ResolvedArtifactResults {
     // Transient state: held between resolving graph and resolving actual artifacts
     private Map<Long, ArtifactSet> artifactSets = newLinkedHashMap();
+    private boolean resolved;
 
     // Artifact State : held for the life of a build
     private Set<ResolvedArtifact> artifacts;
-    private Map<Long, Set<ResolvedArtifact>> resolvedArtifactsById;
+    private final Map<Long, Set<ResolvedArtifact>> resolvedArtifactsById = newLinkedHashMap();
 
     @Override
-    public Set<ResolvedArtifact> getArtifacts() {
+    public synchronized Set<ResolvedArtifact> getArtifacts() {
         assertArtifactsResolved();
+        if (artifacts == null) {
+            artifacts = newLinkedHashSet();
+            for (Long id : artifactSets.keySet()) {
+                artifacts.addAll(getArtifacts(id));
+            }
+
+            // Release ResolvedArtifactSet instances so we're not holding onto state
+            artifactSets = null;
+        }
         return newLinkedHashSet(artifacts);
     }
 
     @Override
-    public Set<ResolvedArtifact> getArtifacts(long id) {
+    public synchronized Set<ResolvedArtifact> getArtifacts(long id) {
         assertArtifactsResolved();
         Set<ResolvedArtifact> a = resolvedArtifactsById.get(id);
-        assert a != null : "Unable to find artifacts for id: " + id;
+        if (a == null) {
+            ArtifactSet artifactSet = artifactSets == null ? null : artifactSets.get(id);
+            assert artifactSet != null : "Unable to find artifacts for id: " + id;
+            a = artifactSet.getArtifacts();
+            resolvedArtifactsById.put(id, a);
+        }
         return a;
     }
 
@@ -50,23 +69,15 @@ public class DefaultResolvedArtifactResults implements ResolvedArtifactResults {
         artifactSets.put(artifactSet.getId(), artifactSet);
     }
 
-    public void resolveNow() {
-        if (artifacts == null) {
-            artifacts = newLinkedHashSet();
-            resolvedArtifactsById = newLinkedHashMap();
-            for (Map.Entry<Long, ArtifactSet> entry : artifactSets.entrySet()) {
-                Set<ResolvedArtifact> resolvedArtifacts = entry.getValue().getArtifacts();
-                artifacts.addAll(resolvedArtifacts);
-                resolvedArtifactsById.put(entry.getKey(), resolvedArtifacts);
-            }
-
-            // Release ResolvedArtifactSet instances so we're not holding onto state
-            artifactSets = null;
-        }
+    /**
+     * Allows the artifacts to be queried. The artifacts of each set are resolved on demand.
+     */
+    public synchronized void resolveNow() {
+        resolved = true;
     }
 
     private void assertArtifactsResolved() {
-        if (artifacts == null) {
+        if (!resolved) {
             throw new IllegalStateException("Cannot access artifacts before they are explicitly resolved.");
         }
     }
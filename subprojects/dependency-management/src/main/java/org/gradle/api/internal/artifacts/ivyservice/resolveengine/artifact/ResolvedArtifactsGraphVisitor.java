@@ -31,8 +31,6 @@ import org.gradle.internal.component.model.DefaultComponentUsage;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.internal.id.LongIdGenerator;
 import org.gradle.internal.resolve.resolver.ArtifactResolver;
-import org.gradle.internal.resolve.result.BuildableArtifactSetResolveResult;
-import org.gradle.internal.resolve.result.DefaultBuildableArtifactSetResolveResult;
 
 import java.util.Map;
 import java.util.Set;
@@ -72,7 +70,6 @@ public class ResolvedArtifactsGraphVisitor implements DependencyGraphVisitor {
 
     public void finish(DependencyGraphNode root) {
         artifactResults.finishArtifacts();
-        allResolvedArtifacts.clear();
         artifactSetsByConfiguration.clear();
     }
 
@@ -89,9 +86,8 @@ public class ResolvedArtifactsGraphVisitor implements DependencyGraphVisitor {
 
         ArtifactSet configurationArtifactSet = artifactSetsByConfiguration.get(configurationIdentifier);
         if (configurationArtifactSet == null) {
-            artifacts = doResolve(component, configurationIdentifier);
-
-            configurationArtifactSet = new DefaultArtifactSet(component.getId(), component.getSource(), dependency.getSelector(), artifacts, artifactResolver, allResolvedArtifacts, id);
+            // The artifacts of the configuration are resolved when the set is first used
+            configurationArtifactSet = new DefaultArtifactSet(component, new DefaultComponentUsage(configurationIdentifier.getConfiguration()), dependency.getSelector(), artifactResolver, allResolvedArtifacts, id);
 
             // Only share an ArtifactSet if the artifacts are not filtered by the dependency
             if (dependency.getSelector().acceptsAllArtifacts()) {
@@ -101,12 +97,4 @@ public class ResolvedArtifactsGraphVisitor implements DependencyGraphVisitor {
 
         return configurationArtifactSet;
     }
-
-
-    private Set<ComponentArtifactMetaData> doResolve(ComponentResolveMetaData component, ResolvedConfigurationIdentifier configurationId) {
-        BuildableArtifactSetResolveResult result = new DefaultBuildableArtifactSetResolveResult();
-        artifactResolver.resolveModuleArtifacts(component, new DefaultComponentUsage(configurationId.getConfiguration()), result);
-        return result.getArtifacts();
-    }
-
 }
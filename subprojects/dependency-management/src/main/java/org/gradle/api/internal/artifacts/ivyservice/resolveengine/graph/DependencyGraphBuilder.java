@@ -118,17 +118,12 @@ public class DependencyGraphBuilder {
                             // We have a conflict
                             LOGGER.debug("Found new conflicting module version {}", moduleRevision);
 
-                            // Deselect the currently selected version, and remove all outgoing edges from the version
-                            // This will propagate through the graph and prune configurations that are no longer required
-                            // For each module participating in the conflict (many times there is only one participating module that has multiple versions)
+                            // Deselect the currently selected version of each module participating in the conflict (many times there is only one participating
+                            // module that has multiple versions). The outgoing edges of the version are kept until the conflict is resolved, so that they do not
+                            // need to be traversed again when the version is selected again
                             c.withParticipatingModules(new Action<ModuleIdentifier>() {
                                 public void execute(ModuleIdentifier module) {
-                                    ModuleVersionResolveState previouslySelected = resolveState.getModule(module).clearSelection();
-                                    if (previouslySelected != null) {
-                                        for (ConfigurationNode configuration : previouslySelected.configurations) {
-                                            configuration.deselect();
-                                        }
-                                    }
+                                    resolveState.getModule(module).clearSelection();
                                 }
                             });
                         }
@@ -189,6 +184,7 @@ public class DependencyGraphBuilder {
         private final ModuleResolutionFilter resolutionFilter;
         private final Set<ConfigurationNode> targetConfigurations = new LinkedHashSet<ConfigurationNode>();
         private ModuleVersionResolveState targetModuleRevision;
+        private ModuleResolutionFilter selectorFilter;
 
         public DependencyEdge(ConfigurationNode from, DependencyMetaData dependencyMetaData, ModuleResolutionFilter resolutionFilter, ResolveState resolveState) {
             this.from = from;
@@ -267,9 +263,13 @@ public class DependencyGraphBuilder {
         }
 
         public ModuleResolutionFilter getSelector() {
-            Set<String> hierarchy = from.metaData.getHierarchy();
-            ModuleResolutionFilter selector = DefaultModuleResolutionFilter.excludeAny(dependencyMetaData.getExcludeRules(hierarchy));
-            return selector.intersect(resolutionFilter);
+            // The filter only depends on final state of this edge, and is requested each time the target configuration is traversed
+            if (selectorFilter == null) {
+                Set<String> hierarchy = from.metaData.getHierarchy();
+                ModuleResolutionFilter selector = DefaultModuleResolutionFilter.excludeAny(dependencyMetaData.getExcludeRules(hierarchy));
+                selectorFilter = selector.intersect(resolutionFilter);
+            }
+            return selectorFilter;
         }
 
         public ComponentSelector getRequested() {
@@ -415,8 +415,10 @@ public class DependencyGraphBuilder {
         final Set<DependencyEdge> unattachedDependencies = new LinkedHashSet<DependencyEdge>();
         final Map<ModuleVersionIdentifier, ModuleVersionResolveState> versions = new LinkedHashMap<ModuleVersionIdentifier, ModuleVersionResolveState>();
         final Set<ModuleVersionSelectorResolveState> selectors = new HashSet<ModuleVersionSelectorResolveState>();
+        final Set<ConfigurationNode> waitingConfigurations = new LinkedHashSet<ConfigurationNode>();
         final ResolveState resolveState;
         ModuleVersionResolveState selected;
+        ModuleVersionResolveState previouslySelected;
 
         private ModuleResolveState(ModuleIdentifier id, ResolveState resolveState, ComponentMetaDataResolver metaDataResolver) {
             this.id = id;
@@ -446,16 +448,25 @@ public class DependencyGraphBuilder {
             selected.state = ModuleState.Selected;
         }
 
-        public ModuleVersionResolveState clearSelection() {
-            ModuleVersionResolveState previousSelection = selected;
+        public void clearSelection() {
+            if (selected != null) {
+                previouslySelected = selected;
+            }
             selected = null;
             for (ModuleVersionResolveState version : versions.values()) {
                 version.state = ModuleState.Conflict;
             }
-            return previousSelection;
         }
 
         public void restart(ModuleVersionResolveState selected) {
+            if (previouslySelected != null && previouslySelected != selected) {
+                // The version selected before the conflict is evicted, so remove all outgoing edges from the version
+                // This will propagate through the graph and prune configurations that are no longer required
+                for (ConfigurationNode configuration : previouslySelected.configurations) {
+                    configuration.deselect();
+                }
+            }
+            previouslySelected = null;
             select(selected);
             for (ModuleVersionResolveState version : versions.values()) {
                 version.restart(selected);
@@ -467,6 +478,17 @@ public class DependencyGraphBuilder {
                 dependency.restart(selected);
             }
             unattachedDependencies.clear();
+            for (ConfigurationNode configuration : waitingConfigurations) {
+                resolveState.onMoreSelected(configuration);
+            }
+            waitingConfigurations.clear();
+        }
+
+        /**
+         * Called when the given configuration is only reachable through versions of this module, while this module is in conflict.
+         */
+        public void addWaitingConfiguration(ConfigurationNode configuration) {
+            waitingConfigurations.add(configuration);
         }
 
         public void addUnattachedDependency(DependencyEdge edge) {
@@ -616,6 +638,7 @@ public class DependencyGraphBuilder {
         private final ConfigurationMetaData metaData;
         private final ResolveState resolveState;
         private ModuleResolutionFilter previousTraversal;
+        private ModuleResolutionFilter excludeRulesFilter;
 
         private ConfigurationNode(ResolvedConfigurationIdentifier id, ModuleVersionResolveState moduleRevision, ResolveState resolveState) {
             this.id = id;
@@ -683,12 +706,25 @@ public class DependencyGraphBuilder {
             }
 
             List<DependencyEdge> transitiveIncoming = new ArrayList<DependencyEdge>();
+            boolean onlyReachableThroughConflicts = true;
             for (DependencyEdge edge : incomingEdges) {
                 if (edge.isTransitive()) {
                     transitiveIncoming.add(edge);
+                    if (edge.from.moduleRevision.state != ModuleState.Conflict) {
+                        onlyReachableThroughConflicts = false;
+                    }
                 }
             }
 
+            if (!transitiveIncoming.isEmpty() && onlyReachableThroughConflicts) {
+                // Leave the outgoing edges as they are until the conflicts are resolved, as the incoming edges will either be kept or removed
+                LOGGER.debug("{} is only reachable through module versions in conflict. waiting for conflict resolution.", this);
+                for (DependencyEdge edge : transitiveIncoming) {
+                    edge.from.moduleRevision.module.addWaitingConfiguration(this);
+                }
+                return;
+            }
+
             if (transitiveIncoming.isEmpty() && this != resolveState.root) {
                 if (previousTraversal != null) {
                     removeOutgoingEdges();
@@ -758,7 +794,10 @@ public class DependencyGraphBuilder {
                     resolutionFilter = resolutionFilter.union(dependencyEdge.getSelector());
                 }
             }
-            resolutionFilter = resolutionFilter.intersect(DefaultModuleResolutionFilter.excludeAny(metaData.getExcludeRules()));
+            if (excludeRulesFilter == null) {
+                excludeRulesFilter = DefaultModuleResolutionFilter.excludeAny(metaData.getExcludeRules());
+            }
+            resolutionFilter = resolutionFilter.intersect(excludeRulesFilter);
             return resolutionFilter;
         }
 
@@ -0,0 +1,588 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.artifacts.ModuleDependency;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.result.ComponentSelectionReason;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ModuleResolutionFilter;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ArtifactSet;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.DefaultModuleVersionSelection;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ModuleVersionSelection;
+import org.gradle.internal.component.model.ComponentArtifactMetaData;
+import org.gradle.internal.component.model.ComponentResolveMetaData;
+import org.gradle.internal.component.model.ConfigurationMetaData;
+import org.gradle.internal.resolve.ModuleVersionResolveException;
+
+import java.util.*;
+
+/**
+ * The visits made while resolving the dependency graph of one root, recorded so that they can be replayed to the visitors of another root
+ * that has identical inputs, without traversing the graph again.
+ *
+ * <p>On replay, the root node of the recorded graph is replaced by the new root and the dependencies declared by the recorded root are
+ * replaced by the matching dependencies of the new root. All other nodes and edges are shared.</p>
+ */
+public class RecordedDependencyGraph {
+    private final RecordedNode root;
+    private final List<RecordedVisit> visits;
+    private final Set<ModuleIdentifier> modules;
+
+    private RecordedDependencyGraph(RecordedNode root, List<RecordedVisit> visits, Set<ModuleIdentifier> modules) {
+        this.root = root;
+        this.visits = visits;
+        this.modules = modules;
+    }
+
+    /**
+     * Can this graph be replayed for a root with the given module? A root that appears somewhere in the graph would have been resolved differently.
+     */
+    public boolean canReplayFor(ModuleIdentifier rootModule) {
+        return !modules.contains(rootModule);
+    }
+
+    /**
+     * Replays the recorded visits for the given root.
+     *
+     * @param rootComponent The meta-data of the new root component.
+     * @param rootConfiguration The name of the root configuration.
+     * @param rootDependencies Maps each dependency declared by the recorded root to the equivalent dependency declared by the new root.
+     */
+    public void replay(ComponentResolveMetaData rootComponent, String rootConfiguration, Map<ModuleDependency, ModuleDependency> rootDependencies,
+                       DependencyGraphVisitor graphVisitor, DependencyArtifactsVisitor artifactsVisitor) {
+        RebasedGraph graph = new RebasedGraph(root, rootComponent, rootConfiguration, rootDependencies);
+        for (RecordedVisit visit : visits) {
+            visit.replay(graph, graphVisitor, artifactsVisitor);
+        }
+    }
+
+    /**
+     * Forwards the visits of a graph resolution to the given visitors, and records them. The nodes and edges of the graph are recorded as
+     * copies that hold only the values the visitors read, so that the recorded graph does not retain the state of the resolution.
+     */
+    public static class Recorder implements DependencyGraphVisitor, DependencyArtifactsVisitor {
+        private final DependencyGraphVisitor graphVisitor;
+        private final DependencyArtifactsVisitor artifactsVisitor;
+        private final List<RecordedVisit> visits = new ArrayList<RecordedVisit>();
+        private final Set<ModuleIdentifier> modules = new HashSet<ModuleIdentifier>();
+        private final Map<DependencyGraphNode, RecordedNode> nodes = new IdentityHashMap<DependencyGraphNode, RecordedNode>();
+        private final Map<DependencyGraphEdge, RecordedEdge> edges = new IdentityHashMap<DependencyGraphEdge, RecordedEdge>();
+        private DependencyGraphNode root;
+        private boolean failed;
+
+        public Recorder(DependencyGraphVisitor graphVisitor, DependencyArtifactsVisitor artifactsVisitor) {
+            this.graphVisitor = graphVisitor;
+            this.artifactsVisitor = artifactsVisitor;
+        }
+
+        public void start(DependencyGraphNode root) {
+            this.root = root;
+            visits.add(new StartVisit(record(root)));
+            graphVisitor.start(root);
+        }
+
+        public void visitNode(DependencyGraphNode node) {
+            if (node != root) {
+                modules.add(node.toId().getModule());
+            }
+            for (DependencyGraphEdge edge : node.getOutgoingEdges()) {
+                ModuleVersionSelector requested = edge.getRequestedModuleVersion();
+                modules.add(DefaultModuleIdentifier.newId(requested.getGroup(), requested.getName()));
+                if (edge.getFailure() != null) {
+                    failed = true;
+                }
+            }
+            visits.add(new NodeVisit(record(node)));
+            graphVisitor.visitNode(node);
+        }
+
+        public void visitEdge(DependencyGraphNode node) {
+            visits.add(new EdgeVisit(record(node)));
+            graphVisitor.visitEdge(node);
+            if (!failed) {
+                ConfigurationMetaData metaData = node.getMetaData();
+                for (DependencyGraphEdge edge : node.getIncomingEdges()) {
+                    record(edge).artifacts.put(metaData, edge.getArtifacts(metaData));
+                }
+            }
+        }
+
+        public void visitArtifacts(ResolvedConfigurationIdentifier parent, ResolvedConfigurationIdentifier child, ArtifactSet artifacts) {
+            visits.add(new ArtifactsVisit(parent, child, artifacts));
+            artifactsVisitor.visitArtifacts(parent, child, artifacts);
+        }
+
+        public void finishArtifacts() {
+            visits.add(new FinishArtifactsVisit());
+            artifactsVisitor.finishArtifacts();
+        }
+
+        public void finish(DependencyGraphNode root) {
+            visits.add(new FinishVisit(record(root)));
+            graphVisitor.finish(root);
+        }
+
+        /**
+         * Returns the recorded graph, or null when it cannot be shared with other roots. Graphs with failures are not shared, so that each root
+         * reports its own failures, and neither are graphs in which the root module itself takes part.
+         */
+        @Nullable
+        public RecordedDependencyGraph complete() {
+            if (root == null || failed || modules.contains(root.toId().getModule())) {
+                return null;
+            }
+            return new RecordedDependencyGraph(nodes.get(root), visits, modules);
+        }
+
+        private RecordedNode record(DependencyGraphNode node) {
+            RecordedNode recorded = nodes.get(node);
+            if (recorded == null) {
+                ModuleVersionSelection selection = node.getSelection();
+                recorded = new RecordedNode(node.getNodeId(), new DefaultModuleVersionSelection(selection.getId(), selection.getSelectionReason(), selection.getComponentId()), node.getMetaData());
+                // Register before following the edges, as the graph may contain cycles
+                nodes.put(node, recorded);
+                for (DependencyGraphEdge edge : node.getIncomingEdges()) {
+                    recorded.incomingEdges.add(record(edge));
+                }
+                for (DependencyGraphEdge edge : node.getOutgoingEdges()) {
+                    recorded.outgoingEdges.add(record(edge));
+                }
+            }
+            return recorded;
+        }
+
+        private RecordedEdge record(DependencyGraphEdge edge) {
+            RecordedEdge recorded = edges.get(edge);
+            if (recorded == null) {
+                recorded = new RecordedEdge(edge);
+                edges.put(edge, recorded);
+                recorded.from = record(edge.getFrom());
+            }
+            return recorded;
+        }
+    }
+
+    /**
+     * A copy of a node of a resolved graph.
+     */
+    private static class RecordedNode implements DependencyGraphNode {
+        private final ResolvedConfigurationIdentifier nodeId;
+        private final ModuleVersionSelection selection;
+        private final ConfigurationMetaData metaData;
+        private final Set<DependencyGraphEdge> incomingEdges = new LinkedHashSet<DependencyGraphEdge>();
+        private final Set<DependencyGraphEdge> outgoingEdges = new LinkedHashSet<DependencyGraphEdge>();
+
+        RecordedNode(ResolvedConfigurationIdentifier nodeId, ModuleVersionSelection selection, ConfigurationMetaData metaData) {
+            this.nodeId = nodeId;
+            this.selection = selection;
+            this.metaData = metaData;
+        }
+
+        public ResolvedConfigurationIdentifier getNodeId() {
+            return nodeId;
+        }
+
+        public ModuleVersionIdentifier toId() {
+            return selection.getId();
+        }
+
+        public ComponentIdentifier getComponentId() {
+            return selection.getComponentId();
+        }
+
+        public ModuleVersionSelection getSelection() {
+            return selection;
+        }
+
+        public Set<DependencyGraphEdge> getIncomingEdges() {
+            return incomingEdges;
+        }
+
+        public Set<DependencyGraphEdge> getOutgoingEdges() {
+            return outgoingEdges;
+        }
+
+        public ConfigurationMetaData getMetaData() {
+            return metaData;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s(%s)", nodeId.getId(), nodeId.getConfiguration());
+        }
+    }
+
+    /**
+     * A copy of an edge of a resolved graph. The artifacts of the edge are recorded for each of the nodes the edge leads to.
+     */
+    private static class RecordedEdge implements DependencyGraphEdge {
+        private final ModuleVersionSelector requestedModuleVersion;
+        private final ModuleResolutionFilter selector;
+        private final ModuleDependency moduleDependency;
+        private final ComponentSelector requested;
+        private final ModuleVersionResolveException failure;
+        private final ModuleVersionIdentifier selected;
+        private final ComponentSelectionReason reason;
+        private final Map<ConfigurationMetaData, Set<ComponentArtifactMetaData>> artifacts = new IdentityHashMap<ConfigurationMetaData, Set<ComponentArtifactMetaData>>();
+        private DependencyGraphNode from;
+
+        RecordedEdge(DependencyGraphEdge edge) {
+            this.requestedModuleVersion = edge.getRequestedModuleVersion();
+            this.selector = edge.getSelector();
+            this.moduleDependency = edge.getModuleDependency();
+            this.requested = edge.getRequested();
+            this.failure = edge.getFailure();
+            this.selected = edge.getSelected();
+            this.reason = edge.getReason();
+        }
+
+        public DependencyGraphNode getFrom() {
+            return from;
+        }
+
+        public ModuleVersionSelector getRequestedModuleVersion() {
+            return requestedModuleVersion;
+        }
+
+        public ModuleResolutionFilter getSelector() {
+            return selector;
+        }
+
+        public Set<ComponentArtifactMetaData> getArtifacts(ConfigurationMetaData metaData) {
+            Set<ComponentArtifactMetaData> artifacts = this.artifacts.get(metaData);
+            if (artifacts == null) {
+                throw new IllegalStateException(String.format("No artifacts recorded for %s to %s.", this, metaData));
+            }
+            return artifacts;
+        }
+
+        public ModuleDependency getModuleDependency() {
+            return moduleDependency;
+        }
+
+        public ComponentSelector getRequested() {
+            return requested;
+        }
+
+        public ModuleVersionResolveException getFailure() {
+            return failure;
+        }
+
+        public ModuleVersionIdentifier getSelected() {
+            return selected;
+        }
+
+        public ComponentSelectionReason getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s -> %s", from, requestedModuleVersion);
+        }
+    }
+
+    private static abstract class RecordedVisit {
+        abstract void replay(RebasedGraph graph, DependencyGraphVisitor graphVisitor, DependencyArtifactsVisitor artifactsVisitor);
+    }
+
+    private static class StartVisit extends RecordedVisit {
+        private final DependencyGraphNode node;
+
+        StartVisit(DependencyGraphNode node) {
+            this.node = node;
+        }
+
+        @Override
+        void replay(RebasedGraph graph, DependencyGraphVisitor graphVisitor, DependencyArtifactsVisitor artifactsVisitor) {
+            graphVisitor.start(graph.node(node));
+        }
+    }
+
+    private static class NodeVisit extends RecordedVisit {
+        private final DependencyGraphNode node;
+
+        NodeVisit(DependencyGraphNode node) {
+            this.node = node;
+        }
+
+        @Override
+        void replay(RebasedGraph graph, DependencyGraphVisitor graphVisitor, DependencyArtifactsVisitor artifactsVisitor) {
+            graphVisitor.visitNode(graph.node(node));
+        }
+    }
+
+    private static class EdgeVisit extends RecordedVisit {
+        private final DependencyGraphNode node;
+
+        EdgeVisit(DependencyGraphNode node) {
+            this.node = node;
+        }
+
+        @Override
+        void replay(RebasedGraph graph, DependencyGraphVisitor graphVisitor, DependencyArtifactsVisitor artifactsVisitor) {
+            graphVisitor.visitEdge(graph.node(node));
+        }
+    }
+
+    private static class FinishVisit extends RecordedVisit {
+        private final DependencyGraphNode node;
+
+        FinishVisit(DependencyGraphNode node) {
+            this.node = node;
+        }
+
+        @Override
+        void replay(RebasedGraph graph, DependencyGraphVisitor graphVisitor, DependencyArtifactsVisitor artifactsVisitor) {
+            graphVisitor.finish(graph.node(node));
+        }
+    }
+
+    private static class ArtifactsVisit extends RecordedVisit {
+        private final ResolvedConfigurationIdentifier parent;
+        private final ResolvedConfigurationIdentifier child;
+        private final ArtifactSet artifacts;
+
+        ArtifactsVisit(ResolvedConfigurationIdentifier parent, ResolvedConfigurationIdentifier child, ArtifactSet artifacts) {
+            this.parent = parent;
+            this.child = child;
+            this.artifacts = artifacts;
+        }
+
+        @Override
+        void replay(RebasedGraph graph, DependencyGraphVisitor graphVisitor, DependencyArtifactsVisitor artifactsVisitor) {
+            artifactsVisitor.visitArtifacts(graph.nodeId(parent), child, artifacts);
+        }
+    }
+
+    private static class FinishArtifactsVisit extends RecordedVisit {
+        @Override
+        void replay(RebasedGraph graph, DependencyGraphVisitor graphVisitor, DependencyArtifactsVisitor artifactsVisitor) {
+            artifactsVisitor.finishArtifacts();
+        }
+    }
+
+    /**
+     * A view of the recorded graph with its root replaced. Wrappers are created on demand and reused, so that visitors can rely on identity.
+     */
+    private static class RebasedGraph {
+        private final DependencyGraphNode originalRoot;
+        private final Map<ModuleDependency, ModuleDependency> rootDependencies;
+        private final Map<DependencyGraphNode, DependencyGraphNode> nodes = new IdentityHashMap<DependencyGraphNode, DependencyGraphNode>();
+        private final Map<DependencyGraphEdge, DependencyGraphEdge> edges = new IdentityHashMap<DependencyGraphEdge, DependencyGraphEdge>();
+        private final RebasedRootNode root;
+
+        RebasedGraph(DependencyGraphNode originalRoot, ComponentResolveMetaData rootComponent, String rootConfiguration, Map<ModuleDependency, ModuleDependency> rootDependencies) {
+            this.originalRoot = originalRoot;
+            this.rootDependencies = rootDependencies;
+            this.root = new RebasedRootNode(originalRoot, this, rootComponent, rootConfiguration);
+            nodes.put(originalRoot, root);
+        }
+
+        DependencyGraphNode node(DependencyGraphNode node) {
+            DependencyGraphNode rebased = nodes.get(node);
+            if (rebased == null) {
+                rebased = new RebasedNode(node, this);
+                nodes.put(node, rebased);
+            }
+            return rebased;
+        }
+
+        DependencyGraphEdge edge(DependencyGraphEdge edge) {
+            DependencyGraphEdge rebased = edges.get(edge);
+            if (rebased == null) {
+                rebased = new RebasedEdge(edge, this);
+                edges.put(edge, rebased);
+            }
+            return rebased;
+        }
+
+        ResolvedConfigurationIdentifier nodeId(ResolvedConfigurationIdentifier id) {
+            return id.equals(originalRoot.getNodeId()) ? root.getNodeId() : id;
+        }
+
+        @Nullable
+        ModuleDependency moduleDependency(DependencyGraphEdge edge) {
+            ModuleDependency original = edge.getModuleDependency();
+            if (original == null || edge.getFrom() != originalRoot) {
+                return original;
+            }
+            return rootDependencies.get(original);
+        }
+
+        Set<DependencyGraphEdge> edges(Set<DependencyGraphEdge> original) {
+            Set<DependencyGraphEdge> rebased = new LinkedHashSet<DependencyGraphEdge>(original.size());
+            for (DependencyGraphEdge edge : original) {
+                rebased.add(edge(edge));
+            }
+            return rebased;
+        }
+    }
+
+    private static class RebasedNode implements DependencyGraphNode {
+        protected final DependencyGraphNode delegate;
+        private final RebasedGraph graph;
+        private Set<DependencyGraphEdge> incomingEdges;
+        private Set<DependencyGraphEdge> outgoingEdges;
+
+        RebasedNode(DependencyGraphNode delegate, RebasedGraph graph) {
+            this.delegate = delegate;
+            this.graph = graph;
+        }
+
+        public ResolvedConfigurationIdentifier getNodeId() {
+            return delegate.getNodeId();
+        }
+
+        public ModuleVersionIdentifier toId() {
+            return delegate.toId();
+        }
+
+        public ComponentIdentifier getComponentId() {
+            return delegate.getComponentId();
+        }
+
+        public ModuleVersionSelection getSelection() {
+            return delegate.getSelection();
+        }
+
+        public Set<DependencyGraphEdge> getIncomingEdges() {
+            if (incomingEdges == null) {
+                incomingEdges = graph.edges(delegate.getIncomingEdges());
+            }
+            return incomingEdges;
+        }
+
+        public Set<DependencyGraphEdge> getOutgoingEdges() {
+            if (outgoingEdges == null) {
+                outgoingEdges = graph.edges(delegate.getOutgoingEdges());
+            }
+            return outgoingEdges;
+        }
+
+        public ConfigurationMetaData getMetaData() {
+            return delegate.getMetaData();
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+
+    private static class RebasedRootNode extends RebasedNode {
+        private final ResolvedConfigurationIdentifier nodeId;
+        private final ModuleVersionSelection selection;
+        private final ConfigurationMetaData metaData;
+
+        RebasedRootNode(DependencyGraphNode delegate, RebasedGraph graph, ComponentResolveMetaData rootComponent, String rootConfiguration) {
+            super(delegate, graph);
+            this.nodeId = new ResolvedConfigurationIdentifier(rootComponent.getId(), rootConfiguration);
+            this.selection = new DefaultModuleVersionSelection(rootComponent.getId(), delegate.getSelection().getSelectionReason(), rootComponent.getComponentId());
+            this.metaData = rootComponent.getConfiguration(rootConfiguration);
+        }
+
+        @Override
+        public ResolvedConfigurationIdentifier getNodeId() {
+            return nodeId;
+        }
+
+        @Override
+        public ModuleVersionIdentifier toId() {
+            return selection.getId();
+        }
+
+        @Override
+        public ComponentIdentifier getComponentId() {
+            return selection.getComponentId();
+        }
+
+        @Override
+        public ModuleVersionSelection getSelection() {
+            return selection;
+        }
+
+        @Override
+        public ConfigurationMetaData getMetaData() {
+            return metaData;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s(%s)", nodeId.getId(), nodeId.getConfiguration());
+        }
+    }
+
+    private static class RebasedEdge implements DependencyGraphEdge {
+        private final DependencyGraphEdge delegate;
+        private final RebasedGraph graph;
+
+        RebasedEdge(DependencyGraphEdge delegate, RebasedGraph graph) {
+            this.delegate = delegate;
+            this.graph = graph;
+        }
+
+        public DependencyGraphNode getFrom() {
+            return graph.node(delegate.getFrom());
+        }
+
+        public ModuleVersionSelector getRequestedModuleVersion() {
+            return delegate.getRequestedModuleVersion();
+        }
+
+        public ModuleResolutionFilter getSelector() {
+            return delegate.getSelector();
+        }
+
+        public Set<ComponentArtifactMetaData> getArtifacts(ConfigurationMetaData metaData) {
+            return delegate.getArtifacts(metaData);
+        }
+
+        public ModuleDependency getModuleDependency() {
+            return graph.moduleDependency(delegate);
+        }
+
+        public ComponentSelector getRequested() {
+            return delegate.getRequested();
+        }
+
+        public ModuleVersionResolveException getFailure() {
+            return delegate.getFailure();
+        }
+
+        public ModuleVersionIdentifier getSelected() {
+            return delegate.getSelected();
+        }
+
+        public ComponentSelectionReason getReason() {
+            return delegate.getReason();
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
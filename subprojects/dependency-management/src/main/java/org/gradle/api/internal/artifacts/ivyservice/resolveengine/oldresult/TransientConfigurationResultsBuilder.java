@@ -17,6 +17,7 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.oldresult;
 
+import org.gradle.api.artifacts.ResolvedArtifact;
 import org.gradle.api.internal.artifacts.DefaultResolvedDependency;
 import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifier;
 import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifierSerializer;
@@ -32,6 +33,7 @@ import org.gradle.util.Clock;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import static com.google.common.collect.Sets.newHashSet;
 import static org.gradle.internal.UncheckedException.throwAsUncheckedException;
@@ -114,7 +116,7 @@ public class TransientConfigurationResultsBuilder {
         }
     }
 
-    private TransientConfigurationResults deserialize(Decoder decoder, ResolvedContentsMapping mapping) {
+    private TransientConfigurationResults deserialize(Decoder decoder, final ResolvedContentsMapping mapping) {
         Clock clock = new Clock();
         Map<ResolvedConfigurationIdentifier, DefaultResolvedDependency> allDependencies = new HashMap<ResolvedConfigurationIdentifier, DefaultResolvedDependency>();
         DefaultTransientConfigurationResults results = new DefaultTransientConfigurationResults();
@@ -159,7 +161,14 @@ public class TransientConfigurationResultsBuilder {
                             throw new IllegalStateException(String.format("Unexpected child dependency id %s. Seen ids: %s", childId, allDependencies.keySet()));
                         }
                         parent.addChild(child);
-                        child.addParentSpecificArtifacts(parent, newHashSet(mapping.getArtifacts(decoder.readLong())));
+                        final long artifactsId = decoder.readLong();
+                        // Artifacts are resolved when they are first queried, so that traversing the graph does not resolve them
+                        child.addParentSpecificArtifacts(parent, new Factory<Set<ResolvedArtifact>>() {
+                            @Override
+                            public Set<ResolvedArtifact> create() {
+                                return newHashSet(mapping.getArtifacts(artifactsId));
+                            }
+                        });
                         break;
                     default:
                         throw new IOException("Unknown value type read from stream: " + type);
@@ -19,31 +19,33 @@ package org.gradle.api.internal.artifacts.ivyservice.resolveengine.result;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.component.ComponentIdentifier;
 import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.result.ComponentSelectionReason;
+import org.gradle.api.artifacts.result.DependencyResult;
 import org.gradle.api.artifacts.result.ResolutionResult;
 import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
 import org.gradle.api.internal.artifacts.ModuleVersionIdentifierSerializer;
+import org.gradle.api.internal.artifacts.result.DefaultResolvedComponentResult;
 import org.gradle.internal.resolve.ModuleVersionResolveException;
 import org.gradle.api.internal.artifacts.result.DefaultResolutionResult;
 import org.gradle.api.internal.cache.BinaryStore;
 import org.gradle.api.internal.cache.Store;
-import org.gradle.api.logging.Logger;
-import org.gradle.api.logging.Logging;
 import org.gradle.internal.Factory;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
-import org.gradle.util.Clock;
 
 import java.io.IOException;
 import java.util.*;
 
-import static org.gradle.internal.UncheckedException.throwAsUncheckedException;
-
+/**
+ * Streams the resolution result graph to a {@link BinaryStore}, along with a table of the position of the records of each component, so that the
+ * components of the result can be decoded lazily, when they are first visited.
+ */
 public class StreamingResolutionResultBuilder implements ResolutionResultBuilder {
 
     private final static byte ROOT = 1;
     private final static byte MODULE = 2;
     private final static byte DEPENDENCY = 3;
-    private final static byte DONE = 4;
 
     private final Map<ComponentSelector, ModuleVersionResolveException> failures = new HashMap<ComponentSelector, ModuleVersionResolveException>();
     private final BinaryStore store;
@@ -53,23 +55,45 @@ public class StreamingResolutionResultBuilder implements ResolutionResultBuilder
     private final InternalDependencyResultSerializer internalDependencyResultSerializer = new InternalDependencyResultSerializer();
     private final ComponentIdentifierSerializer componentIdentifierSerializer = new ComponentIdentifierSerializer();
 
+    // Each module is written once, and is then referenced by its index in this map
+    private final Map<ModuleVersionIdentifier, Integer> visitedModules = new HashMap<ModuleVersionIdentifier, Integer>();
+    private final List<Integer> modulePositions = new ArrayList<Integer>();
+    private final Map<Integer, List<Integer>> dependencyPositions = new HashMap<Integer, List<Integer>>();
+    private final Map<ModuleVersionIdentifier, List<Integer>> dependentPositions = new HashMap<ModuleVersionIdentifier, List<Integer>>();
+
     public StreamingResolutionResultBuilder(BinaryStore store, Store<ResolvedComponentResult> cache) {
         this.store = store;
         this.cache = cache;
     }
 
     public ResolutionResult complete() {
-        store.write(new BinaryStore.WriteAction() {
-            public void write(Encoder encoder) throws IOException {
-                encoder.writeByte(DONE);
-            }
-        });
         BinaryStore.BinaryData data = store.done();
-        RootFactory rootSource = new RootFactory(data, failures, cache);
+        int count = modulePositions.size();
+        int[][] dependencies = new int[count][];
+        int[][] dependents = new int[count][];
+        for (Map.Entry<ModuleVersionIdentifier, Integer> entry : visitedModules.entrySet()) {
+            dependencies[entry.getValue()] = toArray(dependencyPositions.get(entry.getValue()));
+            dependents[entry.getValue()] = toArray(dependentPositions.get(entry.getKey()));
+        }
+        ComponentOffsets offsets = new ComponentOffsets(visitedModules, toArray(modulePositions), dependencies, dependents);
+        RootFactory rootSource = new RootFactory(data, failures, cache, offsets);
         return new DefaultResolutionResult(rootSource);
     }
 
+    private static int[] toArray(List<Integer> values) {
+        if (values == null) {
+            return new int[0];
+        }
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
     public ResolutionResultBuilder start(final ModuleVersionIdentifier root, final ComponentIdentifier componentIdentifier) {
+        visitedModules.put(root, visitedModules.size());
+        modulePositions.add(store.getPosition());
         store.write(new BinaryStore.WriteAction() {
             public void write(Encoder encoder) throws IOException {
                 encoder.writeByte(ROOT);
@@ -80,10 +104,10 @@ public class StreamingResolutionResultBuilder implements ResolutionResultBuilder
         return this;
     }
 
-    Set<ModuleVersionIdentifier> visitedModules = new HashSet<ModuleVersionIdentifier>();
-
     public void resolvedModuleVersion(final ModuleVersionSelection moduleVersion) {
-        if (visitedModules.add(moduleVersion.getId())) {
+        if (!visitedModules.containsKey(moduleVersion.getId())) {
+            visitedModules.put(moduleVersion.getId(), visitedModules.size());
+            modulePositions.add(store.getPosition());
             store.write(new BinaryStore.WriteAction() {
                 public void write(Encoder encoder) throws IOException {
                     encoder.writeByte(MODULE);
@@ -95,10 +119,24 @@ public class StreamingResolutionResultBuilder implements ResolutionResultBuilder
 
     public void resolvedConfiguration(final ModuleVersionIdentifier from, final Collection<? extends InternalDependencyResult> dependencies) {
         if (!dependencies.isEmpty()) {
+            final Integer fromIndex = visitedModules.get(from);
+            if (fromIndex == null) {
+                throw new IllegalStateException("Dependencies of " + from + " were visited before the module itself.");
+            }
+            int position = store.getPosition();
+            positionsFor(dependencyPositions, fromIndex).add(position);
+            for (InternalDependencyResult dependency : dependencies) {
+                if (dependency.getFailure() == null) {
+                    List<Integer> positions = positionsFor(dependentPositions, dependency.getSelected());
+                    if (positions.isEmpty() || positions.get(positions.size() - 1) != position) {
+                        positions.add(position);
+                    }
+                }
+            }
             store.write(new BinaryStore.WriteAction() {
                 public void write(Encoder encoder) throws IOException {
                     encoder.writeByte(DEPENDENCY);
-                    moduleVersionIdentifierSerializer.write(encoder, from);
+                    encoder.writeSmallInt(fromIndex);
                     encoder.writeSmallInt(dependencies.size());
                     for (InternalDependencyResult dependency : dependencies) {
                         internalDependencyResultSerializer.write(encoder, dependency);
@@ -113,88 +151,203 @@ public class StreamingResolutionResultBuilder implements ResolutionResultBuilder
         }
     }
 
-    private static class RootFactory implements Factory<ResolvedComponentResult> {
+    private static <K> List<Integer> positionsFor(Map<K, List<Integer>> positions, K key) {
+        List<Integer> result = positions.get(key);
+        if (result == null) {
+            result = new ArrayList<Integer>();
+            positions.put(key, result);
+        }
+        return result;
+    }
 
-        private final static Logger LOG = Logging.getLogger(RootFactory.class);
-        private final ModuleVersionSelectionSerializer moduleVersionSelectionSerializer = new ModuleVersionSelectionSerializer();
+    /**
+     * The positions of the records of each component in the store, indexed by the order in which the components were written.
+     */
+    private static class ComponentOffsets {
+        private final Map<ModuleVersionIdentifier, Integer> indexes;
+        private final int[] componentPositions;
+        private final int[][] dependencyPositions;
+        private final int[][] dependentPositions;
+
+        ComponentOffsets(Map<ModuleVersionIdentifier, Integer> indexes, int[] componentPositions, int[][] dependencyPositions, int[][] dependentPositions) {
+            this.indexes = indexes;
+            this.componentPositions = componentPositions;
+            this.dependencyPositions = dependencyPositions;
+            this.dependentPositions = dependentPositions;
+        }
+
+        int indexOf(ModuleVersionIdentifier id) {
+            Integer index = indexes.get(id);
+            if (index == null) {
+                throw new IllegalStateException("No component was written for " + id + ".");
+            }
+            return index;
+        }
+    }
 
+    private static class RootFactory implements Factory<ResolvedComponentResult> {
         private final BinaryStore.BinaryData data;
         private final Map<ComponentSelector, ModuleVersionResolveException> failures;
         private final Store<ResolvedComponentResult> cache;
+        private final ComponentOffsets offsets;
         private final Object lock = new Object();
-        private final ModuleVersionIdentifierSerializer moduleVersionIdentifierSerializer = new ModuleVersionIdentifierSerializer();
-        private final InternalDependencyResultSerializer internalDependencyResultSerializer = new InternalDependencyResultSerializer();
-        private final ComponentIdentifierSerializer componentIdentifierSerializer = new ComponentIdentifierSerializer();
 
         public RootFactory(BinaryStore.BinaryData data, Map<ComponentSelector, ModuleVersionResolveException> failures,
-                           Store<ResolvedComponentResult> cache) {
+                           Store<ResolvedComponentResult> cache, ComponentOffsets offsets) {
             this.data = data;
             this.failures = failures;
             this.cache = cache;
+            this.offsets = offsets;
         }
 
         public ResolvedComponentResult create() {
             synchronized (lock) {
                 return cache.load(new Factory<ResolvedComponentResult>() {
                     public ResolvedComponentResult create() {
-                        try {
-                            return data.read(new BinaryStore.ReadAction<ResolvedComponentResult>() {
-                                public ResolvedComponentResult read(Decoder decoder) throws IOException {
-                                    return deserialize(decoder);
-                                }
-                            });
-                        } finally {
-                            try {
-                                data.close();
-                            } catch (IOException e) {
-                                throw throwAsUncheckedException(e);
-                            }
-                        }
+                        return new ComponentGraph(data, failures, offsets).getRoot();
                     }
                 });
             }
         }
+    }
+
+    /**
+     * The components of a resolution result. Each component is decoded from the store when it is first reached, and its dependencies and dependents
+     * are decoded when they are first queried.
+     */
+    private static class ComponentGraph {
+        private final BinaryStore.BinaryData data;
+        private final Map<ComponentSelector, ModuleVersionResolveException> failures;
+        private final ComponentOffsets offsets;
+        private final LazyComponentResult[] components;
+        private final CachingDependencyResultFactory dependencyResultFactory = new CachingDependencyResultFactory();
+        private final ModuleVersionIdentifierSerializer moduleVersionIdentifierSerializer = new ModuleVersionIdentifierSerializer();
+        private final ModuleVersionSelectionSerializer moduleVersionSelectionSerializer = new ModuleVersionSelectionSerializer();
+        private final InternalDependencyResultSerializer internalDependencyResultSerializer = new InternalDependencyResultSerializer();
+        private final ComponentIdentifierSerializer componentIdentifierSerializer = new ComponentIdentifierSerializer();
 
-        private ResolvedComponentResult deserialize(Decoder decoder) {
-            int valuesRead = 0;
-            byte type = -1;
-            Clock clock = new Clock();
-            try {
-                DefaultResolutionResultBuilder builder = new DefaultResolutionResultBuilder();
-                while (true) {
-                    type = decoder.readByte();
-                    valuesRead++;
-                    switch (type) {
-                        case ROOT:
-                            ModuleVersionIdentifier id = moduleVersionIdentifierSerializer.read(decoder);
-                            ComponentIdentifier componentIdentifier = componentIdentifierSerializer.read(decoder);
-                            builder.start(id, componentIdentifier);
-                            break;
-                        case MODULE:
-                            ModuleVersionSelection sel = moduleVersionSelectionSerializer.read(decoder);
-                            builder.resolvedModuleVersion(sel);
-                            break;
-                        case DEPENDENCY:
-                            id = moduleVersionIdentifierSerializer.read(decoder);
-                            int size = decoder.readSmallInt();
-                            List<InternalDependencyResult> deps = new LinkedList<InternalDependencyResult>();
-                            for (int i = 0; i < size; i++) {
-                                deps.add(internalDependencyResultSerializer.read(decoder, failures));
-                            }
-                            builder.resolvedConfiguration(id, deps);
-                            break;
-                        case DONE:
-                            ResolvedComponentResult root = builder.complete().getRoot();
-                            LOG.debug("Loaded resolution results ({}) from {}", clock.getTime(), data);
-                            return root;
-                        default:
-                            throw new IOException("Unknown value type read from stream: " + type);
+        ComponentGraph(BinaryStore.BinaryData data, Map<ComponentSelector, ModuleVersionResolveException> failures, ComponentOffsets offsets) {
+            this.data = data;
+            this.failures = failures;
+            this.offsets = offsets;
+            this.components = new LazyComponentResult[offsets.componentPositions.length];
+        }
+
+        synchronized ResolvedComponentResult getRoot() {
+            return components.length == 0 ? null : component(0);
+        }
+
+        synchronized void loadDependencies(LazyComponentResult component) {
+            if (component.dependenciesLoaded) {
+                return;
+            }
+            for (int position : offsets.dependencyPositions[component.index]) {
+                for (InternalDependencyResult dependency : readDependencies(position).dependencies) {
+                    component.addDependency(createDependency(component, dependency));
+                }
+            }
+            component.dependenciesLoaded = true;
+        }
+
+        synchronized void loadDependents(LazyComponentResult component) {
+            if (component.dependentsLoaded) {
+                return;
+            }
+            for (int position : offsets.dependentPositions[component.index]) {
+                DependencyRecord record = readDependencies(position);
+                LazyComponentResult from = component(record.from);
+                for (InternalDependencyResult dependency : record.dependencies) {
+                    if (dependency.getFailure() == null && dependency.getSelected().equals(component.getModuleVersion())) {
+                        component.addDependent((ResolvedDependencyResult) createDependency(from, dependency));
                     }
                 }
-            } catch (IOException e) {
-                throw new RuntimeException("Problems loading the resolution results (" + clock.getTime() + "). "
-                        + "Read " + valuesRead + " values, last was: " + type, e);
             }
+            component.dependentsLoaded = true;
+        }
+
+        private DependencyResult createDependency(LazyComponentResult from, InternalDependencyResult dependency) {
+            if (dependency.getFailure() != null) {
+                return dependencyResultFactory.createUnresolvedDependency(dependency.getRequested(), from, dependency.getReason(), dependency.getFailure());
+            }
+            LazyComponentResult selected = component(offsets.indexOf(dependency.getSelected()));
+            return dependencyResultFactory.createResolvedDependency(dependency.getRequested(), from, selected);
+        }
+
+        private LazyComponentResult component(final int index) {
+            LazyComponentResult component = components[index];
+            if (component == null) {
+                component = data.read(offsets.componentPositions[index], new BinaryStore.ReadAction<LazyComponentResult>() {
+                    public LazyComponentResult read(Decoder decoder) throws IOException {
+                        byte type = decoder.readByte();
+                        switch (type) {
+                            case ROOT:
+                                ModuleVersionIdentifier id = moduleVersionIdentifierSerializer.read(decoder);
+                                ComponentIdentifier componentIdentifier = componentIdentifierSerializer.read(decoder);
+                                return new LazyComponentResult(ComponentGraph.this, index, id, VersionSelectionReasons.ROOT, componentIdentifier);
+                            case MODULE:
+                                ModuleVersionSelection sel = moduleVersionSelectionSerializer.read(decoder);
+                                return new LazyComponentResult(ComponentGraph.this, index, sel.getId(), sel.getSelectionReason(), sel.getComponentId());
+                            default:
+                                throw new IOException("Unexpected value type read from stream: " + type);
+                        }
+                    }
+                });
+                components[index] = component;
+            }
+            return component;
+        }
+
+        private DependencyRecord readDependencies(int position) {
+            return data.read(position, new BinaryStore.ReadAction<DependencyRecord>() {
+                public DependencyRecord read(Decoder decoder) throws IOException {
+                    byte type = decoder.readByte();
+                    if (type != DEPENDENCY) {
+                        throw new IOException("Unexpected value type read from stream: " + type);
+                    }
+                    int from = decoder.readSmallInt();
+                    int size = decoder.readSmallInt();
+                    List<InternalDependencyResult> dependencies = new ArrayList<InternalDependencyResult>(size);
+                    for (int i = 0; i < size; i++) {
+                        dependencies.add(internalDependencyResultSerializer.read(decoder, failures));
+                    }
+                    return new DependencyRecord(from, dependencies);
+                }
+            });
+        }
+    }
+
+    private static class DependencyRecord {
+        private final int from;
+        private final List<InternalDependencyResult> dependencies;
+
+        DependencyRecord(int from, List<InternalDependencyResult> dependencies) {
+            this.from = from;
+            this.dependencies = dependencies;
+        }
+    }
+
+    private static class LazyComponentResult extends DefaultResolvedComponentResult {
+        private final ComponentGraph graph;
+        private final int index;
+        private boolean dependenciesLoaded;
+        private boolean dependentsLoaded;
+
+        LazyComponentResult(ComponentGraph graph, int index, ModuleVersionIdentifier id, ComponentSelectionReason selectionReason, ComponentIdentifier componentId) {
+            super(id, selectionReason, componentId);
+            this.graph = graph;
+            this.index = index;
+        }
+
+        @Override
+        public Set<DependencyResult> getDependencies() {
+            graph.loadDependencies(this);
+            return super.getDependencies();
+        }
+
+        @Override
+        public Set<ResolvedDependencyResult> getDependents() {
+            graph.loadDependents(this);
+            return super.getDependents();
         }
     }
 }
@@ -16,13 +16,15 @@
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
 
 import org.gradle.api.internal.cache.BinaryStore;
-import org.gradle.internal.concurrent.CompositeStoppable;
-import org.gradle.internal.io.RandomAccessFileInputStream;
+import org.gradle.internal.io.ByteBufferInputStream;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 
 import static org.gradle.internal.UncheckedException.throwAsUncheckedException;
 
@@ -57,6 +59,13 @@ class DefaultBinaryStore implements BinaryStore, Closeable {
         }
     }
 
+    public int getPosition() {
+        if (encoder == null || offset == -1) {
+            return 0;
+        }
+        return encoder.getWritePosition() - offset;
+    }
+
     private String diagnose() {
         return toString() + " (exist: " + file.exists() + ")";
     }
@@ -67,10 +76,12 @@ class DefaultBinaryStore implements BinaryStore, Closeable {
 
     public BinaryData done() {
         try {
+            int end = offset;
             if (encoder != null) {
                 encoder.flush();
+                end = encoder.getWritePosition();
             }
-            return new SimpleBinaryData(file, offset, diagnose());
+            return new SimpleBinaryData(file, offset, end, diagnose());
         } finally {
             offset = -1;
         }
@@ -98,27 +109,34 @@ class DefaultBinaryStore implements BinaryStore, Closeable {
         return file.length();
     }
 
+    /**
+     * Reads the data back from a read-only mapping of the region of the store file that was written for it. The mapping is created on first read
+     * and shared by all later reads, until the data is closed. No file handle is held open while the data is in use, but on Windows the store file
+     * can only be deleted once the mapping has been garbage collected, so it is left to be deleted on exit in that case.
+     */
     private static class SimpleBinaryData implements BinaryStore.BinaryData {
+        // Values read by position are small, so a small buffer avoids reading ahead through the rest of the region
+        private static final int POSITIONAL_READ_BUFFER_SIZE = 256;
+
         private final int offset;
+        private final int end;
         private final File inputFile;
         private final String sourceDescription;
 
+        private MappedByteBuffer mapped;
         private Decoder decoder;
-        private CompositeStoppable resources;
 
-        public SimpleBinaryData(File inputFile, int offset, String sourceDescription) {
+        public SimpleBinaryData(File inputFile, int offset, int end, String sourceDescription) {
             this.inputFile = inputFile;
             this.offset = offset;
+            this.end = end;
             this.sourceDescription = sourceDescription;
         }
 
-        public <T> T read(BinaryStore.ReadAction<T> readAction) {
+        public synchronized <T> T read(BinaryStore.ReadAction<T> readAction) {
             try {
                 if (decoder == null) {
-                    RandomAccessFile randomAccess = new RandomAccessFile(inputFile, "r");
-                    randomAccess.seek(offset);
-                    decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(randomAccess));
-                    resources = new CompositeStoppable().add(randomAccess, decoder);
+                    decoder = new KryoBackedDecoder(new ByteBufferInputStream(getMapped().duplicate()));
                 }
                 return readAction.read(decoder);
             } catch (Exception e) {
@@ -126,19 +144,35 @@ class DefaultBinaryStore implements BinaryStore, Closeable {
             }
         }
 
-        public void close() {
+        public synchronized <T> T read(int position, BinaryStore.ReadAction<T> readAction) {
             try {
-                if (resources != null) {
-                    resources.stop();
-                }
+                ByteBuffer buffer = getMapped().duplicate();
+                buffer.position(position);
+                return readAction.read(new KryoBackedDecoder(new ByteBufferInputStream(buffer), POSITIONAL_READ_BUFFER_SIZE));
             } catch (Exception e) {
-                throw new RuntimeException("Problems cleaning resources of " + sourceDescription, e);
-            } finally {
-                decoder = null;
-                resources = null;
+                throw new RuntimeException("Problems reading data at position " + position + " from " + sourceDescription, e);
             }
         }
 
+        private MappedByteBuffer getMapped() throws IOException {
+            if (mapped == null) {
+                RandomAccessFile randomAccess = new RandomAccessFile(inputFile, "r");
+                try {
+                    mapped = randomAccess.getChannel().map(FileChannel.MapMode.READ_ONLY, offset, end - offset);
+                } finally {
+                    // The mapping remains valid after the channel is closed
+                    randomAccess.close();
+                }
+            }
+            return mapped;
+        }
+
+        public synchronized void close() {
+            // Drop the decoder and the mapping, so that the mapping can be released once it is no longer referenced
+            decoder = null;
+            mapped = null;
+        }
+
         public String toString() {
             return sourceDescription;
         }
@@ -16,6 +16,7 @@
 package org.gradle.internal.resource.local.ivy;
 
 import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheMetaData;
+import org.gradle.api.internal.artifacts.ivyservice.ReadOnlyArtifactCache;
 import org.gradle.internal.component.external.model.ModuleComponentArtifactMetaData;
 import org.gradle.api.internal.artifacts.mvnsettings.CannotLocateLocalMavenRepositoryException;
 import org.gradle.api.internal.artifacts.mvnsettings.LocalMavenRepositoryLocator;
@@ -43,12 +44,15 @@ public class LocallyAvailableResourceFinderFactory implements Factory<LocallyAva
     private final File rootCachesDirectory;
     private final LocalMavenRepositoryLocator localMavenRepositoryLocator;
     private final FileStoreSearcher<ModuleComponentArtifactMetaData> fileStore;
+    private final ReadOnlyArtifactCache readOnlyArtifactCache;
 
     public LocallyAvailableResourceFinderFactory(
-            ArtifactCacheMetaData artifactCacheMetaData, LocalMavenRepositoryLocator localMavenRepositoryLocator, FileStoreSearcher<ModuleComponentArtifactMetaData> fileStore) {
+            ArtifactCacheMetaData artifactCacheMetaData, LocalMavenRepositoryLocator localMavenRepositoryLocator, FileStoreSearcher<ModuleComponentArtifactMetaData> fileStore,
+            ReadOnlyArtifactCache readOnlyArtifactCache) {
         this.rootCachesDirectory = artifactCacheMetaData.getCacheDir().getParentFile();
         this.localMavenRepositoryLocator = localMavenRepositoryLocator;
         this.fileStore = fileStore;
+        this.readOnlyArtifactCache = readOnlyArtifactCache;
     }
 
     public LocallyAvailableResourceFinder<ModuleComponentArtifactMetaData> create() {
@@ -59,6 +63,12 @@ public class LocallyAvailableResourceFinderFactory implements Factory<LocallyAva
         // The current filestore
         finders.add(new LocallyAvailableResourceFinderSearchableFileStoreAdapter<ModuleComponentArtifactMetaData>(fileStore));
 
+        // The read-only file store
+        File readOnlyFileStore = readOnlyArtifactCache.getFileStoreDirectory();
+        if (readOnlyFileStore != null) {
+            addForPattern(finders, readOnlyFileStore, new IvyResourcePattern("[organisation]/[module](/[branch])/[revision]/*/[artifact]-[revision](-[classifier])(.[ext])"));
+        }
+
         // 1.8
         addForPattern(finders, "artifacts-26/filestore/[organisation]/[module](/[branch])/[revision]/[type]/*/[artifact]-[revision](-[classifier])(.[ext])");
 
@@ -34,6 +34,7 @@ import org.gradle.internal.resource.ResourceExceptions;
 import org.gradle.internal.resource.cached.CachedExternalResource;
 import org.gradle.internal.resource.cached.CachedExternalResourceIndex;
 import org.gradle.internal.resource.local.*;
+import org.gradle.internal.resource.metadata.DefaultExternalResourceMetaData;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaDataCompare;
 import org.gradle.internal.resource.transport.ExternalResourceRepository;
@@ -81,16 +82,17 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
             return new DefaultLocallyAvailableExternalResource(location, new DefaultLocallyAvailableResource(cached.getCachedFile()), cached.getExternalResourceMetaData());
         }
 
-        // Get the metadata first to see if it's there
-        final ExternalResourceMetaData remoteMetaData = delegate.getResourceMetaData(location);
+        // Get the metadata first to see if it's there, revalidating the cached copy where the transport supports it
+        final ExternalResourceMetaData cachedMetaData = cached == null ? null : cached.getExternalResourceMetaData();
+        final ExternalResourceMetaData remoteMetaData = cachedMetaData == null ? delegate.getResourceMetaData(location) : delegate.getResourceMetaData(location, cachedMetaData);
         if (remoteMetaData == null) {
             return null;
         }
 
         // Is the cached version still current?
         if (cached != null) {
-            boolean isUnchanged = ExternalResourceMetaDataCompare.isDefinitelyUnchanged(
-                    cached.getExternalResourceMetaData(),
+            boolean isUnchanged = remoteMetaData == cachedMetaData || ExternalResourceMetaDataCompare.isDefinitelyUnchanged(
+                    cachedMetaData,
                     new Factory<ExternalResourceMetaData>() {
                         public ExternalResourceMetaData create() {
                             return remoteMetaData;
@@ -100,21 +102,14 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
 
             if (isUnchanged) {
                 LOGGER.info("Cached resource {} is up-to-date (lastModified: {}).", location, cached.getExternalLastModified());
-                // TODO - update the index with the new remote meta-data
-                return new DefaultLocallyAvailableExternalResource(location, new DefaultLocallyAvailableResource(cached.getCachedFile()), cached.getExternalResourceMetaData());
+                return refreshCachedResource(location, cached);
             }
         }
 
         // Either no cached, or it's changed. See if we can find something local with the same checksum
         boolean hasLocalCandidates = localCandidates != null && !localCandidates.isNone();
         if (hasLocalCandidates) {
-            // The “remote” may have already given us the checksum
-            HashValue remoteChecksum = remoteMetaData.getSha1();
-
-            if (remoteChecksum == null) {
-                remoteChecksum = getResourceSha1(location);
-            }
-
+            HashValue remoteChecksum = getRemoteChecksum(location, remoteMetaData);
             if (remoteChecksum != null) {
                 LocallyAvailableResource local = localCandidates.findByHashValue(remoteChecksum);
                 if (local != null) {
@@ -122,6 +117,9 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
                     // TODO - should iterate over each candidate until we successfully copy into the cache
                     LocallyAvailableExternalResource resource = copyCandidateToCache(location, fileStore, remoteMetaData, remoteChecksum, local);
                     if (resource != null) {
+                        if (remoteMetaData.getSha1() == null) {
+                            rememberChecksum(location, remoteMetaData, remoteChecksum, local);
+                        }
                         return resource;
                     }
                 }
@@ -132,6 +130,47 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
         return copyToCache(location, fileStore, delegate.withProgressLogging().getResource(location));
     }
 
+    @Nullable
+    private HashValue getRemoteChecksum(URI location, final ExternalResourceMetaData remoteMetaData) {
+        // The “remote” may have already given us the checksum
+        if (remoteMetaData.getSha1() != null) {
+            return remoteMetaData.getSha1();
+        }
+
+        // A checksum that was fetched earlier can be used for as long as the resource has not changed
+        CachedExternalResource checksum = cachedExternalResourceIndex.lookup(checksumKey(location));
+        if (checksum != null && !checksum.isMissing()) {
+            ExternalResourceMetaData checksumMetaData = checksum.getExternalResourceMetaData();
+            if (checksumMetaData != null && checksumMetaData.getSha1() != null && ExternalResourceMetaDataCompare.isDefinitelyUnchanged(
+                    checksumMetaData,
+                    new Factory<ExternalResourceMetaData>() {
+                        public ExternalResourceMetaData create() {
+                            return remoteMetaData;
+                        }
+                    }
+            )) {
+                LOGGER.debug("Using checksum of {} fetched by an earlier request.", location);
+                return checksumMetaData.getSha1();
+            }
+        }
+
+        return getResourceSha1(location);
+    }
+
+    /**
+     * Records a checksum fetched from the repository along with the metadata of the resource it belongs to, and the local file that matched it.
+     * The entry is dropped once that file no longer exists.
+     */
+    private void rememberChecksum(URI location, ExternalResourceMetaData remoteMetaData, HashValue checksum, LocallyAvailableResource local) {
+        ExternalResourceMetaData checksumMetaData = new DefaultExternalResourceMetaData(location, remoteMetaData.getLastModified(), remoteMetaData.getContentLength(),
+                remoteMetaData.getContentType(), remoteMetaData.getEtag(), checksum);
+        cachedExternalResourceIndex.store(checksumKey(location), local.getFile(), checksumMetaData);
+    }
+
+    private static String checksumKey(URI location) {
+        return "sha1:" + location;
+    }
+
     private HashValue getResourceSha1(URI location) {
         try {
             URI sha1Location = new URI(location.toASCIIString() + ".sha1");
@@ -211,6 +250,16 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
         });
     }
 
+    private LocallyAvailableExternalResource refreshCachedResource(final URI source, final CachedExternalResource cached) {
+        // Record that the cached copy has been revalidated, so that later requests in this build do not check it again
+        return cacheLockingManager.useCache(String.format("Refresh %s", source), new Factory<LocallyAvailableExternalResource>() {
+            public LocallyAvailableExternalResource create() {
+                cachedExternalResourceIndex.store(source.toString(), cached.getCachedFile(), cached.getExternalResourceMetaData());
+                return new DefaultLocallyAvailableExternalResource(source, new DefaultLocallyAvailableResource(cached.getCachedFile()), cached.getExternalResourceMetaData());
+            }
+        });
+    }
+
     public long getAgeMillis(BuildCommencedTimeProvider timeProvider, CachedExternalResource cached) {
         return timeProvider.getCurrentTime() - cached.getCachedAt();
     }
@@ -46,6 +46,11 @@ public class ProgressLoggingExternalResourceAccessor extends AbstractProgressLog
         return delegate.getMetaData(location);
     }
 
+    @Nullable
+    public ExternalResourceMetaData getMetaData(URI location, @Nullable ExternalResourceMetaData cached) {
+        return delegate.getMetaData(location, cached);
+    }
+
     private class ProgressLoggingExternalResource implements ExternalResourceReadResponse {
         private final ExternalResourceReadResponse resource;
         private final ResourceOperation downloadOperation;
@@ -17,6 +17,7 @@
 package org.gradle.internal.resource.transport;
 
 
+import org.gradle.api.Nullable;
 import org.gradle.internal.resource.ExternalResource;
 import org.gradle.internal.resource.local.LocalResource;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
@@ -68,6 +69,10 @@ public class DefaultExternalResourceRepository implements ExternalResourceReposi
         return accessor.getMetaData(source);
     }
 
+    public ExternalResourceMetaData getResourceMetaData(URI source, @Nullable ExternalResourceMetaData cached) {
+        return accessor.getMetaData(source, cached);
+    }
+
     public void put(LocalResource source, URI destination) throws IOException {
         LOGGER.debug("Attempting to put resource {}.", destination);
         uploader.upload(source, destination);
@@ -60,6 +60,18 @@ public interface ExternalResourceRepository {
     @Nullable
     ExternalResourceMetaData getResourceMetaData(URI source) throws ResourceException;
 
+    /**
+     * Fetches only the metadata for the result, revalidating the metadata of a previously fetched copy of the resource.
+     * May return the given cached metadata when the repository can determine that the resource is unchanged.
+     *
+     * @param source The location of the resource to obtain the metadata for
+     * @param cached The metadata of the previously fetched copy of the resource, if any
+     * @return The resource metadata, or null if the resource does not exist
+     * @throws ResourceException On failure to fetch resource metadata.
+     */
+    @Nullable
+    ExternalResourceMetaData getResourceMetaData(URI source, @Nullable ExternalResourceMetaData cached) throws ResourceException;
+
     /**
      * Return a listing of child resources names.
      *
@@ -84,6 +84,10 @@ public class FileResourceConnector implements ExternalResourceRepository {
         return resource == null ? null : resource.getMetaData();
     }
 
+    public ExternalResourceMetaData getResourceMetaData(URI location, ExternalResourceMetaData cached) {
+        return getResourceMetaData(location);
+    }
+
     private static File getFile(URI uri) {
         return new File(uri);
     }
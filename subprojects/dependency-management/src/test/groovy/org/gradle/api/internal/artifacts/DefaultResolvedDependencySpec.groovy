@@ -16,6 +16,7 @@
 package org.gradle.api.internal.artifacts
 
 import org.gradle.api.artifacts.ResolvedArtifact
+import org.gradle.internal.Factory
 import spock.lang.Specification
 
 class DefaultResolvedDependencySpec extends Specification {
@@ -80,6 +81,43 @@ class DefaultResolvedDependencySpec extends Specification {
         dependency.getParentArtifacts(parent) as List == [artifact1, artifact2, artifact3, artifact4, artifact5, artifact6, artifact7]
     }
 
+    def "resolves parent specific artifacts only when they are queried"() {
+        ResolvedArtifact artifact1 = artifact("a", null, "jar", "jar")
+        ResolvedArtifact artifact2 = artifact("b", null, "jar", "jar")
+        DefaultResolvedDependency parent1 = Mock()
+        DefaultResolvedDependency parent2 = Mock()
+        Factory<Set<ResolvedArtifact>> artifacts1 = Mock()
+        Factory<Set<ResolvedArtifact>> artifacts2 = Mock()
+
+        given:
+        dependency.parents.add(parent1)
+        dependency.parents.add(parent2)
+
+        when:
+        dependency.addParentSpecificArtifacts(parent1, artifacts1)
+        dependency.addParentSpecificArtifacts(parent2, artifacts2)
+
+        then:
+        0 * artifacts1._
+        0 * artifacts2._
+
+        when:
+        def result = dependency.getParentArtifacts(parent1)
+
+        then:
+        result == [artifact1] as Set
+        1 * artifacts1.create() >> ([artifact1] as Set)
+        0 * artifacts2._
+
+        when:
+        result = dependency.moduleArtifacts
+
+        then:
+        result as List == [artifact1, artifact2]
+        1 * artifacts2.create() >> ([artifact2] as Set)
+        0 * artifacts1._
+    }
+
     def artifact(String name, String classifier, String type, String extension) {
         ResolvedArtifact artifact = Mock()
         _ * artifact.toString() >> "$name-$classifier-$type.$extension"
@@ -15,17 +15,26 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice
 
+import org.gradle.api.artifacts.Configuration
 import org.gradle.api.artifacts.LenientConfiguration
 import org.gradle.api.artifacts.ResolveException
 import org.gradle.api.artifacts.ResolvedConfiguration
+import org.gradle.api.artifacts.ResolvedDependency
+import org.gradle.api.artifacts.UnresolvedDependency
 import org.gradle.api.artifacts.result.ResolutionResult
 import org.gradle.api.internal.artifacts.ConfigurationResolver
 import org.gradle.api.internal.artifacts.DefaultResolverResults
 import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvedArtifacts
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.oldresult.TransientConfigurationResults
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.projectresult.ResolvedLocalComponentsResult
 import org.gradle.api.specs.Specs
+import org.gradle.internal.Factory
+import org.gradle.internal.resolve.ArtifactResolveException
+import org.gradle.internal.resolve.ModuleVersionResolveException
 import spock.lang.Specification
 
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionSelector.newSelector
 import static org.junit.Assert.fail
 
 class ErrorHandlingConfigurationResolverTest extends Specification {
@@ -125,6 +134,85 @@ class ErrorHandlingConfigurationResolverTest extends Specification {
                 .when { result.unresolvedModuleDependencies }
     }
 
+    void "reports failure to resolve artifacts when artifacts are queried"() {
+        given:
+        def failure = new ArtifactResolveException("broken")
+        def dependencies = [] as Set
+
+        resolvedConfiguration.hasError() >> false
+        resolvedConfiguration.getFirstLevelModuleDependencies() >> dependencies
+        resolvedConfiguration.getResolvedArtifacts() >> { throw failure }
+        resolvedConfiguration.getFiles(_) >> { throw failure }
+
+        delegate.resolve(context, results) >> { results.resolved(resolutionResult, projectConfigResult) }
+        delegate.resolveArtifacts(context, results) >> { results.withResolvedConfiguration(resolvedConfiguration) }
+
+        when:
+        resolver.resolve(context, results)
+        resolver.resolveArtifacts(context, results)
+
+        then:
+        def result = results.resolvedConfiguration
+        !result.hasError()
+        result.firstLevelModuleDependencies.is(dependencies)
+        failsWith(failure)
+                .when { result.resolvedArtifacts }
+                .when { result.getFiles(Specs.satisfyAll()) }
+    }
+
+    void "failure to resolve artifact meta-data is not reported as an error of the resolved configuration"() {
+        given:
+        def failure = new ArtifactResolveException("broken")
+        def artifacts = Stub(ResolvedArtifacts) {
+            getArtifacts() >> { throw failure }
+        }
+        def dependencies = [Stub(ResolvedDependency)] as Set
+        def graphResults = Stub(TransientConfigurationResults) {
+            getRoot() >> Stub(ResolvedDependency) {
+                getChildren() >> dependencies
+            }
+        }
+        def lenientConfiguration = new DefaultLenientConfiguration(Stub(Configuration), Stub(CacheLockingManager), [] as Set, artifacts, { graphResults } as Factory)
+
+        delegate.resolve(context, results) >> { results.resolved(resolutionResult, projectConfigResult) }
+        delegate.resolveArtifacts(context, results) >> { results.withResolvedConfiguration(new DefaultResolvedConfiguration(lenientConfiguration)) }
+
+        when:
+        resolver.resolve(context, results)
+        resolver.resolveArtifacts(context, results)
+        def result = results.resolvedConfiguration
+        result.rethrowFailure()
+
+        then:
+        !result.hasError()
+        result.firstLevelModuleDependencies == dependencies
+        failsWith(failure)
+                .when { result.resolvedArtifacts }
+                .when { result.getFiles(Specs.satisfyAll()) }
+    }
+
+    void "unresolved dependencies are reported as an error of the resolved configuration"() {
+        given:
+        def failure = new ModuleVersionResolveException(newSelector("org", "lib", "1.0"), "broken")
+        def unresolvedDependency = Stub(UnresolvedDependency) {
+            getProblem() >> failure
+        }
+        def lenientConfiguration = new DefaultLenientConfiguration(Stub(Configuration), Stub(CacheLockingManager), [unresolvedDependency] as Set, Stub(ResolvedArtifacts), Stub(Factory))
+
+        delegate.resolve(context, results) >> { results.resolved(resolutionResult, projectConfigResult) }
+        delegate.resolveArtifacts(context, results) >> { results.withResolvedConfiguration(new DefaultResolvedConfiguration(lenientConfiguration)) }
+
+        when:
+        resolver.resolve(context, results)
+        resolver.resolveArtifacts(context, results)
+        results.resolvedConfiguration.rethrowFailure()
+
+        then:
+        results.resolvedConfiguration.hasError()
+        ResolveException e = thrown()
+        e.causes == [failure]
+    }
+
     void "wraps exceptions thrown by resolution result"() {
         given:
         def failure = new RuntimeException()
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ReadOnlyArtifactCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def "locates file store of read-only cache"() {
+        tmpDir.createDir("caches/modules-2/files-2.1")
+
+        expect:
+        new ReadOnlyArtifactCache(tmpDir.file("caches")).fileStoreDirectory == tmpDir.file("caches/modules-2/files-2.1")
+    }
+
+    def "ignores cache location without a file store"() {
+        tmpDir.createDir("caches")
+
+        expect:
+        new ReadOnlyArtifactCache(tmpDir.file("caches")).fileStoreDirectory == null
+        new ReadOnlyArtifactCache(null).fileStoreDirectory == null
+    }
+}
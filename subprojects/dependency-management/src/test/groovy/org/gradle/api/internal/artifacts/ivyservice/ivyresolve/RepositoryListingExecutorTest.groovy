@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve
+
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class RepositoryListingExecutorTest extends Specification {
+    def cacheLockingManager = Mock(CacheLockingManager)
+    def executorFactory = new DefaultExecutorFactory()
+    def executor = new RepositoryListingExecutor(executorFactory, cacheLockingManager, 4)
+
+    def cleanup() {
+        executor.stop()
+        executorFactory.stop()
+    }
+
+    def "runs operations concurrently while the cache lock is released"() {
+        def latch = new CountDownLatch(3)
+        def operations = (1..3).collect {
+            { ->
+                latch.countDown()
+                assert latch.await(5, TimeUnit.SECONDS)
+            } as Runnable
+        }
+
+        when:
+        executor.runAll("list", operations)
+
+        then:
+        1 * cacheLockingManager.longRunningOperation("list", _) >> { String name, Runnable action -> action.run() }
+        3 * cacheLockingManager.useCache("list", _) >> { String name, Runnable action -> action.run() }
+        latch.count == 0
+    }
+
+    def "runs a single operation in the calling thread"() {
+        def thread = null
+
+        when:
+        executor.runAll("list", [{ thread = Thread.currentThread() } as Runnable])
+
+        then:
+        thread == Thread.currentThread()
+        0 * cacheLockingManager._
+    }
+
+    def "rethrows failure after all operations have completed"() {
+        def failure = new RuntimeException("broken")
+        def completed = false
+
+        when:
+        executor.runAll("list", [{ throw failure } as Runnable, { Thread.sleep(100); completed = true } as Runnable])
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+        completed
+        1 * cacheLockingManager.longRunningOperation("list", _) >> { String name, Runnable action -> action.run() }
+        2 * cacheLockingManager.useCache("list", _) >> { String name, Runnable action -> action.run() }
+    }
+
+    def "runs nested operations in the worker thread"() {
+        def threads = []
+
+        when:
+        executor.runAll("list", [{
+            executor.runAll("nested", [{ threads << Thread.currentThread() } as Runnable, { threads << Thread.currentThread() } as Runnable])
+            threads << Thread.currentThread()
+        } as Runnable, {} as Runnable])
+
+        then:
+        1 * cacheLockingManager.longRunningOperation("list", _) >> { String name, Runnable action -> action.run() }
+        2 * cacheLockingManager.useCache("list", _) >> { String name, Runnable action -> action.run() }
+        0 * cacheLockingManager._
+        threads.size() == 3
+        threads.unique().size() == 1
+        threads[0] != Thread.currentThread()
+    }
+}
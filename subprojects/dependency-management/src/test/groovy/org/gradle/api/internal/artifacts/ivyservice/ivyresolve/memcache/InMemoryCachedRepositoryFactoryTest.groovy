@@ -17,6 +17,7 @@
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache
 
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
 import org.gradle.util.SetSystemProperties
 import org.junit.Rule
 import spock.lang.Specification
@@ -24,7 +25,7 @@ import spock.lang.Specification
 class InMemoryCachedRepositoryFactoryTest extends Specification {
 
     @Rule SetSystemProperties sysProp = new SetSystemProperties()
-    def cache = new InMemoryCachedRepositoryFactory()
+    def cache = new InMemoryCachedRepositoryFactory(new DefaultVersionComparator())
 
     def "can be turned off via system property"() {
         System.properties.setProperty(InMemoryCachedRepositoryFactory.TOGGLE_PROPERTY, "false")
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache
 
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
 import org.gradle.internal.component.external.model.MutableModuleComponentResolveMetaData
 import org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult
@@ -27,7 +28,7 @@ import static org.gradle.api.internal.artifacts.DefaultModuleVersionSelector.new
 class InMemoryMetaDataCacheTest extends Specification {
 
     def stats = new InMemoryCacheStats()
-    def cache = new InMemoryMetaDataCache(stats)
+    def cache = new InMemoryMetaDataCache(stats, new DefaultVersionComparator())
 
     static componentId(String group, String module, String version) {
         return DefaultModuleComponentIdentifier.newId(group, module, version)
@@ -57,6 +58,22 @@ class InMemoryMetaDataCacheTest extends Specification {
         0 * missingResult._
     }
 
+    def "supplies cached module versions latest first"() {
+        def result = Mock(BuildableModuleVersionListingResolveResult)
+
+        given:
+        cache.newModuleVersions(newSelector("org", "lib", "1.+"), Stub(BuildableModuleVersionListingResolveResult) {
+            getState() >> BuildableModuleVersionListingResolveResult.State.Listed
+            getVersions() >> (['1.2', '1.10', '1.0-rc1', '1.0', '1.9'] as Set)
+        })
+
+        when:
+        cache.supplyModuleVersions(newSelector("org", "lib", "1.+"), result)
+
+        then:
+        1 * result.listed({ it as List == ['1.10', '1.9', '1.2', '1.0', '1.0-rc1'] })
+    }
+
     def "does not cache failed module version listing"() {
         def failedResult = Stub(BuildableModuleVersionListingResolveResult) {
             getState() >> BuildableModuleVersionListingResolveResult.State.Failed
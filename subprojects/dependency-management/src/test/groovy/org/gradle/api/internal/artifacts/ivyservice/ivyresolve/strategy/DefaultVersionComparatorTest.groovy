@@ -46,6 +46,29 @@ class DefaultVersionComparatorTest extends Specification {
         "1.0-1" | "1+0_2"
     }
 
+    def "compares parts numerically when they have too many digits to fit in a long"() {
+        expect:
+        compare(smaller, larger) < 0
+        compare(larger, smaller) > 0
+        compare(smaller, smaller) == 0
+        compare(larger, larger) == 0
+
+        where:
+        smaller                        | larger
+        "1.9"                          | "1.20160101120000123456"
+        "1.9223372036854775807"        | "1.9223372036854775808"
+        "1.99999999999999999999"       | "1.100000000000000000000"
+        "1.00000000000000000000001"    | "1.20000000000000000000"
+        "1.0-alpha"                    | "1.100000000000000000000"
+        "20160101120000123456"         | "20160101120000123456.1"
+    }
+
+    def "compares parts with many leading zeros numerically"() {
+        expect:
+        compare("1.000000000000000000000000000001", "1.2") < 0
+        compare("1.2", "1.000000000000000000000000000001") > 0
+    }
+
     def "compares versions lexicographically when parts are not digits"() {
         expect:
         compare(smaller, larger) < 0
@@ -189,9 +212,11 @@ class DefaultVersionComparatorTest extends Specification {
     def "can compare Version objects"() {
         def v1 = Stub(Version) {
             getParts() >> ["1", "2"]
+            getNumericParts() >> [1L, 2L]
         }
         def v2 = Stub(Version) {
             getParts() >> ["1", "3"]
+            getNumericParts() >> [1L, 3L]
         }
 
         expect:
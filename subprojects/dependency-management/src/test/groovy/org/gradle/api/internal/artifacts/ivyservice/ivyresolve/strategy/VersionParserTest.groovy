@@ -63,6 +63,25 @@ class VersionParserTest extends Specification {
         '1\u03b12\u03b2' | ['1', '\u03b1', '2', '\u03b2']
     }
 
+    def "calculates numeric value of parts"() {
+        expect:
+        def version = parse(versionStr)
+        version.numericParts as List == numericParts
+
+        where:
+        versionStr                    | numericParts
+        '1.2.3'                       | [1L, 2L, 3L]
+        '1.2-beta4'                   | [1L, 2L, null, 4L]
+        '01.a'                        | [1L, null]
+        '1..2'                        | [1L, null, 2L]
+        '1.99999999999999999999999'   | [1L, null]
+    }
+
+    def "reuses parsed version"() {
+        expect:
+        parse("1.2-beta4").is(parse("1.2-beta4"))
+    }
+
     def "base version includes the first . separated parts"() {
         expect:
         def version = parse(versionStr)
@@ -213,6 +213,44 @@ public class DefaultCachePolicySpec extends Specification {
         copy.artifactCacheRules == cachePolicy.artifactCacheRules
     }
 
+    def "policies with the same timeouts have equal rules keys"() {
+        def other = new DefaultCachePolicy()
+
+        expect:
+        other.rulesKey == cachePolicy.rulesKey
+        other.rulesKey.hashCode() == cachePolicy.rulesKey.hashCode()
+
+        when:
+        cachePolicy.cacheDynamicVersionsFor(10, TimeUnit.MINUTES)
+        cachePolicy.cacheChangingModulesFor(1, TimeUnit.HOURS)
+
+        then:
+        other.rulesKey != cachePolicy.rulesKey
+
+        when:
+        other.cacheDynamicVersionsFor(600, TimeUnit.SECONDS)
+        other.cacheChangingModulesFor(60, TimeUnit.MINUTES)
+
+        then:
+        other.rulesKey == cachePolicy.rulesKey
+    }
+
+    def "policies with different custom rules have different rules keys"() {
+        def other = cachePolicy.copy()
+        when:
+        cachePolicy.eachDependency({} as Action)
+        other.eachDependency({} as Action)
+
+        then:
+        other.rulesKey != cachePolicy.rulesKey
+
+        when:
+        def copy = cachePolicy.copy()
+
+        then:
+        copy.rulesKey == cachePolicy.rulesKey
+    }
+
     def "mutation is checked"() {
         def validator = Mock(MutationValidator)
         given:
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine
+
+import org.gradle.api.artifacts.ConflictResolution
+import org.gradle.api.artifacts.DependencySet
+import org.gradle.api.artifacts.ExcludeRule
+import org.gradle.api.artifacts.ExternalModuleDependency
+import org.gradle.api.artifacts.ProjectDependency
+import org.gradle.api.artifacts.repositories.AuthenticationContainer
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository
+import org.gradle.api.internal.artifacts.ArtifactDependencyResolver
+import org.gradle.api.internal.artifacts.ComponentSelectionRulesInternal
+import org.gradle.api.internal.artifacts.DefaultExcludeRule
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules
+import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifier
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal
+import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DependencySubstitutionsInternal
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.MetaDataParser
+import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.DefaultCachePolicy
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphNode
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ModuleVersionSelection
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.VersionSelectionReasons
+import org.gradle.api.internal.artifacts.repositories.DefaultMavenArtifactRepository
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository
+import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransportFactory
+import org.gradle.api.internal.file.FileResolver
+import org.gradle.internal.component.model.ComponentResolveMetaData
+import org.gradle.internal.reflect.DirectInstantiator
+import org.gradle.internal.resource.local.FileStore
+import org.gradle.internal.resource.local.LocallyAvailableResourceFinder
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+import java.util.concurrent.TimeUnit
+
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier.newId
+
+class DeduplicatingArtifactDependencyResolverTest extends ConcurrentSpec {
+    final target = Mock(ArtifactDependencyResolver)
+    final metadataHandler = GlobalDependencyResolutionRules.NO_OP
+    final resolver = new DeduplicatingArtifactDependencyResolver(target)
+
+    def "resolves configuration with project dependencies using target resolver"() {
+        def configuration = configuration("a", Stub(ProjectDependency))
+        def graphVisitor = Mock(DependencyGraphVisitor)
+        def artifactsVisitor = Mock(DependencyArtifactsVisitor)
+
+        when:
+        resolver.resolve(configuration, [], metadataHandler, graphVisitor, artifactsVisitor)
+
+        then:
+        1 * target.resolve(configuration, [], metadataHandler, graphVisitor, artifactsVisitor)
+    }
+
+    def "replays graph of configuration with same external dependencies for a different root"() {
+        def first = configuration("a", dependency("org", "lib", "1.0"))
+        def second = configuration("b", dependency("org", "lib", "1.0"))
+        def root = rootNode("a")
+        def graphVisitor = Mock(DependencyGraphVisitor)
+
+        when:
+        resolver.resolve(first, [], metadataHandler, Stub(DependencyGraphVisitor), Stub(DependencyArtifactsVisitor))
+
+        then:
+        1 * target.resolve(first, [], metadataHandler, _, _) >> { args ->
+            DependencyGraphVisitor visitor = args[3]
+            visitor.start(root)
+            visitor.visitNode(root)
+            visitor.finish(root)
+        }
+
+        when:
+        resolver.resolve(second, [], metadataHandler, graphVisitor, Stub(DependencyArtifactsVisitor))
+
+        then:
+        0 * target._
+        1 * graphVisitor.start({ it.toId() == newId("org", "b", "1.0") })
+        1 * graphVisitor.visitNode({ it.nodeId.configuration == "compile" && it.toId() == newId("org", "b", "1.0") })
+        1 * graphVisitor.finish(_)
+    }
+
+    def "resolves configuration with different external dependencies using target resolver"() {
+        def first = configuration("a", dependency("org", "lib", "1.0"))
+        def second = configuration("b", dependency("org", "lib", "2.0"))
+
+        when:
+        resolver.resolve(first, [], metadataHandler, Stub(DependencyGraphVisitor), Stub(DependencyArtifactsVisitor))
+        resolver.resolve(second, [], metadataHandler, Stub(DependencyGraphVisitor), Stub(DependencyArtifactsVisitor))
+
+        then:
+        1 * target.resolve(first, [], metadataHandler, _, _) >> { args -> replayRoot(args[3], rootNode("a")) }
+        1 * target.resolve(second, [], metadataHandler, _, _)
+    }
+
+    def "does not share graph that failed to resolve"() {
+        def first = configuration("a", dependency("org", "lib", "1.0"))
+        def second = configuration("b", dependency("org", "lib", "1.0"))
+
+        when:
+        resolver.resolve(first, [], metadataHandler, Stub(DependencyGraphVisitor), Stub(DependencyArtifactsVisitor))
+
+        then:
+        1 * target.resolve(first, [], metadataHandler, _, _) >> { throw new RuntimeException("broken") }
+        thrown(RuntimeException)
+
+        when:
+        resolver.resolve(second, [], metadataHandler, Stub(DependencyGraphVisitor), Stub(DependencyArtifactsVisitor))
+
+        then:
+        1 * target.resolve(second, [], metadataHandler, _, _)
+    }
+
+    def "resolves configuration with different cache policy using target resolver"() {
+        def cachePolicy = new DefaultCachePolicy()
+        cachePolicy.cacheDynamicVersionsFor(0, TimeUnit.SECONDS)
+        def first = configuration("a", dependency("org", "lib", "1.0"))
+        def second = configuration(cachePolicy, "b", dependency("org", "lib", "1.0"))
+
+        when:
+        resolver.resolve(first, [], metadataHandler, Stub(DependencyGraphVisitor), Stub(DependencyArtifactsVisitor))
+        resolver.resolve(second, [], metadataHandler, Stub(DependencyGraphVisitor), Stub(DependencyArtifactsVisitor))
+
+        then:
+        1 * target.resolve(first, [], metadataHandler, _, _) >> { args -> replayRoot(args[3], rootNode("a")) }
+        1 * target.resolve(second, [], metadataHandler, _, _)
+    }
+
+    def "does not create resolver for Maven repository to calculate fingerprint"() {
+        def repository = Mock(MavenResolutionAwareRepository)
+        def first = configuration("a", dependency("org", "lib", "1.0"))
+        def second = configuration("b", dependency("org", "lib", "1.0"))
+
+        given:
+        repository.getUrl() >> new URI("http://repo/")
+        repository.getArtifactUrls() >> ([] as Set)
+
+        when:
+        resolver.resolve(first, [repository], metadataHandler, Stub(DependencyGraphVisitor), Stub(DependencyArtifactsVisitor))
+        resolver.resolve(second, [repository], metadataHandler, Stub(DependencyGraphVisitor), Stub(DependencyArtifactsVisitor))
+
+        then:
+        1 * target.resolve(first, [repository], metadataHandler, _, _) >> { args -> replayRoot(args[3], rootNode("a")) }
+        0 * target._
+        0 * repository.createResolver()
+    }
+
+    def "resolves configuration using Maven repository with different credentials using target resolver"() {
+        def firstRepository = mavenRepository("user", "secret")
+        def secondRepository = mavenRepository("user", "other-secret")
+        def first = configuration("a", dependency("org", "lib", "1.0"))
+        def second = configuration("b", dependency("org", "lib", "1.0"))
+
+        when:
+        resolver.resolve(first, [firstRepository], metadataHandler, Stub(DependencyGraphVisitor), Stub(DependencyArtifactsVisitor))
+        resolver.resolve(second, [secondRepository], metadataHandler, Stub(DependencyGraphVisitor), Stub(DependencyArtifactsVisitor))
+
+        then:
+        1 * target.resolve(first, [firstRepository], metadataHandler, _, _) >> { args -> replayRoot(args[3], rootNode("a")) }
+        1 * target.resolve(second, [secondRepository], metadataHandler, _, _)
+    }
+
+    def "replays graph of configuration using Maven repository with same credentials"() {
+        def firstRepository = mavenRepository("user", "secret")
+        def secondRepository = mavenRepository("user", "secret")
+        def first = configuration("a", dependency("org", "lib", "1.0"))
+        def second = configuration("b", dependency("org", "lib", "1.0"))
+
+        when:
+        resolver.resolve(first, [firstRepository], metadataHandler, Stub(DependencyGraphVisitor), Stub(DependencyArtifactsVisitor))
+        resolver.resolve(second, [secondRepository], metadataHandler, Stub(DependencyGraphVisitor), Stub(DependencyArtifactsVisitor))
+
+        then:
+        1 * target.resolve(first, [firstRepository], metadataHandler, _, _) >> { args -> replayRoot(args[3], rootNode("a")) }
+        0 * target._
+    }
+
+    def "replays graph of configuration with same exclude rules in a different order"() {
+        def first = configuration("a", dependency("org", "lib", "1.0", [exclude("org", "one"), exclude("org", "two")]))
+        def second = configuration("b", dependency("org", "lib", "1.0", [exclude("org", "two"), exclude("org", "one")]))
+
+        when:
+        resolver.resolve(first, [], metadataHandler, Stub(DependencyGraphVisitor), Stub(DependencyArtifactsVisitor))
+        resolver.resolve(second, [], metadataHandler, Stub(DependencyGraphVisitor), Stub(DependencyArtifactsVisitor))
+
+        then:
+        1 * target.resolve(first, [], metadataHandler, _, _) >> { args -> replayRoot(args[3], rootNode("a")) }
+        0 * target._
+    }
+
+    def "configuration waits for graph with same inputs that is being resolved concurrently"() {
+        def first = configuration("a", dependency("org", "lib", "1.0"))
+        def second = configuration("b", dependency("org", "lib", "1.0"))
+        def graphVisitor = Mock(DependencyGraphVisitor)
+
+        when:
+        async {
+            start {
+                resolver.resolve(first, [], metadataHandler, Stub(DependencyGraphVisitor), Stub(DependencyArtifactsVisitor))
+            }
+            start {
+                thread.blockUntil.resolving
+                instant.waiting
+                resolver.resolve(second, [], metadataHandler, graphVisitor, Stub(DependencyArtifactsVisitor))
+                instant.replayed
+            }
+        }
+
+        then:
+        1 * target.resolve(first, [], metadataHandler, _, _) >> { args ->
+            instant.resolving
+            thread.blockUntil.waiting
+            replayRoot(args[3], rootNode("a"))
+            instant.resolved
+        }
+        0 * target._
+        1 * graphVisitor.start({ it.toId() == newId("org", "b", "1.0") })
+        1 * graphVisitor.visitNode(_)
+        1 * graphVisitor.finish(_)
+
+        and:
+        instant.replayed > instant.resolved
+    }
+
+    private static void replayRoot(DependencyGraphVisitor visitor, DependencyGraphNode root) {
+        visitor.start(root)
+        visitor.visitNode(root)
+        visitor.finish(root)
+    }
+
+    private DependencyGraphNode rootNode(String name) {
+        def id = newId("org", name, "1.0")
+        return Stub(DependencyGraphNode) {
+            toId() >> id
+            getNodeId() >> new ResolvedConfigurationIdentifier(id, "compile")
+            getSelection() >> Stub(ModuleVersionSelection) {
+                getSelectionReason() >> VersionSelectionReasons.ROOT
+            }
+            getOutgoingEdges() >> ([] as Set)
+            getIncomingEdges() >> ([] as Set)
+        }
+    }
+
+    private ExternalModuleDependency dependency(String group, String name, String version, List<ExcludeRule> excludeRules = []) {
+        return Stub(ExternalModuleDependency) {
+            getGroup() >> group
+            getName() >> name
+            getVersion() >> version
+            getConfiguration() >> "default"
+            isTransitive() >> true
+            getExcludeRules() >> (excludeRules as LinkedHashSet)
+            getArtifacts() >> ([] as Set)
+        }
+    }
+
+    private static ExcludeRule exclude(String group, String module) {
+        return new DefaultExcludeRule(group, module)
+    }
+
+    private DefaultMavenArtifactRepository mavenRepository(String username, String password) {
+        def fileResolver = Stub(FileResolver) {
+            resolveUri(_) >> new URI("http://repo/")
+        }
+        def repository = new DefaultMavenArtifactRepository(fileResolver, Stub(RepositoryTransportFactory), Stub(LocallyAvailableResourceFinder),
+            DirectInstantiator.INSTANCE, Stub(FileStore), Stub(MetaDataParser), Stub(AuthenticationContainer))
+        repository.credentials.username = username
+        repository.credentials.password = password
+        return repository
+    }
+
+    private ConfigurationInternal configuration(String projectName, Object... dependencies) {
+        return configuration(new DefaultCachePolicy(), projectName, dependencies)
+    }
+
+    private ConfigurationInternal configuration(DefaultCachePolicy cachePolicy, String projectName, Object... dependencies) {
+        def resolutionStrategy = Stub(ResolutionStrategyInternal) {
+            getDependencySubstitution() >> Stub(DependencySubstitutionsInternal)
+            getComponentSelection() >> Stub(ComponentSelectionRulesInternal) {
+                getRules() >> []
+            }
+            getConflictResolution() >> Stub(ConflictResolution)
+            getForcedModules() >> ([] as Set)
+            getCachePolicy() >> cachePolicy
+        }
+        def dependencySet = Stub(DependencySet) {
+            iterator() >> { dependencies.toList().iterator() }
+        }
+        def rootComponent = Stub(ComponentResolveMetaData) {
+            getId() >> newId("org", projectName, "1.0")
+        }
+        def configuration = Stub(ConfigurationInternal)
+        configuration.getName() >> "compile"
+        configuration.isTransitive() >> true
+        configuration.getExcludeRules() >> ([] as Set)
+        configuration.getDependencies() >> dependencySet
+        configuration.getHierarchy() >> ([configuration] as Set)
+        configuration.getResolutionStrategy() >> resolutionStrategy
+        configuration.toRootComponentMetaData() >> rootComponent
+        return configuration
+    }
+
+    interface MavenResolutionAwareRepository extends MavenArtifactRepository, ResolutionAwareRepository {
+    }
+}
@@ -615,6 +615,62 @@ class DefaultModuleResolutionFilterTest extends Specification {
         !spec1.intersect(spec2).acceptsSameModulesAs(spec1.intersect(spec3))
     }
 
+    def "reuses result of union and intersection with equal spec"() {
+        def rule1 = excludeRule("org", "module")
+        def rule2 = regexpExcludeRule("org", "module2")
+        def rule3 = excludeRule("org", "module3")
+        def spec = DefaultModuleResolutionFilter.excludeAny(rule1, rule2)
+
+        expect:
+        spec.union(DefaultModuleResolutionFilter.excludeAny(rule3)).is(spec.union(DefaultModuleResolutionFilter.excludeAny(rule3)))
+        spec.intersect(DefaultModuleResolutionFilter.excludeAny(rule3)).is(spec.intersect(DefaultModuleResolutionFilter.excludeAny(rule3)))
+    }
+
+    def "caches a bounded number of operation results"() {
+        def spec = DefaultModuleResolutionFilter.excludeAny(regexpExcludeRule("org", "module"))
+        def other = DefaultModuleResolutionFilter.excludeAny(regexpExcludeRule("org", "other"))
+        def union = spec.union(other)
+        def intersection = spec.intersect(other)
+
+        when:
+        (1..100).each {
+            def spec2 = DefaultModuleResolutionFilter.excludeAny(regexpExcludeRule("org", "module$it"))
+            spec.union(spec2)
+            spec.intersect(spec2)
+        }
+
+        then:
+        !spec.union(other).is(union)
+        spec.union(other).acceptsSameModulesAs(union)
+        !spec.intersect(other).is(intersection)
+        spec.intersect(other).acceptsSameModulesAs(intersection)
+    }
+
+    def "intersection that adds no exclude rules returns the original spec"() {
+        def rule1 = excludeRule("org", "module")
+        def rule2 = excludeRule("org", "module2")
+        def spec = DefaultModuleResolutionFilter.excludeAny(rule1, rule2)
+        def spec2 = DefaultModuleResolutionFilter.excludeAny(rule2)
+
+        expect:
+        spec.intersect(spec2).is(spec)
+        spec2.intersect(spec).is(spec)
+    }
+
+    def "spec with many exclude rules accepts module that is not matched by any rule"() {
+        def rules = (1..50).collect { excludeRule("org$it", "module$it") } + (1..10).collect { excludeRule("group$it", "*") } + (1..10).collect { excludeRule("*", "name$it") }
+        def spec = DefaultModuleResolutionFilter.excludeAny(rules + regexpExcludeRule("regexp.*", "*"))
+
+        expect:
+        !spec.acceptModule(moduleId("org7", "module7"))
+        !spec.acceptModule(moduleId("group3", "anything"))
+        !spec.acceptModule(moduleId("anything", "name10"))
+        !spec.acceptModule(moduleId("regexp-group", "module"))
+        spec.acceptModule(moduleId("org7", "module8"))
+        spec.acceptModule(moduleId("org", "module"))
+        spec.acceptsAllArtifacts()
+    }
+
     def "does not accept artifact that matches specific exclude rule"() {
         def rule1 = excludeArtifactRule("a", "jar", "jar")
         def rule2 = excludeArtifactRule("b", "jar", "jar")
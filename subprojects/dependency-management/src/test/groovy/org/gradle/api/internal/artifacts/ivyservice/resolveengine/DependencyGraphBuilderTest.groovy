@@ -940,6 +940,60 @@ class DependencyGraphBuilderTest extends Specification {
         modules(result) == ids(forced, b)
     }
 
+    def "resolves graph with many conflicting versions of a module in time linear to the number of versions"() {
+        given:
+        def targetConfigurationResolutions = 0
+        def countingResolver = { DependencyMetaData dependency, ConfigurationMetaData from, ComponentResolveMetaData target ->
+            targetConfigurationResolutions++
+            return dependencyToConfigurationResolver.resolveTargetConfigurations(dependency, from, target)
+        } as DependencyToConfigurationResolver
+        builder = new DependencyGraphBuilder(idResolver, metaDataResolver, moduleResolver, countingResolver, new DefaultConflictHandler(conflictResolver, moduleReplacements))
+        def components = [:]
+        def c = revision('c')
+        def d = revision('d')
+        dependsOn(c, d.id)
+        def expected = [c, d] as Set
+        versions.each { int version ->
+            def b = revision("b$version")
+            def a = revision('a', "1.$version")
+            dependsOn(root, b.id)
+            dependsOn(b, a.id)
+            dependsOn(a, c.id)
+            components[b.id] = b
+            components[a.id] = a
+            expected << b
+        }
+        expected << components[newId("group", "a", "1.${versions.max()}")]
+        components[c.id] = c
+        components[d.id] = d
+        def componentsById = components.values().collectEntries { [(it.componentId): it] }
+        _ * idResolver.resolve(_, _) >> { DependencyMetaData dependency, BuildableComponentIdResolveResult result ->
+            def target = components[newId(dependency.requested.group, dependency.requested.name, dependency.requested.version)]
+            result.resolved(target.componentId, target.id)
+        }
+        _ * metaDataResolver.resolve(_, _, _) >> { ComponentIdentifier id, ComponentOverrideMetadata requestMetaData, BuildableComponentResolveResult result ->
+            result.resolved(componentsById[id])
+        }
+        _ * conflictResolver.select(_) >> { args ->
+            Collection<ComponentResolutionState> candidates = args[0]
+            return candidates.max { it.version.substring(2) as int }
+        }
+
+        when:
+        def result = resolve()
+        result.rethrowFailure()
+
+        then:
+        modules(result) == ids(expected as ComponentResolveMetaData[])
+
+        and:
+        // Each edge from the root and to the conflicting module is attached about once, and the shared subgraph is not traversed again for each conflict
+        targetConfigurationResolutions < 3 * versions.size()
+
+        where:
+        versions << [(1..2000), (2000..1)]
+    }
+
     def revision(String name, String revision = '1.0') {
         // TODO Shouldn't really be using the local component implementation here
         def id = newId("group", name, revision)
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact
+
+import org.gradle.api.artifacts.component.ComponentArtifactIdentifier
+import org.gradle.api.artifacts.component.ComponentIdentifier
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ModuleResolutionFilter
+import org.gradle.internal.component.model.ComponentArtifactMetaData
+import org.gradle.internal.component.model.ComponentResolveMetaData
+import org.gradle.internal.component.model.ComponentUsage
+import org.gradle.internal.component.model.DefaultIvyArtifactName
+import org.gradle.internal.component.model.ModuleSource
+import org.gradle.internal.resolve.ArtifactResolveException
+import org.gradle.internal.resolve.resolver.ArtifactResolver
+import spock.lang.Specification
+
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier.newId
+
+class DefaultArtifactSetTest extends Specification {
+    def component = Stub(ComponentResolveMetaData) {
+        getId() >> newId("org", "thing", "1.0")
+        getComponentId() >> Stub(ComponentIdentifier)
+        getSource() >> Stub(ModuleSource)
+    }
+    def usage = Stub(ComponentUsage)
+    def selector = Stub(ModuleResolutionFilter) {
+        acceptArtifact(_, _) >> { module, name -> name.name != "excluded" }
+    }
+    def artifactResolver = Mock(ArtifactResolver)
+    def allResolvedArtifacts = [:]
+
+    def "does not resolve artifacts until they are queried"() {
+        when:
+        def set = new DefaultArtifactSet(component, usage, selector, artifactResolver, allResolvedArtifacts, 12)
+
+        then:
+        set.id == 12
+        0 * artifactResolver._
+
+        when:
+        def artifacts = set.artifacts
+
+        then:
+        1 * artifactResolver.resolveModuleArtifacts(component, usage, _) >> { c, u, result -> result.resolved([artifact("a"), artifact("b")]) }
+        0 * artifactResolver._
+        artifacts*.name == ["a", "b"]
+    }
+
+    def "resolves artifacts only once"() {
+        def set = new DefaultArtifactSet(component, usage, selector, artifactResolver, allResolvedArtifacts, 12)
+
+        when:
+        def first = set.artifacts
+        def second = set.artifacts
+
+        then:
+        1 * artifactResolver.resolveModuleArtifacts(component, usage, _) >> { c, u, result -> result.resolved([artifact("a")]) }
+        0 * artifactResolver._
+        second.is(first)
+    }
+
+    def "applies selector to resolved artifacts"() {
+        def set = new DefaultArtifactSet(component, usage, selector, artifactResolver, allResolvedArtifacts, 12)
+        artifactResolver.resolveModuleArtifacts(component, usage, _) >> { c, u, result -> result.resolved([artifact("a"), artifact("excluded")]) }
+
+        expect:
+        set.artifacts*.name == ["a"]
+    }
+
+    def "shares resolved artifacts with other sets"() {
+        def a = artifact("a")
+        def set1 = new DefaultArtifactSet(component, usage, selector, artifactResolver, allResolvedArtifacts, 1)
+        def set2 = new DefaultArtifactSet(component, usage, selector, artifactResolver, allResolvedArtifacts, 2)
+        artifactResolver.resolveModuleArtifacts(component, usage, _) >> { c, u, result -> result.resolved([a]) }
+
+        expect:
+        set1.artifacts.first().is(set2.artifacts.first())
+        allResolvedArtifacts.size() == 1
+    }
+
+    def "does not resolve artifact files when artifacts are queried"() {
+        def set = new DefaultArtifactSet(component, usage, selector, artifactResolver, allResolvedArtifacts, 12)
+
+        when:
+        set.artifacts
+
+        then:
+        1 * artifactResolver.resolveModuleArtifacts(component, usage, _) >> { c, u, result -> result.resolved([artifact("a")]) }
+        0 * artifactResolver.resolveArtifact(_, _, _)
+    }
+
+    def "reports failure to resolve artifacts when artifacts are queried"() {
+        def failure = new ArtifactResolveException("broken")
+
+        when:
+        def set = new DefaultArtifactSet(component, usage, selector, artifactResolver, allResolvedArtifacts, 12)
+
+        then:
+        0 * artifactResolver._
+
+        when:
+        set.artifacts
+
+        then:
+        1 * artifactResolver.resolveModuleArtifacts(component, usage, _) >> { c, u, result -> result.failed(failure) }
+        def e = thrown(ArtifactResolveException)
+        e.is(failure)
+
+        when:
+        set.artifacts
+
+        then:
+        1 * artifactResolver.resolveModuleArtifacts(component, usage, _) >> { c, u, result -> result.failed(failure) }
+        thrown(ArtifactResolveException)
+    }
+
+    private ComponentArtifactMetaData artifact(String name) {
+        return Stub(ComponentArtifactMetaData) {
+            getId() >> Stub(ComponentArtifactIdentifier)
+            getName() >> new DefaultIvyArtifactName(name, "jar", "jar")
+        }
+    }
+}
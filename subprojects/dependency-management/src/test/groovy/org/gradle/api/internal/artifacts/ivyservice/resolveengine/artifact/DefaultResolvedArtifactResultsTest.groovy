@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact
+
+import org.gradle.api.artifacts.ResolvedArtifact
+import org.gradle.internal.resolve.ArtifactResolveException
+import spock.lang.Specification
+
+class DefaultResolvedArtifactResultsTest extends Specification {
+    def results = new DefaultResolvedArtifactResults()
+    def artifact1 = Stub(ResolvedArtifact)
+    def artifact2 = Stub(ResolvedArtifact)
+    def artifact3 = Stub(ResolvedArtifact)
+    def set1 = Mock(ArtifactSet) { getId() >> 1 }
+    def set2 = Mock(ArtifactSet) { getId() >> 2 }
+
+    def setup() {
+        results.addArtifactSet(set1)
+        results.addArtifactSet(set2)
+    }
+
+    def "cannot query artifacts before they are resolved"() {
+        when:
+        results.getArtifacts(1)
+
+        then:
+        thrown(IllegalStateException)
+
+        when:
+        results.artifacts
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "does not resolve any artifact set when artifacts are resolved"() {
+        when:
+        results.resolveNow()
+
+        then:
+        0 * set1.artifacts
+        0 * set2.artifacts
+    }
+
+    def "resolves an artifact set when its artifacts are first queried"() {
+        given:
+        results.resolveNow()
+
+        when:
+        def artifacts = results.getArtifacts(2)
+
+        then:
+        1 * set2.artifacts >> ([artifact2, artifact3] as Set)
+        0 * set1.artifacts
+        artifacts == [artifact2, artifact3] as Set
+
+        when:
+        artifacts = results.getArtifacts(2)
+
+        then:
+        0 * set2.artifacts
+        artifacts == [artifact2, artifact3] as Set
+    }
+
+    def "resolves remaining artifact sets when all artifacts are queried"() {
+        given:
+        results.resolveNow()
+
+        when:
+        results.getArtifacts(1)
+
+        then:
+        1 * set1.artifacts >> ([artifact1, artifact2] as Set)
+
+        when:
+        def artifacts = results.artifacts
+
+        then:
+        0 * set1.artifacts
+        1 * set2.artifacts >> ([artifact1, artifact3] as Set)
+        artifacts as List == [artifact1, artifact2, artifact3]
+    }
+
+    def "reports failure to resolve an artifact set when its artifacts are queried"() {
+        def failure = new ArtifactResolveException("broken")
+        set1.artifacts >> { throw failure }
+        set2.artifacts >> ([artifact2] as Set)
+
+        when:
+        results.resolveNow()
+
+        then:
+        noExceptionThrown()
+
+        when:
+        def artifacts = results.getArtifacts(2)
+
+        then:
+        artifacts == [artifact2] as Set
+
+        when:
+        results.getArtifacts(1)
+
+        then:
+        def e = thrown(ArtifactResolveException)
+        e.is(failure)
+
+        when:
+        results.artifacts
+
+        then:
+        e = thrown(ArtifactResolveException)
+        e.is(failure)
+    }
+}
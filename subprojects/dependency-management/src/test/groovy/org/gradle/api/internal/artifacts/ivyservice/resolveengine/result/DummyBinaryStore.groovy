@@ -25,11 +25,17 @@ public class DummyBinaryStore implements BinaryStore {
 
     private final ByteArrayOutputStream bytes = new ByteArrayOutputStream()
     private Encoder output = new OutputStreamBackedEncoder(bytes)
+    int positionalReads
 
     void write(BinaryStore.WriteAction write) {
         write.write(output)
     }
 
+    int getPosition() {
+        output.flush()
+        bytes.size()
+    }
+
     BinaryStore.BinaryData done() {
         new BinaryStore.BinaryData() {
             Decoder decoder
@@ -40,6 +46,12 @@ public class DummyBinaryStore implements BinaryStore {
                 readAction.read(decoder)
             }
 
+            def <T> T read(int position, BinaryStore.ReadAction<T> readAction) {
+                positionalReads++
+                def content = bytes.toByteArray()
+                readAction.read(new InputStreamBackedDecoder(new ByteArrayInputStream(content, position, content.length - position)))
+            }
+
             void close() {
                 decoder = null
             }
@@ -17,6 +17,9 @@
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.result
 
 import org.gradle.api.artifacts.result.ComponentSelectionReason
+import org.gradle.api.artifacts.result.ResolutionResult
+import org.gradle.api.artifacts.result.ResolvedComponentResult
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.CachedStoreFactory
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
 import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
 import org.gradle.internal.resolve.ModuleVersionResolveException
@@ -30,7 +33,8 @@ import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.
 
 class StreamingResolutionResultBuilderTest extends Specification {
 
-    StreamingResolutionResultBuilder builder = new StreamingResolutionResultBuilder(new DummyBinaryStore(), new DummyStore())
+    def store = new DummyBinaryStore()
+    StreamingResolutionResultBuilder builder = new StreamingResolutionResultBuilder(store, new DummyStore())
 
     def "result can be read multiple times"() {
         builder.start(newId("org", "root", "1.0"), new DefaultModuleComponentIdentifier("org", "root", "1.0"))
@@ -47,6 +51,33 @@ class StreamingResolutionResultBuilderTest extends Specification {
 """
     }
 
+    def "result can be queried repeatedly"() {
+        builder.start(newId("org", "root", "1.0"), new DefaultModuleComponentIdentifier("org", "root", "1.0"))
+        builder.resolvedModuleVersion(sel("org", "dep1", "2.0", REQUESTED))
+        builder.resolvedConfiguration(newId("org", "root", "1.0"),
+                [new DefaultInternalDependencyResult(DefaultModuleComponentSelector.newSelector("org", "dep1", "2.0"), newId("org", "dep1", "2.0"), REQUESTED, null)])
+
+        when:
+        def result = builder.complete()
+
+        then:
+        printGraph(result.root) == printGraph(result.root)
+        printGraph(result.root) == """org:root:1.0
+  org:dep1:2.0 [root]
+"""
+    }
+
+    def "dependencies cannot be visited before their module"() {
+        builder.start(newId("org", "root", "1.0"), new DefaultModuleComponentIdentifier("org", "root", "1.0"))
+
+        when:
+        builder.resolvedConfiguration(newId("org", "dep1", "2.0"),
+                [new DefaultInternalDependencyResult(DefaultModuleComponentSelector.newSelector("org", "dep2", "2.0"), newId("org", "dep2", "2.0"), REQUESTED, null)])
+
+        then:
+        thrown(IllegalStateException)
+    }
+
     def "maintains graph in byte stream"() {
         builder.start(newId("org", "root", "1.0"), new DefaultModuleComponentIdentifier("org", "root", "1.0"))
 
@@ -133,6 +164,96 @@ class StreamingResolutionResultBuilderTest extends Specification {
 """
     }
 
+    def "decodes each component when it is first visited"() {
+        def result = graphWithTransitiveDependency()
+
+        when:
+        def root = result.root
+
+        then:
+        store.positionalReads == 1
+
+        when:
+        def dependencies = root.dependencies
+
+        then:
+        dependencies*.selected*.moduleVersion == [newId("org", "dep1", "2.0"), newId("org", "dep2", "2.0")]
+        store.positionalReads == 4
+
+        when:
+        def dep1 = dependencies.first().selected
+        def dependents = dep1.dependents
+
+        then:
+        dependents*.from == [root]
+        store.positionalReads == 5
+
+        when:
+        def transitive = dep1.dependencies
+
+        then:
+        transitive*.selected*.moduleVersion == [newId("org", "dep3", "3.0")]
+        transitive.first().selected.dependents*.from == [dep1]
+        store.positionalReads == 8
+
+        when:
+        root.dependencies
+        dep1.dependents
+        dep1.dependencies
+
+        then:
+        store.positionalReads == 8
+        printGraph(root) == """org:root:1.0
+  org:dep1:2.0 [root]
+    org:dep3:3.0 [dep1]
+  org:dep2:2.0 [root]
+"""
+    }
+
+    def "does not decode the graph again when the result is cached"() {
+        def factory = new CachedStoreFactory<ResolvedComponentResult>("resolution results")
+        builder = new StreamingResolutionResultBuilder(store, factory.createCachedStore("conf"))
+        def result = graphWithTransitiveDependency()
+        def expected = """org:root:1.0
+  org:dep1:2.0 [root]
+    org:dep3:3.0 [dep1]
+  org:dep2:2.0 [root]
+"""
+
+        when:
+        def graph = printGraph(result.root)
+        def reads = store.positionalReads
+
+        then:
+        graph == expected
+
+        when:
+        graph = printGraph(result.root)
+
+        then:
+        graph == expected
+        result.root.is(result.root)
+        store.positionalReads == reads
+
+        cleanup:
+        factory.close()
+    }
+
+    private ResolutionResult graphWithTransitiveDependency() {
+        builder.start(newId("org", "root", "1.0"), new DefaultModuleComponentIdentifier("org", "root", "1.0"))
+        builder.resolvedModuleVersion(sel("org", "dep1", "2.0", REQUESTED))
+        builder.resolvedModuleVersion(sel("org", "dep2", "2.0", REQUESTED))
+        builder.resolvedConfiguration(newId("org", "root", "1.0"), [
+                new DefaultInternalDependencyResult(DefaultModuleComponentSelector.newSelector("org", "dep1", "2.0"), newId("org", "dep1", "2.0"), REQUESTED, null),
+                new DefaultInternalDependencyResult(DefaultModuleComponentSelector.newSelector("org", "dep2", "2.0"), newId("org", "dep2", "2.0"), REQUESTED, null)
+        ])
+        builder.resolvedModuleVersion(sel("org", "dep3", "3.0", REQUESTED))
+        builder.resolvedConfiguration(newId("org", "dep1", "2.0"), [
+                new DefaultInternalDependencyResult(DefaultModuleComponentSelector.newSelector("org", "dep3", "3.0"), newId("org", "dep3", "3.0"), REQUESTED, null)
+        ])
+        builder.complete()
+    }
+
     private DefaultModuleVersionSelection sel(String org, String name, String ver, ComponentSelectionReason reason) {
         new DefaultModuleVersionSelection(newId(org, name, ver), reason, new DefaultModuleComponentIdentifier(org, name, ver))
     }
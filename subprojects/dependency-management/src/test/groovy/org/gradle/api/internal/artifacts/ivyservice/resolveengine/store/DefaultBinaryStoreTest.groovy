@@ -70,6 +70,47 @@ class DefaultBinaryStoreTest extends Specification {
 
     }
 
+    def "data can be read at the positions it was written at"() {
+        def store = new DefaultBinaryStore(temp.file("foo.bin"))
+        store.write({ it.writeString("ignored") } as BinaryStore.WriteAction)
+        store.done()
+
+        when:
+        def first = store.position
+        store.write({ it.writeInt(10) } as BinaryStore.WriteAction)
+        def second = store.position
+        store.write({ it.writeString("x") } as BinaryStore.WriteAction)
+        def data = store.done()
+
+        then:
+        first == 0
+        second > 0
+        data.read(second, { it.readString() } as BinaryStore.ReadAction) == "x"
+        data.read(first, { it.readInt() } as BinaryStore.ReadAction) == 10
+        data.read({ it.readInt() } as BinaryStore.ReadAction) == 10
+        data.read(second, { it.readString() } as BinaryStore.ReadAction) == "x"
+        data.read({ it.readString() } as BinaryStore.ReadAction) == "x"
+        data.close()
+
+        cleanup:
+        store.close()
+    }
+
+    def "store file is removed on close after data has been read"() {
+        def file = temp.file("foo.bin")
+        def store = new DefaultBinaryStore(file)
+        store.write({ it.writeInt(10) } as BinaryStore.WriteAction)
+        def data = store.done()
+        data.read({ it.readInt() } as BinaryStore.ReadAction)
+        data.close()
+
+        when:
+        store.close()
+
+        then:
+        !file.exists()
+    }
+
     class SomeException extends RuntimeException {}
 
     def "write action exception is propagated to the client"() {
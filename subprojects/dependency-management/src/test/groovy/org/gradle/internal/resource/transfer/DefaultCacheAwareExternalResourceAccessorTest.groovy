@@ -20,12 +20,14 @@ import org.gradle.api.Transformer
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
 import org.gradle.api.internal.file.TemporaryFileProvider
 import org.gradle.internal.hash.HashUtil
+import org.gradle.internal.hash.HashValue
 import org.gradle.internal.resource.ExternalResource
 import org.gradle.internal.resource.cached.CachedExternalResource
 import org.gradle.internal.resource.cached.CachedExternalResourceIndex
 import org.gradle.internal.resource.local.DefaultLocallyAvailableResource
 import org.gradle.internal.resource.local.LocallyAvailableResource
 import org.gradle.internal.resource.local.LocallyAvailableResourceCandidates
+import org.gradle.internal.resource.metadata.DefaultExternalResourceMetaData
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData
 import org.gradle.internal.resource.transport.ExternalResourceRepository
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -142,6 +144,35 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         0 * _._
     }
 
+    def "revalidates expired cached resource and records that it is up-to-date"() {
+        def uri = new URI("scheme:thing")
+        def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
+        def localCandidates = Mock(LocallyAvailableResourceCandidates)
+        def cachedMetaData = Mock(ExternalResourceMetaData)
+        def cached = Mock(CachedExternalResource)
+
+        when:
+        def result = cache.getResource(uri, fileStore, localCandidates)
+
+        then:
+        result.localResource.file == cachedFile
+        result.metaData == cachedMetaData
+
+        and:
+        1 * index.lookup("scheme:thing") >> cached
+        timeProvider.currentTime >> 24000L
+        cached.cachedAt >> 23999L
+        cached.cachedFile >> cachedFile
+        cached.externalResourceMetaData >> cachedMetaData
+        cached.externalLastModified >> null
+        1 * repository.getResourceMetaData(uri, cachedMetaData) >> cachedMetaData
+        1 * cacheLockingManager.useCache(_, _) >> { String description, org.gradle.internal.Factory factory ->
+            return factory.create()
+        }
+        1 * index.store("scheme:thing", cachedFile, cachedMetaData)
+        0 * _._
+    }
+
     def "will use sha1 from metadata for finding candidates if available"() {
         given:
         def localCandidates = Mock(LocallyAvailableResourceCandidates)
@@ -167,7 +198,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         timeProvider.currentTime >> 24000L
         cached.cachedAt >> 23999L
         cached.externalResourceMetaData >> cachedMetaData
-        1 * repository.getResourceMetaData(uri) >> remoteMetaData
+        1 * repository.getResourceMetaData(uri, cachedMetaData) >> remoteMetaData
         localCandidates.none >> false
         remoteMetaData.sha1 >> sha1
         remoteMetaData.etag >> null
@@ -217,6 +248,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         remoteMetaData.lastModified >> null
         cachedMetaData.etag >> null
         cachedMetaData.lastModified >> null
+        1 * index.lookup("sha1:scheme:thing") >> null
         1 * repository.getResource(new URI("scheme:thing.sha1")) >> remoteSha1
         1 * remoteSha1.withContent(_) >> { Transformer t ->
             t.transform(new ByteArrayInputStream(sha1.asZeroPaddedHexString(40).bytes))
@@ -232,6 +264,123 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         }
         1 * fileStore.moveIntoCache(tempFile) >> localResource
         1 * index.store("scheme:thing", cachedFile, remoteMetaData)
+        1 * index.store("sha1:scheme:thing", candidate, { it.sha1 == sha1 })
+        0 * _._
+    }
+
+    def "uses checksum fetched by an earlier request while the resource is unchanged"() {
+        given:
+        def localCandidates = Mock(LocallyAvailableResourceCandidates)
+        def candidate = tempDir.createFile("candidate-file")
+        def sha1 = HashUtil.createHash(candidate, "sha1")
+        def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
+        def remoteMetaData = new DefaultExternalResourceMetaData(new URI("scheme:thing"), 1000L, 12L, null, '"abc"', null)
+        def checksum = Stub(CachedExternalResource) {
+            getExternalResourceMetaData() >> new DefaultExternalResourceMetaData(new URI("scheme:thing"), 1000L, 12L, null, '"abc"', sha1)
+        }
+        def localCandidate = Mock(LocallyAvailableResource)
+        def uri = new URI("scheme:thing")
+        def localResource = new DefaultLocallyAvailableResource(cachedFile)
+
+        when:
+        def result = cache.getResource(uri, fileStore, localCandidates)
+
+        then:
+        result.localResource.file == cachedFile
+        result.metaData == remoteMetaData
+
+        and:
+        1 * index.lookup("scheme:thing") >> null
+        1 * repository.getResourceMetaData(uri) >> remoteMetaData
+        localCandidates.none >> false
+        1 * index.lookup("sha1:scheme:thing") >> checksum
+        1 * localCandidates.findByHashValue(sha1) >> localCandidate
+        localCandidate.file >> candidate
+        1 * cacheLockingManager.useCache(_, _) >> { String description, org.gradle.internal.Factory factory ->
+            return factory.create()
+        }
+        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * index.store("scheme:thing", cachedFile, remoteMetaData)
+        1 * index.store("sha1:scheme:thing", candidate, { it.sha1 == sha1 })
+        0 * _._
+    }
+
+    def "fetches checksum again when the resource has changed since it was fetched"() {
+        given:
+        def localCandidates = Mock(LocallyAvailableResourceCandidates)
+        def candidate = tempDir.createFile("candidate-file")
+        def sha1 = HashUtil.createHash(candidate, "sha1")
+        def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
+        def remoteMetaData = new DefaultExternalResourceMetaData(new URI("scheme:thing"), 2000L, 12L, null, '"def"', null)
+        def checksum = Stub(CachedExternalResource) {
+            getExternalResourceMetaData() >> new DefaultExternalResourceMetaData(new URI("scheme:thing"), 1000L, 12L, null, '"abc"', new HashValue("1234"))
+        }
+        def remoteSha1 = Mock(ExternalResource)
+        def localCandidate = Mock(LocallyAvailableResource)
+        def uri = new URI("scheme:thing")
+        def localResource = new DefaultLocallyAvailableResource(cachedFile)
+
+        when:
+        def result = cache.getResource(uri, fileStore, localCandidates)
+
+        then:
+        result.localResource.file == cachedFile
+
+        and:
+        1 * index.lookup("scheme:thing") >> null
+        1 * repository.getResourceMetaData(uri) >> remoteMetaData
+        localCandidates.none >> false
+        1 * index.lookup("sha1:scheme:thing") >> checksum
+        1 * repository.getResource(new URI("scheme:thing.sha1")) >> remoteSha1
+        1 * remoteSha1.withContent(_) >> { Transformer t ->
+            t.transform(new ByteArrayInputStream(sha1.asZeroPaddedHexString(40).bytes))
+        }
+        1 * remoteSha1.close()
+        1 * localCandidates.findByHashValue(sha1) >> localCandidate
+        localCandidate.file >> candidate
+        1 * cacheLockingManager.useCache(_, _) >> { String description, org.gradle.internal.Factory factory ->
+            return factory.create()
+        }
+        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * index.store("scheme:thing", cachedFile, remoteMetaData)
+        1 * index.store("sha1:scheme:thing", candidate, { it.sha1 == sha1 && it.etag == '"def"' })
+        0 * _._
+    }
+
+    def "downloads resource when no local candidate matches the remote checksum"() {
+        given:
+        def localCandidates = Mock(LocallyAvailableResourceCandidates)
+        def sha1 = new HashValue("1234")
+        def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
+        def remoteMetaData = Mock(ExternalResourceMetaData)
+        def remoteResource = Mock(ExternalResource)
+        def uri = new URI("scheme:thing")
+        def localResource = new DefaultLocallyAvailableResource(cachedFile)
+
+        when:
+        def result = cache.getResource(uri, fileStore, localCandidates)
+
+        then:
+        result.localResource.file == cachedFile
+        result.metaData == remoteMetaData
+
+        and:
+        1 * index.lookup("scheme:thing") >> null
+        1 * repository.getResourceMetaData(uri) >> remoteMetaData
+        localCandidates.none >> false
+        remoteMetaData.sha1 >> sha1
+        1 * localCandidates.findByHashValue(sha1) >> null
+        1 * repository.withProgressLogging() >> progressLoggingRepo
+        1 * progressLoggingRepo.getResource(uri) >> remoteResource
+        1 * remoteResource.withContent(_) >> { ExternalResource.ContentAction a ->
+            a.execute(new ByteArrayInputStream(), remoteMetaData)
+        }
+        1 * remoteResource.close()
+        1 * cacheLockingManager.useCache(_, _) >> { String description, org.gradle.internal.Factory factory ->
+            return factory.create()
+        }
+        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * index.store("scheme:thing", cachedFile, remoteMetaData)
         0 * _._
     }
 
@@ -261,6 +410,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         remoteMetaData.lastModified >> null
         cachedMetaData.etag >> null
         cachedMetaData.lastModified >> null
+        1 * index.lookup("sha1:scheme:thing") >> null
         1 * repository.getResource(new URI("scheme:thing.sha1")) >> null
         1 * repository.withProgressLogging() >> progressLoggingRepo
         1 * progressLoggingRepo.getResource(uri) >> remoteResource
@@ -306,7 +456,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         timeProvider.currentTime >> 24000L
         cached.cachedAt >> 23999L
         cached.externalResourceMetaData >> cachedMetaData
-        1 * repository.getResourceMetaData(uri) >> remoteMetaData
+        1 * repository.getResourceMetaData(uri, cachedMetaData) >> remoteMetaData
         localCandidates.none >> false
         remoteMetaData.sha1 >> sha1
         remoteMetaData.etag >> null
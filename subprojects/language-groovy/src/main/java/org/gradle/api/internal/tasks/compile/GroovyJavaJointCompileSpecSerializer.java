@@ -0,0 +1,43 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import org.gradle.api.tasks.compile.GroovyCompileOptions;
+import org.gradle.internal.Factory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+
+public class GroovyJavaJointCompileSpecSerializer<T extends DefaultGroovyJavaJointCompileSpec> extends JavaCompileSpecSerializer<T> {
+    public GroovyJavaJointCompileSpecSerializer(Factory<? extends T> factory) {
+        super(factory);
+    }
+
+    @Override
+    protected void readProperties(Decoder decoder, T spec) throws Exception {
+        super.readProperties(decoder, spec);
+        spec.setGroovyClasspath(readFiles(decoder));
+        GroovyCompileOptions groovyCompileOptions = readJavaSerialized(decoder);
+        spec.setGroovyCompileOptions(groovyCompileOptions);
+    }
+
+    @Override
+    protected void writeProperties(Encoder encoder, T spec) throws Exception {
+        super.writeProperties(encoder, spec);
+        writeFiles(encoder, spec.getGroovyClasspath());
+        writeJavaSerialized(encoder, spec.getGroovyCompileOptions());
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import org.gradle.api.internal.tasks.compile.DefaultGroovyJavaJointCompileSpecFactory.DefaultCommandLineGroovyJavaJointCompileSpec;
+import org.gradle.api.internal.tasks.compile.DefaultGroovyJavaJointCompileSpecFactory.DefaultForkingGroovyJavaJointCompileSpec;
+import org.gradle.api.internal.tasks.compile.daemon.CompileSpecSerializerRegistration;
+import org.gradle.internal.Factory;
+import org.gradle.internal.serialize.SerializerRegistry;
+
+/**
+ * Registers a serializer for each of the specs created by {@link DefaultGroovyJavaJointCompileSpecFactory}.
+ */
+public class GroovyJavaJointCompileSpecSerializerRegistration implements CompileSpecSerializerRegistration {
+    @Override
+    public void registerSerializers(SerializerRegistry registry) {
+        registry.register(DefaultGroovyJavaJointCompileSpec.class, new GroovyJavaJointCompileSpecSerializer<DefaultGroovyJavaJointCompileSpec>(new Factory<DefaultGroovyJavaJointCompileSpec>() {
+            @Override
+            public DefaultGroovyJavaJointCompileSpec create() {
+                return new DefaultGroovyJavaJointCompileSpec();
+            }
+        }));
+        registry.register(DefaultForkingGroovyJavaJointCompileSpec.class, new GroovyJavaJointCompileSpecSerializer<DefaultForkingGroovyJavaJointCompileSpec>(new Factory<DefaultForkingGroovyJavaJointCompileSpec>() {
+            @Override
+            public DefaultForkingGroovyJavaJointCompileSpec create() {
+                return new DefaultForkingGroovyJavaJointCompileSpec();
+            }
+        }));
+        registry.register(DefaultCommandLineGroovyJavaJointCompileSpec.class, new GroovyJavaJointCompileSpecSerializer<DefaultCommandLineGroovyJavaJointCompileSpec>(new Factory<DefaultCommandLineGroovyJavaJointCompileSpec>() {
+            @Override
+            public DefaultCommandLineGroovyJavaJointCompileSpec create() {
+                return new DefaultCommandLineGroovyJavaJointCompileSpec();
+            }
+        }));
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.api.internal.file.collections.SimpleFileCollection
+import org.gradle.api.internal.tasks.compile.daemon.CompilerDaemonProtocolSerializer
+import org.gradle.api.tasks.compile.CompileOptions
+import org.gradle.api.tasks.compile.GroovyCompileOptions
+import org.gradle.internal.serialize.SerializerSpec
+import org.gradle.language.base.internal.compile.CompileSpec
+import spock.lang.Unroll
+
+class GroovyJavaJointCompileSpecSerializerRegistrationTest extends SerializerSpec {
+    def serializer = CompilerDaemonProtocolSerializer.create([new JavaCompileSpecSerializerRegistration(), new GroovyJavaJointCompileSpecSerializerRegistration()]).build(CompileSpec)
+
+    @Unroll
+    def "serializes spec with fork #fork and executable #executable"() {
+        def options = new CompileOptions()
+        options.fork = fork
+        options.forkOptions.executable = executable
+        def spec = new DefaultGroovyJavaJointCompileSpecFactory(options).create()
+        def groovyOptions = new GroovyCompileOptions()
+        groovyOptions.encoding = "ISO-8859-1"
+        groovyOptions.forkOptions.memoryMaximumSize = "1g"
+        spec.compileOptions = options
+        spec.groovyCompileOptions = groovyOptions
+        spec.destinationDir = new File("classes")
+        spec.source = new SimpleFileCollection((1..100).collect { new File("src/Source.groovy") })
+        spec.classpath = [new File("lib/a.jar")]
+        spec.groovyClasspath = [new File("lib/groovy.jar")]
+
+        when:
+        def result = usesEfficientSerialization(spec, serializer)
+
+        then:
+        result.class == spec.class
+        result.destinationDir == spec.destinationDir
+        result.source.files == spec.source.files
+        result.classpath as List == spec.classpath
+        result.groovyClasspath as List == spec.groovyClasspath
+        result.compileOptions.fork == fork
+        result.groovyCompileOptions.encoding == "ISO-8859-1"
+        result.groovyCompileOptions.forkOptions.memoryMaximumSize == "1g"
+
+        where:
+        fork  | executable
+        false | null
+        true  | null
+        true  | "javac"
+    }
+}
@@ -38,9 +38,9 @@ public class DefaultJavaCompileSpecFactory extends AbstractJavaCompileSpecFactor
         return new DefaultJavaCompileSpec();
     }
 
-    private static class DefaultCommandLineJavaSpec extends DefaultJavaCompileSpec implements CommandLineJavaCompileSpec {
+    static class DefaultCommandLineJavaSpec extends DefaultJavaCompileSpec implements CommandLineJavaCompileSpec {
     }
 
-    private static class DefaultForkingJavaCompileSpec extends DefaultJavaCompileSpec implements ForkingJavaCompileSpec {
+    static class DefaultForkingJavaCompileSpec extends DefaultJavaCompileSpec implements ForkingJavaCompileSpec {
     }
 }
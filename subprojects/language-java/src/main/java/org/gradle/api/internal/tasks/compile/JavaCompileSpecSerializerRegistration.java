@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpecFactory.DefaultCommandLineJavaSpec;
+import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpecFactory.DefaultForkingJavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.daemon.CompileSpecSerializerRegistration;
+import org.gradle.internal.Factory;
+import org.gradle.internal.serialize.SerializerRegistry;
+
+/**
+ * Registers a serializer for each of the specs created by {@link DefaultJavaCompileSpecFactory}.
+ */
+public class JavaCompileSpecSerializerRegistration implements CompileSpecSerializerRegistration {
+    @Override
+    public void registerSerializers(SerializerRegistry registry) {
+        registry.register(DefaultJavaCompileSpec.class, new JavaCompileSpecSerializer<DefaultJavaCompileSpec>(new Factory<DefaultJavaCompileSpec>() {
+            @Override
+            public DefaultJavaCompileSpec create() {
+                return new DefaultJavaCompileSpec();
+            }
+        }));
+        registry.register(DefaultForkingJavaCompileSpec.class, new JavaCompileSpecSerializer<DefaultForkingJavaCompileSpec>(new Factory<DefaultForkingJavaCompileSpec>() {
+            @Override
+            public DefaultForkingJavaCompileSpec create() {
+                return new DefaultForkingJavaCompileSpec();
+            }
+        }));
+        registry.register(DefaultCommandLineJavaSpec.class, new JavaCompileSpecSerializer<DefaultCommandLineJavaSpec>(new Factory<DefaultCommandLineJavaSpec>() {
+            @Override
+            public DefaultCommandLineJavaSpec create() {
+                return new DefaultCommandLineJavaSpec();
+            }
+        }));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.api.internal.file.collections.SimpleFileCollection
+import org.gradle.api.internal.tasks.compile.daemon.CompilerDaemonProtocolSerializer
+import org.gradle.api.tasks.compile.CompileOptions
+import org.gradle.internal.serialize.SerializerSpec
+import org.gradle.language.base.internal.compile.CompileSpec
+import spock.lang.Unroll
+
+class JavaCompileSpecSerializerRegistrationTest extends SerializerSpec {
+    def serializer = CompilerDaemonProtocolSerializer.create([new JavaCompileSpecSerializerRegistration()]).build(CompileSpec)
+
+    @Unroll
+    def "serializes spec with fork #fork and executable #executable"() {
+        def options = new CompileOptions()
+        options.fork = fork
+        options.forkOptions.executable = executable
+        options.encoding = "UTF-8"
+        options.compilerArgs = ["-Xlint"]
+        def spec = new DefaultJavaCompileSpecFactory(options).create()
+        spec.compileOptions = options
+        spec.workingDir = new File("work")
+        spec.tempDir = new File("tmp")
+        spec.destinationDir = new File("classes")
+        spec.dependencyCacheDir = new File("cache")
+        spec.source = new SimpleFileCollection((1..100).collect { new File("src/Source.java") })
+        spec.classpath = [new File("lib/a.jar"), new File("lib/b.jar")]
+        spec.sourceCompatibility = "1.6"
+        spec.targetCompatibility = "1.7"
+
+        when:
+        def result = usesEfficientSerialization(spec, serializer)
+
+        then:
+        result.class == spec.class
+        result.workingDir == spec.workingDir
+        result.tempDir == spec.tempDir
+        result.destinationDir == spec.destinationDir
+        result.dependencyCacheDir == spec.dependencyCacheDir
+        result.source.files == spec.source.files
+        result.classpath as List == spec.classpath
+        result.sourceCompatibility == "1.6"
+        result.targetCompatibility == "1.7"
+        result.compileOptions.fork == fork
+        result.compileOptions.forkOptions.executable == executable
+        result.compileOptions.encoding == "UTF-8"
+        result.compileOptions.compilerArgs == ["-Xlint"]
+
+        where:
+        fork  | executable
+        false | null
+        true  | null
+        true  | "javac"
+    }
+
+    def "serializes spec with missing properties"() {
+        def spec = new DefaultJavaCompileSpec()
+
+        when:
+        def result = serialize(spec, serializer)
+
+        then:
+        result.class == DefaultJavaCompileSpec
+        result.workingDir == null
+        result.source == null
+        result.classpath == null
+        result.sourceCompatibility == null
+        result.compileOptions == null
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import org.gradle.api.tasks.compile.BaseForkOptions;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BaseForkOptionsSerializer implements Serializer<BaseForkOptions> {
+    @Override
+    public BaseForkOptions read(Decoder decoder) throws Exception {
+        BaseForkOptions options = new BaseForkOptions();
+        options.setMemoryInitialSize(decoder.readNullableString());
+        options.setMemoryMaximumSize(decoder.readNullableString());
+        int count = decoder.readSmallInt();
+        List<String> jvmArgs = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            jvmArgs.add(decoder.readString());
+        }
+        options.setJvmArgs(jvmArgs);
+        return options;
+    }
+
+    @Override
+    public void write(Encoder encoder, BaseForkOptions value) throws Exception {
+        encoder.writeNullableString(value.getMemoryInitialSize());
+        encoder.writeNullableString(value.getMemoryMaximumSize());
+        encoder.writeSmallInt(value.getJvmArgs().size());
+        for (String jvmArg : value.getJvmArgs()) {
+            encoder.writeString(jvmArg);
+        }
+    }
+}
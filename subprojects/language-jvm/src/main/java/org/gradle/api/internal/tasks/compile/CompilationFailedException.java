@@ -24,6 +24,10 @@ public class CompilationFailedException extends RuntimeException {
         super(String.format("Compilation failed with exit code %d; see the compiler error output for details.", exitCode));
     }
 
+    public CompilationFailedException(String message) {
+        super(message);
+    }
+
     public CompilationFailedException(Throwable cause) {
         super(cause);
     }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.file.collections.SimpleFileCollection;
+import org.gradle.internal.Factory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializer;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializes a {@link DefaultJvmLanguageCompileSpec} that is sent to a compiler daemon. Subclasses serialize the properties of the language specific specs.
+ *
+ * <p>The files of the spec are written using a compact binary encoding. Option objects such as {@link org.gradle.api.tasks.compile.CompileOptions} are
+ * small public types with many properties, and continue to use Java serialization.</p>
+ */
+public class JvmLanguageCompileSpecSerializer<T extends DefaultJvmLanguageCompileSpec> implements Serializer<T> {
+    private final Factory<? extends T> factory;
+
+    public JvmLanguageCompileSpecSerializer(Factory<? extends T> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public T read(Decoder decoder) throws Exception {
+        T spec = factory.create();
+        readProperties(decoder, spec);
+        return spec;
+    }
+
+    @Override
+    public void write(Encoder encoder, T spec) throws Exception {
+        writeProperties(encoder, spec);
+    }
+
+    protected void readProperties(Decoder decoder, T spec) throws Exception {
+        spec.setWorkingDir(readFile(decoder));
+        spec.setTempDir(readFile(decoder));
+        spec.setDestinationDir(readFile(decoder));
+        List<File> source = readFiles(decoder);
+        spec.setSource(source == null ? null : new SimpleFileCollection(source));
+        spec.setClasspath(readFiles(decoder));
+        spec.setSourceCompatibility(decoder.readNullableString());
+        spec.setTargetCompatibility(decoder.readNullableString());
+    }
+
+    protected void writeProperties(Encoder encoder, T spec) throws Exception {
+        writeFile(encoder, spec.getWorkingDir());
+        writeFile(encoder, spec.getTempDir());
+        writeFile(encoder, spec.getDestinationDir());
+        writeFiles(encoder, spec.getSource());
+        writeFiles(encoder, spec.getClasspath());
+        encoder.writeNullableString(spec.getSourceCompatibility());
+        encoder.writeNullableString(spec.getTargetCompatibility());
+    }
+
+    @Nullable
+    protected static File readFile(Decoder decoder) throws Exception {
+        String path = decoder.readNullableString();
+        return path == null ? null : new File(path);
+    }
+
+    protected static void writeFile(Encoder encoder, @Nullable File file) throws Exception {
+        encoder.writeNullableString(file == null ? null : file.getPath());
+    }
+
+    @Nullable
+    protected static List<File> readFiles(Decoder decoder) throws Exception {
+        if (!decoder.readBoolean()) {
+            return null;
+        }
+        int count = decoder.readSmallInt();
+        List<File> files = new ArrayList<File>(count);
+        for (int i = 0; i < count; i++) {
+            files.add(new File(decoder.readString()));
+        }
+        return files;
+    }
+
+    protected static void writeFiles(Encoder encoder, @Nullable Iterable<File> files) throws Exception {
+        encoder.writeBoolean(files != null);
+        if (files == null) {
+            return;
+        }
+        List<File> list = new ArrayList<File>();
+        for (File file : files) {
+            list.add(file);
+        }
+        encoder.writeSmallInt(list.size());
+        for (File file : list) {
+            encoder.writeString(file.getPath());
+        }
+    }
+
+    /**
+     * Reads an object written by {@link #writeJavaSerialized(Encoder, Object)}, loading its classes using the class loader of this serializer.
+     */
+    @Nullable
+    protected <V> V readJavaSerialized(Decoder decoder) throws Exception {
+        return new DefaultSerializer<V>(getClass().getClassLoader()).read(decoder);
+    }
+
+    protected <V> void writeJavaSerialized(Encoder encoder, @Nullable V value) throws Exception {
+        new DefaultSerializer<V>().write(encoder, value);
+    }
+}
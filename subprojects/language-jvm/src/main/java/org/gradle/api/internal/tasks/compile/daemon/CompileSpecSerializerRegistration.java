@@ -0,0 +1,29 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.daemon;
+
+import org.gradle.internal.serialize.SerializerRegistry;
+
+import java.io.Serializable;
+
+/**
+ * Registers serializers for the compile specs of some language with the connection to a compiler daemon. Implementations are global services, and are
+ * sent to each compiler daemon, so that both sides of the connection use the same serializers.
+ */
+public interface CompileSpecSerializerRegistration extends Serializable {
+    void registerSerializers(SerializerRegistry registry);
+}
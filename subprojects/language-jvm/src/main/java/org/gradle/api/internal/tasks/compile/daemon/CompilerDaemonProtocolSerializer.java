@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.daemon;
+
+import org.gradle.api.internal.tasks.compile.CompilationFailedException;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializerRegistry;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SerializerRegistry;
+import org.gradle.language.base.internal.compile.CompileSpec;
+import org.gradle.language.base.internal.compile.Compiler;
+import org.gradle.messaging.remote.internal.Message;
+
+/**
+ * Serializers for the method parameters sent between the build process and a compiler daemon.
+ *
+ * <p>Compile specs use the serializers from the given registrations. The compilers are small objects of arbitrary types, as are the specs of languages
+ * without a registration, so these continue to use Java serialization.</p>
+ */
+public class CompilerDaemonProtocolSerializer {
+    public static SerializerRegistry create(Iterable<? extends CompileSpecSerializerRegistration> registrations) {
+        DefaultSerializerRegistry registry = new DefaultSerializerRegistry();
+        registry.register(CompileResult.class, new CompileResultSerializer());
+        registry.useJavaSerialization(Compiler.class);
+        for (CompileSpecSerializerRegistration registration : registrations) {
+            registration.registerSerializers(registry);
+        }
+        registry.useJavaSerialization(CompileSpec.class);
+        return registry;
+    }
+
+    private static class CompileResultSerializer implements Serializer<CompileResult> {
+        private static final byte NO_FAILURE = 0;
+        private static final byte COMPILATION_FAILURE = 1;
+        private static final byte OTHER_FAILURE = 2;
+
+        @Override
+        public CompileResult read(Decoder decoder) throws Exception {
+            boolean didWork = decoder.readBoolean();
+            Throwable exception;
+            switch (decoder.readByte()) {
+                case NO_FAILURE:
+                    exception = null;
+                    break;
+                case COMPILATION_FAILURE:
+                    exception = new CompilationFailedException(decoder.readNullableString());
+                    exception.setStackTrace(readStackTrace(decoder));
+                    break;
+                default:
+                    // Use the class loader of the compilers, which can see the compiler specific exception types
+                    exception = (Throwable) Message.receive(decoder.getInputStream(), CompileResult.class.getClassLoader());
+                    break;
+            }
+            return new CompileResult(didWork, exception);
+        }
+
+        @Override
+        public void write(Encoder encoder, CompileResult value) throws Exception {
+            encoder.writeBoolean(value.getDidWork());
+            Throwable exception = value.getException();
+            if (exception == null) {
+                encoder.writeByte(NO_FAILURE);
+            } else if (exception.getClass().equals(CompilationFailedException.class) && exception.getCause() == null) {
+                // The usual failure, which only reports that the compiler failed
+                encoder.writeByte(COMPILATION_FAILURE);
+                encoder.writeNullableString(exception.getMessage());
+                writeStackTrace(encoder, exception.getStackTrace());
+            } else {
+                encoder.writeByte(OTHER_FAILURE);
+                Message.send(exception, encoder.getOutputStream());
+            }
+        }
+
+        private static StackTraceElement[] readStackTrace(Decoder decoder) throws Exception {
+            StackTraceElement[] stackTrace = new StackTraceElement[decoder.readSmallInt()];
+            for (int i = 0; i < stackTrace.length; i++) {
+                stackTrace[i] = new StackTraceElement(decoder.readString(), decoder.readString(), decoder.readNullableString(), decoder.readInt());
+            }
+            return stackTrace;
+        }
+
+        private static void writeStackTrace(Encoder encoder, StackTraceElement[] stackTrace) throws Exception {
+            encoder.writeSmallInt(stackTrace.length);
+            for (StackTraceElement element : stackTrace) {
+                encoder.writeString(element.getClassName());
+                encoder.writeString(element.getMethodName());
+                encoder.writeNullableString(element.getFileName());
+                encoder.writeInt(element.getLineNumber());
+            }
+        }
+    }
+}
@@ -25,18 +25,27 @@ import org.gradle.internal.UncheckedException;
 import org.gradle.process.internal.WorkerProcessContext;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
 
 public class CompilerDaemonServer implements Action<WorkerProcessContext>, CompilerDaemonServerProtocol, Serializable {
     private static final Logger LOGGER = Logging.getLogger(CompilerDaemonServer.class);
 
+    private final List<CompileSpecSerializerRegistration> serializerRegistrations;
     private volatile CompilerDaemonClientProtocol client;
     private volatile CountDownLatch stop;
 
+    public CompilerDaemonServer(List<CompileSpecSerializerRegistration> serializerRegistrations) {
+        // Is sent to the compiler daemon, so use a serializable list
+        this.serializerRegistrations = new ArrayList<CompileSpecSerializerRegistration>(serializerRegistrations);
+    }
+
     @Override
     public void execute(WorkerProcessContext context) {
         stop = new CountDownLatch(1);
+        context.getServerConnection().useParameterSerializers(CompilerDaemonProtocolSerializer.create(serializerRegistrations));
         client = context.getServerConnection().addOutgoing(CompilerDaemonClientProtocol.class);
         context.getServerConnection().addIncoming(CompilerDaemonServerProtocol.class, this);
         context.getServerConnection().connect();
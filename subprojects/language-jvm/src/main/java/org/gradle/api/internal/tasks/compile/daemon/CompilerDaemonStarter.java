@@ -25,21 +25,24 @@ import org.gradle.process.internal.WorkerProcessFactory;
 import org.gradle.util.Clock;
 
 import java.io.File;
+import java.util.List;
 
 public class CompilerDaemonStarter {
     private final static Logger LOG = Logging.getLogger(CompilerDaemonStarter.class);
     private final WorkerProcessFactory workerFactory;
     private final StartParameter startParameter;
+    private final List<CompileSpecSerializerRegistration> serializerRegistrations;
 
-    public CompilerDaemonStarter(WorkerProcessFactory workerFactory, StartParameter startParameter) {
+    public CompilerDaemonStarter(WorkerProcessFactory workerFactory, StartParameter startParameter, List<CompileSpecSerializerRegistration> serializerRegistrations) {
         this.workerFactory = workerFactory;
         this.startParameter = startParameter;
+        this.serializerRegistrations = serializerRegistrations;
     }
 
     public CompilerDaemonClient startDaemon(File workingDir, DaemonForkOptions forkOptions) {
         LOG.debug("Starting Gradle compiler daemon with fork options {}.", forkOptions);
         Clock clock = new Clock();
-        WorkerProcessBuilder builder = workerFactory.create(new CompilerDaemonServer());
+        WorkerProcessBuilder builder = workerFactory.create(new CompilerDaemonServer(serializerRegistrations));
         builder.setBaseName("Gradle Compiler Daemon");
         builder.setLogLevel(startParameter.getLogLevel()); // NOTE: might make sense to respect per-compile-task log level
         builder.applicationClasspath(forkOptions.getClasspath());
@@ -52,6 +55,7 @@ public class CompilerDaemonStarter {
         WorkerProcess process = builder.build();
         process.start();
 
+        process.getConnection().useParameterSerializers(CompilerDaemonProtocolSerializer.create(serializerRegistrations));
         CompilerDaemonServerProtocol server = process.getConnection().addOutgoing(CompilerDaemonServerProtocol.class);
         CompilerDaemonClient client = new CompilerDaemonClient(forkOptions, process, server);
         process.getConnection().addIncoming(CompilerDaemonClientProtocol.class, client);
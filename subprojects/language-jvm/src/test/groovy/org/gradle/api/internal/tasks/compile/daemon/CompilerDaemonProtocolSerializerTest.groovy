@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.daemon
+
+import org.gradle.api.internal.tasks.compile.CompilationFailedException
+import org.gradle.api.tasks.WorkResult
+import org.gradle.internal.serialize.Decoder
+import org.gradle.internal.serialize.Encoder
+import org.gradle.internal.serialize.Serializer
+import org.gradle.internal.serialize.SerializerRegistry
+import org.gradle.internal.serialize.SerializerSpec
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder
+import org.gradle.language.base.internal.compile.CompileSpec
+import org.gradle.language.base.internal.compile.Compiler
+import spock.lang.Unroll
+
+class CompilerDaemonProtocolSerializerTest extends SerializerSpec {
+    def serializer = CompilerDaemonProtocolSerializer.create([]).build(CompileResult)
+
+    @Unroll
+    def "serializes successful result with didWork #didWork"() {
+        when:
+        def result = usesEfficientSerialization(new CompileResult(didWork, null), serializer)
+
+        then:
+        result.didWork == didWork
+        result.exception == null
+        result.success
+
+        where:
+        didWork << [true, false]
+    }
+
+    def "serializes failed result with exception type loaded by the class loader of the compilers"() {
+        def failure = new CustomCompilationFailure("broken", new IOException("cause"))
+
+        when:
+        def result = serialize(new CompileResult(true, failure), serializer)
+
+        then:
+        result.didWork
+        !result.success
+        // Is not replaced with a placeholder exception
+        result.exception.class == CustomCompilationFailure
+        result.exception.message == "broken"
+        result.exception.cause instanceof IOException
+        result.exception.cause.message == "cause"
+        result.exception.stackTrace == failure.stackTrace
+    }
+
+    def "serializes compilation failure without using Java serialization"() {
+        def failure = new CompilationFailedException(2)
+
+        when:
+        def result = usesEfficientSerialization(new CompileResult(true, failure), serializer)
+
+        then:
+        !result.success
+        result.exception.class == CompilationFailedException
+        result.exception.message == failure.message
+        result.exception.stackTrace == failure.stackTrace
+    }
+
+    def "serializes compilation failure with a cause"() {
+        def failure = new CompilationFailedException(new IOException("broken"))
+
+        when:
+        def result = serialize(new CompileResult(true, failure), serializer)
+
+        then:
+        result.exception.class == CompilationFailedException
+        result.exception.cause instanceof IOException
+        result.exception.cause.message == "broken"
+    }
+
+    def "serializes compile specs using the registered serializers"() {
+        def registration = new TestSpecRegistration()
+        def registry = CompilerDaemonProtocolSerializer.create([registration])
+        def specSerializer = registry.build(CompileSpec)
+
+        when:
+        def spec = usesEfficientSerialization(new TestSpec(value: "value"), specSerializer)
+
+        then:
+        spec instanceof TestSpec
+        spec.value == "value"
+    }
+
+    def "uses Java serialization for compilers and specs with no registered serializer"() {
+        def registry = CompilerDaemonProtocolSerializer.create([new TestSpecRegistration()])
+
+        expect:
+        registry.canSerialize(Compiler)
+        serialize(new OtherSpec(value: "other"), registry.build(CompileSpec)).value == "other"
+        serialize(new TestCompiler(name: "compiler"), registry.build(Compiler)).name == "compiler"
+    }
+
+    def "can serialize a sequence of results"() {
+        def bytes = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(bytes)
+        serializer.write(encoder, new CompileResult(true, new RuntimeException("first")))
+        serializer.write(encoder, new CompileResult(false, null))
+        encoder.flush()
+        def decoder = new KryoBackedDecoder(new ByteArrayInputStream(bytes.toByteArray()))
+
+        when:
+        def first = serializer.read(decoder)
+        def second = serializer.read(decoder)
+
+        then:
+        first.didWork
+        first.exception.message == "first"
+        !second.didWork
+        second.success
+    }
+
+    static class TestSpec implements CompileSpec, Serializable {
+        String value
+    }
+
+    static class OtherSpec implements CompileSpec, Serializable {
+        String value
+    }
+
+    static class TestCompiler implements Compiler<CompileSpec>, Serializable {
+        String name
+
+        @Override
+        WorkResult execute(CompileSpec spec) {
+            throw new UnsupportedOperationException()
+        }
+    }
+
+    static class TestSpecRegistration implements CompileSpecSerializerRegistration {
+        @Override
+        void registerSerializers(SerializerRegistry registry) {
+            registry.register(TestSpec, new Serializer<TestSpec>() {
+                @Override
+                TestSpec read(Decoder decoder) throws Exception {
+                    return new TestSpec(value: decoder.readString())
+                }
+
+                @Override
+                void write(Encoder encoder, TestSpec value) throws Exception {
+                    encoder.writeString(value.value)
+                }
+            })
+        }
+    }
+
+    static class CustomCompilationFailure extends RuntimeException {
+        CustomCompilationFailure(String message, Throwable cause) {
+            super(message, cause)
+        }
+    }
+}
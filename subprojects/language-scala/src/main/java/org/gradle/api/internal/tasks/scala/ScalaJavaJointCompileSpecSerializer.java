@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.scala;
+
+import org.gradle.api.internal.tasks.compile.JavaCompileSpecSerializer;
+import org.gradle.internal.Factory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.language.scala.tasks.BaseScalaCompileOptions;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ScalaJavaJointCompileSpecSerializer<T extends DefaultScalaJavaJointCompileSpec> extends JavaCompileSpecSerializer<T> {
+    public ScalaJavaJointCompileSpecSerializer(Factory<? extends T> factory) {
+        super(factory);
+    }
+
+    @Override
+    protected void readProperties(Decoder decoder, T spec) throws Exception {
+        super.readProperties(decoder, spec);
+        spec.setScalaClasspath(readFiles(decoder));
+        spec.setZincClasspath(readFiles(decoder));
+        if (decoder.readBoolean()) {
+            int count = decoder.readSmallInt();
+            Map<File, File> analysisMap = new LinkedHashMap<File, File>(count);
+            for (int i = 0; i < count; i++) {
+                analysisMap.put(readFile(decoder), readFile(decoder));
+            }
+            spec.setAnalysisMap(analysisMap);
+        }
+        BaseScalaCompileOptions scalaCompileOptions = readJavaSerialized(decoder);
+        spec.setScalaCompileOptions(scalaCompileOptions);
+    }
+
+    @Override
+    protected void writeProperties(Encoder encoder, T spec) throws Exception {
+        super.writeProperties(encoder, spec);
+        writeFiles(encoder, spec.getScalaClasspath());
+        writeFiles(encoder, spec.getZincClasspath());
+        Map<File, File> analysisMap = spec.getAnalysisMap();
+        encoder.writeBoolean(analysisMap != null);
+        if (analysisMap != null) {
+            encoder.writeSmallInt(analysisMap.size());
+            for (Map.Entry<File, File> entry : analysisMap.entrySet()) {
+                writeFile(encoder, entry.getKey());
+                writeFile(encoder, entry.getValue());
+            }
+        }
+        writeJavaSerialized(encoder, spec.getScalaCompileOptions());
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.scala;
+
+import org.gradle.api.internal.tasks.compile.daemon.CompileSpecSerializerRegistration;
+import org.gradle.api.internal.tasks.scala.DefaultScalaJavaJointCompileSpecFactory.DefaultCommandLineScalaJavaJointCompileSpec;
+import org.gradle.api.internal.tasks.scala.DefaultScalaJavaJointCompileSpecFactory.DefaultForkingScalaJavaJointCompileSpec;
+import org.gradle.internal.Factory;
+import org.gradle.internal.serialize.SerializerRegistry;
+
+/**
+ * Registers a serializer for each of the specs created by {@link DefaultScalaJavaJointCompileSpecFactory}.
+ */
+public class ScalaJavaJointCompileSpecSerializerRegistration implements CompileSpecSerializerRegistration {
+    @Override
+    public void registerSerializers(SerializerRegistry registry) {
+        registry.register(DefaultScalaJavaJointCompileSpec.class, new ScalaJavaJointCompileSpecSerializer<DefaultScalaJavaJointCompileSpec>(new Factory<DefaultScalaJavaJointCompileSpec>() {
+            @Override
+            public DefaultScalaJavaJointCompileSpec create() {
+                return new DefaultScalaJavaJointCompileSpec();
+            }
+        }));
+        registry.register(DefaultForkingScalaJavaJointCompileSpec.class, new ScalaJavaJointCompileSpecSerializer<DefaultForkingScalaJavaJointCompileSpec>(new Factory<DefaultForkingScalaJavaJointCompileSpec>() {
+            @Override
+            public DefaultForkingScalaJavaJointCompileSpec create() {
+                return new DefaultForkingScalaJavaJointCompileSpec();
+            }
+        }));
+        registry.register(DefaultCommandLineScalaJavaJointCompileSpec.class, new ScalaJavaJointCompileSpecSerializer<DefaultCommandLineScalaJavaJointCompileSpec>(new Factory<DefaultCommandLineScalaJavaJointCompileSpec>() {
+            @Override
+            public DefaultCommandLineScalaJavaJointCompileSpec create() {
+                return new DefaultCommandLineScalaJavaJointCompileSpec();
+            }
+        }));
+    }
+}
@@ -20,6 +20,7 @@ import org.gradle.api.artifacts.ConfigurationContainer;
 import org.gradle.api.artifacts.dsl.DependencyHandler;
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.tasks.compile.daemon.CompilerDaemonManager;
+import org.gradle.api.internal.tasks.scala.ScalaJavaJointCompileSpecSerializerRegistration;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.PluginServiceRegistry;
 
@@ -27,6 +28,7 @@ public class ScalaToolChainServiceRegistry implements PluginServiceRegistry {
 
     @Override
     public void registerGlobalServices(ServiceRegistration registration) {
+        registration.add(ScalaJavaJointCompileSpecSerializerRegistration.class);
     }
 
     @Override
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.scala
+
+import org.gradle.api.internal.file.collections.SimpleFileCollection
+import org.gradle.api.internal.tasks.compile.JavaCompileSpecSerializerRegistration
+import org.gradle.api.internal.tasks.compile.daemon.CompilerDaemonProtocolSerializer
+import org.gradle.api.tasks.compile.CompileOptions
+import org.gradle.language.scala.tasks.BaseScalaCompileOptions
+import org.gradle.internal.serialize.SerializerSpec
+import org.gradle.language.base.internal.compile.CompileSpec
+import spock.lang.Unroll
+
+class ScalaJavaJointCompileSpecSerializerRegistrationTest extends SerializerSpec {
+    def serializer = CompilerDaemonProtocolSerializer.create([new JavaCompileSpecSerializerRegistration(), new ScalaJavaJointCompileSpecSerializerRegistration()]).build(CompileSpec)
+
+    @Unroll
+    def "serializes spec with fork #fork and executable #executable"() {
+        def options = new CompileOptions()
+        options.fork = fork
+        options.forkOptions.executable = executable
+        def spec = new DefaultScalaJavaJointCompileSpecFactory(options).create()
+        def scalaOptions = new BaseScalaCompileOptions()
+        scalaOptions.additionalParameters = ["-feature"]
+        scalaOptions.incrementalOptions.analysisFile = new File("analysis.txt")
+        spec.compileOptions = options
+        spec.scalaCompileOptions = scalaOptions
+        spec.destinationDir = new File("classes")
+        spec.source = new SimpleFileCollection((1..100).collect { new File("src/Source.scala") })
+        spec.classpath = [new File("lib/a.jar")]
+        spec.scalaClasspath = [new File("lib/scala-library.jar")]
+        spec.zincClasspath = [new File("lib/zinc.jar"), new File("lib/sbt.jar")]
+        spec.analysisMap = [(new File("lib/a.jar")): new File("a.analysis")]
+
+        when:
+        def result = usesEfficientSerialization(spec, serializer)
+
+        then:
+        result.class == spec.class
+        result.destinationDir == spec.destinationDir
+        result.source.files == spec.source.files
+        result.classpath as List == spec.classpath
+        result.scalaClasspath as List == spec.scalaClasspath
+        result.zincClasspath as List == spec.zincClasspath
+        result.analysisMap == spec.analysisMap
+        result.compileOptions.fork == fork
+        result.scalaCompileOptions.additionalParameters == ["-feature"]
+        result.scalaCompileOptions.incrementalOptions.analysisFile == new File("analysis.txt")
+
+        where:
+        fork  | executable
+        false | null
+        true  | null
+        true  | "javac"
+    }
+}
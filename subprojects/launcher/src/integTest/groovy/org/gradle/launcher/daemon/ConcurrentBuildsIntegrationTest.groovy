@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon
+
+import org.gradle.integtests.fixtures.daemon.DaemonIntegrationSpec
+import org.gradle.integtests.fixtures.executer.GradleHandle
+import org.gradle.launcher.daemon.server.exec.ConcurrentBuilds
+import org.gradle.test.fixtures.ConcurrentTestUtil
+import org.gradle.test.fixtures.server.http.BlockingHttpServer
+import org.junit.Rule
+
+import java.util.concurrent.CountDownLatch
+
+class ConcurrentBuildsIntegrationTest extends DaemonIntegrationSpec {
+    @Rule BlockingHttpServer blockingServer = new BlockingHttpServer()
+
+    def setup() {
+        blockingServer.start()
+        ["a", "b"].each { name ->
+            file("$name/settings.gradle") << "rootProject.name = '$name'"
+            file("$name/build.gradle") << """
+                task ping {
+                    doLast {
+                        println "output of build $name"
+                        new URL("http://localhost:${blockingServer.port}/$name").openConnection().getHeaderField('RESPONSE')
+                        file("out.txt").text = "$name"
+                        println "output of build $name after ping"
+                    }
+                }
+            """
+        }
+    }
+
+    def "runs builds of unrelated projects at the same time in one daemon"() {
+        given:
+        blockingServer.expectConcurrentExecution("a", "b")
+
+        when:
+        def buildA = startBuild("a")
+        def buildB = startBuild("b")
+        def resultA = buildA.waitForFinish()
+        def resultB = buildB.waitForFinish()
+
+        then:
+        daemons.daemons.size() == 1
+
+        and:
+        resultA.output.contains("output of build a after ping")
+        !resultA.output.contains("output of build b")
+        resultB.output.contains("output of build b after ping")
+        !resultB.output.contains("output of build a")
+
+        and:
+        file("a/out.txt").text == "a"
+        file("b/out.txt").text == "b"
+    }
+
+    def "build keeps its logging when a build that started earlier finishes first"() {
+        given:
+        def buildAFinished = new CountDownLatch(1)
+        blockingServer.expectConcurrentExecution("a", "b")
+        blockingServer.expectConcurrentExecution(["b-after-a"], { buildAFinished.await() } as Runnable)
+        file("a/build.gradle") << """
+            println "configured build a"
+        """
+        file("b/build.gradle") << """
+            ping.doLast {
+                new URL("http://localhost:${blockingServer.port}/b-after-a").openConnection().getHeaderField('RESPONSE')
+                println "output of build b after build a"
+                logger.info "info of build b after build a"
+            }
+        """
+
+        when:
+        def buildA = startBuild("a", "--info")
+        ConcurrentTestUtil.poll { assert buildA.standardOutput.contains("configured build a") }
+        def buildB = startBuild("b", "--info")
+        def resultA = buildA.waitForFinish()
+        buildAFinished.countDown()
+        def resultB = buildB.waitForFinish()
+
+        then:
+        daemons.daemons.size() == 1
+
+        and:
+        resultA.output.contains("output of build a after ping")
+        resultB.output.contains("output of build b after build a")
+        resultB.output.contains("info of build b after build a")
+        !resultB.output.contains("output of build a")
+    }
+
+    def "runs builds with different log levels in different daemons"() {
+        given:
+        blockingServer.expectConcurrentExecution("a", "b")
+
+        when:
+        def buildA = startBuild("a", "--info")
+        def buildB = startBuild("b")
+        def resultA = buildA.waitForFinish()
+        def resultB = buildB.waitForFinish()
+
+        then:
+        daemons.daemons.size() == 2
+
+        and:
+        resultA.output.contains("output of build a after ping")
+        resultB.output.contains("output of build b after ping")
+    }
+
+    private GradleHandle startBuild(String dir, String... args) {
+        return executer.inDirectory(file(dir))
+            .withBuildJvmOpts("-D${ConcurrentBuilds.MAX_CONCURRENT_BUILDS_PROPERTY}=2")
+            .withArguments(args)
+            .withTasks("ping")
+            .start()
+    }
+}
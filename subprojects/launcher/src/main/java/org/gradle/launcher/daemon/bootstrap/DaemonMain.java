@@ -16,13 +16,11 @@
 package org.gradle.launcher.daemon.bootstrap;
 
 import com.google.common.io.Files;
-import org.gradle.api.UncheckedIOException;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.internal.nativeintegration.services.NativeServices;
-import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.launcher.bootstrap.EntryPoint;
 import org.gradle.launcher.bootstrap.ExecutionListener;
 import org.gradle.launcher.daemon.configuration.DaemonServerConfiguration;
@@ -31,13 +29,13 @@ import org.gradle.launcher.daemon.context.DaemonContext;
 import org.gradle.launcher.daemon.logging.DaemonMessages;
 import org.gradle.launcher.daemon.server.Daemon;
 import org.gradle.launcher.daemon.server.DaemonServices;
+import org.gradle.launcher.daemon.server.standby.DaemonWarmUp;
+import org.gradle.launcher.exec.BuildExecuter;
 import org.gradle.logging.LoggingManagerInternal;
 import org.gradle.logging.LoggingServiceRegistry;
 import org.gradle.messaging.remote.Address;
-import org.gradle.process.internal.child.EncodedStream;
 
 import java.io.*;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -63,45 +61,27 @@ public class DaemonMain extends EntryPoint {
         }
 
         // Read configuration from stdin
-
-        List<String> startupOpts;
-        File gradleHomeDir;
-        File daemonBaseDir;
-        int idleTimeoutMs;
-        String daemonUid;
-        List<File> additionalClassPath;
-
-        KryoBackedDecoder decoder = new KryoBackedDecoder(new EncodedStream.EncodedInput(System.in));
-        try {
-            gradleHomeDir = new File(decoder.readString());
-            daemonBaseDir = new File(decoder.readString());
-            idleTimeoutMs = decoder.readSmallInt();
-            daemonUid = decoder.readString();
-            int argCount = decoder.readSmallInt();
-            startupOpts = new ArrayList<String>(argCount);
-            for (int i = 0; i < argCount; i++) {
-                startupOpts.add(decoder.readString());
-            }
-            int additionalClassPathLength = decoder.readSmallInt();
-            additionalClassPath = new ArrayList<File>(additionalClassPathLength);
-            for (int i = 0; i < additionalClassPathLength; i++) {
-                additionalClassPath.add(new File(decoder.readString()));
-            }
-        } catch (EOFException e) {
-            throw new UncheckedIOException(e);
-        }
+        DaemonStartupConfiguration startupConfiguration = DaemonStartupConfiguration.decode(System.in);
+        List<String> startupOpts = startupConfiguration.getDaemonOpts();
+        File gradleHomeDir = startupConfiguration.getGradleUserHomeDir();
 
         LOGGER.debug("Assuming the daemon was started with following jvm opts: {}", startupOpts);
 
         NativeServices.initialize(gradleHomeDir);
-        DaemonServerConfiguration parameters = new DefaultDaemonServerConfiguration(daemonUid, daemonBaseDir, idleTimeoutMs, startupOpts);
+        DaemonServerConfiguration parameters = new DefaultDaemonServerConfiguration(startupConfiguration.getDaemonUid(), startupConfiguration.getDaemonBaseDir(),
+            startupConfiguration.getIdleTimeout(), startupOpts, gradleHomeDir, startupConfiguration.isStandby());
         LoggingServiceRegistry loggingRegistry = LoggingServiceRegistry.newCommandLineProcessLogging();
         LoggingManagerInternal loggingManager = loggingRegistry.newInstance(LoggingManagerInternal.class);
-        DaemonServices daemonServices = new DaemonServices(parameters, loggingRegistry, loggingManager, new DefaultClassPath(additionalClassPath));
+        DaemonServices daemonServices = new DaemonServices(parameters, loggingRegistry, loggingManager, new DefaultClassPath(startupConfiguration.getAdditionalClassPath()));
         File daemonLog = daemonServices.getDaemonLogFile();
 
         initialiseLogging(loggingManager, daemonLog);
 
+        if (parameters.isStandby()) {
+            // Warm up before registering, so that no build has to wait for the warm-up to finish
+            warmUp(daemonServices, loggingManager);
+        }
+
         Daemon daemon = daemonServices.get(Daemon.class);
         daemon.start();
 
@@ -117,6 +97,16 @@ public class DaemonMain extends EntryPoint {
         }
     }
 
+    private void warmUp(DaemonServices daemonServices, LoggingManagerInternal loggingManager) {
+        // Keep the debug output of the warm-up builds out of the daemon log
+        loggingManager.setLevel(LogLevel.LIFECYCLE);
+        try {
+            new DaemonWarmUp(daemonServices.get(BuildExecuter.class), daemonServices).run();
+        } finally {
+            loggingManager.setLevel(LogLevel.DEBUG);
+        }
+    }
+
     private static void invalidArgs(String message) {
         System.out.println("USAGE: <gradle version> <path to registry base dir> <idle timeout in milliseconds>");
         System.out.println(message);
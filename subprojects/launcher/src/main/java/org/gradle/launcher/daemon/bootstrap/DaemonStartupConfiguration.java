@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.bootstrap;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.process.internal.child.EncodedStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The configuration that the process starting a daemon sends to the daemon via the daemon's stdin.
+ */
+public class DaemonStartupConfiguration {
+    private final File gradleUserHomeDir;
+    private final File daemonBaseDir;
+    private final int idleTimeoutMs;
+    private final String daemonUid;
+    private final List<String> daemonOpts;
+    private final List<File> additionalClassPath;
+    private final boolean standby;
+
+    public DaemonStartupConfiguration(File gradleUserHomeDir, File daemonBaseDir, int idleTimeoutMs, String daemonUid, List<String> daemonOpts, List<File> additionalClassPath, boolean standby) {
+        this.gradleUserHomeDir = gradleUserHomeDir;
+        this.daemonBaseDir = daemonBaseDir;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.daemonUid = daemonUid;
+        this.daemonOpts = daemonOpts;
+        this.additionalClassPath = additionalClassPath;
+        this.standby = standby;
+    }
+
+    public File getGradleUserHomeDir() {
+        return gradleUserHomeDir;
+    }
+
+    public File getDaemonBaseDir() {
+        return daemonBaseDir;
+    }
+
+    public int getIdleTimeout() {
+        return idleTimeoutMs;
+    }
+
+    public String getDaemonUid() {
+        return daemonUid;
+    }
+
+    public List<String> getDaemonOpts() {
+        return daemonOpts;
+    }
+
+    public List<File> getAdditionalClassPath() {
+        return additionalClassPath;
+    }
+
+    /**
+     * Returns true when the daemon is started as a spare for future builds, rather than for a build that is waiting for it.
+     */
+    public boolean isStandby() {
+        return standby;
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream serializedConfig = new ByteArrayOutputStream();
+        FlushableEncoder encoder = new KryoBackedEncoder(new EncodedStream.EncodedOutput(serializedConfig));
+        try {
+            encoder.writeString(gradleUserHomeDir.getAbsolutePath());
+            encoder.writeString(daemonBaseDir.getAbsolutePath());
+            encoder.writeSmallInt(idleTimeoutMs);
+            encoder.writeString(daemonUid);
+            encoder.writeSmallInt(daemonOpts.size());
+            for (String daemonOpt : daemonOpts) {
+                encoder.writeString(daemonOpt);
+            }
+            encoder.writeSmallInt(additionalClassPath.size());
+            for (File file : additionalClassPath) {
+                encoder.writeString(file.getAbsolutePath());
+            }
+            encoder.writeBoolean(standby);
+            encoder.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return serializedConfig.toByteArray();
+    }
+
+    public static DaemonStartupConfiguration decode(InputStream inputStream) {
+        KryoBackedDecoder decoder = new KryoBackedDecoder(new EncodedStream.EncodedInput(inputStream));
+        try {
+            File gradleUserHomeDir = new File(decoder.readString());
+            File daemonBaseDir = new File(decoder.readString());
+            int idleTimeoutMs = decoder.readSmallInt();
+            String daemonUid = decoder.readString();
+            int argCount = decoder.readSmallInt();
+            List<String> daemonOpts = new ArrayList<String>(argCount);
+            for (int i = 0; i < argCount; i++) {
+                daemonOpts.add(decoder.readString());
+            }
+            int additionalClassPathLength = decoder.readSmallInt();
+            List<File> additionalClassPath = new ArrayList<File>(additionalClassPathLength);
+            for (int i = 0; i < additionalClassPathLength; i++) {
+                additionalClassPath.add(new File(decoder.readString()));
+            }
+            boolean standby = decoder.readBoolean();
+            return new DaemonStartupConfiguration(gradleUserHomeDir, daemonBaseDir, idleTimeoutMs, daemonUid, daemonOpts, additionalClassPath, standby);
+        } catch (EOFException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
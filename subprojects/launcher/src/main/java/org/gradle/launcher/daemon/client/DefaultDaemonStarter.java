@@ -16,7 +16,6 @@
 package org.gradle.launcher.daemon.client;
 
 import org.gradle.api.GradleException;
-import org.gradle.api.UncheckedIOException;
 import org.gradle.api.internal.classpath.DefaultModuleRegistry;
 import org.gradle.api.internal.classpath.Module;
 import org.gradle.api.internal.classpath.ModuleRegistry;
@@ -26,17 +25,15 @@ import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.internal.installation.CurrentGradleInstallation;
 import org.gradle.internal.installation.GradleInstallation;
-import org.gradle.internal.serialize.FlushableEncoder;
-import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 import org.gradle.launcher.daemon.DaemonExecHandleBuilder;
 import org.gradle.launcher.daemon.bootstrap.DaemonGreeter;
 import org.gradle.launcher.daemon.bootstrap.DaemonOutputConsumer;
+import org.gradle.launcher.daemon.bootstrap.DaemonStartupConfiguration;
 import org.gradle.launcher.daemon.bootstrap.GradleDaemon;
 import org.gradle.launcher.daemon.configuration.DaemonParameters;
 import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
 import org.gradle.launcher.daemon.registry.DaemonDir;
 import org.gradle.process.internal.ExecHandle;
-import org.gradle.process.internal.child.EncodedStream;
 import org.gradle.util.Clock;
 import org.gradle.util.CollectionUtils;
 import org.gradle.util.GFileUtils;
@@ -110,26 +107,8 @@ public class DefaultDaemonStarter implements DaemonStarter {
         daemonArgs.add(GradleVersion.current().getVersion());
 
         // Serialize configuration to daemon via the process' stdin
-        ByteArrayOutputStream serializedConfig = new ByteArrayOutputStream();
-        FlushableEncoder encoder = new KryoBackedEncoder(new EncodedStream.EncodedOutput(serializedConfig));
-        try {
-            encoder.writeString(daemonParameters.getGradleUserHomeDir().getAbsolutePath());
-            encoder.writeString(daemonDir.getBaseDir().getAbsolutePath());
-            encoder.writeSmallInt(daemonParameters.getIdleTimeout());
-            encoder.writeString(daemonUid);
-            encoder.writeSmallInt(daemonOpts.size());
-            for (String daemonOpt : daemonOpts) {
-                encoder.writeString(daemonOpt);
-            }
-            encoder.writeSmallInt(searchClassPath.size());
-            for (File file : searchClassPath) {
-                encoder.writeString(file.getAbsolutePath());
-            }
-            encoder.flush();
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
-        ByteArrayInputStream stdInput = new ByteArrayInputStream(serializedConfig.toByteArray());
+        DaemonStartupConfiguration startupConfiguration = new DaemonStartupConfiguration(daemonParameters.getGradleUserHomeDir(), daemonDir.getBaseDir(), daemonParameters.getIdleTimeout(), daemonUid, daemonOpts, searchClassPath, false);
+        ByteArrayInputStream stdInput = new ByteArrayInputStream(startupConfiguration.encode());
 
         DaemonStartupInfo daemonInfo = startProcess(daemonArgs, daemonDir.getVersionedDir(), stdInput);
         listener.daemonStarted(daemonInfo);
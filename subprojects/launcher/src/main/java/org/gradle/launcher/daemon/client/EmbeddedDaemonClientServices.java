@@ -17,6 +17,7 @@ package org.gradle.launcher.daemon.client;
 
 import org.gradle.initialization.BuildLayoutParameters;
 import org.gradle.internal.Factory;
+import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.nativeintegration.ProcessEnvironment;
 import org.gradle.internal.nativeintegration.services.NativeServices;
@@ -32,8 +33,10 @@ import org.gradle.launcher.daemon.registry.EmbeddedDaemonRegistry;
 import org.gradle.launcher.daemon.server.Daemon;
 import org.gradle.launcher.daemon.server.DaemonServerConnector;
 import org.gradle.launcher.daemon.server.DaemonTcpServerConnector;
+import org.gradle.launcher.daemon.server.exec.ConcurrentBuilds;
 import org.gradle.launcher.daemon.server.exec.DaemonCommandExecuter;
 import org.gradle.launcher.daemon.server.exec.DefaultDaemonCommandExecuter;
+import org.gradle.launcher.daemon.server.standby.StandbyDaemonStarter;
 import org.gradle.launcher.exec.BuildExecuter;
 import org.gradle.logging.LoggingManagerInternal;
 import org.gradle.logging.LoggingServiceRegistry;
@@ -74,7 +77,10 @@ public class EmbeddedDaemonClientServices extends DaemonClientServicesSupport {
             get(ProcessEnvironment.class),
             mgr,
             new File("dummy"),
-            new StubDaemonHealthServices()
+            new StubDaemonHealthServices(),
+            // The embedded daemon does not know the Gradle user home, so cannot start spare daemons
+            new StandbyDaemonStarter(get(DaemonContext.class), get(DaemonRegistry.class), new DaemonDir(new DaemonParameters(new BuildLayoutParameters()).getBaseDir()), null, ClassPath.EMPTY, get(ExecutorFactory.class)),
+            new ConcurrentBuilds(1)
         );
     }
 
@@ -16,6 +16,8 @@
 
 package org.gradle.launcher.daemon.configuration;
 
+import org.gradle.api.Nullable;
+
 import java.io.File;
 import java.util.List;
 
@@ -28,4 +30,15 @@ public interface DaemonServerConfiguration {
     String getUid();
 
     List<String> getJvmOptions();
+
+    /**
+     * Returns the Gradle user home directory that the daemon was started with, or null when not known.
+     */
+    @Nullable
+    File getGradleUserHomeDir();
+
+    /**
+     * Returns true when the daemon was started as a spare for future builds.
+     */
+    boolean isStandby();
 }
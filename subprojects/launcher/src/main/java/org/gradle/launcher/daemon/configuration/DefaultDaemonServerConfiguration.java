@@ -16,6 +16,8 @@
 
 package org.gradle.launcher.daemon.configuration;
 
+import org.gradle.api.Nullable;
+
 import java.io.File;
 import java.util.List;
 
@@ -25,12 +27,20 @@ public class DefaultDaemonServerConfiguration implements DaemonServerConfigurati
     private final File daemonBaseDir;
     private final int idleTimeoutMs;
     private final List<String> jvmOptions;
+    private final File gradleUserHomeDir;
+    private final boolean standby;
 
     public DefaultDaemonServerConfiguration(String daemonUid, File daemonBaseDir, int idleTimeoutMs, List<String> jvmOptions) {
+        this(daemonUid, daemonBaseDir, idleTimeoutMs, jvmOptions, null, false);
+    }
+
+    public DefaultDaemonServerConfiguration(String daemonUid, File daemonBaseDir, int idleTimeoutMs, List<String> jvmOptions, @Nullable File gradleUserHomeDir, boolean standby) {
         this.daemonUid = daemonUid;
         this.daemonBaseDir = daemonBaseDir;
         this.idleTimeoutMs = idleTimeoutMs;
         this.jvmOptions = jvmOptions;
+        this.gradleUserHomeDir = gradleUserHomeDir;
+        this.standby = standby;
     }
 
     public File getBaseDir() {
@@ -48,4 +58,12 @@ public class DefaultDaemonServerConfiguration implements DaemonServerConfigurati
     public List<String> getJvmOptions() {
         return jvmOptions;
     }
+
+    public File getGradleUserHomeDir() {
+        return gradleUserHomeDir;
+    }
+
+    public boolean isStandby() {
+        return standby;
+    }
 }
\ No newline at end of file
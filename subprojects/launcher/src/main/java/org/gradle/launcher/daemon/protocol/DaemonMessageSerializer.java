@@ -45,7 +45,9 @@ public class DaemonMessageSerializer {
         registry.register(ProgressCompleteEvent.class, new ProgressCompleteEventSerializer());
         registry.register(ProgressEvent.class, new ProgressEventSerializer());
         registry.register(LogLevelChangeEvent.class, new LogLevelChangeEventSerializer(logLevelSerializer));
-        registry.register(OutputMessage.class, new OutputMessageSerializer(registry.build(OutputEvent.class)));
+        Serializer<OutputEvent> outputEventSerializer = registry.build(OutputEvent.class);
+        registry.register(OutputMessage.class, new OutputMessageSerializer(outputEventSerializer));
+        registry.register(OutputBatch.class, new OutputBatchSerializer(new ListSerializer<OutputEvent>(outputEventSerializer)));
 
         // Default for everything else
         registry.useJavaSerialization(Message.class);
@@ -291,4 +293,22 @@ public class DaemonMessageSerializer {
             return new OutputMessage(eventSerializer.read(decoder));
         }
     }
+
+    private static class OutputBatchSerializer implements Serializer<OutputBatch> {
+        private final Serializer<List<OutputEvent>> eventsSerializer;
+
+        public OutputBatchSerializer(Serializer<List<OutputEvent>> eventsSerializer) {
+            this.eventsSerializer = eventsSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, OutputBatch message) throws Exception {
+            eventsSerializer.write(encoder, message.getEvents());
+        }
+
+        @Override
+        public OutputBatch read(Decoder decoder) throws Exception {
+            return new OutputBatch(eventsSerializer.read(decoder));
+        }
+    }
 }
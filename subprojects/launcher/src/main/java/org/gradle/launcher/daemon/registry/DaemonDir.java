@@ -29,7 +29,7 @@ public class DaemonDir {
     public DaemonDir(File baseDir) {
         this.baseDir = baseDir;
         this.versionedDir = new File(baseDir, String.format("%s", GradleVersion.current().getVersion()));
-        this.registryFile = new File(versionedDir, "registry.bin");
+        this.registryFile = new File(versionedDir, "registry.slots");
         GFileUtils.mkdirs(this.versionedDir);
     }
 
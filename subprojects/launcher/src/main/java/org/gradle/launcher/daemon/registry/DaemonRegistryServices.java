@@ -18,7 +18,6 @@ package org.gradle.launcher.daemon.registry;
 import org.gradle.api.internal.cache.Cache;
 import org.gradle.api.internal.cache.CacheAccessSerializer;
 import org.gradle.api.internal.cache.MapBackedCache;
-import org.gradle.cache.internal.FileLockManager;
 import org.gradle.internal.Factory;
 
 import java.io.File;
@@ -51,11 +50,11 @@ public class DaemonRegistryServices {
         return new DaemonDir(daemonBaseDir);
     }
 
-    DaemonRegistry createDaemonRegistry(DaemonDir daemonDir, final FileLockManager fileLockManager) {
+    DaemonRegistry createDaemonRegistry(DaemonDir daemonDir) {
         final File daemonRegistryFile = daemonDir.getRegistry();
         return daemonRegistryCache.get(daemonRegistryFile, new Factory<DaemonRegistry>() {
             public DaemonRegistry create() {
-                return new PersistentDaemonRegistry(daemonRegistryFile, fileLockManager);
+                return new SlottedDaemonRegistry(daemonRegistryFile);
             }
         });
     }
@@ -0,0 +1,618 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.registry;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializer;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.launcher.daemon.context.DaemonContext;
+import org.gradle.launcher.daemon.context.DefaultDaemonContext;
+import org.gradle.messaging.remote.Address;
+import org.gradle.messaging.remote.internal.inet.MultiChoiceAddress;
+import org.gradle.messaging.remote.internal.inet.MultiChoiceAddressSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A daemon registry that stores each daemon in its own fixed size slot of the registry file, using a compact binary encoding.
+ *
+ * <p>A process changing an entry locks only the region of the file that holds the entry, so daemons do not contend with each other when they
+ * mark themselves busy or idle. Each entry starts with a sequence number, which a writer makes odd while it changes the entry and even again
+ * once it is done. Lookups read the file without taking any file lock and retry when a sequence number shows that an entry changed while it was
+ * being read.</p>
+ *
+ * <p>An entry that does not fit in a single slot continues in the following slots, which are marked as continuation slots. The file grows when
+ * there is no free run of slots that is large enough, and is never shrunk.</p>
+ *
+ * <p>A process that crashes while changing an entry leaves the entry with an odd sequence number. The next process that changes the registry and
+ * runs into such an entry locks the whole file and clears the entry, along with any continuation slots that no longer belong to an entry.</p>
+ */
+public class SlottedDaemonRegistry implements DaemonRegistry {
+    private static final Logger LOGGER = Logging.getLogger(SlottedDaemonRegistry.class);
+
+    private static final int MAGIC = 0x47524453;
+    private static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int SLOT_SIZE = 512;
+    // The first slot of an entry holds the sequence number, state, span and payload length, the other slots hold an unused int and the state
+    private static final int HEAD_HEADER_SIZE = 13;
+    private static final int CONTINUATION_HEADER_SIZE = 5;
+    private static final int STATE_OFFSET = 4;
+
+    private static final byte EMPTY = 0;
+    private static final byte IDLE = 1;
+    private static final byte BUSY = 2;
+    private static final byte CONTINUATION = 3;
+
+    private static final byte MULTI_CHOICE_ADDRESS = 0;
+    private static final byte SERIALIZED_ADDRESS = 1;
+
+    private static final int MAX_OPTIMISTIC_READS = 10;
+
+    private final File registryFile;
+    // Closing any channel for the file releases all of this process' locks on the file, on some platforms. So, don't read while this process
+    // holds a region lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SlottedDaemonRegistry(File registryFile) {
+        this.registryFile = registryFile;
+    }
+
+    public List<DaemonInfo> getAll() {
+        List<DaemonInfo> out = new ArrayList<DaemonInfo>();
+        for (Entry entry : readEntries()) {
+            out.add(entry.info);
+        }
+        return out;
+    }
+
+    public List<DaemonInfo> getIdle() {
+        List<DaemonInfo> out = new ArrayList<DaemonInfo>();
+        for (Entry entry : readEntries()) {
+            if (entry.info.isIdle()) {
+                out.add(entry.info);
+            }
+        }
+        return out;
+    }
+
+    public List<DaemonInfo> getBusy() {
+        List<DaemonInfo> out = new ArrayList<DaemonInfo>();
+        for (Entry entry : readEntries()) {
+            if (!entry.info.isIdle()) {
+                out.add(entry.info);
+            }
+        }
+        return out;
+    }
+
+    public void remove(final Address address) {
+        LOGGER.debug("Removing daemon address: {}", address);
+        update(new RegistryAction() {
+            public void execute(FileChannel channel) throws IOException {
+                Entry entry = find(channel, address);
+                if (entry != null) {
+                    writeState(channel, entry, EMPTY);
+                }
+                // Else, has been removed by something else - ignore
+            }
+        });
+    }
+
+    public void markBusy(final Address address) {
+        LOGGER.debug("Marking busy by address: {}", address);
+        update(new RegistryAction() {
+            public void execute(FileChannel channel) throws IOException {
+                Entry entry = find(channel, address);
+                if (entry != null) {
+                    writeState(channel, entry, BUSY);
+                }
+                // Else, has been removed by something else - ignore
+            }
+        });
+    }
+
+    public void markIdle(final Address address) {
+        LOGGER.debug("Marking idle by address: {}", address);
+        update(new RegistryAction() {
+            public void execute(FileChannel channel) throws IOException {
+                Entry entry = find(channel, address);
+                if (entry != null) {
+                    writeState(channel, entry, IDLE);
+                }
+                // Else, has been removed by something else - ignore
+            }
+        });
+    }
+
+    public void store(final Address address, final DaemonContext daemonContext, final String password, final boolean idle) {
+        LOGGER.debug("Storing daemon address: {}, context: {}", address, daemonContext);
+        final byte[] payload = encode(address, daemonContext, password);
+        update(new RegistryAction() {
+            public void execute(FileChannel channel) throws IOException {
+                Entry existing = find(channel, address);
+                if (existing != null) {
+                    writeState(channel, existing, EMPTY);
+                }
+                int span = spanFor(payload.length);
+                int slot = 0;
+                while (true) {
+                    FileLock regionLock = channel.lock(slotPosition(slot), (long) span * SLOT_SIZE, false);
+                    try {
+                        int occupied = occupiedSpan(channel, slot, span);
+                        if (occupied == 0) {
+                            writeEntry(channel, slot, span, idle ? IDLE : BUSY, payload);
+                            return;
+                        }
+                        slot += occupied;
+                    } finally {
+                        regionLock.release();
+                    }
+                }
+            }
+        });
+    }
+
+    private void update(RegistryAction action) {
+        lock.writeLock().lock();
+        try {
+            RandomAccessFile file = new RandomAccessFile(registryFile, "rw");
+            try {
+                FileChannel channel = file.getChannel();
+                ensureHeader(channel);
+                action.execute(channel);
+            } finally {
+                file.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Entry> readEntries() {
+        List<Integer> tornSlots = new ArrayList<Integer>();
+        List<Entry> entries = readEntries(tornSlots);
+        if (!tornSlots.isEmpty()) {
+            // Left behind by a process that crashed, clean up so that later lookups do not have to lock the file
+            update(new RegistryAction() {
+                public void execute(FileChannel channel) throws IOException {
+                    repairEntries(channel);
+                }
+            });
+        }
+        return entries;
+    }
+
+    private List<Entry> readEntries(List<Integer> tornSlots) {
+        lock.readLock().lock();
+        try {
+            if (!registryFile.isFile()) {
+                //when no daemon process has started yet
+                return new ArrayList<Entry>();
+            }
+            RandomAccessFile file = new RandomAccessFile(registryFile, "r");
+            try {
+                FileChannel channel = file.getChannel();
+                for (int i = 0; i < MAX_OPTIMISTIC_READS; i++) {
+                    List<Entry> entries = readConsistentEntries(channel);
+                    if (entries != null) {
+                        return entries;
+                    }
+                }
+                // Writers keep changing entries while we read them, so block them out for a moment. This is a shared lock, so other readers can continue
+                FileLock regionLock = channel.lock(HEADER_SIZE, Long.MAX_VALUE - HEADER_SIZE, true);
+                try {
+                    return readEntries(channel, tornSlots);
+                } finally {
+                    regionLock.release();
+                }
+            } finally {
+                file.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the entries from the file, returning null when an entry changed while it was being read.
+     */
+    @Nullable
+    private List<Entry> readConsistentEntries(FileChannel channel) throws IOException {
+        List<Entry> entries = readEntries(channel, null);
+        if (entries == null) {
+            return null;
+        }
+        for (Entry entry : entries) {
+            if (readSequence(channel, entry.slot) != entry.sequence) {
+                return null;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the entries from a snapshot of the file, or null when the snapshot contains an entry that is being changed. An unreadable file is empty.
+     *
+     * @param tornSlots when not null, skip inconsistent entries instead of returning null, and collect the slots that they occupy. Use this only
+     * when writers are locked out, in which case an inconsistent entry has been left behind by a process that crashed while writing it.
+     */
+    @Nullable
+    private List<Entry> readEntries(FileChannel channel, @Nullable List<Integer> tornSlots) throws IOException {
+        List<Entry> entries = new ArrayList<Entry>();
+        long size = channel.size();
+        if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+            return entries;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+            // Keep reading
+        }
+        buffer.flip();
+        if (!isValidHeader(buffer)) {
+            LOGGER.debug("Ignoring daemon registry file {} with unknown format.", registryFile);
+            return entries;
+        }
+        int slotCount = (buffer.limit() - HEADER_SIZE) / SLOT_SIZE;
+        int slot = 0;
+        while (slot < slotCount) {
+            int position = (int) slotPosition(slot);
+            int sequence = buffer.getInt(position);
+            byte state = buffer.get(position + STATE_OFFSET);
+            if (state != IDLE && state != BUSY) {
+                if (tornSlots != null && (state == CONTINUATION || (sequence & 1) != 0)) {
+                    // A continuation slot that does not belong to the entry before it, or a slot that was being cleared
+                    tornSlots.add(slot);
+                }
+                slot++;
+                continue;
+            }
+            int span = buffer.getInt(position + 5);
+            int length = buffer.getInt(position + 9);
+            DaemonInfo info = null;
+            if ((sequence & 1) == 0 && span >= 1 && slot + span <= slotCount && length >= 0 && spanFor(length) == span) {
+                try {
+                    info = decode(readPayload(buffer, slot, length)).setIdle(state == IDLE);
+                } catch (Exception e) {
+                    // Inconsistent
+                }
+            }
+            if (info == null) {
+                if (tornSlots == null) {
+                    return null;
+                }
+                tornSlots.add(slot);
+                slot++;
+                continue;
+            }
+            entries.add(new Entry(slot, sequence, span, info));
+            slot += span;
+        }
+        return entries;
+    }
+
+    @Nullable
+    private Entry find(FileChannel channel, Address address) throws IOException {
+        List<Entry> entries = readConsistentEntries(channel);
+        if (entries == null) {
+            // Some other process is changing the file, or crashed while changing it. Wait for it, then clean up after it
+            entries = repairEntries(channel);
+        }
+        for (Entry entry : entries) {
+            if (entry.info.getAddress().equals(address)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Clears the entries left behind by processes that crashed while changing them, and returns the remaining entries.
+     */
+    private List<Entry> repairEntries(FileChannel channel) throws IOException {
+        FileLock regionLock = channel.lock(HEADER_SIZE, Long.MAX_VALUE - HEADER_SIZE, false);
+        try {
+            List<Integer> tornSlots = new ArrayList<Integer>();
+            List<Entry> entries = readEntries(channel, tornSlots);
+            clearSlots(channel, tornSlots);
+            return entries;
+        } finally {
+            regionLock.release();
+        }
+    }
+
+    /**
+     * Marks the given slots as empty and makes their sequence numbers even. The caller must hold an exclusive lock on the slots.
+     */
+    private void clearSlots(FileChannel channel, List<Integer> slots) throws IOException {
+        if (!slots.isEmpty()) {
+            LOGGER.debug("Clearing {} slots left behind in daemon registry file {}.", slots.size(), registryFile);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(CONTINUATION_HEADER_SIZE);
+        for (int slot : slots) {
+            int sequence = readSequence(channel, slot);
+            buffer.clear();
+            buffer.putInt((sequence | 1) + 1);
+            buffer.put(EMPTY);
+            buffer.flip();
+            write(channel, slotPosition(slot), buffer);
+        }
+    }
+
+    /**
+     * Returns 0 when the given run of slots is free, otherwise the number of slots to skip before looking for a free run again.
+     */
+    private int occupiedSpan(FileChannel channel, int slot, int span) throws IOException {
+        for (int i = 0; i < span; i++) {
+            ByteBuffer header = read(channel, slotPosition(slot + i), HEAD_HEADER_SIZE);
+            if (header.remaining() < CONTINUATION_HEADER_SIZE) {
+                // Past the end of the file
+                return 0;
+            }
+            byte state = header.get(STATE_OFFSET);
+            if ((state == IDLE || state == BUSY) && header.remaining() == HEAD_HEADER_SIZE) {
+                return i + Math.max(1, header.getInt(5));
+            }
+            if (state == CONTINUATION) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private void writeEntry(FileChannel channel, int slot, int span, byte state, byte[] payload) throws IOException {
+        int sequence = readSequence(channel, slot);
+        writeSequence(channel, slot, sequence + 1);
+        ByteBuffer entry = ByteBuffer.allocate(span * SLOT_SIZE);
+        entry.putInt(sequence + 1);
+        entry.put(state);
+        entry.putInt(span);
+        entry.putInt(payload.length);
+        int offset = Math.min(payload.length, SLOT_SIZE - HEAD_HEADER_SIZE);
+        entry.put(payload, 0, offset);
+        for (int i = 1; i < span; i++) {
+            entry.position(i * SLOT_SIZE + STATE_OFFSET);
+            entry.put(CONTINUATION);
+            int count = Math.min(payload.length - offset, SLOT_SIZE - CONTINUATION_HEADER_SIZE);
+            entry.put(payload, offset, count);
+            offset += count;
+        }
+        entry.clear();
+        write(channel, slotPosition(slot), entry);
+        writeSequence(channel, slot, sequence + 2);
+    }
+
+    private void writeState(FileChannel channel, Entry entry, byte state) throws IOException {
+        long position = slotPosition(entry.slot);
+        FileLock regionLock = channel.lock(position, (long) entry.span * SLOT_SIZE, false);
+        try {
+            if (readSequence(channel, entry.slot) != entry.sequence) {
+                // Changed by another process since we looked. Give up, as the other process has either removed or replaced the entry
+                return;
+            }
+            writeSequence(channel, entry.slot, entry.sequence + 1);
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            buffer.put(state);
+            buffer.flip();
+            write(channel, position + STATE_OFFSET, buffer);
+            if (state == EMPTY) {
+                for (int i = 1; i < entry.span; i++) {
+                    buffer.clear();
+                    buffer.put(EMPTY);
+                    buffer.flip();
+                    write(channel, slotPosition(entry.slot + i) + STATE_OFFSET, buffer);
+                }
+            }
+            writeSequence(channel, entry.slot, entry.sequence + 2);
+        } finally {
+            regionLock.release();
+        }
+    }
+
+    private void ensureHeader(FileChannel channel) throws IOException {
+        if (isValidHeader(read(channel, 0, HEADER_SIZE))) {
+            return;
+        }
+        FileLock headerLock = channel.lock(0, HEADER_SIZE, false);
+        try {
+            if (isValidHeader(read(channel, 0, HEADER_SIZE))) {
+                return;
+            }
+            if (channel.size() > 0) {
+                LOGGER.info("Discarding daemon registry file {} with unknown format.", registryFile);
+            }
+            channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putInt(FORMAT_VERSION);
+            header.putInt(SLOT_SIZE);
+            header.flip();
+            write(channel, 0, header);
+        } finally {
+            headerLock.release();
+        }
+    }
+
+    private static boolean isValidHeader(ByteBuffer buffer) {
+        return buffer.limit() >= HEADER_SIZE && buffer.getInt(0) == MAGIC && buffer.getInt(4) == FORMAT_VERSION && buffer.getInt(8) == SLOT_SIZE;
+    }
+
+    /**
+     * Returns the number of slots required for an entry with the given payload length.
+     */
+    private static int spanFor(int payloadLength) {
+        int remaining = payloadLength - (SLOT_SIZE - HEAD_HEADER_SIZE);
+        if (remaining <= 0) {
+            return 1;
+        }
+        int continuationCapacity = SLOT_SIZE - CONTINUATION_HEADER_SIZE;
+        return 1 + (remaining + continuationCapacity - 1) / continuationCapacity;
+    }
+
+    private static byte[] readPayload(ByteBuffer buffer, int slot, int length) {
+        byte[] payload = new byte[length];
+        int offset = Math.min(length, SLOT_SIZE - HEAD_HEADER_SIZE);
+        System.arraycopy(buffer.array(), (int) slotPosition(slot) + HEAD_HEADER_SIZE, payload, 0, offset);
+        for (int i = 1; offset < length; i++) {
+            int count = Math.min(length - offset, SLOT_SIZE - CONTINUATION_HEADER_SIZE);
+            System.arraycopy(buffer.array(), (int) slotPosition(slot + i) + CONTINUATION_HEADER_SIZE, payload, offset, count);
+            offset += count;
+        }
+        return payload;
+    }
+
+    private static long slotPosition(int slot) {
+        return HEADER_SIZE + (long) slot * SLOT_SIZE;
+    }
+
+    private static int readSequence(FileChannel channel, int slot) throws IOException {
+        ByteBuffer buffer = read(channel, slotPosition(slot), 4);
+        return buffer.remaining() < 4 ? 0 : buffer.getInt(0);
+    }
+
+    private static void writeSequence(FileChannel channel, int slot, int sequence) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        buffer.putInt(sequence);
+        buffer.flip();
+        write(channel, slotPosition(slot), buffer);
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(count);
+        while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) >= 0) {
+            // Keep reading
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void write(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static byte[] encode(Address address, DaemonContext context, String password) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+        try {
+            encoder.writeString(context.getUid());
+            encoder.writeString(context.getJavaHome().getPath());
+            encoder.writeString(context.getDaemonRegistryDir().getPath());
+            writeNullableLong(encoder, context.getPid());
+            writeNullableLong(encoder, context.getIdleTimeout() == null ? null : context.getIdleTimeout().longValue());
+            encoder.writeSmallInt(context.getDaemonOpts().size());
+            for (String daemonOpt : context.getDaemonOpts()) {
+                encoder.writeString(daemonOpt);
+            }
+            encoder.writeString(password);
+            // Written last, as Java serialization may read ahead
+            if (address instanceof MultiChoiceAddress) {
+                encoder.writeByte(MULTI_CHOICE_ADDRESS);
+                new MultiChoiceAddressSerializer().write(encoder, (MultiChoiceAddress) address);
+            } else {
+                encoder.writeByte(SERIALIZED_ADDRESS);
+                new DefaultSerializer<Address>().write(encoder, address);
+            }
+            encoder.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static DaemonInfo decode(byte[] payload) throws Exception {
+        KryoBackedDecoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(payload));
+        String uid = decoder.readString();
+        File javaHome = new File(decoder.readString());
+        File daemonRegistryDir = new File(decoder.readString());
+        Long pid = readNullableLong(decoder);
+        Long idleTimeout = readNullableLong(decoder);
+        int daemonOptsCount = decoder.readSmallInt();
+        List<String> daemonOpts = new ArrayList<String>(daemonOptsCount);
+        for (int i = 0; i < daemonOptsCount; i++) {
+            daemonOpts.add(decoder.readString());
+        }
+        String password = decoder.readString();
+        Address address;
+        if (decoder.readByte() == MULTI_CHOICE_ADDRESS) {
+            address = new MultiChoiceAddressSerializer().read(decoder);
+        } else {
+            address = new DefaultSerializer<Address>(SlottedDaemonRegistry.class.getClassLoader()).read(decoder);
+            if (address == null) {
+                throw new IOException("Could not read daemon address.");
+            }
+        }
+        DaemonContext context = new DefaultDaemonContext(uid, javaHome, daemonRegistryDir, pid, idleTimeout == null ? null : idleTimeout.intValue(), daemonOpts);
+        return new DaemonInfo(address, context, password, false);
+    }
+
+    private static void writeNullableLong(Encoder encoder, @Nullable Long value) throws IOException {
+        encoder.writeBoolean(value != null);
+        if (value != null) {
+            encoder.writeLong(value);
+        }
+    }
+
+    @Nullable
+    private static Long readNullableLong(Decoder decoder) throws IOException {
+        return decoder.readBoolean() ? decoder.readLong() : null;
+    }
+
+    public String toString() {
+        return String.format("SlottedDaemonRegistry[file=%s]", registryFile);
+    }
+
+    private interface RegistryAction {
+        void execute(FileChannel channel) throws IOException;
+    }
+
+    private static class Entry {
+        final int slot;
+        final int sequence;
+        final int span;
+        final DaemonInfo info;
+
+        Entry(int slot, int sequence, int span, DaemonInfo info) {
+            this.slot = slot;
+            this.sequence = sequence;
+            this.span = span;
+            this.info = info;
+        }
+    }
+}
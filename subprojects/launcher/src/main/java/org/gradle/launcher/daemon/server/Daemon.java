@@ -47,6 +47,7 @@ public class Daemon implements Stoppable {
     private final DaemonCommandExecuter commandExecuter;
     private final ExecutorFactory executorFactory;
     private final String password;
+    private final int maxConcurrentBuilds;
 
     private DaemonStateCoordinator stateCoordinator;
 
@@ -63,12 +64,21 @@ public class Daemon implements Stoppable {
      * @param daemonRegistry The registry that this daemon should advertise itself in
      */
     public Daemon(DaemonServerConnector connector, DaemonRegistry daemonRegistry, DaemonContext daemonContext, String password, DaemonCommandExecuter commandExecuter, ExecutorFactory executorFactory) {
+        this(connector, daemonRegistry, daemonContext, password, commandExecuter, executorFactory, 1);
+    }
+
+    /**
+     * Creates a new daemon instance, which runs up to the given number of builds at the same time.
+     */
+    public Daemon(DaemonServerConnector connector, DaemonRegistry daemonRegistry, DaemonContext daemonContext, String password, DaemonCommandExecuter commandExecuter, ExecutorFactory executorFactory,
+                  int maxConcurrentBuilds) {
         this.connector = connector;
         this.daemonRegistry = daemonRegistry;
         this.daemonContext = daemonContext;
         this.password = password;
         this.commandExecuter = commandExecuter;
         this.executorFactory = executorFactory;
+        this.maxConcurrentBuilds = maxConcurrentBuilds;
     }
 
     public String getUid() {
@@ -122,7 +132,7 @@ public class Daemon implements Stoppable {
             // 3. start accepting incoming connections
             // 4. advertise presence in registry
 
-            stateCoordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand);
+            stateCoordinator = new DaemonStateCoordinator(executorFactory, maxConcurrentBuilds, onStartCommand, onFinishCommand);
             connectionHandler = new DefaultIncomingConnectionHandler(commandExecuter, daemonContext, stateCoordinator, executorFactory);
             Runnable connectionErrorHandler = new Runnable() {
                 @Override
@@ -15,10 +15,12 @@
  */
 package org.gradle.launcher.daemon.server;
 
+import org.gradle.api.internal.cache.MemoryPressureListener;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.nativeintegration.ProcessEnvironment;
 import org.gradle.internal.nativeintegration.services.NativeServices;
 import org.gradle.internal.service.DefaultServiceRegistry;
@@ -30,9 +32,13 @@ import org.gradle.launcher.daemon.context.DaemonContextBuilder;
 import org.gradle.launcher.daemon.registry.DaemonDir;
 import org.gradle.launcher.daemon.registry.DaemonRegistry;
 import org.gradle.launcher.daemon.registry.DaemonRegistryServices;
+import org.gradle.launcher.daemon.server.exec.BuildOwnershipExecutorFactory;
+import org.gradle.launcher.daemon.server.exec.ConcurrentBuilds;
 import org.gradle.launcher.daemon.server.exec.DefaultDaemonCommandExecuter;
 import org.gradle.launcher.daemon.server.health.DaemonHealthServices;
 import org.gradle.launcher.daemon.server.health.DefaultDaemonHealthServices;
+import org.gradle.launcher.daemon.server.standby.StandbyDaemonStarter;
+import org.gradle.launcher.daemon.server.standby.TimeToFirstTaskReporter;
 import org.gradle.launcher.exec.BuildExecuter;
 import org.gradle.logging.LoggingManagerInternal;
 import org.gradle.messaging.remote.internal.MessagingServices;
@@ -47,15 +53,17 @@ import java.util.UUID;
 public class DaemonServices extends DefaultServiceRegistry {
     private final DaemonServerConfiguration configuration;
     private final LoggingManagerInternal loggingManager;
+    private final ClassPath additionalModuleClassPath;
     private final static Logger LOGGER = Logging.getLogger(DaemonServices.class);
 
     public DaemonServices(DaemonServerConfiguration configuration, ServiceRegistry loggingServices, LoggingManagerInternal loggingManager, ClassPath additionalModuleClassPath) {
         super(NativeServices.getInstance(), loggingServices);
         this.configuration = configuration;
         this.loggingManager = loggingManager;
+        this.additionalModuleClassPath = additionalModuleClassPath;
 
         addProvider(new DaemonRegistryServices(configuration.getBaseDir()));
-        addProvider(new GlobalScopeServices(true, additionalModuleClassPath));
+        addProvider(new DaemonGlobalScopeServices(additionalModuleClassPath));
     }
 
     protected DaemonContext createDaemonContext() {
@@ -78,11 +86,33 @@ public class DaemonServices extends DefaultServiceRegistry {
         return new File(get(DaemonDir.class).getVersionedDir(), fileName);
     }
 
-    protected DaemonHealthServices createDaemonHealthServices() {
-        return new DefaultDaemonHealthServices();
+    protected DaemonHealthServices createDaemonHealthServices(final ConcurrentBuilds concurrentBuilds) {
+        final MemoryPressureListener caches = get(ListenerManager.class).getBroadcaster(MemoryPressureListener.class);
+        return new DefaultDaemonHealthServices(new MemoryPressureListener() {
+            public void releaseMemory() {
+                // The in-memory caches are shared with the other builds that are running
+                boolean released = concurrentBuilds.runIfNoOtherBuilds(new Runnable() {
+                    public void run() {
+                        caches.releaseMemory();
+                    }
+                });
+                if (!released) {
+                    LOGGER.info("Not releasing in-memory caches as other builds are running.");
+                }
+            }
+        });
     }
 
-    protected Daemon createDaemon(BuildExecuter buildActionExecuter) {
+    protected StandbyDaemonStarter createStandbyDaemonStarter(DaemonContext daemonContext, DaemonRegistry daemonRegistry, DaemonDir daemonDir, ExecutorFactory executorFactory) {
+        return new StandbyDaemonStarter(daemonContext, daemonRegistry, daemonDir, configuration.getGradleUserHomeDir(), additionalModuleClassPath, executorFactory);
+    }
+
+    protected ConcurrentBuilds createConcurrentBuilds() {
+        return new ConcurrentBuilds(ConcurrentBuilds.configuredMaxConcurrentBuilds());
+    }
+
+    protected Daemon createDaemon(BuildExecuter buildActionExecuter, ConcurrentBuilds concurrentBuilds) {
+        get(ListenerManager.class).addListener(new TimeToFirstTaskReporter(configuration.isStandby()));
         return new Daemon(
             new DaemonTcpServerConnector(
                 get(ExecutorFactory.class),
@@ -97,10 +127,23 @@ public class DaemonServices extends DefaultServiceRegistry {
                 get(ProcessEnvironment.class),
                 loggingManager,
                 getDaemonLogFile(),
-                get(DaemonHealthServices.class)
+                get(DaemonHealthServices.class),
+                get(StandbyDaemonStarter.class),
+                concurrentBuilds
             ),
-            get(ExecutorFactory.class)
+            get(ExecutorFactory.class),
+            concurrentBuilds.getMaxConcurrentBuilds()
         );
     }
 
+    private class DaemonGlobalScopeServices extends GlobalScopeServices {
+        DaemonGlobalScopeServices(ClassPath additionalModuleClassPath) {
+            super(true, additionalModuleClassPath);
+        }
+
+        @Override
+        protected ExecutorFactory createExecutorFactory() {
+            return new BuildOwnershipExecutorFactory(get(ConcurrentBuilds.class));
+        }
+    }
 }
@@ -16,6 +16,8 @@
 
 package org.gradle.launcher.daemon.server;
 
+import com.google.common.base.Joiner;
+import org.gradle.api.Nullable;
 import org.gradle.api.logging.Logging;
 import org.gradle.initialization.BuildCancellationToken;
 import org.gradle.initialization.DefaultBuildCancellationToken;
@@ -29,7 +31,9 @@ import org.gradle.launcher.daemon.server.api.DaemonStoppedException;
 import org.gradle.launcher.daemon.server.api.DaemonUnavailableException;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -41,6 +45,9 @@ import java.util.concurrent.locks.ReentrantLock;
  * This class has no knowledge of the Daemon's internals and is designed to be used internally by the daemon to coordinate itself and allow worker threads to control the daemon's busy/idle status.
  *
  * This is not exposed to clients of the daemon.
+ *
+ * By default, the daemon runs one command at a time. When it is allowed to run several commands at the same time, the daemon is considered busy as soon as
+ * one command is running, but {@code onStartCommand} and {@code onFinishCommand} are only run when the daemon becomes unable or able again to accept another command.
  */
 public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     private static final Logger LOGGER = Logging.getLogger(DaemonStateCoordinator.class);
@@ -50,11 +57,12 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     private final Lock lock = new ReentrantLock();
     private final Condition condition = lock.newCondition();
     private final long cancelTimeoutMs;
+    private final int maxConcurrentCommands;
 
     private State state = State.Running;
     private long lastActivityAt = -1;
-    private String currentCommandExecution;
-    private Object result;
+    private final List<RunningCommand> currentCommands = new ArrayList<RunningCommand>();
+    private final ThreadLocal<RunningCommand> commandForThread = new ThreadLocal<RunningCommand>();
     private volatile DefaultBuildCancellationToken cancellationToken;
 
     private final StoppableExecutor executor;
@@ -62,11 +70,20 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     private final Runnable onFinishCommand;
 
     public DaemonStateCoordinator(ExecutorFactory executorFactory, Runnable onStartCommand, Runnable onFinishCommand) {
-        this(executorFactory, onStartCommand, onFinishCommand, 10 * 1000L);
+        this(executorFactory, 1, onStartCommand, onFinishCommand);
+    }
+
+    public DaemonStateCoordinator(ExecutorFactory executorFactory, int maxConcurrentCommands, Runnable onStartCommand, Runnable onFinishCommand) {
+        this(executorFactory, maxConcurrentCommands, onStartCommand, onFinishCommand, 10 * 1000L);
     }
 
     DaemonStateCoordinator(ExecutorFactory executorFactory, Runnable onStartCommand, Runnable onFinishCommand, long cancelTimeoutMs) {
+        this(executorFactory, 1, onStartCommand, onFinishCommand, cancelTimeoutMs);
+    }
+
+    DaemonStateCoordinator(ExecutorFactory executorFactory, int maxConcurrentCommands, Runnable onStartCommand, Runnable onFinishCommand, long cancelTimeoutMs) {
         executor = executorFactory.create("Daemon worker");
+        this.maxConcurrentCommands = maxConcurrentCommands;
         this.onStartCommand = onStartCommand;
         this.onFinishCommand = onFinishCommand;
         this.cancelTimeoutMs = cancelTimeoutMs;
@@ -188,21 +205,31 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     }
 
     public BuildCancellationToken getCancellationToken() {
-        return cancellationToken;
+        RunningCommand runningCommand = commandForThread.get();
+        return runningCommand != null ? runningCommand.cancellationToken : cancellationToken;
     }
 
-    private void updateCancellationToken() {
-        cancellationToken = new DefaultBuildCancellationToken();
+    public void cancelBuild() {
+        cancel(null);
     }
 
-    public void cancelBuild() {
+    public void cancelCommand(String commandDisplayName) {
+        cancel(commandDisplayName);
+    }
+
+    /**
+     * Cancels the commands with the given display name, or all commands when null, and waits for them to complete.
+     */
+    private void cancel(@Nullable String commandDisplayName) {
         long waitUntil = System.currentTimeMillis() + cancelTimeoutMs;
         Date expiry = new Date(waitUntil);
-        LOGGER.debug("Cancel requested: will wait for daemon to become idle.");
-        try {
-            cancellationToken.cancel();
-        } catch (Exception ex) {
-            LOGGER.error("Cancel processing failed. Will continue.", ex);
+        LOGGER.debug("Cancel requested: will wait for {}.", commandDisplayName == null ? "daemon to become idle" : commandDisplayName + " to complete");
+        for (RunningCommand runningCommand : getCommands(commandDisplayName)) {
+            try {
+                runningCommand.cancellationToken.cancel();
+            } catch (Exception ex) {
+                LOGGER.error("Cancel processing failed. Will continue.", ex);
+            }
         }
 
         lock.lock();
@@ -211,13 +238,13 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
                 try {
                     switch (state) {
                         case Running:
-                            if (isIdle()) {
-                                LOGGER.debug("Cancel: daemon is idle now.");
+                            if (getCommands(commandDisplayName).isEmpty()) {
+                                LOGGER.debug("Cancel: command has completed.");
                                 return;
                             }
                             // fall-through
                         case StopRequested:
-                            LOGGER.debug("Cancel: daemon is busy, sleeping until state changes.");
+                            LOGGER.debug("Cancel: command is still running, sleeping until state changes.");
                             condition.awaitUntil(expiry);
                             break;
                         case Broken:
@@ -237,36 +264,55 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
         }
     }
 
+    private List<RunningCommand> getCommands(@Nullable String commandDisplayName) {
+        lock.lock();
+        try {
+            List<RunningCommand> commands = new ArrayList<RunningCommand>();
+            for (RunningCommand runningCommand : currentCommands) {
+                if (commandDisplayName == null || runningCommand.displayName.equals(commandDisplayName)) {
+                    commands.add(runningCommand);
+                }
+            }
+            return commands;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public void runCommand(final Runnable command, String commandDisplayName) throws DaemonUnavailableException {
-        onStartCommand(commandDisplayName);
+        final RunningCommand runningCommand = onStartCommand(commandDisplayName);
         try {
             executor.execute(new Runnable() {
                 public void run() {
+                    commandForThread.set(runningCommand);
                     try {
                         command.run();
-                        onCommandSuccessful();
+                        onCommandSuccessful(runningCommand);
                     } catch (Throwable t) {
-                        onCommandFailed(t);
+                        onCommandFailed(runningCommand, t);
+                    } finally {
+                        commandForThread.remove();
                     }
                 }
             });
-            waitForCommandCompletion();
+            waitForCommandCompletion(runningCommand);
         } finally {
-            onFinishCommand();
+            onFinishCommand(runningCommand);
         }
     }
 
-    private void waitForCommandCompletion() {
+    private void waitForCommandCompletion(RunningCommand runningCommand) {
         lock.lock();
         try {
-            while ((state == State.Running || state == State.StopRequested) && result == null) {
+            while ((state == State.Running || state == State.StopRequested) && runningCommand.result == null) {
                 try {
                     condition.await();
                 } catch (InterruptedException e) {
                     throw UncheckedException.throwAsUncheckedException(e);
                 }
             }
-            LOGGER.debug("Command execution: finished waiting for {}. Result {} with state {}", currentCommandExecution, result, state);
+            Object result = runningCommand.result;
+            LOGGER.debug("Command execution: finished waiting for {}. Result {} with state {}", runningCommand.displayName, result, state);
             if (result instanceof Throwable) {
                 throw UncheckedException.throwAsUncheckedException((Throwable) result);
             }
@@ -286,27 +332,27 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
         }
     }
 
-    private void onCommandFailed(Throwable failure) {
+    private void onCommandFailed(RunningCommand runningCommand, Throwable failure) {
         lock.lock();
         try {
-            result = failure;
+            runningCommand.result = failure;
             condition.signalAll();
         } finally {
             lock.unlock();
         }
     }
 
-    private void onCommandSuccessful() {
+    private void onCommandSuccessful(RunningCommand runningCommand) {
         lock.lock();
         try {
-            result = this;
+            runningCommand.result = this;
             condition.signalAll();
         } finally {
             lock.unlock();
         }
     }
 
-    private void onStartCommand(String commandDisplayName) {
+    private RunningCommand onStartCommand(String commandDisplayName) {
         lock.lock();
         try {
             switch (state) {
@@ -317,18 +363,22 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
                 case Stopped:
                     throw new DaemonUnavailableException("This daemon has stopped.");
             }
-            if (currentCommandExecution != null) {
-                throw new DaemonUnavailableException(String.format("This daemon is currently executing: %s", currentCommandExecution));
+            if (currentCommands.size() >= maxConcurrentCommands) {
+                throw new DaemonUnavailableException(String.format("This daemon is currently executing: %s", Joiner.on(", ").join(currentCommands)));
             }
 
             LOGGER.debug("Command execution: started {} after {} minutes of idle", commandDisplayName, getIdleMinutes());
             try {
-                onStartCommand.run();
-                currentCommandExecution = commandDisplayName;
-                result = null;
+                if (currentCommands.size() == maxConcurrentCommands - 1) {
+                    // Cannot accept any more commands
+                    onStartCommand.run();
+                }
+                RunningCommand runningCommand = new RunningCommand(commandDisplayName);
+                currentCommands.add(runningCommand);
+                cancellationToken = runningCommand.cancellationToken;
                 updateActivityTimestamp();
-                updateCancellationToken();
                 condition.signalAll();
+                return runningCommand;
             } catch (Throwable throwable) {
                 setState(State.Broken);
                 throw UncheckedException.throwAsUncheckedException(throwable);
@@ -338,17 +388,19 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
         }
     }
 
-    private void onFinishCommand() {
+    private void onFinishCommand(RunningCommand runningCommand) {
         lock.lock();
         try {
-            LOGGER.debug("Command execution: completed {}", currentCommandExecution);
-            currentCommandExecution = null;
-            result = null;
+            LOGGER.debug("Command execution: completed {}", runningCommand.displayName);
+            boolean couldNotAcceptCommands = currentCommands.size() == maxConcurrentCommands;
+            currentCommands.remove(runningCommand);
             updateActivityTimestamp();
             switch (state) {
                 case Running:
                     try {
-                        onFinishCommand.run();
+                        if (couldNotAcceptCommands) {
+                            onFinishCommand.run();
+                        }
                         condition.signalAll();
                     } catch (Throwable throwable) {
                         setState(State.Broken);
@@ -356,7 +408,11 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
                     }
                     break;
                 case StopRequested:
-                    stopNow("command completed and stop requested");
+                    if (currentCommands.isEmpty()) {
+                        stopNow("command completed and stop requested");
+                    } else {
+                        condition.signalAll();
+                    }
                     break;
                 case Stopped:
                     break;
@@ -396,10 +452,25 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     }
 
     boolean isIdle() {
-        return state == State.Running && currentCommandExecution == null;
+        return state == State.Running && currentCommands.isEmpty();
     }
 
     boolean isBusy() {
-        return state == State.Running && currentCommandExecution != null;
+        return state == State.Running && !currentCommands.isEmpty();
+    }
+
+    private static class RunningCommand {
+        final String displayName;
+        final DefaultBuildCancellationToken cancellationToken = new DefaultBuildCancellationToken();
+        Object result;
+
+        RunningCommand(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
     }
 }
@@ -30,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -123,6 +124,11 @@ public class DefaultDaemonConnection implements DaemonConnection {
         connection.flush();
     }
 
+    public void logEvents(List<OutputEvent> logEvents) {
+        connection.dispatch(new OutputBatch(logEvents));
+        connection.flush();
+    }
+
     @Override
     public void event(Object event) {
         connection.dispatch(new BuildEvent(event));
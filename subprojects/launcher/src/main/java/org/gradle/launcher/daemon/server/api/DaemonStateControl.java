@@ -43,15 +43,24 @@ public interface DaemonStateControl {
      */
     void cancelBuild();
 
+    /**
+     * Communicates a request for cancellation of the given command, which has been started using {@link #runCommand}. Blocks in the same way as
+     * {@link #cancelBuild()}, but only until the given command has completed, so that other commands running at the same time are not affected.
+     *
+     * @param commandDisplayName The display name that the command was started with.
+     */
+    void cancelCommand(String commandDisplayName);
+
     /**
      * Returns a cancellation token used to communicate cancel requests to commands processed in this daemon.
      *
-     * @return Created cancellation token associated with currently running command or an arbitrary instance if no command is running.
+     * @return Created cancellation token associated with the command running on the calling thread, or else with the most recently started command, or an
+     * arbitrary instance if no command is running.
      */
     BuildCancellationToken getCancellationToken();
 
     /**
-     * Runs the given long running command. No more than 1 command may be running at any given time.
+     * Runs the given long running command. No more than the configured number of commands, 1 by default, may be running at any given time.
      *
      * @param command The command to run
      * @param commandDisplayName The command's display name, used for logging and error messages.
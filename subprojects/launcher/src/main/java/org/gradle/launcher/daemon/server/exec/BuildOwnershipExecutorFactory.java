@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.exec;
+
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An executor factory whose executors run each piece of work as belonging to the build that submitted it, so that the output of the work is sent to the
+ * client of that build.
+ */
+public class BuildOwnershipExecutorFactory extends DefaultExecutorFactory {
+    private final ConcurrentBuilds concurrentBuilds;
+
+    public BuildOwnershipExecutorFactory(ConcurrentBuilds concurrentBuilds) {
+        this.concurrentBuilds = concurrentBuilds;
+    }
+
+    @Override
+    protected ExecutorService createExecutor(String displayName) {
+        return new BuildOwnershipExecutor(super.createExecutor(displayName));
+    }
+
+    @Override
+    protected ExecutorService createExecutor(String displayName, int fixedSize) {
+        return new BuildOwnershipExecutor(super.createExecutor(displayName, fixedSize));
+    }
+
+    private class BuildOwnershipExecutor extends AbstractExecutorService {
+        private final ExecutorService executor;
+
+        BuildOwnershipExecutor(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        public void execute(Runnable command) {
+            executor.execute(concurrentBuilds.ownedByCurrentBuild(command));
+        }
+
+        public void shutdown() {
+            executor.shutdown();
+        }
+
+        public List<Runnable> shutdownNow() {
+            return executor.shutdownNow();
+        }
+
+        public boolean isShutdown() {
+            return executor.isShutdown();
+        }
+
+        public boolean isTerminated() {
+            return executor.isTerminated();
+        }
+
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+    }
+}
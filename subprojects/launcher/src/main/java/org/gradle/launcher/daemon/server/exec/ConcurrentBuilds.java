@@ -0,0 +1,277 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.exec;
+
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.Nullable;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.internal.Factory;
+import org.gradle.launcher.daemon.protocol.Build;
+import org.gradle.launcher.daemon.server.api.DaemonUnavailableException;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps track of the builds that are running in the daemon, so that the daemon can run several independent builds at the same time.
+ *
+ * <p>A build can run at the same time as other builds only when its working directory and the working directories of the other builds do not contain
+ * each other, and when its client has the same environment variables, system properties and log level as the clients of the other builds. The builds
+ * share the global services of the daemon, such as the file hash and class loader caches, and each build has its own build scoped services.</p>
+ *
+ * <p>Some state is process wide. The first build sets up the environment, system properties and working directory of the process, which are
+ * restored once the last build has completed. This means that a build that starts while another build is running sees the working directory of the
+ * other build as the working directory of the process, so that a relative path that is not resolved against the project directory, for example
+ * {@code new File("build.txt")} in a build script, is resolved relative to the directory of the other build. Paths resolved using
+ * {@code Project.file()} and the other Gradle APIs are not affected. The log level is also process wide, so builds with different log levels do not
+ * run at the same time. The logging state that each build replaces is restored once the builds that started later have completed as well, see
+ * {@link org.gradle.logging.internal.SharedLoggingSystem}. Standard input is only forwarded to a build that starts when no other build is running.
+ * The in-memory caches of the daemon are not released while more than one build is running.</p>
+ *
+ * <p>A thread belongs to a build while it runs the build, or while it runs work that was submitted to an executor by a thread that belongs to the
+ * build, see {@link #ownedByCurrentBuild(Runnable)}. Output from a thread is sent to the client of the build that the thread belongs to, or to the
+ * clients of all builds when the thread does not belong to a running build.</p>
+ */
+public class ConcurrentBuilds {
+    /**
+     * The system property of the daemon process that sets the maximum number of builds that the daemon runs at the same time. Defaults to 1.
+     */
+    public static final String MAX_CONCURRENT_BUILDS_PROPERTY = "org.gradle.daemon.max-concurrent-builds";
+
+    // These differ between shells or working directories, without affecting the build
+    private static final Set<String> IGNORED_ENVIRONMENT_VARIABLES = ImmutableSet.of("PWD", "OLDPWD", "_");
+
+    private final int maxConcurrentBuilds;
+    private final Object lock = new Object();
+    private final List<ActiveBuild> activeBuilds = new ArrayList<ActiveBuild>();
+    private final ThreadLocal<ActiveBuild> currentBuild = new ThreadLocal<ActiveBuild>();
+    private int processStateUsers;
+    private Runnable restoreProcessState;
+
+    public ConcurrentBuilds(int maxConcurrentBuilds) {
+        this.maxConcurrentBuilds = Math.max(1, maxConcurrentBuilds);
+    }
+
+    /**
+     * Returns the maximum number of concurrent builds configured for this process.
+     */
+    public static int configuredMaxConcurrentBuilds() {
+        return Integer.getInteger(MAX_CONCURRENT_BUILDS_PROPERTY, 1);
+    }
+
+    public int getMaxConcurrentBuilds() {
+        return maxConcurrentBuilds;
+    }
+
+    public boolean isConcurrent() {
+        return maxConcurrentBuilds > 1;
+    }
+
+    /**
+     * Registers the given build as running.
+     *
+     * @throws DaemonUnavailableException when the build cannot run at the same time as the builds that are already running.
+     */
+    public ActiveBuild start(Build build) throws DaemonUnavailableException {
+        ActiveBuild activeBuild = new ActiveBuild(build);
+        synchronized (lock) {
+            if (isConcurrent()) {
+                for (ActiveBuild other : activeBuilds) {
+                    if (activeBuild.overlaps(other)) {
+                        throw new DaemonUnavailableException(String.format("This daemon is currently running a build in %s.", other.currentDir));
+                    }
+                    if (!activeBuild.hasSameEnvironmentAs(other)) {
+                        throw new DaemonUnavailableException("This daemon is currently running a build with a different environment.");
+                    }
+                    if (activeBuild.logLevel != other.logLevel) {
+                        throw new DaemonUnavailableException(String.format("This daemon is currently running a build with log level %s.", other.logLevel));
+                    }
+                }
+            }
+            activeBuilds.add(activeBuild);
+        }
+        return activeBuild;
+    }
+
+    public void finish(ActiveBuild activeBuild) {
+        synchronized (lock) {
+            activeBuilds.remove(activeBuild);
+        }
+    }
+
+    /**
+     * Marks the current thread as belonging to the given build, until {@link #detach()} is called.
+     */
+    public void attach(ActiveBuild activeBuild) {
+        currentBuild.set(activeBuild);
+    }
+
+    public void detach() {
+        currentBuild.remove();
+    }
+
+    /**
+     * Returns an action that runs the given action as belonging to the build that the current thread belongs to. Used for work that is handed over to
+     * another thread, such as a thread of an executor that is shared by all builds.
+     */
+    public Runnable ownedByCurrentBuild(final Runnable action) {
+        final ActiveBuild owner = currentBuild.get();
+        if (owner == null || !isConcurrent()) {
+            return action;
+        }
+        return new Runnable() {
+            public void run() {
+                ActiveBuild previous = currentBuild.get();
+                currentBuild.set(owner);
+                try {
+                    action.run();
+                } finally {
+                    if (previous == null) {
+                        currentBuild.remove();
+                    } else {
+                        currentBuild.set(previous);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the build that the current thread belongs to, if any.
+     */
+    @Nullable
+    public ActiveBuild getCurrentBuild() {
+        return currentBuild.get();
+    }
+
+    /**
+     * Returns true when the output produced by the current thread should be sent to the client of the given build.
+     */
+    public boolean isOutputOf(ActiveBuild activeBuild) {
+        if (!isConcurrent()) {
+            return true;
+        }
+        ActiveBuild owner = currentBuild.get();
+        if (owner == null || owner == activeBuild) {
+            return true;
+        }
+        synchronized (lock) {
+            return !activeBuilds.contains(owner);
+        }
+    }
+
+    /**
+     * Returns true when the given build is the only running build.
+     */
+    public boolean isOnlyBuild(ActiveBuild activeBuild) {
+        synchronized (lock) {
+            return activeBuilds.size() == 1 && activeBuilds.get(0) == activeBuild;
+        }
+    }
+
+    /**
+     * Runs the given action, unless builds other than the build that the current thread belongs to are running. No build can start while the action runs.
+     *
+     * @return true when the action has been run.
+     */
+    public boolean runIfNoOtherBuilds(Runnable action) {
+        synchronized (lock) {
+            ActiveBuild owner = currentBuild.get();
+            for (ActiveBuild activeBuild : activeBuilds) {
+                if (activeBuild != owner) {
+                    return false;
+                }
+            }
+            action.run();
+            return true;
+        }
+    }
+
+    /**
+     * Sets up the process wide state for a build, unless a build running at the same time has already done so. Each call must be followed by a call to
+     * {@link #releaseProcessState()} once the build has completed.
+     *
+     * @param setUp Sets up the state, and returns an action that restores it once the last build that uses it has completed.
+     */
+    public void retainProcessState(Factory<Runnable> setUp) {
+        synchronized (lock) {
+            if (processStateUsers == 0) {
+                restoreProcessState = setUp.create();
+            }
+            processStateUsers++;
+        }
+    }
+
+    public void releaseProcessState() {
+        synchronized (lock) {
+            processStateUsers--;
+            if (processStateUsers == 0) {
+                Runnable restore = restoreProcessState;
+                restoreProcessState = null;
+                restore.run();
+            }
+        }
+    }
+
+    public static class ActiveBuild {
+        private final String displayName;
+        private final File currentDir;
+        private final LogLevel logLevel;
+        private final Map<String, String> systemProperties = new HashMap<String, String>();
+        private final Map<String, String> envVariables = new HashMap<String, String>();
+
+        private ActiveBuild(Build build) {
+            displayName = build.toString();
+            currentDir = GFileUtils.canonicalise(build.getParameters().getCurrentDir());
+            logLevel = build.getParameters().getLogLevel();
+            for (Map.Entry<String, String> entry : build.getParameters().getSystemProperties().entrySet()) {
+                if (EstablishBuildEnvironment.isApplied(entry.getKey())) {
+                    systemProperties.put(entry.getKey(), entry.getValue());
+                }
+            }
+            envVariables.putAll(build.getParameters().getEnvVariables());
+            envVariables.keySet().removeAll(IGNORED_ENVIRONMENT_VARIABLES);
+        }
+
+        private boolean overlaps(ActiveBuild other) {
+            return contains(currentDir, other.currentDir) || contains(other.currentDir, currentDir);
+        }
+
+        private static boolean contains(File dir, File file) {
+            for (File current = file; current != null; current = current.getParentFile()) {
+                if (current.equals(dir)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean hasSameEnvironmentAs(ActiveBuild other) {
+            return systemProperties.equals(other.systemProperties) && envVariables.equals(other.envVariables);
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+}
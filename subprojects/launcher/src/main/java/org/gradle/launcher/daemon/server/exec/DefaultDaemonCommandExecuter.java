@@ -23,6 +23,8 @@ import org.gradle.launcher.daemon.diagnostics.DaemonDiagnostics;
 import org.gradle.launcher.daemon.protocol.Command;
 import org.gradle.launcher.daemon.server.api.*;
 import org.gradle.launcher.daemon.server.health.DaemonHealthServices;
+import org.gradle.launcher.daemon.server.standby.StandbyDaemonStarter;
+import org.gradle.launcher.daemon.server.standby.StartStandbyDaemon;
 import org.gradle.launcher.exec.BuildActionExecuter;
 import org.gradle.launcher.exec.BuildActionParameters;
 import org.gradle.logging.LoggingManagerInternal;
@@ -41,15 +43,20 @@ public class DefaultDaemonCommandExecuter implements DaemonCommandExecuter {
     private final ProcessEnvironment processEnvironment;
     private final File daemonLog;
     private final ServiceRegistry contextServices;
+    private final StandbyDaemonStarter standbyDaemonStarter;
+    private final ConcurrentBuilds concurrentBuilds;
 
     public DefaultDaemonCommandExecuter(BuildActionExecuter<BuildActionParameters> actionExecuter, ServiceRegistry contextServices, ProcessEnvironment processEnvironment,
-                                        LoggingManagerInternal loggingOutput, File daemonLog, DaemonHealthServices healthServices) {
+                                        LoggingManagerInternal loggingOutput, File daemonLog, DaemonHealthServices healthServices, StandbyDaemonStarter standbyDaemonStarter,
+                                        ConcurrentBuilds concurrentBuilds) {
         this.processEnvironment = processEnvironment;
         this.daemonLog = daemonLog;
         this.loggingOutput = loggingOutput;
         this.actionExecuter = actionExecuter;
         this.healthServices = healthServices;
         this.contextServices = contextServices;
+        this.standbyDaemonStarter = standbyDaemonStarter;
+        this.concurrentBuilds = concurrentBuilds;
     }
 
     public void executeCommand(DaemonConnection connection, Command command, DaemonContext daemonContext, DaemonStateControl daemonStateControl) {
@@ -68,15 +75,16 @@ public class DefaultDaemonCommandExecuter implements DaemonCommandExecuter {
             new HandleStop(),
             new HandleCancel(),
             new ReturnResult(),
-            new StartBuildOrRespondWithBusy(daemonDiagnostics), // from this point down, the daemon is 'busy'
+            new StartBuildOrRespondWithBusy(daemonDiagnostics, concurrentBuilds), // from this point down, the daemon is 'busy'
             healthServices.getGCHintAction(), //TODO SF needs to happen after the result is returned to the client
-            new EstablishBuildEnvironment(processEnvironment),
-            new LogToClient(loggingOutput, daemonDiagnostics), // from this point down, logging is sent back to the client
+            new StartStandbyDaemon(standbyDaemonStarter),
+            new EstablishBuildEnvironment(processEnvironment, concurrentBuilds),
+            new LogToClient(loggingOutput, daemonDiagnostics, concurrentBuilds), // from this point down, logging is sent back to the client
             healthServices.getHealthTrackerAction(),
-            new ForwardClientInput(),
+            new ForwardClientInput(concurrentBuilds),
             new RequestStopIfSingleUsedDaemon(),
             new ResetDeprecationLogger(),
-            new WatchForDisconnection(),
+            new WatchForDisconnection(concurrentBuilds),
             new ExecuteBuild(actionExecuter, contextServices)
         );
     }
@@ -17,6 +17,7 @@ package org.gradle.launcher.daemon.server.exec;
 
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.Factory;
 import org.gradle.internal.SystemProperties;
 import org.gradle.internal.nativeintegration.ProcessEnvironment;
 import org.gradle.launcher.daemon.protocol.Build;
@@ -31,34 +32,43 @@ import java.util.Properties;
 
 /**
  * Aims to make the local environment the same as the client's environment.
+ *
+ * <p>When the daemon runs several builds at the same time, the environment is set up by the first build and restored once the last build has completed.</p>
  */
 public class EstablishBuildEnvironment extends BuildCommandOnly {
     private final static Logger LOGGER = Logging.getLogger(EstablishBuildEnvironment.class);
 
     private final ProcessEnvironment processEnvironment;
+    private final ConcurrentBuilds concurrentBuilds;
 
-    public EstablishBuildEnvironment(ProcessEnvironment processEnvironment) {
+    public EstablishBuildEnvironment(ProcessEnvironment processEnvironment, ConcurrentBuilds concurrentBuilds) {
         this.processEnvironment = processEnvironment;
+        this.concurrentBuilds = concurrentBuilds;
     }
 
-    protected void doBuild(DaemonCommandExecution execution, Build build) {
-        Properties originalSystemProperties = new Properties();
+    protected void doBuild(DaemonCommandExecution execution, final Build build) {
+        concurrentBuilds.retainProcessState(new Factory<Runnable>() {
+            public Runnable create() {
+                return establish(build);
+            }
+        });
+        try {
+            execution.proceed();
+        } finally {
+            concurrentBuilds.releaseProcessState();
+        }
+    }
+
+    private Runnable establish(Build build) {
+        final Properties originalSystemProperties = new Properties();
         originalSystemProperties.putAll(System.getProperties());
-        Map<String, String> originalEnv = new HashMap<String, String>(System.getenv());
-        File originalProcessDir = GFileUtils.canonicalise(new File("."));
+        final Map<String, String> originalEnv = new HashMap<String, String>(System.getenv());
+        final File originalProcessDir = GFileUtils.canonicalise(new File("."));
 
         for (Map.Entry<String, String> entry : build.getParameters().getSystemProperties().entrySet()) {
-            if (SystemProperties.getInstance().getStandardProperties().contains(entry.getKey())) {
-                continue;
-            }
-            if (SystemProperties.getInstance().getNonStandardImportantProperties().contains(entry.getKey())) {
-                continue;
+            if (isApplied(entry.getKey())) {
+                System.setProperty(entry.getKey(), entry.getValue());
             }
-            if (entry.getKey().startsWith("sun.") || entry.getKey().startsWith("awt.")
-                    || entry.getKey().contains(".awt.")) {
-                continue;
-            }
-            System.setProperty(entry.getKey(), entry.getValue());
         }
 
         LOGGER.debug("Configuring env variables: {}", build.getParameters().getEnvVariables());
@@ -66,15 +76,28 @@ public class EstablishBuildEnvironment extends BuildCommandOnly {
         processEnvironment.maybeSetProcessDir(build.getParameters().getCurrentDir());
 
         // Capture and restore this in case the build code calls Locale.setDefault()
-        Locale locale = Locale.getDefault();
+        final Locale locale = Locale.getDefault();
 
-        try {
-            execution.proceed();
-        } finally {
-            System.setProperties(originalSystemProperties);
-            processEnvironment.maybeSetEnvironment(originalEnv);
-            processEnvironment.maybeSetProcessDir(originalProcessDir);
-            Locale.setDefault(locale);
+        return new Runnable() {
+            public void run() {
+                System.setProperties(originalSystemProperties);
+                processEnvironment.maybeSetEnvironment(originalEnv);
+                processEnvironment.maybeSetProcessDir(originalProcessDir);
+                Locale.setDefault(locale);
+            }
+        };
+    }
+
+    /**
+     * Returns true when the given system property of the client is applied to the daemon.
+     */
+    static boolean isApplied(String systemProperty) {
+        if (SystemProperties.getInstance().getStandardProperties().contains(systemProperty)) {
+            return false;
+        }
+        if (SystemProperties.getInstance().getNonStandardImportantProperties().contains(systemProperty)) {
+            return false;
         }
+        return !(systemProperty.startsWith("sun.") || systemProperty.startsWith("awt.") || systemProperty.contains(".awt."));
     }
 }
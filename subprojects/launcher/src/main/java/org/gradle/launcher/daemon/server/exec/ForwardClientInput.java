@@ -32,11 +32,26 @@ import java.util.concurrent.Callable;
 
 /**
  * Listens for ForwardInput commands during the execution and sends that to a piped input stream that we install.
+ *
+ * <p>Standard input is process wide, so it is not forwarded when the daemon is running other builds at the same time.</p>
  */
 public class ForwardClientInput implements DaemonCommandAction {
     private static final Logger LOGGER = Logging.getLogger(ForwardClientInput.class);
 
+    private final ConcurrentBuilds concurrentBuilds;
+
+    public ForwardClientInput(ConcurrentBuilds concurrentBuilds) {
+        this.concurrentBuilds = concurrentBuilds;
+    }
+
     public void execute(final DaemonCommandExecution execution) {
+        ConcurrentBuilds.ActiveBuild activeBuild = concurrentBuilds.getCurrentBuild();
+        if (activeBuild != null && !concurrentBuilds.isOnlyBuild(activeBuild)) {
+            LOGGER.info("The daemon is running other builds, so will not process any standard input.");
+            execution.proceed();
+            return;
+        }
+
         final PipedOutputStream inputSource = new PipedOutputStream();
         final PipedInputStream replacementStdin;
         try {
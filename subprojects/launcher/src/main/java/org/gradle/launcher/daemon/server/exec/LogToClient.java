@@ -15,6 +15,7 @@
  */
 package org.gradle.launcher.daemon.server.exec;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -27,6 +28,8 @@ import org.gradle.logging.internal.LoggingOutputInternal;
 import org.gradle.logging.internal.OutputEvent;
 import org.gradle.logging.internal.OutputEventListener;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingDeque;
@@ -36,15 +39,17 @@ public class LogToClient extends BuildCommandOnly {
 
     public static final String DISABLE_OUTPUT = "org.gradle.daemon.disable-output";
     private static final Logger LOGGER = Logging.getLogger(LogToClient.class);
+    private static final long FLUSH_INTERVAL_MS = 10;
+    private static final int MAX_BATCH_SIZE = 500;
 
     private final LoggingOutputInternal loggingOutput;
     private final DaemonDiagnostics diagnostics;
+    private final ConcurrentBuilds concurrentBuilds;
 
-    private volatile AsynchronousLogDispatcher dispatcher;
-
-    public LogToClient(LoggingOutputInternal loggingOutput, DaemonDiagnostics diagnostics) {
+    public LogToClient(LoggingOutputInternal loggingOutput, DaemonDiagnostics diagnostics, ConcurrentBuilds concurrentBuilds) {
         this.loggingOutput = loggingOutput;
         this.diagnostics = diagnostics;
+        this.concurrentBuilds = concurrentBuilds;
     }
 
     protected void doBuild(final DaemonCommandExecution execution, Build build) {
@@ -53,7 +58,7 @@ public class LogToClient extends BuildCommandOnly {
             return;
         }
 
-        dispatcher = new AsynchronousLogDispatcher(execution.getConnection(), build.getParameters().getLogLevel());
+        AsynchronousLogDispatcher dispatcher = new AsynchronousLogDispatcher(execution.getConnection(), build.getParameters().getLogLevel(), concurrentBuilds.getCurrentBuild());
         LOGGER.info("{}{}). The daemon log file: {}", DaemonMessages.STARTED_RELAYING_LOGS, diagnostics.getPid(), diagnostics.getDaemonLog());
         dispatcher.start();
         try {
@@ -70,14 +75,17 @@ public class LogToClient extends BuildCommandOnly {
         private final OutputEventListener listener;
         private volatile boolean shouldStop;
         private boolean unableToSend;
+        private final OutputEventCoalescer coalescer;
 
-        private AsynchronousLogDispatcher(DaemonConnection conn, final LogLevel buildLogLevel) {
+        private AsynchronousLogDispatcher(DaemonConnection conn, final LogLevel buildLogLevel, @Nullable final ConcurrentBuilds.ActiveBuild activeBuild) {
             super("Asynchronous log dispatcher for " + conn);
             this.connection = conn;
+            this.coalescer = new OutputEventCoalescer(buildLogLevel);
             this.listener = new OutputEventListener() {
                 public void onOutput(OutputEvent event) {
-                    if (event.getLogLevel() != null && event.getLogLevel().compareTo(buildLogLevel) >= 0) {
-                        dispatcher.submit(event);
+                    if (event.getLogLevel() != null && event.getLogLevel().compareTo(buildLogLevel) >= 0
+                        && (activeBuild == null || concurrentBuilds.isOutputOf(activeBuild))) {
+                        submit(event);
                     }
                 }
             };
@@ -91,37 +99,55 @@ public class LogToClient extends BuildCommandOnly {
 
         @Override
         public void run() {
-            OutputEvent event;
+            List<OutputEvent> batch = new ArrayList<OutputEvent>();
             try {
                 while (!shouldStop) {
                     // we must not use interrupt() because it would automatically
                     // close the connection (sending data from an interrupted thread
                     // automatically closes the connection)
-                    event = eventQueue.poll(10, TimeUnit.MILLISECONDS);
-                    if (event != null) {
-                        dispatchAsync(event);
+                    OutputEvent event = eventQueue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    if (event == null) {
+                        continue;
+                    }
+                    // Collect the events that follow shortly after, so that they are sent as a single message
+                    batch.add(event);
+                    long flushAt = System.currentTimeMillis() + FLUSH_INTERVAL_MS;
+                    while (batch.size() < MAX_BATCH_SIZE) {
+                        long remaining = flushAt - System.currentTimeMillis();
+                        event = remaining > 0 ? eventQueue.poll(remaining, TimeUnit.MILLISECONDS) : null;
+                        if (event == null) {
+                            break;
+                        }
+                        batch.add(event);
                     }
+                    dispatchAsync(batch);
+                    batch.clear();
                 }
             } catch (InterruptedException ex) {
                 shouldStop = true;
             }
-            sendRemainingEvents();
+            eventQueue.drainTo(batch);
+            sendRemainingEvents(batch);
             completionLock.countDown();
         }
 
-        private void sendRemainingEvents() {
-            OutputEvent event;
-            while ((event = eventQueue.poll()) != null) {
-                dispatchAsync(event);
+        private void sendRemainingEvents(List<OutputEvent> events) {
+            for (int i = 0; i < events.size(); i += MAX_BATCH_SIZE) {
+                dispatchAsync(events.subList(i, Math.min(events.size(), i + MAX_BATCH_SIZE)));
             }
         }
 
-        private void dispatchAsync(OutputEvent event) {
-            if (unableToSend) {
+        private void dispatchAsync(List<OutputEvent> events) {
+            if (unableToSend || events.isEmpty()) {
                 return;
             }
             try {
-                connection.logEvent(event);
+                List<OutputEvent> coalesced = coalescer.coalesce(events);
+                if (coalesced.size() == 1) {
+                    connection.logEvent(coalesced.get(0));
+                } else {
+                    connection.logEvents(coalesced);
+                }
             } catch (Exception ex) {
                 shouldStop = true;
                 unableToSend = true;
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.exec;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.logging.StyledTextOutput;
+import org.gradle.logging.internal.LogLevelChangeEvent;
+import org.gradle.logging.internal.OutputEvent;
+import org.gradle.logging.internal.StyledTextOutputEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Merges adjacent text events of the same category and log level into one event, so that fewer events are sent to the client. Not done while the
+ * client renders debug output, as it then prefixes each event with its timestamp.
+ */
+class OutputEventCoalescer {
+    private boolean debugOutput;
+
+    OutputEventCoalescer(LogLevel logLevel) {
+        this.debugOutput = logLevel == LogLevel.DEBUG;
+    }
+
+    List<OutputEvent> coalesce(List<OutputEvent> events) {
+        List<OutputEvent> result = new ArrayList<OutputEvent>(events.size());
+        PendingText pending = null;
+        for (OutputEvent event : events) {
+            if (event instanceof LogLevelChangeEvent) {
+                debugOutput = ((LogLevelChangeEvent) event).getNewLogLevel() == LogLevel.DEBUG;
+            }
+            if (pending != null && !debugOutput && event instanceof StyledTextOutputEvent && pending.canMerge((StyledTextOutputEvent) event)) {
+                pending.add((StyledTextOutputEvent) event);
+                continue;
+            }
+            if (pending != null) {
+                result.add(pending.toEvent());
+                pending = null;
+            }
+            if (event instanceof StyledTextOutputEvent) {
+                pending = new PendingText((StyledTextOutputEvent) event);
+            } else {
+                result.add(event);
+            }
+        }
+        if (pending != null) {
+            result.add(pending.toEvent());
+        }
+        return result;
+    }
+
+    /**
+     * Collects the spans of merged events, appending the text of adjacent spans with the same style to a single buffer.
+     */
+    private static class PendingText {
+        private final StyledTextOutputEvent first;
+        private List<StyledTextOutputEvent.Span> spans;
+        private StyledTextOutput.Style style;
+        private StringBuilder text;
+
+        PendingText(StyledTextOutputEvent first) {
+            this.first = first;
+        }
+
+        boolean canMerge(StyledTextOutputEvent event) {
+            return first.getCategory().equals(event.getCategory()) && first.getLogLevel() == event.getLogLevel();
+        }
+
+        void add(StyledTextOutputEvent event) {
+            if (spans == null) {
+                spans = new ArrayList<StyledTextOutputEvent.Span>();
+                append(first.getSpans());
+            }
+            append(event.getSpans());
+        }
+
+        private void append(List<StyledTextOutputEvent.Span> added) {
+            for (StyledTextOutputEvent.Span span : added) {
+                if (text != null && span.getStyle() == style) {
+                    text.append(span.getText());
+                } else {
+                    finishSpan();
+                    style = span.getStyle();
+                    text = new StringBuilder(span.getText());
+                }
+            }
+        }
+
+        private void finishSpan() {
+            if (text != null) {
+                spans.add(new StyledTextOutputEvent.Span(style, text.toString()));
+            }
+        }
+
+        StyledTextOutputEvent toEvent() {
+            if (spans == null) {
+                return first;
+            }
+            finishSpan();
+            return new StyledTextOutputEvent(first.getTimestamp(), first.getCategory(), first.getLogLevel(), spans);
+        }
+    }
+}
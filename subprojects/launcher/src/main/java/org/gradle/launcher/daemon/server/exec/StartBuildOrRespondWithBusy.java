@@ -28,30 +28,43 @@ import org.gradle.launcher.daemon.server.api.DaemonStoppedException;
 import org.gradle.launcher.daemon.server.api.DaemonUnavailableException;
 
 /**
- * Updates the daemon idle/busy status, sending a DaemonUnavailable result back to the client if the daemon is busy.
+ * Updates the daemon idle/busy status, sending a DaemonUnavailable result back to the client if the daemon is busy, or if the build cannot run at the same
+ * time as the builds that the daemon is already running.
  */
 public class StartBuildOrRespondWithBusy extends BuildCommandOnly {
     
     private static final Logger LOGGER = Logging.getLogger(StartBuildOrRespondWithBusy.class);
     private final DaemonDiagnostics diagnostics;
+    private final ConcurrentBuilds concurrentBuilds;
 
-    public StartBuildOrRespondWithBusy(DaemonDiagnostics diagnostics) {
+    public StartBuildOrRespondWithBusy(DaemonDiagnostics diagnostics, ConcurrentBuilds concurrentBuilds) {
         this.diagnostics = diagnostics;
+        this.concurrentBuilds = concurrentBuilds;
     }
 
     protected void doBuild(final DaemonCommandExecution execution, final Build build) {
         DaemonStateControl stateCoordinator = execution.getDaemonStateControl();
 
         try {
-            Runnable command = new Runnable() {
-                public void run() {
-                    LOGGER.info("Daemon is about to start building {}. Dispatching build started information...", build);
-                    execution.getConnection().buildStarted(new BuildStarted(diagnostics));
-                    execution.proceed();
-                }
-            };
+            final ConcurrentBuilds.ActiveBuild activeBuild = concurrentBuilds.start(build);
+            try {
+                Runnable command = new Runnable() {
+                    public void run() {
+                        LOGGER.info("Daemon is about to start building {}. Dispatching build started information...", build);
+                        execution.getConnection().buildStarted(new BuildStarted(diagnostics));
+                        concurrentBuilds.attach(activeBuild);
+                        try {
+                            execution.proceed();
+                        } finally {
+                            concurrentBuilds.detach();
+                        }
+                    }
+                };
 
-            stateCoordinator.runCommand(command, execution.toString());
+                stateCoordinator.runCommand(command, execution.toString());
+            } finally {
+                concurrentBuilds.finish(activeBuild);
+            }
         } catch (DaemonUnavailableException e) {
             LOGGER.info("Daemon will not handle the command {} because is unavailable: {}", build, e.getMessage());
             execution.getConnection().daemonUnavailable(new DaemonUnavailable(e.getMessage()));
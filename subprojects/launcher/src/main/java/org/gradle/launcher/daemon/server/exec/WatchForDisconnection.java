@@ -24,10 +24,22 @@ public class WatchForDisconnection implements DaemonCommandAction {
 
     private static final Logger LOGGER = Logging.getLogger(WatchForDisconnection.class);
 
+    private final ConcurrentBuilds concurrentBuilds;
+
+    public WatchForDisconnection(ConcurrentBuilds concurrentBuilds) {
+        this.concurrentBuilds = concurrentBuilds;
+    }
+
     public void execute(final DaemonCommandExecution execution) {
         // Watch for the client disconnecting before we call stop()
         execution.getConnection().onDisconnect(new Runnable() {
             public void run() {
+                if (concurrentBuilds.isConcurrent()) {
+                    // Don't take down the other builds with this one
+                    LOGGER.warn("client disconnection detected, cancelling the build");
+                    execution.getDaemonStateControl().cancelCommand(execution.toString());
+                    return;
+                }
                 LOGGER.warn("client disconnection detected, stopping the daemon");
                 execution.getDaemonStateControl().requestForcefulStop();
             }
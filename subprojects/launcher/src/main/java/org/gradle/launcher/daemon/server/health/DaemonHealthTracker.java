@@ -16,6 +16,7 @@
 
 package org.gradle.launcher.daemon.server.health;
 
+import org.gradle.api.internal.cache.MemoryPressureListener;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.launcher.daemon.server.api.DaemonCommandAction;
@@ -28,11 +29,15 @@ class DaemonHealthTracker implements DaemonCommandAction {
     private final DaemonStats stats;
     private final DaemonStatus status;
     private final HealthLogger logger;
+    private final DaemonMemoryStatus memoryStatus;
+    private final MemoryPressureListener memoryPressureListener;
 
-    DaemonHealthTracker(DaemonStats stats, DaemonStatus status, HealthLogger logger) {
+    DaemonHealthTracker(DaemonStats stats, DaemonStatus status, HealthLogger logger, DaemonMemoryStatus memoryStatus, MemoryPressureListener memoryPressureListener) {
         this.stats = stats;
         this.status = status;
         this.logger = logger;
+        this.memoryStatus = memoryStatus;
+        this.memoryPressureListener = memoryPressureListener;
     }
 
     public void execute(DaemonCommandExecution execution) {
@@ -51,6 +56,20 @@ class DaemonHealthTracker implements DaemonCommandAction {
 
         if(status.isDaemonTired(stats)) {
             execution.getDaemonStateControl().requestStop();
+            return;
+        }
+
+        switch (memoryStatus.evaluate(stats)) {
+            case RELEASE_MEMORY:
+                LOG.info("Daemon is short of memory ({}). Releasing in-memory caches.", memoryStatus.describe(stats));
+                memoryPressureListener.releaseMemory();
+                break;
+            case EXPIRE:
+                LOG.lifecycle("Daemon will be stopped at the end of the build as it has not recovered from running short of memory ({}).", memoryStatus.describe(stats));
+                execution.getDaemonStateControl().requestStop();
+                break;
+            default:
+                break;
         }
     }
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.health;
+
+import static java.lang.String.format;
+
+/**
+ * Decides what to do about memory pressure at the end of each build, based on the old generation occupancy after collection and the
+ * share of the build's time spent in gc.
+ *
+ * <p>When either value is high, the in-memory caches should be released. When either value is critical at the end of the build after
+ * the caches were released, the daemon is not going to recover and should expire. The old generation occupancy only counts towards this
+ * once the old generation has been collected since the caches were released, as until then it still includes the released caches.</p>
+ */
+class DaemonMemoryStatus {
+
+    public static final String ENABLED_PROPERTY = "org.gradle.daemon.performance.memory-management";
+
+    static final int HIGH_OLD_GEN_USAGE = 75;
+    static final int CRITICAL_OLD_GEN_USAGE = 90;
+    static final int HIGH_COLLECTION_TIME = 10;
+    static final int CRITICAL_COLLECTION_TIME = 30;
+
+    enum Action {
+        NONE, RELEASE_MEMORY, EXPIRE
+    }
+
+    private boolean releasedAfterPreviousBuild;
+    private long oldGenCollectionCountAtRelease;
+
+    /**
+     * Decides what to do after the build that the given stats were last updated for.
+     */
+    Action evaluate(DaemonStats stats) {
+        if ("false".equals(System.getProperty(ENABLED_PROPERTY))) {
+            return Action.NONE;
+        }
+        int collectionTime = stats.getLastBuildCollectionTime();
+        long oldGenCollectionCount = stats.getOldGenCollectionCount();
+        if (releasedAfterPreviousBuild && oldGenCollectionCount >= 0 && oldGenCollectionCount == oldGenCollectionCountAtRelease) {
+            // Too early to tell whether releasing the caches helped. Keep waiting for the old generation to be collected
+            return collectionTime >= CRITICAL_COLLECTION_TIME ? Action.EXPIRE : Action.NONE;
+        }
+        int oldGenUsage = stats.getOldGenUsageAfterCollection();
+        boolean critical = oldGenUsage >= CRITICAL_OLD_GEN_USAGE || collectionTime >= CRITICAL_COLLECTION_TIME;
+        boolean high = oldGenUsage >= HIGH_OLD_GEN_USAGE || collectionTime >= HIGH_COLLECTION_TIME;
+        if (critical && releasedAfterPreviousBuild) {
+            return Action.EXPIRE;
+        }
+        releasedAfterPreviousBuild = high;
+        oldGenCollectionCountAtRelease = oldGenCollectionCount;
+        return high ? Action.RELEASE_MEMORY : Action.NONE;
+    }
+
+    String describe(DaemonStats stats) {
+        return format("old generation usage after gc: %s, time spent in gc during the build: %s%%",
+            stats.getOldGenUsageAfterCollection() < 0 ? "unknown" : stats.getOldGenUsageAfterCollection() + "%", stats.getLastBuildCollectionTime());
+    }
+}
@@ -33,6 +33,8 @@ class DaemonStats {
     private long currentBuildStart;
     private long allBuildsTime;
     private int currentPerformance;
+    private long currentBuildCollectionTimeStart;
+    private int lastBuildCollectionTime;
 
     DaemonStats() {
         this(new Clock(), new TrueTimeProvider(), new MemoryInfo());
@@ -50,6 +52,7 @@ class DaemonStats {
     void buildStarted() {
         ++buildCount;
         currentBuildStart = timeProvider.getCurrentTime();
+        currentBuildCollectionTimeStart = memory.getCollectionTime();
     }
 
     /**
@@ -59,6 +62,8 @@ class DaemonStats {
         long buildTime = Math.max(timeProvider.getCurrentTime() - currentBuildStart, 1);
         allBuildsTime += buildTime;
         currentPerformance = performance(allBuildsTime, memory);
+        long collectionTime = Math.max(memory.getCollectionTime() - currentBuildCollectionTimeStart, 0);
+        lastBuildCollectionTime = NumberUtil.percentOf(Math.min(collectionTime, buildTime), buildTime);
     }
 
     private static int performance(long totalTime, MemoryInfo memoryInfo) {
@@ -77,6 +82,27 @@ class DaemonStats {
         return currentPerformance;
     }
 
+    /**
+     * 0-100, the percentage of the time of the most recent build that was spent in gc
+     */
+    int getLastBuildCollectionTime() {
+        return lastBuildCollectionTime;
+    }
+
+    /**
+     * 0-100, the percentage of the old generation still in use after its most recent collection, or -1 when not known
+     */
+    int getOldGenUsageAfterCollection() {
+        return memory.getOldGenUsageAfterCollection();
+    }
+
+    /**
+     * the number of collections of the old generation so far, or -1 when not known
+     */
+    long getOldGenCollectionCount() {
+        return memory.getOldGenCollectionCount();
+    }
+
     /**
      * elegant description of daemon's health
      */
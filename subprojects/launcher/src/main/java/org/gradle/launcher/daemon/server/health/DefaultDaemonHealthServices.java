@@ -16,6 +16,7 @@
 
 package org.gradle.launcher.daemon.server.health;
 
+import org.gradle.api.internal.cache.MemoryPressureListener;
 import org.gradle.launcher.daemon.server.api.DaemonCommandAction;
 
 public class DefaultDaemonHealthServices implements DaemonHealthServices {
@@ -24,7 +25,14 @@ public class DefaultDaemonHealthServices implements DaemonHealthServices {
     private final DaemonStats stats = new DaemonStats();
     private final DaemonStatus status = new DaemonStatus();
     private final HealthLogger logger = new HealthLogger();
-    private final DaemonHealthTracker tracker = new DaemonHealthTracker(stats, status, logger);
+    private final DaemonHealthTracker tracker;
+
+    /**
+     * @param memoryPressureListener notified when the daemon is short of memory at the end of a build.
+     */
+    public DefaultDaemonHealthServices(MemoryPressureListener memoryPressureListener) {
+        tracker = new DaemonHealthTracker(stats, status, logger, new DaemonMemoryStatus(), memoryPressureListener);
+    }
 
     /**
      * {@inheritDoc}
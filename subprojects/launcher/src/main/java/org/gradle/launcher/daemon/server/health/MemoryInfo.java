@@ -18,13 +18,46 @@ package org.gradle.launcher.daemon.server.health;
 
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 class MemoryInfo {
 
     private final long totalMemory; //this does not change
+    private final MemoryPoolMXBean oldGen;
+    private final List<GarbageCollectorMXBean> oldGenCollectors;
 
     MemoryInfo() {
         totalMemory = Runtime.getRuntime().maxMemory();
+        oldGen = findOldGen();
+        oldGenCollectors = findCollectors(oldGen);
+    }
+
+    private static MemoryPoolMXBean findOldGen() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            //the name depends on the collector, e.g. 'PS Old Gen', 'G1 Old Gen', 'CMS Old Gen' or 'Tenured Gen'
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported()
+                && (pool.getName().contains("Old Gen") || pool.getName().contains("Tenured Gen"))) {
+                return pool;
+            }
+        }
+        return null;
+    }
+
+    private static List<GarbageCollectorMXBean> findCollectors(MemoryPoolMXBean pool) {
+        List<GarbageCollectorMXBean> collectors = new ArrayList<GarbageCollectorMXBean>();
+        if (pool != null) {
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (Arrays.asList(gc.getMemoryPoolNames()).contains(pool.getName())) {
+                    collectors.add(gc);
+                }
+            }
+        }
+        return collectors;
     }
 
     /**
@@ -58,4 +91,39 @@ class MemoryInfo {
         //querying runtime for each invocation
         return Runtime.getRuntime().totalMemory();
     }
+
+    /**
+     * Occupancy of the old generation after the most recent collection of the old generation, as a percentage of the maximum size of the old generation.
+     * This is the memory that the process cannot get back by collecting garbage. Returns -1 when not known.
+     */
+    int getOldGenUsageAfterCollection() {
+        if (oldGen == null) {
+            return -1;
+        }
+        MemoryUsage usage = oldGen.getCollectionUsage();
+        if (usage == null) {
+            return -1;
+        }
+        long max = usage.getMax() > 0 ? usage.getMax() : totalMemory;
+        return (int) Math.min(100, usage.getUsed() * 100 / max);
+    }
+
+    /**
+     * Number of collections so far that included the old generation. {@link #getOldGenUsageAfterCollection()} only changes when this number does.
+     * Returns -1 when not known.
+     */
+    long getOldGenCollectionCount() {
+        if (oldGenCollectors.isEmpty()) {
+            return -1;
+        }
+        long count = 0;
+        for (GarbageCollectorMXBean gc : oldGenCollectors) {
+            long collections = gc.getCollectionCount();
+            if (collections < 0) {
+                return -1;
+            }
+            count += collections;
+        }
+        return count;
+    }
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.standby;
+
+import com.google.common.io.Files;
+import org.gradle.StartParameter;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.initialization.DefaultBuildCancellationToken;
+import org.gradle.initialization.DefaultBuildRequestContext;
+import org.gradle.initialization.DefaultBuildRequestMetaData;
+import org.gradle.initialization.NoOpBuildEventConsumer;
+import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.service.ServiceRegistry;
+import org.gradle.launcher.cli.ExecuteBuildAction;
+import org.gradle.launcher.daemon.configuration.DaemonUsage;
+import org.gradle.launcher.exec.BuildActionExecuter;
+import org.gradle.launcher.exec.BuildActionParameters;
+import org.gradle.launcher.exec.DefaultBuildActionParameters;
+import org.gradle.util.Clock;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.util.Collections;
+
+/**
+ * Runs a small build in a daemon that has been started as a spare, before the daemon accepts any builds. This loads and JIT compiles the code that
+ * most builds use, such as build script compilation, task input and output snapshotting, dependency resolution and Java compilation.
+ *
+ * <p>The build is run twice, so that the second run exercises the up-to-date checks.</p>
+ *
+ * <p>The build uses a scratch Gradle user home, so that the user's init scripts and {@code gradle.properties} do not apply to it, and it leaves nothing
+ * behind in the user's caches. The caches are located relative to the user home, so the warm-up populates its own caches, which are discarded
+ * afterwards.</p>
+ */
+public class DaemonWarmUp implements Runnable {
+    private static final Logger LOGGER = Logging.getLogger(DaemonWarmUp.class);
+    private static final int RUNS = 2;
+
+    private final BuildActionExecuter<BuildActionParameters> actionExecuter;
+    private final ServiceRegistry contextServices;
+
+    public DaemonWarmUp(BuildActionExecuter<BuildActionParameters> actionExecuter, ServiceRegistry contextServices) {
+        this.actionExecuter = actionExecuter;
+        this.contextServices = contextServices;
+    }
+
+    public void run() {
+        Clock clock = new Clock();
+        File scratchDir = Files.createTempDir();
+        try {
+            File projectDir = new File(scratchDir, "project");
+            File gradleUserHomeDir = new File(scratchDir, "user-home");
+            writeProject(projectDir);
+            GFileUtils.mkdirs(gradleUserHomeDir);
+            for (int i = 0; i < RUNS; i++) {
+                runBuild(projectDir, gradleUserHomeDir);
+            }
+            LOGGER.info("Daemon warm-up took {}.", clock.getTime());
+        } catch (Exception e) {
+            // A failed warm-up only means that the daemon is less warm than it could be
+            LOGGER.info("Daemon warm-up failed.", e);
+        } finally {
+            GFileUtils.deleteQuietly(scratchDir);
+        }
+    }
+
+    private void runBuild(File projectDir, File gradleUserHomeDir) {
+        StartParameter startParameter = new StartParameter();
+        startParameter.setCurrentDir(projectDir);
+        startParameter.setSearchUpwards(false);
+        startParameter.setGradleUserHomeDir(gradleUserHomeDir);
+        startParameter.setOffline(true);
+        startParameter.setTaskNames(Collections.singletonList(":a:jar"));
+
+        BuildActionParameters parameters = new DefaultBuildActionParameters(System.getProperties(), System.getenv(), projectDir, LogLevel.LIFECYCLE,
+            DaemonUsage.EXPLICITLY_ENABLED, false, false, ClassPath.EMPTY);
+        DefaultBuildRequestContext requestContext = new DefaultBuildRequestContext(new DefaultBuildRequestMetaData(System.currentTimeMillis()),
+            new DefaultBuildCancellationToken(), new NoOpBuildEventConsumer());
+        actionExecuter.execute(new ExecuteBuildAction(startParameter), requestContext, parameters, contextServices);
+    }
+
+    private static void writeProject(File projectDir) {
+        GFileUtils.writeFile("include 'a', 'b'\n", new File(projectDir, "settings.gradle"));
+        GFileUtils.writeFile(
+            "subprojects {\n"
+            + "    apply plugin: 'java'\n"
+            + "}\n"
+            + "project(':a') {\n"
+            + "    dependencies {\n"
+            + "        compile project(':b')\n"
+            + "    }\n"
+            + "}\n", new File(projectDir, "build.gradle"));
+        GFileUtils.writeFile(
+            "package b;\n"
+            + "public class B {\n"
+            + "    public String getName() { return \"b\"; }\n"
+            + "}\n", new File(projectDir, "b/src/main/java/b/B.java"));
+        GFileUtils.writeFile(
+            "package a;\n"
+            + "public class A {\n"
+            + "    public String getName() { return new b.B().getName(); }\n"
+            + "}\n", new File(projectDir, "a/src/main/java/a/A.java"));
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.standby;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.internal.jvm.Jvm;
+import org.gradle.launcher.daemon.DaemonExecHandleBuilder;
+import org.gradle.launcher.daemon.bootstrap.DaemonGreeter;
+import org.gradle.launcher.daemon.bootstrap.DaemonOutputConsumer;
+import org.gradle.launcher.daemon.bootstrap.DaemonStartupConfiguration;
+import org.gradle.launcher.daemon.bootstrap.GradleDaemon;
+import org.gradle.launcher.daemon.context.DaemonCompatibilitySpec;
+import org.gradle.launcher.daemon.context.DaemonContext;
+import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
+import org.gradle.launcher.daemon.registry.DaemonDir;
+import org.gradle.launcher.daemon.registry.DaemonInfo;
+import org.gradle.launcher.daemon.registry.DaemonRegistry;
+import org.gradle.process.internal.ExecHandle;
+import org.gradle.util.Clock;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.GradleVersion;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Starts a spare daemon that is compatible with this daemon, so that a later build that cannot use this daemon does not need to wait for a cold daemon
+ * to start. The spare daemon warms itself up before it registers itself as idle.
+ *
+ * <p>At most one spare daemon is started at a time, and only when there is no other idle daemon that is compatible with this one.</p>
+ */
+public class StandbyDaemonStarter implements Stoppable {
+    /**
+     * The system property that the client sets to ask the daemon to keep a spare daemon around.
+     */
+    public static final String ENABLED_PROPERTY = "org.gradle.daemon.standby";
+
+    private static final Logger LOGGER = Logging.getLogger(StandbyDaemonStarter.class);
+
+    private final DaemonContext daemonContext;
+    private final DaemonRegistry daemonRegistry;
+    private final DaemonDir daemonDir;
+    private final File gradleUserHomeDir;
+    private final ClassPath additionalClassPath;
+    private final ExecutorFactory executorFactory;
+    private final Object lock = new Object();
+    private StoppableExecutor executor;
+    private boolean starting;
+
+    /**
+     * @param gradleUserHomeDir the Gradle user home directory to start the spare daemon with, or null when spare daemons cannot be started.
+     */
+    public StandbyDaemonStarter(DaemonContext daemonContext, DaemonRegistry daemonRegistry, DaemonDir daemonDir, @Nullable File gradleUserHomeDir, ClassPath additionalClassPath, ExecutorFactory executorFactory) {
+        this.daemonContext = daemonContext;
+        this.daemonRegistry = daemonRegistry;
+        this.daemonDir = daemonDir;
+        this.gradleUserHomeDir = gradleUserHomeDir;
+        this.additionalClassPath = additionalClassPath;
+        this.executorFactory = executorFactory;
+    }
+
+    public static boolean isEnabled(Map<String, String> clientSystemProperties) {
+        return Boolean.parseBoolean(clientSystemProperties.get(ENABLED_PROPERTY));
+    }
+
+    /**
+     * Starts a spare daemon in the background, if required. Does not block.
+     */
+    public void maybeStartStandbyDaemon() {
+        if (gradleUserHomeDir == null) {
+            LOGGER.debug("Not starting a standby daemon, as this daemon does not know its Gradle user home directory.");
+            return;
+        }
+        synchronized (lock) {
+            if (starting) {
+                return;
+            }
+            if (executor == null) {
+                executor = executorFactory.create("Standby daemon starter");
+            }
+            starting = true;
+        }
+        executor.execute(new Runnable() {
+            public void run() {
+                try {
+                    if (hasIdleCompatibleDaemon()) {
+                        LOGGER.debug("Not starting a standby daemon, as there is already an idle compatible daemon.");
+                    } else {
+                        startStandbyDaemon();
+                    }
+                } catch (Throwable t) {
+                    LOGGER.info("Could not start a standby daemon.", t);
+                } finally {
+                    synchronized (lock) {
+                        starting = false;
+                    }
+                }
+            }
+        });
+    }
+
+    boolean hasIdleCompatibleDaemon() {
+        DaemonCompatibilitySpec compatibilitySpec = new DaemonCompatibilitySpec(daemonContext);
+        for (DaemonInfo daemonInfo : daemonRegistry.getIdle()) {
+            if (!daemonInfo.getUid().equals(daemonContext.getUid()) && compatibilitySpec.isSatisfiedBy(daemonInfo.getContext())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void startStandbyDaemon() {
+        List<String> daemonOpts = daemonContext.getDaemonOpts();
+        List<String> daemonArgs = new ArrayList<String>();
+        daemonArgs.add(Jvm.forHome(daemonContext.getJavaHome()).getJavaExecutable().getAbsolutePath());
+        daemonArgs.addAll(daemonOpts);
+        daemonArgs.add("-cp");
+        // Use the same bootstrap classpath as this daemon
+        daemonArgs.add(System.getProperty("java.class.path"));
+        daemonArgs.add(GradleDaemon.class.getName());
+        daemonArgs.add(GradleVersion.current().getVersion());
+
+        DaemonStartupConfiguration startupConfiguration = new DaemonStartupConfiguration(gradleUserHomeDir, daemonDir.getBaseDir(), daemonContext.getIdleTimeout(),
+            UUID.randomUUID().toString(), daemonOpts, additionalClassPath.getAsFiles(), true);
+
+        File workingDir = daemonDir.getVersionedDir();
+        LOGGER.info("Starting standby daemon process: workingDir = {}, daemonArgs: {}", workingDir, daemonArgs);
+        Clock clock = new Clock();
+        GFileUtils.mkdirs(workingDir);
+        DaemonOutputConsumer outputConsumer = new DaemonOutputConsumer(new ByteArrayInputStream(startupConfiguration.encode()));
+        ExecHandle handle = new DaemonExecHandleBuilder().build(daemonArgs, workingDir, outputConsumer);
+        handle.start();
+        // The daemon detaches once it has warmed up and registered itself
+        handle.waitForFinish();
+        DaemonStartupInfo startupInfo = new DaemonGreeter(new DocumentationRegistry()).parseDaemonOutput(outputConsumer.getProcessOutput());
+        LOGGER.info("Started standby daemon {} (pid: {}) in {}.", startupInfo.getUid(), startupInfo.getPid(), clock.getTime());
+    }
+
+    public void stop() {
+        StoppableExecutor executor;
+        synchronized (lock) {
+            executor = this.executor;
+        }
+        if (executor != null) {
+            executor.requestStop();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.standby;
+
+import org.gradle.api.Task;
+import org.gradle.api.execution.TaskExecutionListener;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.TaskState;
+import org.gradle.initialization.BuildRequestMetaData;
+import org.gradle.util.Clock;
+
+/**
+ * Reports the time from the start of each build request until its first task starts, which is a measure of how warm the daemon is.
+ */
+public class TimeToFirstTaskReporter implements TaskExecutionListener {
+    private static final Logger LOGGER = Logging.getLogger(TimeToFirstTaskReporter.class);
+
+    private final boolean standby;
+    private Clock lastReported;
+
+    /**
+     * @param standby true when the daemon was started as a spare.
+     */
+    public TimeToFirstTaskReporter(boolean standby) {
+        this.standby = standby;
+    }
+
+    public void beforeExecute(Task task) {
+        GradleInternal gradle = (GradleInternal) task.getProject().getGradle();
+        if (gradle.getParent() != null) {
+            // Only interested in the build that was requested
+            return;
+        }
+        Clock buildTimeClock = gradle.getServices().get(BuildRequestMetaData.class).getBuildTimeClock();
+        synchronized (this) {
+            if (buildTimeClock == lastReported) {
+                return;
+            }
+            lastReported = buildTimeClock;
+        }
+        LOGGER.info("Time to first task: {} ({} daemon).", buildTimeClock.getTime(), standby ? "standby" : "regular");
+    }
+
+    public void afterExecute(Task task, TaskState state) {
+    }
+}
@@ -21,11 +21,13 @@ import org.gradle.StartParameter;
 public class ClientProvidedBuildAction extends SubscribableBuildAction {
     private final StartParameter startParameter;
     private final SerializedPayload action;
+    private final boolean sendStreamedValues;
 
-    public ClientProvidedBuildAction(StartParameter startParameter, SerializedPayload action, BuildClientSubscriptions clientSubscriptions) {
+    public ClientProvidedBuildAction(StartParameter startParameter, SerializedPayload action, BuildClientSubscriptions clientSubscriptions, boolean sendStreamedValues) {
         super(clientSubscriptions);
         this.startParameter = startParameter;
         this.action = action;
+        this.sendStreamedValues = sendStreamedValues;
     }
 
     @Override
@@ -36,4 +38,11 @@ public class ClientProvidedBuildAction extends SubscribableBuildAction {
     public SerializedPayload getAction() {
         return action;
     }
+
+    /**
+     * Returns true when the client listens for the values sent by the action. Values are discarded otherwise.
+     */
+    public boolean isSendStreamedValues() {
+        return sendStreamedValues;
+    }
 }
@@ -19,6 +19,7 @@ package org.gradle.tooling.internal.provider;
 import org.gradle.StartParameter;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.initialization.*;
+import org.gradle.internal.event.ListenerNotificationException;
 import org.gradle.internal.invocation.BuildAction;
 import org.gradle.internal.jvm.Jvm;
 import org.gradle.internal.service.ServiceRegistry;
@@ -41,6 +42,7 @@ import org.gradle.tooling.internal.consumer.versioning.ModelMapping;
 import org.gradle.tooling.internal.protocol.InternalBuildAction;
 import org.gradle.tooling.internal.protocol.InternalBuildEnvironment;
 import org.gradle.tooling.internal.protocol.InternalBuildProgressListener;
+import org.gradle.tooling.internal.protocol.InternalStreamedValueListener;
 import org.gradle.tooling.internal.protocol.ModelIdentifier;
 import org.gradle.tooling.internal.protocol.events.InternalProgressEvent;
 import org.gradle.tooling.internal.provider.connection.ProviderConnectionParameters;
@@ -52,6 +54,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -103,7 +106,7 @@ public class ProviderConnection {
         }
 
         StartParameter startParameter = new ProviderStartParameterConverter().toStartParameter(providerParameters, params.properties);
-        ProgressListenerConfiguration listenerConfig = ProgressListenerConfiguration.from(providerParameters);
+        ProgressListenerConfiguration listenerConfig = ProgressListenerConfiguration.from(providerParameters, payloadSerializer);
         BuildAction action = new BuildModelAction(startParameter, modelName, tasks != null, listenerConfig.clientSubscriptions);
         return run(action, cancellationToken, listenerConfig, providerParameters, params);
     }
@@ -112,15 +115,15 @@ public class ProviderConnection {
         SerializedPayload serializedAction = payloadSerializer.serialize(clientAction);
         Parameters params = initParams(providerParameters);
         StartParameter startParameter = new ProviderStartParameterConverter().toStartParameter(providerParameters, params.properties);
-        ProgressListenerConfiguration listenerConfig = ProgressListenerConfiguration.from(providerParameters);
-        BuildAction action = new ClientProvidedBuildAction(startParameter, serializedAction, listenerConfig.clientSubscriptions);
+        ProgressListenerConfiguration listenerConfig = ProgressListenerConfiguration.from(providerParameters, payloadSerializer);
+        BuildAction action = new ClientProvidedBuildAction(startParameter, serializedAction, listenerConfig.clientSubscriptions, listenerConfig.streamedValueConsumer != null);
         return run(action, cancellationToken, listenerConfig, providerParameters, params);
     }
 
     public Object runTests(ProviderInternalTestExecutionRequest testExecutionRequest, BuildCancellationToken cancellationToken, ProviderOperationParameters providerParameters) {
         Parameters params = initParams(providerParameters);
         StartParameter startParameter = new ProviderStartParameterConverter().toStartParameter(providerParameters, params.properties);
-        ProgressListenerConfiguration listenerConfig = ProgressListenerConfiguration.from(providerParameters);
+        ProgressListenerConfiguration listenerConfig = ProgressListenerConfiguration.from(providerParameters, payloadSerializer);
         TestExecutionRequestAction action = TestExecutionRequestAction.create(listenerConfig.clientSubscriptions, startParameter, testExecutionRequest);
         return run(action, cancellationToken, listenerConfig, providerParameters, params);
     }
@@ -135,7 +138,7 @@ public class ProviderConnection {
             }
             return payloadSerializer.deserialize(result.result);
         } finally {
-            progressListenerConfiguration.failsafeWrapper.rethrowErrors();
+            progressListenerConfiguration.rethrowErrors();
         }
     }
 
@@ -220,18 +223,64 @@ public class ProviderConnection {
         }
     }
 
+    private static final class StreamedValueListenerInvokingBuildEventConsumer implements BuildEventConsumer {
+        private final InternalStreamedValueListener streamedValueListener;
+        private final PayloadSerializer payloadSerializer;
+        private final BuildEventConsumer delegate;
+        private Throwable listenerFailure;
+
+        private StreamedValueListenerInvokingBuildEventConsumer(InternalStreamedValueListener streamedValueListener, PayloadSerializer payloadSerializer, BuildEventConsumer delegate) {
+            this.streamedValueListener = streamedValueListener;
+            this.payloadSerializer = payloadSerializer;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void dispatch(Object event) {
+            if (!(event instanceof StreamedValue)) {
+                delegate.dispatch(event);
+                return;
+            }
+            if (listenerFailure != null) {
+                // Discard value
+                return;
+            }
+            try {
+                streamedValueListener.onValue(payloadSerializer.deserialize(((StreamedValue) event).getValue()));
+            } catch (Throwable t) {
+                listenerFailure = t;
+            }
+        }
+
+        public void rethrowErrors() {
+            if (listenerFailure != null) {
+                throw new ListenerNotificationException("Could not pass a value sent by the build action to the streamed value listener.", Collections.singletonList(listenerFailure));
+            }
+        }
+    }
+
     private static final class ProgressListenerConfiguration {
         private final BuildClientSubscriptions clientSubscriptions;
         private final FailsafeBuildProgressListenerAdapter failsafeWrapper;
+        private final StreamedValueListenerInvokingBuildEventConsumer streamedValueConsumer;
         private final BuildEventConsumer buildEventConsumer;
 
-        public ProgressListenerConfiguration(BuildClientSubscriptions clientSubscriptions, BuildEventConsumer buildEventConsumer, FailsafeBuildProgressListenerAdapter failsafeWrapper) {
+        public ProgressListenerConfiguration(BuildClientSubscriptions clientSubscriptions, BuildEventConsumer buildEventConsumer, FailsafeBuildProgressListenerAdapter failsafeWrapper,
+                                             StreamedValueListenerInvokingBuildEventConsumer streamedValueConsumer) {
             this.clientSubscriptions = clientSubscriptions;
             this.buildEventConsumer = buildEventConsumer;
             this.failsafeWrapper = failsafeWrapper;
+            this.streamedValueConsumer = streamedValueConsumer;
         }
 
-        private static ProgressListenerConfiguration from(ProviderOperationParameters providerParameters) {
+        public void rethrowErrors() {
+            failsafeWrapper.rethrowErrors();
+            if (streamedValueConsumer != null) {
+                streamedValueConsumer.rethrowErrors();
+            }
+        }
+
+        private static ProgressListenerConfiguration from(ProviderOperationParameters providerParameters, PayloadSerializer payloadSerializer) {
             InternalBuildProgressListener buildProgressListener = providerParameters.getBuildProgressListener(null);
             boolean listenToTestProgress = buildProgressListener != null && buildProgressListener.getSubscribedOperations().contains(InternalBuildProgressListener.TEST_EXECUTION);
             boolean listenToTaskProgress = buildProgressListener != null && buildProgressListener.getSubscribedOperations().contains(InternalBuildProgressListener.TASK_EXECUTION);
@@ -239,12 +288,18 @@ public class ProviderConnection {
             BuildClientSubscriptions clientSubscriptions = new BuildClientSubscriptions(listenToTestProgress, listenToTaskProgress, listenToBuildProgress);
             FailsafeBuildProgressListenerAdapter wrapper = new FailsafeBuildProgressListenerAdapter(buildProgressListener);
             BuildEventConsumer buildEventConsumer = clientSubscriptions.isSendAnyProgressEvents() ? new BuildProgressListenerInvokingBuildEventConsumer(wrapper) : new NoOpBuildEventConsumer();
+            InternalStreamedValueListener streamedValueListener = providerParameters.getStreamedValueListener(null);
+            StreamedValueListenerInvokingBuildEventConsumer streamedValueConsumer = null;
+            if (streamedValueListener != null) {
+                streamedValueConsumer = new StreamedValueListenerInvokingBuildEventConsumer(streamedValueListener, payloadSerializer, buildEventConsumer);
+                buildEventConsumer = streamedValueConsumer;
+            }
             if (Boolean.TRUE.equals(providerParameters.isEmbedded())) {
                 // Contract requires build events are delivered by a single thread. This is taken care of by the daemon client when not in embedded mode
                 // Need to apply some synchronization when in embedded mode
                 buildEventConsumer = new SynchronizedConsumer(buildEventConsumer);
             }
-            return new ProgressListenerConfiguration(clientSubscriptions, buildEventConsumer, wrapper);
+            return new ProgressListenerConfiguration(clientSubscriptions, buildEventConsumer, wrapper, streamedValueConsumer);
         }
 
         private static class SynchronizedConsumer implements BuildEventConsumer {
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.bootstrap
+
+import org.gradle.api.UncheckedIOException
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class DaemonStartupConfigurationTest extends Specification {
+    def userHome = new File("user-home").absoluteFile
+    def baseDir = new File("daemon α").absoluteFile
+    def classPath = [new File("a.jar").absoluteFile, new File("lib/b.jar").absoluteFile]
+
+    @Unroll
+    def "round trips configuration with standby #standby"() {
+        def original = new DaemonStartupConfiguration(userHome, baseDir, 10800000, "uid-123", ["-Xmx1g", "-Dfile.encoding=UTF-8"], classPath, standby)
+
+        when:
+        def decoded = DaemonStartupConfiguration.decode(new ByteArrayInputStream(original.encode()))
+
+        then:
+        decoded.gradleUserHomeDir == userHome
+        decoded.daemonBaseDir == baseDir
+        decoded.idleTimeout == 10800000
+        decoded.daemonUid == "uid-123"
+        decoded.daemonOpts == ["-Xmx1g", "-Dfile.encoding=UTF-8"]
+        decoded.additionalClassPath == classPath
+        decoded.standby == standby
+
+        where:
+        standby << [true, false]
+    }
+
+    def "round trips empty options and classpath"() {
+        def original = new DaemonStartupConfiguration(userHome, baseDir, 0, "", [], [], false)
+
+        when:
+        def decoded = DaemonStartupConfiguration.decode(new ByteArrayInputStream(original.encode()))
+
+        then:
+        decoded.idleTimeout == 0
+        decoded.daemonUid == ""
+        decoded.daemonOpts.empty
+        decoded.additionalClassPath.empty
+        !decoded.standby
+    }
+
+    def "fails when the configuration is truncated"() {
+        def encoded = new DaemonStartupConfiguration(userHome, baseDir, 100, "uid", ["-ea"], classPath, true).encode()
+
+        when:
+        DaemonStartupConfiguration.decode(new ByteArrayInputStream(encoded.take(encoded.length - 2) as byte[]))
+
+        then:
+        thrown(UncheckedIOException)
+    }
+}
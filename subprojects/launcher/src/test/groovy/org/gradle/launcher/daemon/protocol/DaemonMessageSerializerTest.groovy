@@ -133,6 +133,20 @@ class DaemonMessageSerializerTest extends SerializerSpec {
         result.status == "status"
     }
 
+    def "can serialize OutputBatch messages"() {
+        expect:
+        def event1 = new StyledTextOutputEvent(1234, "category", LogLevel.LIFECYCLE, StyledTextOutput.Style.Normal, "text")
+        def event2 = new ProgressEvent(new OperationIdentifier(1234L), 321L, "category", "status")
+        def message = new OutputBatch([event1, event2])
+        def result = usesEfficientSerialization(message, serializer)
+        result instanceof OutputBatch
+        result.events.size() == 2
+        result.events[0] instanceof StyledTextOutputEvent
+        result.events[0].spans[0].text == "text"
+        result.events[1] instanceof ProgressEvent
+        result.events[1].status == "status"
+    }
+
     def "can serialize Failure messages"() {
         expect:
         def failure = new RuntimeException()
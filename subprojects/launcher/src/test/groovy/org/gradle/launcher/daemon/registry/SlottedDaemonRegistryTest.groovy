@@ -0,0 +1,279 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.registry
+
+import org.gradle.launcher.daemon.context.DefaultDaemonContext
+import org.gradle.messaging.remote.internal.inet.MultiChoiceAddress
+import org.gradle.messaging.remote.internal.inet.SocketInetAddress
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class SlottedDaemonRegistryTest extends Specification {
+
+    @Rule TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    int addressCounter = 0
+    def file = tmp.file("registry")
+    def registry = new SlottedDaemonRegistry(file)
+
+    def "empty when registry file does not exist"() {
+        expect:
+        registry.all.empty
+        registry.idle.empty
+        registry.busy.empty
+    }
+
+    def "reads back stored daemons"() {
+        given:
+        def address = address()
+        def context = daemonContext("1", ["-Xmx1g"])
+
+        when:
+        registry.store(address, context, "password", true)
+        def infos = new SlottedDaemonRegistry(file).all
+
+        then:
+        infos.size() == 1
+        with(infos[0]) {
+            it.address == address
+            it.password == "password"
+            it.idle
+            it.context.uid == "1"
+            it.context.pid == 123
+            it.context.idleTimeout == 5000
+            it.context.javaHome == context.javaHome
+            it.context.daemonRegistryDir == context.daemonRegistryDir
+            it.context.daemonOpts == ["-Xmx1g"]
+        }
+    }
+
+    def "reads back addresses of other types"() {
+        given:
+        def address = new SocketInetAddress(InetAddress.getByName("127.0.0.1"), 1234)
+
+        when:
+        registry.store(address, daemonContext(), "password", true)
+
+        then:
+        registry.all*.address == [address]
+    }
+
+    def "marks daemons busy and idle"() {
+        given:
+        def address1 = address()
+        def address2 = address()
+        registry.store(address1, daemonContext("1"), "password", true)
+        registry.store(address2, daemonContext("2"), "password", true)
+
+        when:
+        registry.markBusy(address1)
+
+        then:
+        registry.busy*.address == [address1]
+        registry.idle*.address == [address2]
+
+        when:
+        registry.markIdle(address1)
+
+        then:
+        registry.busy.empty
+        registry.idle*.address == [address1, address2]
+    }
+
+    def "replaces entry when daemon is stored again"() {
+        given:
+        def address = address()
+        registry.store(address, daemonContext("1"), "password", true)
+
+        when:
+        registry.store(address, daemonContext("1"), "other", false)
+
+        then:
+        registry.all.size() == 1
+        registry.busy*.password == ["other"]
+    }
+
+    def "reuses slots of removed daemons"() {
+        given:
+        def address1 = address()
+        def address2 = address()
+        registry.store(address1, daemonContext("1"), "password", true)
+        registry.store(address2, daemonContext("2"), "password", true)
+        def length = file.length()
+
+        when:
+        registry.remove(address1)
+        registry.store(address(), daemonContext("3"), "password", true)
+
+        then:
+        registry.all*.context*.uid == ["3", "2"]
+        file.length() == length
+    }
+
+    def "stores daemons that do not fit in a single slot"() {
+        given:
+        def daemonOpts = (1..100).collect { "-Dsome.property.$it=some value" }
+        def address1 = address()
+        def address2 = address()
+
+        when:
+        registry.store(address1, daemonContext("1", daemonOpts), "password", true)
+        registry.store(address2, daemonContext("2"), "password", true)
+
+        then:
+        registry.all*.address == [address1, address2]
+        registry.all[0].context.daemonOpts == daemonOpts
+
+        when:
+        registry.remove(address1)
+        registry.store(address(), daemonContext("3"), "password", true)
+
+        then:
+        registry.all*.context*.uid == ["3", "2"]
+    }
+
+    def "registry file with unknown format is ignored and replaced"() {
+        given:
+        file.text = "not a registry"
+
+        expect:
+        registry.all.empty
+
+        when:
+        registry.store(address(), daemonContext(), "password", true)
+
+        then:
+        registry.all.size() == 1
+    }
+
+    def "clears entry left behind by a process that crashed while writing it"() {
+        given:
+        def daemonOpts = (1..100).collect { "-Dsome.property.$it=some value" }
+        def address1 = address()
+        def address2 = address()
+        registry.store(address1, daemonContext("1", daemonOpts), "password", true)
+        registry.store(address2, daemonContext("2"), "password", true)
+        def length = file.length()
+
+        when:
+        tearSlot(0)
+
+        then:
+        registry.all*.address == [address2]
+
+        and:
+        sequence(0) % 2 == 0
+        new SlottedDaemonRegistry(file).all*.address == [address2]
+
+        when:
+        registry.markBusy(address2)
+        registry.store(address(), daemonContext("3", daemonOpts), "password", true)
+
+        then:
+        registry.busy*.address == [address2]
+        registry.all*.context*.uid == ["3", "2"]
+        file.length() == length
+    }
+
+    def "updates clear entry left behind by a process that crashed while writing it"() {
+        given:
+        def address1 = address()
+        def address2 = address()
+        registry.store(address1, daemonContext("1"), "password", true)
+        registry.store(address2, daemonContext("2"), "password", true)
+        tearSlot(1)
+
+        when:
+        registry.markBusy(address1)
+
+        then:
+        sequence(1) % 2 == 0
+        registry.all*.address == [address1]
+        registry.busy*.address == [address1]
+    }
+
+    def "safely removes from registry file"() {
+        given:
+        def address = address()
+
+        and:
+        registry.store(address, daemonContext(), "password", true)
+
+        when:
+        registry.remove(address)
+
+        then:
+        registry.all.empty
+
+        and: //it is safe to remove it again
+        registry.remove(address)
+    }
+
+    def "mark busy ignores entry that has been removed"() {
+        given:
+        def address = address()
+
+        when:
+        registry.markBusy(address)
+
+        then:
+        registry.all.empty
+    }
+
+    def "mark idle ignores entry that has been removed"() {
+        given:
+        def address = address()
+
+        when:
+        registry.markIdle(address)
+
+        then:
+        registry.all.empty
+    }
+
+    void tearSlot(int slot) {
+        def raf = new RandomAccessFile(file, "rw")
+        try {
+            long position = SlottedDaemonRegistry.HEADER_SIZE + slot * SlottedDaemonRegistry.SLOT_SIZE
+            raf.seek(position)
+            int sequence = raf.readInt()
+            raf.seek(position)
+            raf.writeInt(sequence + 1)
+        } finally {
+            raf.close()
+        }
+    }
+
+    int sequence(int slot) {
+        def raf = new RandomAccessFile(file, "r")
+        try {
+            raf.seek(SlottedDaemonRegistry.HEADER_SIZE + slot * SlottedDaemonRegistry.SLOT_SIZE)
+            return raf.readInt()
+        } finally {
+            raf.close()
+        }
+    }
+
+    DefaultDaemonContext daemonContext(String uid = "uid", List<String> daemonOpts = []) {
+        new DefaultDaemonContext(uid, tmp.createDir("java-home"), tmp.createDir("daemons"), 123, 5000, daemonOpts)
+    }
+
+    MultiChoiceAddress address(int i = addressCounter++) {
+        new MultiChoiceAddress(UUID.randomUUID(), 8000 + i, [InetAddress.getByName("127.0.0.1")])
+    }
+}
@@ -30,9 +30,11 @@ import org.gradle.launcher.daemon.client.EmbeddedDaemonClientServices
 import org.gradle.launcher.daemon.client.StubDaemonHealthServices
 import org.gradle.launcher.daemon.context.DaemonContext
 import org.gradle.launcher.daemon.server.api.DaemonCommandAction
+import org.gradle.launcher.daemon.server.exec.ConcurrentBuilds
 import org.gradle.launcher.daemon.server.exec.DaemonCommandExecuter
 import org.gradle.launcher.daemon.server.exec.DefaultDaemonCommandExecuter
 import org.gradle.launcher.daemon.server.exec.ForwardClientInput
+import org.gradle.launcher.daemon.server.standby.StandbyDaemonStarter
 import org.gradle.launcher.exec.BuildExecuter
 import org.gradle.launcher.exec.DefaultBuildActionParameters
 import org.gradle.logging.LoggingManagerInternal
@@ -80,12 +82,13 @@ class DaemonServerExceptionHandlingTest extends Specification {
     }
 
     EmbeddedDaemonClientServices servicesWith(Closure configureDeamonActions) {
+        def standbyDaemonStarter = Stub(StandbyDaemonStarter)
         //we need to override some methods to inject a failure action into the sequence
         def services = new EmbeddedDaemonClientServices() {
             DaemonCommandExecuter createDaemonCommandExecuter() {
                 return new DefaultDaemonCommandExecuter(get(BuildExecuter), this,
                         get(ProcessEnvironment), getFactory(LoggingManagerInternal.class).create(),
-                        new File("dummy"), new StubDaemonHealthServices()) {
+                        new File("dummy"), new StubDaemonHealthServices(), standbyDaemonStarter, new ConcurrentBuilds(1)) {
                     List<DaemonCommandAction> createActions(DaemonContext daemonContext) {
                         def actions = new LinkedList(super.createActions(daemonContext));
                         configureDeamonActions(actions);
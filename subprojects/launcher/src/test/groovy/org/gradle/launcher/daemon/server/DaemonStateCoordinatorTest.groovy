@@ -593,4 +593,80 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         2 * onFinishCommand.run()
         0 * _._
     }
+
+    def "runs commands at the same time up to the configured maximum"() {
+        def coordinator = new DaemonStateCoordinator(executorFactory, 2, onStartCommand, onFinishCommand, 2000)
+        def command1 = Mock(Runnable)
+        def command2 = Mock(Runnable)
+
+        when:
+        async {
+            start {
+                coordinator.runCommand(command1, "command1")
+            }
+            thread.blockUntil.running1
+            coordinator.runCommand(command2, "command2")
+        }
+
+        then:
+        coordinator.idle
+
+        and:
+        1 * command1.run() >> {
+            instant.running1
+            thread.blockUntil.running2
+        }
+        1 * onStartCommand.run()
+        1 * command2.run() >> {
+            assert coordinator.busy
+            instant.running2
+            try {
+                coordinator.runCommand(Mock(Runnable), "other")
+                assert false
+            } catch (DaemonUnavailableException e) {
+                assert e.message == 'This daemon is currently executing: command1, command2'
+            }
+        }
+        1 * onFinishCommand.run()
+        0 * _._
+    }
+
+    def "cancelCommand cancels only the given command"() {
+        def coordinator = new DaemonStateCoordinator(executorFactory, 2, onStartCommand, onFinishCommand, 2000)
+        def command1 = Mock(Runnable)
+        def command2 = Mock(Runnable)
+
+        when:
+        async {
+            start {
+                coordinator.runCommand(command1, "command1")
+            }
+            thread.blockUntil.running1
+            coordinator.runCommand(command2, "command2")
+        }
+
+        then:
+        !coordinator.stopped
+        coordinator.idle
+
+        and:
+        1 * command1.run() >> {
+            instant.running1
+            thread.blockUntil.cancelled
+            assert !coordinator.cancellationToken.cancellationRequested
+        }
+        1 * command2.run() >> {
+            def token = coordinator.cancellationToken
+            start {
+                coordinator.cancelCommand("command2")
+            }
+            while (!token.cancellationRequested) {
+                Thread.sleep(10)
+            }
+            instant.cancelled
+        }
+        _ * onStartCommand.run()
+        _ * onFinishCommand.run()
+        0 * _._
+    }
 }
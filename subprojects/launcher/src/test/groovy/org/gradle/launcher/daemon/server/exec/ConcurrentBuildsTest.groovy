@@ -0,0 +1,248 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.exec
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.Factory
+import org.gradle.launcher.daemon.protocol.Build
+import org.gradle.launcher.daemon.server.api.DaemonUnavailableException
+import org.gradle.launcher.exec.BuildActionParameters
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ConcurrentBuildsTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    def builds = new ConcurrentBuilds(2)
+
+    def "runs builds in unrelated directories at the same time"() {
+        when:
+        def build1 = builds.start(build(tmp.createDir("a")))
+        def build2 = builds.start(build(tmp.createDir("b")))
+
+        then:
+        !builds.isOnlyBuild(build1)
+
+        when:
+        builds.finish(build2)
+
+        then:
+        builds.isOnlyBuild(build1)
+    }
+
+    def "does not run builds in overlapping directories at the same time"() {
+        given:
+        builds.start(build(tmp.createDir("a")))
+
+        when:
+        builds.start(build(tmp.createDir(dir)))
+
+        then:
+        DaemonUnavailableException e = thrown()
+        e.message.startsWith("This daemon is currently running a build in ")
+
+        where:
+        dir << ["a", "a/b", "."]
+    }
+
+    def "does not run builds with different environments at the same time"() {
+        given:
+        builds.start(build(tmp.createDir("a"), [:], [VAR: "1", PWD: "a"]))
+
+        when:
+        builds.start(build(tmp.createDir("b"), sysProps, env))
+
+        then:
+        DaemonUnavailableException e = thrown()
+        e.message == "This daemon is currently running a build with a different environment."
+
+        where:
+        sysProps                     | env
+        [:]                          | [VAR: "2"]
+        ["some.prop": "value"]       | [VAR: "1"]
+    }
+
+    def "does not run builds with different log levels at the same time"() {
+        given:
+        builds.start(build(tmp.createDir("a"), [:], [:], LogLevel.INFO))
+
+        when:
+        builds.start(build(tmp.createDir("b"), [:], [:], LogLevel.LIFECYCLE))
+
+        then:
+        DaemonUnavailableException e = thrown()
+        e.message == "This daemon is currently running a build with log level INFO."
+
+        when:
+        builds.start(build(tmp.createDir("c"), [:], [:], LogLevel.INFO))
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "ignores environment differences that do not affect the build"() {
+        given:
+        builds.start(build(tmp.createDir("a"), ["java.io.tmpdir": "a"], [VAR: "1", PWD: "a"]))
+
+        when:
+        builds.start(build(tmp.createDir("b"), ["java.io.tmpdir": "b"], [VAR: "1", PWD: "b"]))
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "runs only one build at a time when not concurrent"() {
+        given:
+        def builds = new ConcurrentBuilds(0)
+
+        expect:
+        !builds.concurrent
+        builds.maxConcurrentBuilds == 1
+    }
+
+    def "sets up process state for first build and restores it after last build"() {
+        def setUp = Mock(Factory)
+        def restore = Mock(Runnable)
+
+        when:
+        builds.retainProcessState(setUp)
+        builds.retainProcessState(setUp)
+
+        then:
+        1 * setUp.create() >> restore
+        0 * _
+
+        when:
+        builds.releaseProcessState()
+
+        then:
+        0 * _
+
+        when:
+        builds.releaseProcessState()
+
+        then:
+        1 * restore.run()
+        0 * _
+    }
+
+    def "routes output of a thread to the build that it belongs to"() {
+        given:
+        def build1 = builds.start(build(tmp.createDir("a")))
+        def build2 = builds.start(build(tmp.createDir("b")))
+
+        expect:
+        builds.isOutputOf(build1)
+        builds.isOutputOf(build2)
+
+        when:
+        builds.attach(build1)
+
+        then:
+        builds.currentBuild == build1
+        builds.isOutputOf(build1)
+        !builds.isOutputOf(build2)
+
+        when:
+        builds.finish(build1)
+
+        then:
+        builds.isOutputOf(build2)
+
+        cleanup:
+        builds.detach()
+    }
+
+    def "threads do not inherit the build of the thread that creates them"() {
+        given:
+        def build1 = builds.start(build(tmp.createDir("a")))
+        builds.attach(build1)
+
+        when:
+        def owner = build1
+        def thread = new Thread({ owner = builds.currentBuild })
+        thread.start()
+        thread.join()
+
+        then:
+        owner == null
+
+        cleanup:
+        builds.detach()
+    }
+
+    def "work handed over to another thread belongs to the build that submitted it"() {
+        given:
+        def build1 = builds.start(build(tmp.createDir("a")))
+        def build2 = builds.start(build(tmp.createDir("b")))
+        def executor = new BuildOwnershipExecutorFactory(builds).create("test")
+
+        when:
+        def owners = []
+        builds.attach(build1)
+        executor.submit({ owners << builds.currentBuild } as Runnable).get()
+        builds.attach(build2)
+        executor.submit({ owners << builds.currentBuild } as Runnable).get()
+        builds.detach()
+        executor.submit({ owners << builds.currentBuild } as Runnable).get()
+
+        then:
+        owners == [build1, build2, null]
+
+        cleanup:
+        builds.detach()
+        executor.stop()
+    }
+
+    def "runs action only when no other build is running"() {
+        given:
+        def action = Mock(Runnable)
+        def build1 = builds.start(build(tmp.createDir("a")))
+        builds.attach(build1)
+
+        when:
+        def result = builds.runIfNoOtherBuilds(action)
+
+        then:
+        result
+        1 * action.run()
+
+        when:
+        builds.start(build(tmp.createDir("b")))
+        result = builds.runIfNoOtherBuilds(action)
+
+        then:
+        !result
+        0 * action.run()
+
+        cleanup:
+        builds.detach()
+    }
+
+    def build(File currentDir, Map<String, String> sysProps = [:], Map<String, String> env = [:], LogLevel logLevel = LogLevel.LIFECYCLE) {
+        def parameters = Stub(BuildActionParameters) {
+            getCurrentDir() >> currentDir
+            getLogLevel() >> logLevel
+            getSystemProperties() >> sysProps
+            getEnvVariables() >> env
+        }
+        return Stub(Build) {
+            getParameters() >> parameters
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.exec
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.logging.internal.LogEvent
+import org.gradle.logging.internal.LogLevelChangeEvent
+import org.gradle.logging.internal.StyledTextOutputEvent
+import spock.lang.Specification
+
+import static org.gradle.logging.StyledTextOutput.Style.Failure
+import static org.gradle.logging.StyledTextOutput.Style.Normal
+
+class OutputEventCoalescerTest extends Specification {
+    def coalescer = new OutputEventCoalescer(LogLevel.LIFECYCLE)
+
+    def "merges adjacent text events of the same category and log level"() {
+        def first = text("cat", LogLevel.LIFECYCLE, "a")
+
+        when:
+        def result = coalescer.coalesce([first, text("cat", LogLevel.LIFECYCLE, "b"), text("cat", LogLevel.LIFECYCLE, "c\n")])
+
+        then:
+        result.size() == 1
+        result[0].timestamp == first.timestamp
+        result[0].category == "cat"
+        result[0].logLevel == LogLevel.LIFECYCLE
+        spans(result[0]) == [[Normal, "abc\n"]]
+    }
+
+    def "keeps spans with different styles apart when merging"() {
+        when:
+        def result = coalescer.coalesce([
+            text("cat", LogLevel.LIFECYCLE, "a"),
+            new StyledTextOutputEvent(0, "cat", LogLevel.LIFECYCLE, Failure, "b"),
+            new StyledTextOutputEvent(0, "cat", LogLevel.LIFECYCLE, Failure, "c"),
+            text("cat", LogLevel.LIFECYCLE, "d")])
+
+        then:
+        result.size() == 1
+        spans(result[0]) == [[Normal, "a"], [Failure, "bc"], [Normal, "d"]]
+    }
+
+    def "does not merge events of different categories or log levels"() {
+        def events = [
+            text("cat", LogLevel.LIFECYCLE, "a"),
+            text("other", LogLevel.LIFECYCLE, "b"),
+            text("other", LogLevel.QUIET, "c"),
+            text("other", LogLevel.QUIET, "d")]
+
+        when:
+        def result = coalescer.coalesce(events)
+
+        then:
+        result.size() == 3
+        result[0].is(events[0])
+        result[1].is(events[1])
+        spans(result[2]) == [[Normal, "cd"]]
+    }
+
+    def "does not merge text events across other events"() {
+        def logEvent = new LogEvent(0, "cat", LogLevel.LIFECYCLE, "message", null)
+        def events = [text("cat", LogLevel.LIFECYCLE, "a"), logEvent, text("cat", LogLevel.LIFECYCLE, "b")]
+
+        when:
+        def result = coalescer.coalesce(events)
+
+        then:
+        result == events
+    }
+
+    def "does not merge events when client renders debug output"() {
+        def events = [text("cat", LogLevel.DEBUG, "a"), text("cat", LogLevel.DEBUG, "b")]
+
+        when:
+        def result = new OutputEventCoalescer(LogLevel.DEBUG).coalesce(events)
+
+        then:
+        result == events
+    }
+
+    def "stops merging events when log level changes to debug part way through a batch"() {
+        def levelChange = new LogLevelChangeEvent(LogLevel.DEBUG)
+        def after = [text("cat", LogLevel.LIFECYCLE, "c"), text("cat", LogLevel.LIFECYCLE, "d")]
+
+        when:
+        def result = coalescer.coalesce([text("cat", LogLevel.LIFECYCLE, "a"), text("cat", LogLevel.LIFECYCLE, "b"), levelChange] + after)
+
+        then:
+        result.size() == 4
+        spans(result[0]) == [[Normal, "ab"]]
+        result[1].is(levelChange)
+        result[2].is(after[0])
+        result[3].is(after[1])
+
+        when:
+        def next = [text("cat", LogLevel.LIFECYCLE, "e"), text("cat", LogLevel.LIFECYCLE, "f")]
+        result = coalescer.coalesce(next)
+
+        then:
+        result == next
+    }
+
+    def "starts merging events when log level changes from debug part way through a batch"() {
+        def levelChange = new LogLevelChangeEvent(LogLevel.INFO)
+        def before = [text("cat", LogLevel.INFO, "a"), text("cat", LogLevel.INFO, "b")]
+
+        when:
+        def result = new OutputEventCoalescer(LogLevel.DEBUG).coalesce(before + [levelChange, text("cat", LogLevel.INFO, "c"), text("cat", LogLevel.INFO, "d")])
+
+        then:
+        result.size() == 4
+        result[0].is(before[0])
+        result[1].is(before[1])
+        result[2].is(levelChange)
+        spans(result[3]) == [[Normal, "cd"]]
+    }
+
+    def "merges many events"() {
+        def events = (1..10000).collect { text("cat", LogLevel.LIFECYCLE, "$it,") }
+
+        when:
+        def result = coalescer.coalesce(events)
+
+        then:
+        result.size() == 1
+        spans(result[0]) == [[Normal, (1..10000).collect { "$it," }.join("")]]
+    }
+
+    private static StyledTextOutputEvent text(String category, LogLevel logLevel, String text) {
+        return new StyledTextOutputEvent(0, category, logLevel, text)
+    }
+
+    private static List<List<Object>> spans(StyledTextOutputEvent event) {
+        return event.spans.collect { [it.style, it.text] }
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.gradle.launcher.daemon.server.health
 
+import org.gradle.api.internal.cache.MemoryPressureListener
 import org.gradle.launcher.daemon.server.api.DaemonCommandExecution
 import org.gradle.launcher.daemon.server.api.DaemonStateControl
 import spock.lang.Specification
@@ -29,7 +30,9 @@ class DaemonHealthTrackerTest extends Specification {
     def stats = Mock(DaemonStats)
     def status = Mock(DaemonStatus)
     def logger = Mock(HealthLogger)
-    def tracker = new DaemonHealthTracker(stats, status, logger)
+    def memoryStatus = Mock(DaemonMemoryStatus)
+    def memoryPressureListener = Mock(MemoryPressureListener)
+    def tracker = new DaemonHealthTracker(stats, status, logger, memoryStatus, memoryPressureListener)
 
     def "tracks start and complete events"() {
         when: tracker.execute(exec)
@@ -66,4 +69,24 @@ class DaemonHealthTrackerTest extends Specification {
         then:
         0 * control.requestStop()
     }
+
+    def "releases memory after the build when short of memory"() {
+        1 * memoryStatus.evaluate(stats) >> DaemonMemoryStatus.Action.RELEASE_MEMORY
+
+        when: tracker.execute(exec)
+
+        then:
+        1 * memoryPressureListener.releaseMemory()
+        0 * control.requestStop()
+    }
+
+    def "stops after the build when memory does not recover"() {
+        1 * memoryStatus.evaluate(stats) >> DaemonMemoryStatus.Action.EXPIRE
+
+        when: tracker.execute(exec)
+
+        then:
+        1 * control.requestStop()
+        0 * memoryPressureListener.releaseMemory()
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.health
+
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static org.gradle.launcher.daemon.server.health.DaemonMemoryStatus.Action.*
+
+class DaemonMemoryStatusTest extends Specification {
+
+    @Rule SetSystemProperties props = new SetSystemProperties()
+    def stats = Stub(DaemonStats)
+    def status = new DaemonMemoryStatus()
+
+    @Unroll
+    def "evaluates old gen usage #oldGen% and gc time #gcTime% as #action"() {
+        stats.oldGenUsageAfterCollection >> oldGen
+        stats.lastBuildCollectionTime >> gcTime
+
+        expect:
+        status.evaluate(stats) == action
+
+        where:
+        oldGen | gcTime | action
+        -1     | 0      | NONE
+        50     | 5      | NONE
+        75     | 0      | RELEASE_MEMORY
+        50     | 10     | RELEASE_MEMORY
+        95     | 50     | RELEASE_MEMORY
+    }
+
+    def "expires when memory has not recovered after releasing memory"() {
+        stats.oldGenUsageAfterCollection >>> [80, 95]
+        stats.oldGenCollectionCount >>> [1, 2]
+
+        expect:
+        status.evaluate(stats) == RELEASE_MEMORY
+        status.evaluate(stats) == EXPIRE
+    }
+
+    def "does not expire when memory has recovered after releasing memory"() {
+        stats.oldGenUsageAfterCollection >>> [80, 40, 95]
+        stats.oldGenCollectionCount >>> [1, 2, 3]
+
+        expect:
+        status.evaluate(stats) == RELEASE_MEMORY
+        status.evaluate(stats) == NONE
+        status.evaluate(stats) == RELEASE_MEMORY
+    }
+
+    def "waits for the old generation to be collected before deciding whether memory has recovered"() {
+        stats.oldGenUsageAfterCollection >> 95
+        stats.oldGenCollectionCount >>> [1, 1, 1, 2]
+
+        expect:
+        status.evaluate(stats) == RELEASE_MEMORY
+        status.evaluate(stats) == NONE
+        status.evaluate(stats) == NONE
+        status.evaluate(stats) == EXPIRE
+    }
+
+    def "expires on critical gc time before the old generation has been collected after releasing memory"() {
+        stats.oldGenUsageAfterCollection >> 80
+        stats.oldGenCollectionCount >> 1
+        stats.lastBuildCollectionTime >>> [0, 50]
+
+        expect:
+        status.evaluate(stats) == RELEASE_MEMORY
+        status.evaluate(stats) == EXPIRE
+    }
+
+    def "decides on old gen usage alone when old generation collections are not known"() {
+        stats.oldGenUsageAfterCollection >>> [80, 95]
+        stats.oldGenCollectionCount >> -1
+
+        expect:
+        status.evaluate(stats) == RELEASE_MEMORY
+        status.evaluate(stats) == EXPIRE
+    }
+
+    def "can be disabled"() {
+        System.setProperty(DaemonMemoryStatus.ENABLED_PROPERTY, "false")
+        stats.oldGenUsageAfterCollection >> 95
+
+        expect:
+        status.evaluate(stats) == NONE
+    }
+}
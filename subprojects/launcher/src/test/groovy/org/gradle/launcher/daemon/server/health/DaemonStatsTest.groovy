@@ -89,4 +89,18 @@ class DaemonStatsTest extends Specification {
         then:
         stats.healthInfo == String.format("Starting 2nd build in daemon [uptime: %s, performance: 98%%, memory: 50%% of %.1f MB]", Clock.prettyTime(1), 10.0)
     }
+
+    def "tracks share of build time spent in gc"() {
+        time.getCurrentTime() >>> [1000, 2000]
+        memory.getCollectionTime() >>> [100, 350]
+
+        def stats = new DaemonStats(clock, time, memory)
+
+        when:
+        stats.buildStarted()
+        stats.buildFinished()
+
+        then:
+        stats.lastBuildCollectionTime == 25
+    }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.standby
+
+import org.gradle.internal.classpath.ClassPath
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.launcher.daemon.context.DefaultDaemonContext
+import org.gradle.launcher.daemon.registry.DaemonDir
+import org.gradle.launcher.daemon.registry.EmbeddedDaemonRegistry
+import org.gradle.messaging.remote.Address
+import spock.lang.Specification
+
+class StandbyDaemonStarterTest extends Specification {
+    final javaHome = new File("java-home")
+    final context = new DefaultDaemonContext("current", javaHome, new File("registry"), 1, 1000, ["-Xmx1g"])
+    final registry = new EmbeddedDaemonRegistry()
+    final executorFactory = Mock(ExecutorFactory)
+    final starter = new StandbyDaemonStarter(context, registry, new DaemonDir(new File("daemon")), null, ClassPath.EMPTY, executorFactory)
+
+    def "is enabled when client sets system property"() {
+        expect:
+        StandbyDaemonStarter.isEnabled([(StandbyDaemonStarter.ENABLED_PROPERTY): "true"])
+        !StandbyDaemonStarter.isEnabled([(StandbyDaemonStarter.ENABLED_PROPERTY): "false"])
+        !StandbyDaemonStarter.isEnabled([:])
+    }
+
+    def "finds idle compatible daemon other than the current daemon"() {
+        when:
+        register("current", javaHome, ["-Xmx1g"], true)
+
+        then:
+        !starter.hasIdleCompatibleDaemon()
+
+        when:
+        register("busy", javaHome, ["-Xmx1g"], false)
+        register("other-opts", javaHome, ["-Xmx2g"], true)
+        register("other-java", new File("other-java-home"), ["-Xmx1g"], true)
+
+        then:
+        !starter.hasIdleCompatibleDaemon()
+
+        when:
+        register("spare", javaHome, ["-Xmx1g"], true)
+
+        then:
+        starter.hasIdleCompatibleDaemon()
+    }
+
+    def "does not start a standby daemon when Gradle user home directory is not known"() {
+        when:
+        starter.maybeStartStandbyDaemon()
+
+        then:
+        0 * executorFactory._
+    }
+
+    private void register(String uid, File javaHome, List<String> daemonOpts, boolean idle) {
+        registry.store(Stub(Address), new DefaultDaemonContext(uid, javaHome, new File("registry"), 2, 1000, daemonOpts), "password", idle)
+    }
+}
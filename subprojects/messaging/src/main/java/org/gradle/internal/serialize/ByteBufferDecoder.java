@@ -0,0 +1,343 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.serialize;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A decoder that reads directly from a {@link ByteBuffer}, which may be a heap or a direct buffer. Reads the encoding produced by {@link ByteBufferEncoder}
+ * and {@link org.gradle.internal.serialize.kryo.KryoBackedEncoder}.
+ *
+ * <p>Short ASCII strings are interned per decoder, so that a string that occurs many times in the input is decoded to the same instance.</p>
+ *
+ * <p>Note that when created with an {@link InputStream}, this decoder uses buffering, so will attempt to read beyond the end of the encoded data.
+ * This means you should use an {@link InputStream} only when this decoder will be used to decode the entire stream.</p>
+ */
+public class ByteBufferDecoder extends AbstractDecoder implements Decoder, Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 4096;
+    private static final int INTERN_TABLE_SIZE = 256;
+    private static final int MAX_INTERNED_LENGTH = 64;
+
+    private final InputStream inputStream;
+    private ByteBuffer buffer;
+    private long filled;
+    private long unbuffered;
+    private String[] interned;
+
+    /**
+     * Creates a decoder that reads the remaining bytes of the given buffer. Does not change the position of the given buffer.
+     */
+    public ByteBufferDecoder(ByteBuffer buffer) {
+        this.buffer = buffer.slice();
+        this.inputStream = null;
+        this.filled = this.buffer.remaining();
+    }
+
+    public ByteBufferDecoder(InputStream inputStream) {
+        this(inputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ByteBufferDecoder(InputStream inputStream, int bufferSize) {
+        this.inputStream = inputStream;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.buffer.flip();
+    }
+
+    /**
+     * Returns the total number of bytes consumed by this decoder. Some additional bytes may also be buffered by this decoder but have not been consumed.
+     */
+    public long getReadPosition() {
+        return filled - buffer.remaining() + unbuffered;
+    }
+
+    @Override
+    protected int maybeReadBytes(byte[] dest, int offset, int count) throws IOException {
+        if (count == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            if (inputStream == null) {
+                return -1;
+            }
+            if (count >= buffer.capacity()) {
+                return readUnbuffered(dest, offset, count);
+            }
+            if (!fill(1)) {
+                return -1;
+            }
+        }
+        int read = Math.min(count, buffer.remaining());
+        buffer.get(dest, offset, read);
+        return read;
+    }
+
+    @Override
+    protected long maybeSkip(long count) throws IOException {
+        if (buffer.hasRemaining()) {
+            int skipped = (int) Math.min(count, buffer.remaining());
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+        if (inputStream == null) {
+            return 0;
+        }
+        long skipped = inputStream.skip(count);
+        if (skipped > 0) {
+            unbuffered += skipped;
+        }
+        return skipped;
+    }
+
+    public byte readByte() throws IOException {
+        require(1);
+        return buffer.get();
+    }
+
+    public void readBytes(byte[] dest, int offset, int count) throws IOException {
+        int buffered = Math.min(count, buffer.remaining());
+        buffer.get(dest, offset, buffered);
+        int remaining = count - buffered;
+        if (remaining == 0) {
+            return;
+        }
+        if (inputStream == null) {
+            throw new EOFException();
+        }
+        if (remaining >= buffer.capacity()) {
+            // Read directly into the target array rather than copying through the buffer
+            while (remaining > 0) {
+                int read = readUnbuffered(dest, offset + count - remaining, remaining);
+                if (read <= 0) {
+                    throw new EOFException();
+                }
+                remaining -= read;
+            }
+            return;
+        }
+        require(remaining);
+        buffer.get(dest, offset + buffered, remaining);
+    }
+
+    public long readLong() throws IOException {
+        require(8);
+        return buffer.getLong();
+    }
+
+    public long readSmallLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 56; shift += 7) {
+            byte b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        // The last byte holds 8 bits
+        return result | (long) readByte() << 56;
+    }
+
+    public int readInt() throws IOException {
+        require(4);
+        return buffer.getInt();
+    }
+
+    public int readSmallInt() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = readByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    public boolean readBoolean() throws IOException {
+        return readByte() == 1;
+    }
+
+    public String readString() throws IOException {
+        return readNullableString();
+    }
+
+    public String readNullableString() throws IOException {
+        require(1);
+        if ((buffer.get(buffer.position()) & 0x80) == 0) {
+            return readAscii();
+        }
+        int charCount = readUtf8Length();
+        switch (charCount) {
+            case 0:
+                return null;
+            case 1:
+                return "";
+            default:
+                return readUtf8(charCount - 1);
+        }
+    }
+
+    private int readUtf8Length() throws IOException {
+        int b = readByte();
+        int result = b & 0x3F;
+        if ((b & 0x40) == 0) {
+            return result;
+        }
+        for (int shift = 6; shift < 34; shift += 7) {
+            b = readByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private String readUtf8(int charCount) throws IOException {
+        if (charCount <= MAX_INTERNED_LENGTH && buffer.remaining() >= charCount) {
+            String value = readInternedAscii(charCount);
+            if (value != null) {
+                return value;
+            }
+        }
+        char[] chars = new char[charCount];
+        for (int i = 0; i < charCount; i++) {
+            int b = readByte() & 0xFF;
+            switch (b >> 4) {
+                case 12:
+                case 13:
+                    chars[i] = (char) ((b & 0x1F) << 6 | readByte() & 0x3F);
+                    break;
+                case 14:
+                    int b2 = readByte();
+                    chars[i] = (char) ((b & 0x0F) << 12 | (b2 & 0x3F) << 6 | readByte() & 0x3F);
+                    break;
+                default:
+                    chars[i] = (char) b;
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Reads a string of the given length from the buffer when all its characters are ASCII, reusing the string instance of an earlier read of the same string.
+     * Returns null without consuming anything when the string contains non-ASCII characters.
+     */
+    private String readInternedAscii(int charCount) {
+        int start = buffer.position();
+        int hash = 0;
+        for (int i = 0; i < charCount; i++) {
+            byte b = buffer.get(start + i);
+            if ((b & 0x80) != 0) {
+                return null;
+            }
+            hash = 31 * hash + b;
+        }
+        if (interned == null) {
+            interned = new String[INTERN_TABLE_SIZE];
+        }
+        int slot = (hash ^ hash >>> 16) & (INTERN_TABLE_SIZE - 1);
+        String candidate = interned[slot];
+        if (candidate != null && candidate.hashCode() == hash && candidate.length() == charCount && matches(candidate, start)) {
+            buffer.position(start + charCount);
+            return candidate;
+        }
+        char[] chars = new char[charCount];
+        for (int i = 0; i < charCount; i++) {
+            chars[i] = (char) buffer.get(start + i);
+        }
+        buffer.position(start + charCount);
+        String value = new String(chars);
+        interned[slot] = value;
+        return value;
+    }
+
+    private boolean matches(String candidate, int start) {
+        for (int i = 0; i < candidate.length(); i++) {
+            if (candidate.charAt(i) != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readAscii() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        while (true) {
+            byte b = readByte();
+            if ((b & 0x80) != 0) {
+                // The last character is marked with bit 8
+                builder.append((char) (b & 0x7F));
+                return builder.toString();
+            }
+            builder.append((char) b);
+        }
+    }
+
+    private void require(int count) throws IOException {
+        if (buffer.remaining() < count && !fill(count)) {
+            throw new EOFException();
+        }
+    }
+
+    /**
+     * Reads from the stream until the buffer contains at least the given number of bytes. Returns false when the end of the stream is reached first.
+     */
+    private boolean fill(int count) throws IOException {
+        if (inputStream == null) {
+            return false;
+        }
+        if (buffer.capacity() < count) {
+            ByteBuffer larger = ByteBuffer.allocate(count);
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        try {
+            while (buffer.position() < count) {
+                int read = inputStream.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                if (read <= 0) {
+                    return false;
+                }
+                buffer.position(buffer.position() + read);
+                filled += read;
+            }
+            return true;
+        } finally {
+            buffer.flip();
+        }
+    }
+
+    private int readUnbuffered(byte[] dest, int offset, int count) throws IOException {
+        int read = inputStream.read(dest, offset, count);
+        if (read > 0) {
+            unbuffered += read;
+        }
+        return read;
+    }
+
+    public void close() throws IOException {
+        if (inputStream != null) {
+            inputStream.close();
+        }
+    }
+}
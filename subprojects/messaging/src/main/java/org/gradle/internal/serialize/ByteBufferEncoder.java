@@ -0,0 +1,258 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.serialize;
+
+import org.gradle.api.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * An encoder that writes directly to a {@link ByteBuffer}, which may be a heap or a direct buffer. Produces the same encoding as
+ * {@link org.gradle.internal.serialize.kryo.KryoBackedEncoder}, so the result can be read using either {@link ByteBufferDecoder} or
+ * {@link org.gradle.internal.serialize.kryo.KryoBackedDecoder}.
+ *
+ * <p>When created with an {@link OutputStream}, the buffer is written to the stream whenever it fills up and when this encoder is flushed.
+ * Otherwise, the buffer is replaced with a larger buffer of the same kind as required, and the encoded bytes are available using {@link #getBuffer()}.</p>
+ */
+public class ByteBufferEncoder extends AbstractEncoder implements FlushableEncoder, Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 4096;
+    private static final int MAX_VAR_INT_SIZE = 5;
+    private static final int MAX_VAR_LONG_SIZE = 9;
+
+    private final OutputStream outputStream;
+    private WritableByteChannel channel;
+    private ByteBuffer buffer;
+    private long written;
+
+    /**
+     * Creates an encoder that writes to the given buffer, starting at its current position.
+     */
+    public ByteBufferEncoder(ByteBuffer buffer) {
+        this(buffer, null);
+    }
+
+    public ByteBufferEncoder(OutputStream outputStream) {
+        this(ByteBuffer.allocate(DEFAULT_BUFFER_SIZE), outputStream);
+    }
+
+    public ByteBufferEncoder(ByteBuffer buffer, @Nullable OutputStream outputStream) {
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+        this.outputStream = outputStream;
+    }
+
+    /**
+     * Returns a view of the bytes encoded since this encoder was created or reset, which shares its content with the buffer of this encoder.
+     * The bytes that have already been written to the output stream are not included.
+     */
+    public ByteBuffer getBuffer() {
+        ByteBuffer encoded = buffer.duplicate();
+        encoded.flip();
+        return encoded;
+    }
+
+    /**
+     * Discards the buffered bytes, so that the buffer of this encoder can be reused.
+     */
+    public void reset() {
+        buffer.clear();
+        written = 0;
+    }
+
+    /**
+     * Returns the total number of bytes written by this encoder, some of which may still be buffered.
+     */
+    public long getWritePosition() {
+        return written + buffer.position();
+    }
+
+    public void writeByte(byte value) throws IOException {
+        require(1);
+        buffer.put(value);
+    }
+
+    public void writeBytes(byte[] bytes, int offset, int count) throws IOException {
+        if (outputStream != null && count > buffer.remaining()) {
+            drain();
+            if (count > buffer.remaining()) {
+                // Too large to buffer, so write directly to the stream rather than copying
+                outputStream.write(bytes, offset, count);
+                written += count;
+                return;
+            }
+        }
+        require(count);
+        buffer.put(bytes, offset, count);
+    }
+
+    public void writeLong(long value) throws IOException {
+        require(8);
+        buffer.putLong(value);
+    }
+
+    public void writeSmallLong(long value) throws IOException {
+        require(MAX_VAR_LONG_SIZE);
+        for (int i = 1; i < MAX_VAR_LONG_SIZE; i++) {
+            if ((value & ~0x7FL) == 0) {
+                buffer.put((byte) value);
+                return;
+            }
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        // The last byte holds 8 bits
+        buffer.put((byte) value);
+    }
+
+    public void writeInt(int value) throws IOException {
+        require(4);
+        buffer.putInt(value);
+    }
+
+    public void writeSmallInt(int value) throws IOException {
+        require(MAX_VAR_INT_SIZE);
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public void writeBoolean(boolean value) throws IOException {
+        require(1);
+        buffer.put(value ? (byte) 1 : (byte) 0);
+    }
+
+    public void writeString(CharSequence value) throws IOException {
+        if (value == null) {
+            throw new IllegalArgumentException("Cannot encode a null string.");
+        }
+        writeNullableString(value);
+    }
+
+    public void writeNullableString(@Nullable CharSequence value) throws IOException {
+        if (value == null) {
+            writeByte((byte) 0x80);
+            return;
+        }
+        int charCount = value.length();
+        if (charCount == 0) {
+            writeByte((byte) 0x81);
+            return;
+        }
+        // Always use the length prefixed form, as Kryo does for a CharSequence. Kryo uses a different form for short ASCII strings only when
+        // writing a String, which KryoBackedEncoder never does, and the checksums of persistent cache keys rely on the encoding staying the same
+        writeUtf8Length(charCount + 1);
+
+        int charIndex = 0;
+        if (buffer.remaining() >= charCount) {
+            // Fast path for ASCII characters
+            for (; charIndex < charCount; charIndex++) {
+                char c = value.charAt(charIndex);
+                if (c > 0x7F) {
+                    break;
+                }
+                buffer.put((byte) c);
+            }
+        }
+        for (; charIndex < charCount; charIndex++) {
+            char c = value.charAt(charIndex);
+            if (c <= 0x7F) {
+                require(1);
+                buffer.put((byte) c);
+            } else if (c > 0x7FF) {
+                require(3);
+                buffer.put((byte) (0xE0 | c >> 12 & 0x0F));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else {
+                require(2);
+                buffer.put((byte) (0xC0 | c >> 6 & 0x1F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    private void writeUtf8Length(int value) throws IOException {
+        // Bit 8 of the first byte marks the length, bit 7 marks a continuation. Later bytes use bit 8 to mark a continuation
+        require(MAX_VAR_INT_SIZE);
+        if (value >>> 6 == 0) {
+            buffer.put((byte) (value | 0x80));
+            return;
+        }
+        buffer.put((byte) (value | 0xC0));
+        value >>>= 6;
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void require(int count) throws IOException {
+        if (buffer.remaining() >= count) {
+            return;
+        }
+        if (outputStream != null) {
+            drain();
+            if (buffer.remaining() >= count) {
+                return;
+            }
+        }
+        ByteBuffer larger = buffer.isDirect()
+            ? ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, buffer.position() + count))
+            : ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + count));
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        written += buffer.remaining();
+        if (buffer.hasArray()) {
+            outputStream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+            if (channel == null) {
+                channel = Channels.newChannel(outputStream);
+            }
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        buffer.clear();
+    }
+
+    public void flush() throws IOException {
+        if (outputStream != null) {
+            drain();
+            outputStream.flush();
+        }
+    }
+
+    public void close() throws IOException {
+        if (outputStream != null) {
+            flush();
+            outputStream.close();
+        }
+    }
+}
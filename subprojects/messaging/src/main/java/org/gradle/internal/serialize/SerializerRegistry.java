@@ -28,6 +28,12 @@ public interface SerializerRegistry {
      */
     <T> void useJavaSerialization(Class<T> implementationType);
 
+    /**
+     * Returns true when a serializer can be built for objects of the given type, that is, when a serializer or Java serialization has been registered
+     * for the type or some subtype.
+     */
+    boolean canSerialize(Class<?> baseType);
+
     /**
      * Creates a serializer that uses the current registrations to serialize objects of type T.
      */
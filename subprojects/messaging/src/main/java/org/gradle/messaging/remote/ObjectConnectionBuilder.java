@@ -46,4 +46,10 @@ public interface ObjectConnectionBuilder {
      * Use the specified serializers for all incoming and outgoing method parameters.
      */
     void useParameterSerializers(SerializerRegistry serializers);
+
+    /**
+     * Use Java serialization for the parameters of methods that have a parameter type with no serializer registered with {@link
+     * #useParameterSerializers(SerializerRegistry)}. Without this, such methods fail.
+     */
+    void useJavaSerializationForUnregisteredParameters();
 }
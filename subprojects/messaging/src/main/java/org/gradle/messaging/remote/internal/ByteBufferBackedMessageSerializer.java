@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.messaging.remote.internal;
+
+import org.gradle.internal.serialize.ByteBufferDecoder;
+import org.gradle.internal.serialize.ByteBufferEncoder;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.FlushableEncoder;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class ByteBufferBackedMessageSerializer implements MessageSerializer {
+    @Override
+    public Decoder newDecoder(InputStream inputStream) {
+        return new ByteBufferDecoder(inputStream);
+    }
+
+    @Override
+    public FlushableEncoder newEncoder(OutputStream outputStream) {
+        return new ByteBufferEncoder(outputStream);
+    }
+}
@@ -26,9 +26,14 @@ import org.gradle.messaging.remote.MessagingServer;
 import org.gradle.messaging.remote.internal.hub.MessageHubBackedClient;
 import org.gradle.messaging.remote.internal.hub.MessageHubBackedServer;
 import org.gradle.messaging.remote.internal.inet.InetAddressFactory;
+import org.gradle.messaging.remote.internal.inet.SharedMemoryConnection;
+import org.gradle.messaging.remote.internal.inet.SharedMemoryIncomingConnector;
+import org.gradle.messaging.remote.internal.inet.SharedMemoryOutgoingConnector;
+import org.gradle.messaging.remote.internal.inet.SocketSelector;
 import org.gradle.messaging.remote.internal.inet.TcpIncomingConnector;
 import org.gradle.messaging.remote.internal.inet.TcpOutgoingConnector;
 
+import java.io.File;
 import java.util.UUID;
 
 /**
@@ -57,16 +62,29 @@ public class MessagingServices extends DefaultServiceRegistry implements Stoppab
         return new InetAddressFactory();
     }
 
-    protected OutgoingConnector createOutgoingConnector() {
-        return new TcpOutgoingConnector();
+    protected SocketSelector createSocketSelector(ExecutorFactory executorFactory) {
+        return new SocketSelector(executorFactory);
     }
 
-    protected IncomingConnector createIncomingConnector(ExecutorFactory executorFactory, InetAddressFactory inetAddressFactory) {
-        return new TcpIncomingConnector(
+    protected OutgoingConnector createOutgoingConnector(SocketSelector socketSelector) {
+        OutgoingConnector connector = new TcpOutgoingConnector(SocketSelector.isEnabled() ? socketSelector : null);
+        if (SharedMemoryConnection.isEnabled()) {
+            return new SharedMemoryOutgoingConnector(connector);
+        }
+        return connector;
+    }
+
+    protected IncomingConnector createIncomingConnector(ExecutorFactory executorFactory, InetAddressFactory inetAddressFactory, SocketSelector socketSelector) {
+        IncomingConnector connector = new TcpIncomingConnector(
                 executorFactory,
                 inetAddressFactory,
-                idGenerator
+                idGenerator,
+                SocketSelector.isEnabled() ? socketSelector : null
         );
+        if (SharedMemoryConnection.isEnabled()) {
+            return new SharedMemoryIncomingConnector(connector, new File(System.getProperty("java.io.tmpdir")));
+        }
+        return connector;
     }
 
     protected MessagingClient createMessagingClient(OutgoingConnector outgoingConnector, ExecutorFactory executorFactory) {
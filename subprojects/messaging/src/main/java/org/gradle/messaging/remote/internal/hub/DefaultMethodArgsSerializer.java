@@ -16,17 +16,29 @@
 
 package org.gradle.messaging.remote.internal.hub;
 
+import org.gradle.api.Nullable;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.Serializer;
 import org.gradle.internal.serialize.SerializerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+
+/**
+ * Serializes method arguments using the serializers from a {@link SerializerRegistry}. When a fallback serializer is provided, uses it for the arguments
+ * of methods with any parameter type that the registry does not know how to serialize. Without a fallback, such methods cannot be serialized.
+ */
 class DefaultMethodArgsSerializer implements MethodArgsSerializer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultMethodArgsSerializer.class);
     private static final Object[] ZERO_ARGS = new Object[0];
     private final SerializerRegistry serializers;
+    private final MethodArgsSerializer fallback;
 
-    public DefaultMethodArgsSerializer(SerializerRegistry serializers) {
+    public DefaultMethodArgsSerializer(SerializerRegistry serializers, @Nullable MethodArgsSerializer fallback) {
         this.serializers = serializers;
+        this.fallback = fallback;
     }
 
     @Override
@@ -34,6 +46,12 @@ class DefaultMethodArgsSerializer implements MethodArgsSerializer {
         if (types.length == 0) {
             return new EmptyArraySerializer();
         }
+        for (Class<?> type : types) {
+            if (fallback != null && !this.serializers.canSerialize(type)) {
+                LOGGER.debug("No serializer registered for {}, using fallback for method parameters {}.", type.getName(), Arrays.toString(types));
+                return fallback.forTypes(types);
+            }
+        }
         final Serializer<Object>[] serializers = new Serializer[types.length];
         for (int i = 0; i < types.length; i++) {
             Class<?> type = types[i];
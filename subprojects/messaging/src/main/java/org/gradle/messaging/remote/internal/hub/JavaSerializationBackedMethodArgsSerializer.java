@@ -20,8 +20,13 @@ import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.Serializer;
 import org.gradle.messaging.remote.internal.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
 
 class JavaSerializationBackedMethodArgsSerializer implements MethodArgsSerializer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaSerializationBackedMethodArgsSerializer.class);
     private static final Object[] ZERO_ARGS = new Object[0];
     private final ClassLoader classLoader;
 
@@ -34,6 +39,7 @@ class JavaSerializationBackedMethodArgsSerializer implements MethodArgsSerialize
         if (types.length == 0) {
             return new EmptyArraySerializer();
         }
+        LOGGER.debug("Using Java serialization for method parameters {}.", Arrays.toString(types));
         return new ArraySerializer();
     }
 
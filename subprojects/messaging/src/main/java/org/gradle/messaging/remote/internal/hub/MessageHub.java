@@ -28,6 +28,7 @@ import org.gradle.messaging.remote.internal.hub.queue.EndPointQueue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -42,6 +43,10 @@ public class MessageHub implements AsyncStoppable {
     private enum State {Running, Stopping, Stopped}
 
     private static final Discard DISCARD = new Discard();
+    // Limits on the messages written to a connection between flushes
+    private static final int MAX_BATCH_MESSAGES = 1000;
+    private static final long MAX_BATCH_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long LINGER_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
     private final StoppableExecutor workers;
     private final String displayName;
     private final Action<? super Throwable> errorHandler;
@@ -282,15 +287,34 @@ public class MessageHub implements AsyncStoppable {
                         } finally {
                             lock.unlock();
                         }
-                        for (InterHubMessage message : messages) {
-                            connection.dispatch(message);
-                            if (message instanceof EndOfStream) {
-                                connection.flush();
-                                return;
+                        // Write the messages that arrive while writing a batch before flushing, so that a stream of small messages is
+                        // sent using a few large writes. The connection is flushed as soon as no more messages arrive
+                        long batchStart = System.nanoTime();
+                        int batchSize = 0;
+                        long lingerNanos = 0;
+                        while (!messages.isEmpty()) {
+                            for (InterHubMessage message : messages) {
+                                connection.dispatch(message);
+                                if (message instanceof EndOfStream) {
+                                    connection.flush();
+                                    return;
+                                }
                             }
+                            batchSize += messages.size();
+                            messages.clear();
+                            if (batchSize >= MAX_BATCH_MESSAGES || System.nanoTime() - batchStart >= MAX_BATCH_NANOS) {
+                                break;
+                            }
+                            lock.lock();
+                            try {
+                                queue.poll(messages, lingerNanos);
+                            } finally {
+                                lock.unlock();
+                            }
+                            // Messages are arriving quickly, so wait briefly for the next ones
+                            lingerNanos = LINGER_NANOS;
                         }
                         connection.flush();
-                        messages.clear();
                     }
                 } finally {
                     lock.lock();
@@ -40,6 +40,7 @@ public class MessageHubBackedObjectConnection implements ObjectConnection {
     private RemoteConnection<InterHubMessage> connection;
     private ClassLoader methodParamClassLoader;
     private SerializerRegistry paramSerializers;
+    private boolean javaSerializationForUnregisteredParameters;
 
     public MessageHubBackedObjectConnection(ExecutorFactory executorFactory, ConnectCompletion completion) {
         this.hub = new MessageHub(completion.toString(), executorFactory, new Action<Throwable>() {
@@ -74,16 +75,19 @@ public class MessageHubBackedObjectConnection implements ObjectConnection {
         this.paramSerializers = serializer;
     }
 
+    @Override
+    public void useJavaSerializationForUnregisteredParameters() {
+        javaSerializationForUnregisteredParameters = true;
+    }
+
     public void connect() {
         if (methodParamClassLoader == null) {
             methodParamClassLoader = getClass().getClassLoader();
         }
 
-        MethodArgsSerializer argsSerializer;
+        MethodArgsSerializer argsSerializer = new JavaSerializationBackedMethodArgsSerializer(methodParamClassLoader);
         if (paramSerializers != null) {
-            argsSerializer = new DefaultMethodArgsSerializer(paramSerializers);
-        } else {
-            argsSerializer = new JavaSerializationBackedMethodArgsSerializer(methodParamClassLoader);
+            argsSerializer = new DefaultMethodArgsSerializer(paramSerializers, javaSerializationForUnregisteredParameters ? argsSerializer : null);
         }
 
         StatefulSerializer<InterHubMessage> serializer = new InterHubMessageSerializer(
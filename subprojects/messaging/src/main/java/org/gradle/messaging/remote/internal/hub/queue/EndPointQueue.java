@@ -55,6 +55,25 @@ public class EndPointQueue implements Dispatch<InterHubMessage> {
         queue.clear();
     }
 
+    /**
+     * Takes the queued messages. When there are none, waits up to the given time for messages to arrive.
+     */
+    public void poll(Collection<InterHubMessage> drainTo, long timeoutNanos) {
+        if (queue.isEmpty()) {
+            owner.empty(this);
+            long remaining = timeoutNanos;
+            while (queue.isEmpty() && remaining > 0) {
+                try {
+                    remaining = condition.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        }
+        drainTo.addAll(queue);
+        queue.clear();
+    }
+
     public void stop() {
         owner.stopped(this);
     }
@@ -42,7 +42,9 @@ public class MultiEndPointQueue implements Dispatch<InterHubMessage> {
     }
 
     void empty(EndPointQueue endPointQueue) {
-        waiting.add(endPointQueue);
+        if (!waiting.contains(endPointQueue)) {
+            waiting.add(endPointQueue);
+        }
         flush();
     }
 
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.messaging.remote.internal.inet;
+
+import org.gradle.api.Nullable;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.serialize.StatefulSerializer;
+import org.gradle.messaging.remote.internal.ByteBufferBackedMessageSerializer;
+import org.gradle.messaging.remote.internal.ConnectCompletion;
+import org.gradle.messaging.remote.internal.RemoteConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Negotiates the use of shared memory with the peer before creating the connection. The accepting side creates a file containing a ring buffer for each
+ * direction and sends its location to the connecting side, which maps the file and replies whether it could do so. When either side cannot map the file,
+ * both sides fall back to using the socket for the message data.
+ */
+class SharedMemoryConnectCompletion implements ConnectCompletion {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedMemoryConnectCompletion.class);
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte USE_SOCKET = 0;
+    private static final byte USE_SHARED_MEMORY = 1;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE / 2;
+    private static final int MAX_PATH_LENGTH = 64 * 1024;
+    // Files that could not be deleted yet, because some platforms do not allow a file to be deleted while it is mapped
+    private static final Set<File> UNDELETED_FILES = new LinkedHashSet<File>();
+
+    private final SocketConnectCompletion delegate;
+    private final File tempDir;
+    private final int capacity;
+
+    /**
+     * @param tempDir the directory to create the shared memory file in, or null for the connecting side.
+     */
+    SharedMemoryConnectCompletion(SocketConnectCompletion delegate, @Nullable File tempDir, int capacity) {
+        this.delegate = delegate;
+        this.tempDir = tempDir;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    public <T> RemoteConnection<T> create(StatefulSerializer<T> serializer) {
+        SocketChannel socket = delegate.getSocket();
+        ByteBuffer[] rings;
+        try {
+            rings = tempDir != null ? offer(socket) : answer(socket);
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        if (rings == null) {
+            return delegate.create(serializer);
+        }
+        Stoppable cleanup = null;
+        if (tempDir != null) {
+            cleanup = new Stoppable() {
+                public void stop() {
+                    deleteUndeletedFiles();
+                }
+            };
+        }
+        return new SharedMemoryConnection<T>(socket, rings[0], rings[1], new ByteBufferBackedMessageSerializer(), serializer, cleanup);
+    }
+
+    /**
+     * Returns the outbound and inbound rings for the accepting side, or null when the socket should be used instead.
+     */
+    @Nullable
+    private ByteBuffer[] offer(SocketChannel socket) throws IOException {
+        deleteUndeletedFiles();
+        File file = null;
+        MappedByteBuffer buffer;
+        try {
+            file = File.createTempFile("gradle-worker-", ".ring", tempDir);
+            buffer = map(file, capacity);
+        } catch (IOException e) {
+            LOGGER.debug("Could not create shared memory for {}. Using socket instead.", this, e);
+            if (file != null) {
+                delete(file);
+            }
+            writeFully(socket, ByteBuffer.wrap(new byte[]{USE_SOCKET}));
+            return null;
+        }
+        try {
+            byte[] path = file.getAbsolutePath().getBytes(UTF_8);
+            ByteBuffer offer = ByteBuffer.allocate(9 + path.length);
+            offer.put(USE_SHARED_MEMORY);
+            offer.putInt(capacity);
+            offer.putInt(path.length);
+            offer.put(path);
+            offer.flip();
+            writeFully(socket, offer);
+            if (readFully(socket, 1).get() != USE_SHARED_MEMORY) {
+                return null;
+            }
+            return rings(buffer, 0);
+        } finally {
+            // Both sides have mapped the file by now, or will not use it
+            delete(file);
+        }
+    }
+
+    /**
+     * Returns the outbound and inbound rings for the connecting side, or null when the socket should be used instead.
+     */
+    @Nullable
+    private ByteBuffer[] answer(SocketChannel socket) throws IOException {
+        if (readFully(socket, 1).get() != USE_SHARED_MEMORY) {
+            return null;
+        }
+        ByteBuffer header = readFully(socket, 8);
+        int capacity = header.getInt();
+        int pathLength = header.getInt();
+        if (pathLength < 1 || pathLength > MAX_PATH_LENGTH) {
+            // Cannot tell where the offer ends, so cannot continue using the socket either
+            throw new IOException(String.format("Received invalid shared memory offer for %s.", this));
+        }
+        byte[] path = new byte[pathLength];
+        readFully(socket, path.length).get(path);
+        File file = new File(new String(path, UTF_8));
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            LOGGER.debug("Received invalid shared memory capacity {} for {}. Using socket instead.", capacity, this);
+            writeFully(socket, ByteBuffer.wrap(new byte[]{USE_SOCKET}));
+            return null;
+        }
+        MappedByteBuffer buffer;
+        try {
+            buffer = map(file, capacity);
+        } catch (IOException e) {
+            LOGGER.debug("Could not map shared memory file {} for {}. Using socket instead.", file, this, e);
+            writeFully(socket, ByteBuffer.wrap(new byte[]{USE_SOCKET}));
+            return null;
+        }
+        writeFully(socket, ByteBuffer.wrap(new byte[]{USE_SHARED_MEMORY}));
+        return rings(buffer, 1);
+    }
+
+    private static ByteBuffer[] rings(MappedByteBuffer buffer, int outboundIndex) {
+        int capacity = buffer.capacity() / 2;
+        ByteBuffer[] rings = new ByteBuffer[2];
+        for (int i = 0; i < 2; i++) {
+            ByteBuffer ring = buffer.duplicate();
+            ring.position(i * capacity);
+            ring.limit((i + 1) * capacity);
+            rings[i == outboundIndex ? 0 : 1] = ring.slice();
+        }
+        return rings;
+    }
+
+    private static MappedByteBuffer map(File file, int capacity) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.setLength(2L * capacity);
+            // The mapping remains valid after the file is closed
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, 2L * capacity);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static void delete(File file) {
+        if (!file.delete() && file.exists()) {
+            // Try again when a connection is created or stopped, as the mappings may have been released by then
+            synchronized (UNDELETED_FILES) {
+                UNDELETED_FILES.add(file);
+            }
+        }
+    }
+
+    private static void deleteUndeletedFiles() {
+        synchronized (UNDELETED_FILES) {
+            for (Iterator<File> iterator = UNDELETED_FILES.iterator(); iterator.hasNext();) {
+                File file = iterator.next();
+                if (file.delete() || !file.exists()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private static void writeFully(SocketChannel socket, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            socket.write(buffer);
+        }
+    }
+
+    private static ByteBuffer readFully(SocketChannel socket, int count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(count);
+        while (buffer.hasRemaining()) {
+            if (socket.read(buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.messaging.remote.internal.inet;
+
+import org.gradle.api.Nullable;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.ObjectReader;
+import org.gradle.internal.serialize.ObjectWriter;
+import org.gradle.internal.serialize.StatefulSerializer;
+import org.gradle.messaging.remote.internal.MessageIOException;
+import org.gradle.messaging.remote.internal.MessageSerializer;
+import org.gradle.messaging.remote.internal.RemoteConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A connection between two processes on the same machine, which transfers the message data through a pair of ring buffers in a memory-mapped file.
+ *
+ * <p>A socket between the processes is used to tell the peer how much data has been written to or consumed from a ring buffer, and to detect when the
+ * peer has gone away. Each side only reads data from the shared memory after being told about it over the socket, and only reuses space after being
+ * told that the peer has consumed it, so no memory barriers other than those implied by the socket calls are required.</p>
+ */
+public class SharedMemoryConnection<T> implements RemoteConnection<T> {
+    /**
+     * The system property that enables the use of shared memory for connections between the build process and its worker processes.
+     */
+    public static final String ENABLED_PROPERTY = "org.gradle.messaging.shared.memory";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedMemoryConnection.class);
+    private static final byte DATA_WRITTEN = 1;
+    private static final byte DATA_CONSUMED = 2;
+
+    private final SocketChannel socket;
+    private final SocketInetAddress localAddress;
+    private final SocketInetAddress remoteAddress;
+    private final int capacity;
+    private final RingInputStream instr;
+    private final RingOutputStream outstr;
+    private final ObjectReader<T> objectReader;
+    private final ObjectWriter<T> objectWriter;
+    private final FlushableEncoder encoder;
+    private final Stoppable resources;
+    private final Object sendLock = new Object();
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(9);
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(9);
+    private final Lock lock = new ReentrantLock();
+    private final Condition signalReceived = lock.newCondition();
+    // The following fields are guarded by lock
+    private long peerWritten;
+    private long peerConsumed;
+    private boolean receiving;
+    private boolean endOfStream;
+    private IOException failure;
+
+    /**
+     * Creates a connection that writes to the outbound ring buffer and reads from the inbound ring buffer. Both buffers must have the same capacity.
+     * The socket must be in blocking mode.
+     */
+    public SharedMemoryConnection(SocketChannel socket, ByteBuffer outbound, ByteBuffer inbound, MessageSerializer streamSerializer, StatefulSerializer<T> messageSerializer) {
+        this(socket, outbound, inbound, streamSerializer, messageSerializer, null);
+    }
+
+    /**
+     * Creates a connection as above, which also stops the given resources when it is stopped.
+     */
+    SharedMemoryConnection(SocketChannel socket, ByteBuffer outbound, ByteBuffer inbound, MessageSerializer streamSerializer, StatefulSerializer<T> messageSerializer,
+                           @Nullable Stoppable resources) {
+        this.socket = socket;
+        this.resources = resources;
+        this.capacity = outbound.capacity();
+        InetSocketAddress localSocketAddress = (InetSocketAddress) socket.socket().getLocalSocketAddress();
+        localAddress = new SocketInetAddress(localSocketAddress.getAddress(), localSocketAddress.getPort());
+        InetSocketAddress remoteSocketAddress = (InetSocketAddress) socket.socket().getRemoteSocketAddress();
+        remoteAddress = new SocketInetAddress(remoteSocketAddress.getAddress(), remoteSocketAddress.getPort());
+        instr = new RingInputStream(inbound);
+        outstr = new RingOutputStream(outbound);
+        objectReader = messageSerializer.newReader(streamSerializer.newDecoder(instr));
+        encoder = streamSerializer.newEncoder(outstr);
+        objectWriter = messageSerializer.newWriter(encoder);
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("shared memory connection from %s to %s", localAddress, remoteAddress);
+    }
+
+    public T receive() throws MessageIOException {
+        try {
+            return objectReader.read();
+        } catch (EOFException e) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Discarding EOFException: {}", e.toString());
+            }
+            return null;
+        } catch (Exception e) {
+            throw new MessageIOException(String.format("Could not read message from '%s'.", remoteAddress), e);
+        }
+    }
+
+    public void dispatch(T message) throws MessageIOException {
+        try {
+            objectWriter.write(message);
+        } catch (Exception e) {
+            throw new MessageIOException(String.format("Could not write message %s to '%s'.", message, remoteAddress), e);
+        }
+    }
+
+    public void flush() throws MessageIOException {
+        try {
+            encoder.flush();
+            outstr.flush();
+        } catch (Exception e) {
+            throw new MessageIOException(String.format("Could not write '%s'.", remoteAddress), e);
+        }
+    }
+
+    public void stop() {
+        CompositeStoppable.stoppable(new Closeable() {
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        }, socket, resources).stop();
+    }
+
+    private void signal(byte type, long value) throws IOException {
+        synchronized (sendLock) {
+            sendBuffer.clear();
+            sendBuffer.put(type);
+            sendBuffer.putLong(value);
+            sendBuffer.flip();
+            while (sendBuffer.hasRemaining()) {
+                socket.write(sendBuffer);
+            }
+        }
+    }
+
+    /**
+     * Blocks until the peer has written (or consumed) more than the given number of bytes, or the socket is closed. Returns the number of bytes the
+     * peer has written (or consumed).
+     */
+    private long awaitPeer(boolean written, long target) throws IOException {
+        while (true) {
+            lock.lock();
+            try {
+                long value = written ? peerWritten : peerConsumed;
+                if (value > target) {
+                    return value;
+                }
+                if (endOfStream) {
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    return value;
+                }
+                if (receiving) {
+                    // Another thread is reading from the socket, so wait for it
+                    signalReceived.await();
+                    continue;
+                }
+                receiving = true;
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } finally {
+                lock.unlock();
+            }
+            try {
+                receiveSignal();
+            } finally {
+                lock.lock();
+                try {
+                    receiving = false;
+                    signalReceived.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void receiveSignal() {
+        receiveBuffer.clear();
+        try {
+            while (receiveBuffer.hasRemaining()) {
+                if (socket.read(receiveBuffer) < 0) {
+                    endOfStream(null);
+                    return;
+                }
+            }
+        } catch (ClosedChannelException e) {
+            endOfStream(null);
+            return;
+        } catch (IOException e) {
+            endOfStream(SocketConnection.isEndOfStream(e) ? null : e);
+            return;
+        }
+        receiveBuffer.flip();
+        byte type = receiveBuffer.get();
+        long value = receiveBuffer.getLong();
+        lock.lock();
+        try {
+            if (type == DATA_WRITTEN) {
+                peerWritten = value;
+            } else {
+                peerConsumed = value;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void endOfStream(IOException failure) {
+        lock.lock();
+        try {
+            endOfStream = true;
+            this.failure = failure;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private class RingInputStream extends InputStream {
+        private final ByteBuffer ring;
+        private final byte[] readBuffer = new byte[1];
+        private long consumed;
+        private long acknowledged;
+
+        RingInputStream(ByteBuffer ring) {
+            this.ring = ring;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int nread = read(readBuffer, 0, 1);
+            if (nread <= 0) {
+                return nread;
+            }
+            return readBuffer[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] dest, int offset, int max) throws IOException {
+            if (max == 0) {
+                return 0;
+            }
+            long available = awaitPeer(true, consumed) - consumed;
+            if (available <= 0) {
+                return -1;
+            }
+            int position = (int) (consumed % capacity);
+            int count = (int) Math.min(Math.min(max, available), capacity - position);
+            ring.position(position);
+            ring.get(dest, offset, count);
+            consumed += count;
+            if (consumed - acknowledged >= capacity / 4) {
+                acknowledged = consumed;
+                try {
+                    signal(DATA_CONSUMED, consumed);
+                } catch (IOException e) {
+                    // The peer may have closed the connection after writing its final messages, so continue reading
+                    LOGGER.debug("Could not signal consumed data to peer.", e);
+                }
+            }
+            return count;
+        }
+    }
+
+    private class RingOutputStream extends OutputStream {
+        private final ByteBuffer ring;
+        private final byte[] writeBuffer = new byte[1];
+        private long written;
+        private long published;
+        private long consumed;
+
+        RingOutputStream(ByteBuffer ring) {
+            this.ring = ring;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            writeBuffer[0] = (byte) b;
+            write(writeBuffer, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] src, int offset, int max) throws IOException {
+            int remaining = max;
+            int currentPos = offset;
+            while (remaining > 0) {
+                long free = capacity - (written - consumed);
+                if (free == 0) {
+                    // The ring buffer is full: make sure the peer knows about the data, then wait for the peer to consume some of it
+                    flush();
+                    consumed = awaitPeer(false, consumed);
+                    if (written - consumed == capacity) {
+                        throw new EOFException();
+                    }
+                    continue;
+                }
+                int position = (int) (written % capacity);
+                int count = (int) Math.min(Math.min(remaining, free), capacity - position);
+                ring.position(position);
+                ring.put(src, currentPos, count);
+                written += count;
+                currentPos += count;
+                remaining -= count;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (written != published) {
+                signal(DATA_WRITTEN, written);
+                published = written;
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.messaging.remote.internal.inet;
+
+import org.gradle.api.Action;
+import org.gradle.messaging.remote.ConnectionAcceptor;
+import org.gradle.messaging.remote.internal.ConnectCompletion;
+import org.gradle.messaging.remote.internal.IncomingConnector;
+
+import java.io.File;
+
+/**
+ * Accepts TCP connections from processes on the local machine, and offers each of them a {@link SharedMemoryConnection}. Connections from remote
+ * machines use the socket only.
+ */
+public class SharedMemoryIncomingConnector implements IncomingConnector {
+    static final int DEFAULT_CAPACITY = 1024 * 1024;
+    private final IncomingConnector connector;
+    private final File tempDir;
+
+    public SharedMemoryIncomingConnector(IncomingConnector connector, File tempDir) {
+        this.connector = connector;
+        this.tempDir = tempDir;
+    }
+
+    public ConnectionAcceptor accept(final Action<ConnectCompletion> action, boolean allowRemote) {
+        if (allowRemote) {
+            return connector.accept(action, true);
+        }
+        return connector.accept(new Action<ConnectCompletion>() {
+            public void execute(ConnectCompletion completion) {
+                action.execute(new SharedMemoryConnectCompletion((SocketConnectCompletion) completion, tempDir, DEFAULT_CAPACITY));
+            }
+        }, false);
+    }
+}
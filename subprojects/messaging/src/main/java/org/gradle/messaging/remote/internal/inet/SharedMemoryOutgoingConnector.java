@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.messaging.remote.internal.inet;
+
+import org.gradle.messaging.remote.Address;
+import org.gradle.messaging.remote.internal.ConnectCompletion;
+import org.gradle.messaging.remote.internal.ConnectException;
+import org.gradle.messaging.remote.internal.OutgoingConnector;
+
+/**
+ * Makes TCP connections to a {@link SharedMemoryIncomingConnector}, and uses shared memory for the connection when the accepting side offers it.
+ */
+public class SharedMemoryOutgoingConnector implements OutgoingConnector {
+    private final OutgoingConnector connector;
+
+    public SharedMemoryOutgoingConnector(OutgoingConnector connector) {
+        this.connector = connector;
+    }
+
+    public ConnectCompletion connect(Address destinationAddress) throws ConnectException {
+        return new SharedMemoryConnectCompletion((SocketConnectCompletion) connector.connect(destinationAddress), null, 0);
+    }
+}
@@ -16,18 +16,25 @@
 
 package org.gradle.messaging.remote.internal.inet;
 
+import org.gradle.api.Nullable;
 import org.gradle.internal.serialize.StatefulSerializer;
+import org.gradle.messaging.remote.internal.ByteBufferBackedMessageSerializer;
 import org.gradle.messaging.remote.internal.ConnectCompletion;
-import org.gradle.messaging.remote.internal.KryoBackedMessageSerializer;
 import org.gradle.messaging.remote.internal.RemoteConnection;
 
 import java.nio.channels.SocketChannel;
 
 class SocketConnectCompletion implements ConnectCompletion {
     private final SocketChannel socket;
+    private final SocketSelector selector;
 
-    public SocketConnectCompletion(SocketChannel socket) {
+    public SocketConnectCompletion(SocketChannel socket, @Nullable SocketSelector selector) {
         this.socket = socket;
+        this.selector = selector;
+    }
+
+    SocketChannel getSocket() {
+        return socket;
     }
 
     @Override
@@ -36,6 +43,6 @@ class SocketConnectCompletion implements ConnectCompletion {
     }
 
     public <T> RemoteConnection<T> create(StatefulSerializer<T> serializer) {
-        return new SocketConnection<T>(socket, new KryoBackedMessageSerializer(), serializer);
+        return new SocketConnection<T>(socket, new ByteBufferBackedMessageSerializer(), serializer, selector);
     }
 }
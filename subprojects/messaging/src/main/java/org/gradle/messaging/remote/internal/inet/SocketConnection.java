@@ -17,6 +17,7 @@
 package org.gradle.messaging.remote.internal.inet;
 
 import com.google.common.base.Objects;
+import org.gradle.api.Nullable;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.serialize.FlushableEncoder;
@@ -49,13 +50,26 @@ public class SocketConnection<T> implements RemoteConnection<T> {
     private final FlushableEncoder encoder;
 
     public SocketConnection(SocketChannel socket, MessageSerializer streamSerializer, StatefulSerializer<T> messageSerializer) {
+        this(socket, streamSerializer, messageSerializer, null);
+    }
+
+    /**
+     * Creates a connection that uses the given selector to wait for the socket, when not null. Otherwise, the connection uses its own selectors.
+     */
+    public SocketConnection(SocketChannel socket, MessageSerializer streamSerializer, StatefulSerializer<T> messageSerializer, @Nullable SocketSelector selector) {
         this.socket = socket;
         try {
             // NOTE: we use non-blocking IO as there is no reliable way when using blocking IO to shutdown reads while
             // keeping writes active. For example, Socket.shutdownInput() does not work on Windows.
             socket.configureBlocking(false);
-            outstr = new SocketOutputStream(socket);
-            instr = new SocketInputStream(socket);
+            if (selector != null) {
+                SocketSelector.Registration registration = selector.register(socket);
+                outstr = new SocketOutputStream(socket, registration);
+                instr = registration.getInputStream();
+            } else {
+                outstr = new SocketOutputStream(socket, null);
+                instr = new SocketInputStream(socket);
+            }
         } catch (IOException e) {
             throw UncheckedException.throwAsUncheckedException(e);
         }
@@ -86,7 +100,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         }
     }
 
-    private static boolean isEndOfStream(Exception e) {
+    static boolean isEndOfStream(Exception e) {
         if (e instanceof EOFException) {
             return true;
         }
@@ -204,11 +218,13 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         private static final int RETRIES_WHEN_BUFFER_FULL = 2;
         private Selector selector;
         private final SocketChannel socket;
+        private final SocketSelector.Registration registration;
         private final ByteBuffer buffer;
         private final byte[] writeBuffer = new byte[1];
 
-        public SocketOutputStream(SocketChannel socket) throws IOException {
+        public SocketOutputStream(SocketChannel socket, @Nullable SocketSelector.Registration registration) throws IOException {
             this.socket = socket;
+            this.registration = registration;
             buffer = ByteBuffer.allocateDirect(32 * 1024);
         }
 
@@ -268,6 +284,10 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         }
 
         private void waitForWriteBufferToDrain() throws IOException {
+            if (registration != null) {
+                registration.awaitWritable();
+                return;
+            }
             if (selector == null) {
                 selector = Selector.open();
             }
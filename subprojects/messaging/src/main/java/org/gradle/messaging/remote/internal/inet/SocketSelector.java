@@ -0,0 +1,402 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.messaging.remote.internal.inet;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Multiplexes the socket I/O of any number of connections onto a single selector thread. The selector thread reads incoming data into a buffer for each
+ * connection, and wakes up threads that are waiting to read from or write to a connection. The connections continue to provide blocking streams, and use
+ * the same wire format as connections that do not use a selector.
+ *
+ * <p>This replaces the selector that each connection would otherwise open for itself, and means that a thread waiting to read from a connection waits on
+ * a lock rather than in a system call.</p>
+ */
+public class SocketSelector implements Stoppable {
+    /**
+     * The system property that enables the use of a shared selector by the TCP connectors.
+     */
+    public static final String ENABLED_PROPERTY = "org.gradle.messaging.socket.selector";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SocketSelector.class);
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final ExecutorFactory executorFactory;
+    private final Lock lock = new ReentrantLock();
+    private final Set<Registration> pending = new LinkedHashSet<Registration>();
+    private Selector selector;
+    private StoppableExecutor executor;
+    private boolean stopped;
+
+    public SocketSelector(ExecutorFactory executorFactory) {
+        this.executorFactory = executorFactory;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Registers the given channel with this selector. The channel must be in non-blocking mode.
+     */
+    public Registration register(SocketChannel channel) throws IOException {
+        Registration registration = new Registration(channel);
+        lock.lock();
+        try {
+            if (stopped) {
+                throw new IllegalStateException("This socket selector has been stopped.");
+            }
+            if (selector == null) {
+                selector = Selector.open();
+                executor = executorFactory.create("Socket selector");
+                executor.execute(new SelectLoop(selector));
+            }
+            pending.add(registration);
+            selector.wakeup();
+        } finally {
+            lock.unlock();
+        }
+        return registration;
+    }
+
+    private void update(Registration registration) {
+        lock.lock();
+        try {
+            if (selector != null && !stopped) {
+                pending.add(registration);
+                selector.wakeup();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void stop() {
+        StoppableExecutor executor;
+        lock.lock();
+        try {
+            stopped = true;
+            if (selector != null) {
+                selector.wakeup();
+            }
+            executor = this.executor;
+        } finally {
+            lock.unlock();
+        }
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+
+    private class SelectLoop implements Runnable {
+        private final Selector selector;
+
+        SelectLoop(Selector selector) {
+            this.selector = selector;
+        }
+
+        public void run() {
+            try {
+                while (applyChanges()) {
+                    selector.select();
+                    Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                    while (iterator.hasNext()) {
+                        SelectionKey key = iterator.next();
+                        iterator.remove();
+                        ((Registration) key.attachment()).ready(key);
+                    }
+                }
+            } catch (Throwable t) {
+                LOGGER.error("Could not select on socket connections.", t);
+            } finally {
+                List<Registration> registrations = new ArrayList<Registration>();
+                lock.lock();
+                try {
+                    stopped = true;
+                    registrations.addAll(pending);
+                    pending.clear();
+                } finally {
+                    lock.unlock();
+                }
+                for (SelectionKey key : selector.keys()) {
+                    registrations.add((Registration) key.attachment());
+                }
+                for (Registration registration : registrations) {
+                    registration.stopped();
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    LOGGER.debug("Could not close selector.", e);
+                }
+            }
+        }
+
+        /**
+         * Applies pending registrations and interest changes. Returns false when this selector has been stopped.
+         */
+        private boolean applyChanges() {
+            List<Registration> changes;
+            lock.lock();
+            try {
+                if (stopped) {
+                    return false;
+                }
+                changes = new ArrayList<Registration>(pending);
+                pending.clear();
+            } finally {
+                lock.unlock();
+            }
+            for (Registration registration : changes) {
+                registration.apply(selector);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The state of a channel that is registered with the selector.
+     */
+    public class Registration {
+        private final SocketChannel channel;
+        private final Lock stateLock = new ReentrantLock();
+        private final Condition stateChanged = stateLock.newCondition();
+        // Data read from the channel, in write mode
+        private final ByteBuffer incoming = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private final InputStream inputStream = new SelectorInputStream();
+        private SelectionKey key;
+        private IOException failure;
+        private boolean endOfStream;
+        // The channel is no longer registered with the selector
+        private boolean disconnected;
+        private boolean closed;
+        private boolean waitingForWrite;
+
+        Registration(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Returns a stream that reads the data that the selector has received from the channel. The stream blocks until data is available.
+         */
+        public InputStream getInputStream() {
+            return inputStream;
+        }
+
+        /**
+         * Blocks until the channel can accept more data, or the channel is closed.
+         */
+        public void awaitWritable() throws IOException {
+            stateLock.lock();
+            try {
+                waitingForWrite = true;
+            } finally {
+                stateLock.unlock();
+            }
+            update(this);
+            stateLock.lock();
+            try {
+                while (waitingForWrite && !closed && !disconnected) {
+                    stateChanged.await();
+                }
+                waitingForWrite = false;
+                if (closed || disconnected) {
+                    throw new ClosedChannelException();
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } finally {
+                stateLock.unlock();
+            }
+        }
+
+        private int interestOps() {
+            int ops = 0;
+            if (!endOfStream && incoming.hasRemaining()) {
+                ops |= SelectionKey.OP_READ;
+            }
+            if (waitingForWrite) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            return ops;
+        }
+
+        void apply(Selector selector) {
+            stateLock.lock();
+            try {
+                if (closed) {
+                    if (key != null) {
+                        key.cancel();
+                    }
+                    return;
+                }
+                if (key == null) {
+                    key = channel.register(selector, interestOps(), this);
+                } else {
+                    key.interestOps(interestOps());
+                }
+            } catch (ClosedChannelException e) {
+                disconnected();
+            } catch (CancelledKeyException e) {
+                disconnected();
+            } finally {
+                stateLock.unlock();
+            }
+        }
+
+        void ready(SelectionKey key) {
+            stateLock.lock();
+            try {
+                if (!key.isValid()) {
+                    disconnected();
+                    return;
+                }
+                if (key.isReadable()) {
+                    read();
+                }
+                if (key.isWritable()) {
+                    waitingForWrite = false;
+                }
+                if (key.isValid()) {
+                    key.interestOps(interestOps());
+                }
+            } catch (CancelledKeyException e) {
+                disconnected();
+            } finally {
+                stateChanged.signalAll();
+                stateLock.unlock();
+            }
+        }
+
+        private void read() {
+            try {
+                if (channel.read(incoming) < 0) {
+                    endOfStream = true;
+                }
+            } catch (IOException e) {
+                if (!SocketConnection.isEndOfStream(e)) {
+                    failure = e;
+                }
+                endOfStream = true;
+            }
+        }
+
+        void stopped() {
+            stateLock.lock();
+            try {
+                disconnected();
+            } finally {
+                stateLock.unlock();
+            }
+        }
+
+        private void disconnected() {
+            disconnected = true;
+            endOfStream = true;
+            stateChanged.signalAll();
+        }
+
+        /**
+         * Stops reading from the channel and removes the channel from the selector. Does not close the channel.
+         */
+        public void close() {
+            stateLock.lock();
+            try {
+                closed = true;
+                stateChanged.signalAll();
+            } finally {
+                stateLock.unlock();
+            }
+            update(this);
+        }
+
+        private class SelectorInputStream extends InputStream {
+            private final byte[] readBuffer = new byte[1];
+
+            @Override
+            public int read() throws IOException {
+                int nread = read(readBuffer, 0, 1);
+                if (nread <= 0) {
+                    return nread;
+                }
+                return readBuffer[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] dest, int offset, int max) throws IOException {
+                if (max == 0) {
+                    return 0;
+                }
+                boolean resume;
+                int count;
+                stateLock.lock();
+                try {
+                    while (incoming.position() == 0 && !endOfStream && !closed) {
+                        stateChanged.await();
+                    }
+                    if (incoming.position() == 0 || closed) {
+                        if (failure != null && !closed) {
+                            throw failure;
+                        }
+                        return -1;
+                    }
+                    // The selector stops reading when the buffer is full, so start it reading again once some space has been made
+                    resume = !incoming.hasRemaining() && !endOfStream;
+                    incoming.flip();
+                    count = Math.min(incoming.remaining(), max);
+                    incoming.get(dest, offset, count);
+                    incoming.compact();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                } finally {
+                    stateLock.unlock();
+                }
+                if (resume) {
+                    update(Registration.this);
+                }
+                return count;
+            }
+
+            @Override
+            public void close() {
+                Registration.this.close();
+            }
+        }
+    }
+}
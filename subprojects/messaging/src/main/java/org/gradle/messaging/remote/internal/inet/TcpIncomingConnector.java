@@ -17,6 +17,7 @@
 package org.gradle.messaging.remote.internal.inet;
 
 import org.gradle.api.Action;
+import org.gradle.api.Nullable;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.concurrent.ExecutorFactory;
@@ -41,11 +42,20 @@ public class TcpIncomingConnector implements IncomingConnector {
     private final ExecutorFactory executorFactory;
     private final InetAddressFactory addressFactory;
     private final IdGenerator<UUID> idGenerator;
+    private final SocketSelector selector;
 
     public TcpIncomingConnector(ExecutorFactory executorFactory, InetAddressFactory addressFactory, IdGenerator<UUID> idGenerator) {
+        this(executorFactory, addressFactory, idGenerator, null);
+    }
+
+    /**
+     * Creates a connector whose connections use the given selector, when not null.
+     */
+    public TcpIncomingConnector(ExecutorFactory executorFactory, InetAddressFactory addressFactory, IdGenerator<UUID> idGenerator, @Nullable SocketSelector selector) {
         this.executorFactory = executorFactory;
         this.addressFactory = addressFactory;
         this.idGenerator = idGenerator;
+        this.selector = selector;
     }
 
     public ConnectionAcceptor accept(Action<ConnectCompletion> action, boolean allowRemote) {
@@ -108,7 +118,7 @@ public class TcpIncomingConnector implements IncomingConnector {
                         }
                         LOGGER.debug("Accepted connection from {} to {}.", socket.socket().getRemoteSocketAddress(), socket.socket().getLocalSocketAddress());
                         try {
-                            action.execute(new SocketConnectCompletion(socket));
+                            action.execute(new SocketConnectCompletion(socket, selector));
                         } catch (Throwable t) {
                             socket.close();
                             throw t;
@@ -16,6 +16,7 @@
 
 package org.gradle.messaging.remote.internal.inet;
 
+import org.gradle.api.Nullable;
 import org.gradle.internal.UncheckedException;
 import org.gradle.messaging.remote.Address;
 import org.gradle.messaging.remote.internal.ConnectCompletion;
@@ -32,6 +33,18 @@ import java.util.List;
 public class TcpOutgoingConnector implements OutgoingConnector {
     private static final Logger LOGGER = LoggerFactory.getLogger(TcpOutgoingConnector.class);
     private static final int CONNECT_TIMEOUT = 10000;
+    private final SocketSelector selector;
+
+    public TcpOutgoingConnector() {
+        this(null);
+    }
+
+    /**
+     * Creates a connector whose connections use the given selector, when not null.
+     */
+    public TcpOutgoingConnector(@Nullable SocketSelector selector) {
+        this.selector = selector;
+    }
 
     public ConnectCompletion connect(Address destinationAddress) throws ConnectException {
         if (!(destinationAddress instanceof InetEndpoint)) {
@@ -62,7 +75,7 @@ public class TcpOutgoingConnector implements OutgoingConnector {
                     continue;
                 }
                 LOGGER.debug("Connected to address {}.", socketChannel.socket().getRemoteSocketAddress());
-                return new SocketConnectCompletion(socketChannel);
+                return new SocketConnectCompletion(socketChannel, selector);
             }
             throw new ConnectException(String.format("Could not connect to server %s. Tried addresses: %s.",
                     destinationAddress, candidateAddresses), lastFailure);
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.serialize
+
+import com.esotericsoftware.kryo.io.Output
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder
+
+import java.nio.ByteBuffer
+
+class ByteBufferCodecTest extends AbstractCodecTest {
+    @Override
+    void encodeTo(OutputStream outputStream, Closure<Encoder> closure) {
+        def encoder = new ByteBufferEncoder(ByteBuffer.allocate(10), outputStream)
+        closure.call(encoder)
+        encoder.flush()
+    }
+
+    @Override
+    void decodeFrom(InputStream inputStream, Closure<Decoder> closure) {
+        def decoder = new ByteBufferDecoder(inputStream, 10)
+        closure.call(decoder)
+    }
+
+    def "encodes to a growable buffer and decodes from a direct buffer"() {
+        def encoder = new ByteBufferEncoder(ByteBuffer.allocate(4))
+
+        when:
+        encoder.writeString("some string")
+        encoder.writeSmallLong(Long.MAX_VALUE)
+        encoder.writeBinary(new byte[100])
+        def encoded = encoder.buffer
+        def direct = ByteBuffer.allocateDirect(encoded.remaining())
+        direct.put(encoded)
+        direct.flip()
+        def decoder = new ByteBufferDecoder(direct)
+
+        then:
+        encoder.writePosition == 122
+        decoder.readString() == "some string"
+        decoder.readSmallLong() == Long.MAX_VALUE
+        decoder.readBinary() == new byte[100]
+        decoder.readPosition == 122
+        direct.position() == 0
+    }
+
+    def "produces the same encoding as the Kryo backed encoder"() {
+        def write = { Encoder encoder ->
+            encoder.writeInt(-12)
+            encoder.writeLong(Long.MIN_VALUE)
+            encoder.writeSmallInt(Integer.MIN_VALUE)
+            encoder.writeSmallInt(300)
+            encoder.writeSmallLong(-1)
+            encoder.writeSmallLong(1L << 40)
+            encoder.writeBoolean(true)
+            encoder.writeString("\u0000\u0101\u3100")
+            encoder.writeString((0..1000).join("-"))
+            encoder.writeString("a")
+            encoder.writeString("org.gradle")
+            encoder.writeString("a" * 63)
+            encoder.writeString("a" * 64)
+            encoder.writeNullableString(null)
+            encoder.writeNullableString("")
+            encoder.writeBinary([1, 2, 3] as byte[])
+        }
+        def kryoBytes = new ByteArrayOutputStream()
+        def kryoEncoder = new KryoBackedEncoder(kryoBytes)
+        write(kryoEncoder)
+        kryoEncoder.flush()
+
+        when:
+        def bytes = new ByteArrayOutputStream()
+        def encoder = new ByteBufferEncoder(bytes)
+        write(encoder)
+        encoder.flush()
+
+        then:
+        bytes.toByteArray() == kryoBytes.toByteArray()
+
+        when:
+        def decoder = new ByteBufferDecoder(ByteBuffer.wrap(kryoBytes.toByteArray()))
+
+        then:
+        decoder.readInt() == -12
+        decoder.readLong() == Long.MIN_VALUE
+        decoder.readSmallInt() == Integer.MIN_VALUE
+        decoder.readSmallInt() == 300
+        decoder.readSmallLong() == -1
+        decoder.readSmallLong() == 1L << 40
+        decoder.readBoolean()
+        decoder.readString() == "\u0000\u0101\u3100"
+        decoder.readString() == (0..1000).join("-")
+        decoder.readString() == "a"
+        decoder.readString() == "org.gradle"
+        decoder.readString() == "a" * 63
+        decoder.readString() == "a" * 64
+        decoder.readNullableString() == null
+        decoder.readNullableString() == ""
+        decoder.readBinary() == [1, 2, 3] as byte[]
+
+        when:
+        def kryoDecoder = new KryoBackedDecoder(new ByteArrayInputStream(bytes.toByteArray()))
+
+        then:
+        kryoDecoder.readInt() == -12
+        kryoDecoder.readLong() == Long.MIN_VALUE
+        kryoDecoder.readSmallInt() == Integer.MIN_VALUE
+    }
+
+    def "encodes short ascii strings in the same length prefixed form as the Kryo backed encoder"() {
+        // The checksums of the keys of existing persistent caches are calculated from this encoding, so it must not change
+        def kryoBytes = new ByteArrayOutputStream()
+        def kryoEncoder = new KryoBackedEncoder(kryoBytes)
+        kryoEncoder.writeString("org.gradle")
+        kryoEncoder.flush()
+        def encoder = new ByteBufferEncoder(ByteBuffer.allocate(64))
+        encoder.writeString("org.gradle")
+
+        expect:
+        def expected = [0x8b, 0x6f, 0x72, 0x67, 0x2e, 0x67, 0x72, 0x61, 0x64, 0x6c, 0x65] as byte[]
+        kryoBytes.toByteArray() == expected
+        toArray(encoder.buffer) == expected
+    }
+
+    def "decodes strings written using the ascii form of Kryo"() {
+        def output = new Output(64)
+        output.writeString("org.gradle")
+        output.writeString("a" * 63)
+        output.writeString("ab")
+        def decoder = new ByteBufferDecoder(ByteBuffer.wrap(output.toBytes()))
+
+        expect:
+        output.toBytes()[9] == (byte) 0xe5
+        decoder.readString() == "org.gradle"
+        decoder.readString() == "a" * 63
+        decoder.readString() == "ab"
+    }
+
+    def "decodes repeated ascii strings to the same instance"() {
+        def encoder = new ByteBufferEncoder(ByteBuffer.allocate(64))
+        encoder.writeString("org.gradle")
+        encoder.writeString("org.gradle")
+        encoder.writeString("org.other")
+        def decoder = new ByteBufferDecoder(encoder.buffer)
+
+        expect:
+        def first = decoder.readString()
+        def second = decoder.readString()
+        first == "org.gradle"
+        second.is(first)
+        decoder.readString() == "org.other"
+    }
+
+    def "writes large byte arrays directly to the stream"() {
+        def outputStream = Mock(OutputStream)
+        def encoder = new ByteBufferEncoder(ByteBuffer.allocate(10), outputStream)
+        def bytes = new byte[100]
+
+        when:
+        encoder.writeByte(1 as byte)
+        encoder.writeBytes(bytes)
+
+        then:
+        1 * outputStream.write(_, 0, 1)
+        1 * outputStream.write(bytes, 0, 100)
+        0 * outputStream._
+        encoder.writePosition == 101
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        def bytes = new byte[buffer.remaining()]
+        buffer.get(bytes)
+        return bytes
+    }
+}
@@ -165,4 +165,19 @@ class DefaultSerializerRegistryTest extends SerializerSpec {
         serialize(123, serializer) == 123
         serialize(123.4, serializer) == 123.4
     }
+
+    def "can query whether a serializer can be built for a type"() {
+        given:
+        def registry = new DefaultSerializerRegistry()
+        registry.register(Long, longSerializer)
+        registry.useJavaSerialization(Integer)
+
+        expect:
+        registry.canSerialize(Long)
+        registry.canSerialize(Integer)
+        registry.canSerialize(Number)
+        registry.canSerialize(Object)
+        !registry.canSerialize(String)
+        !registry.canSerialize(BigDecimal)
+    }
 }
@@ -18,11 +18,13 @@ package org.gradle.messaging.remote.internal.hub
 
 import org.gradle.internal.serialize.BaseSerializerFactory
 import org.gradle.internal.serialize.DefaultSerializerRegistry
+import org.gradle.internal.serialize.Serializer
 import org.gradle.internal.serialize.SerializerSpec
 
 class DefaultMethodArgsSerializerTest extends SerializerSpec {
     def registry = new DefaultSerializerRegistry()
-    def serializer = new DefaultMethodArgsSerializer(registry)
+    def fallback = Mock(MethodArgsSerializer)
+    def serializer = new DefaultMethodArgsSerializer(registry, fallback)
 
     def "serializes an empty args array"() {
         expect:
@@ -40,4 +42,42 @@ class DefaultMethodArgsSerializerTest extends SerializerSpec {
         def arraySerializer = serializer.forTypes([String, Long, String] as Class[])
         serialize(["a", 12L, "b"] as Object[], arraySerializer) == ["a", 12L, "b"] as Object[]
     }
+
+    def "uses fallback for methods with a parameter type that has no registered serializer"() {
+        def fallbackSerializer = Stub(Serializer)
+
+        given:
+        registry.register(String, BaseSerializerFactory.STRING_SERIALIZER)
+
+        when:
+        def arraySerializer = serializer.forTypes([String, BigDecimal] as Class[])
+
+        then:
+        arraySerializer == fallbackSerializer
+        1 * fallback.forTypes([String, BigDecimal] as Class[]) >> fallbackSerializer
+    }
+
+    def "does not use fallback when all parameter types have registered serializers"() {
+        given:
+        registry.register(String, BaseSerializerFactory.STRING_SERIALIZER)
+
+        when:
+        serializer.forTypes([String, Object] as Class[])
+
+        then:
+        0 * fallback._
+    }
+
+    def "fails for methods with a parameter type that has no registered serializer when there is no fallback"() {
+        def serializer = new DefaultMethodArgsSerializer(registry, null)
+
+        given:
+        registry.register(String, BaseSerializerFactory.STRING_SERIALIZER)
+
+        when:
+        serializer.forTypes([String, BigDecimal] as Class[])
+
+        then:
+        thrown(IllegalArgumentException)
+    }
 }
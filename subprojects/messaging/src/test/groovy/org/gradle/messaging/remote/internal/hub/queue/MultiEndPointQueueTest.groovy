@@ -162,4 +162,42 @@ class MultiEndPointQueueTest extends AbstractQueueTest {
         messages.size() == 1
         messages[0] instanceof EndOfStream
     }
+
+    def "poll takes queued messages"() {
+        given:
+        def message1 = unicast()
+        def message2 = unicast()
+        def endpoint = queue.newEndpoint()
+        queue.empty(endpoint)
+        queue.dispatch(message1)
+        queue.dispatch(message2)
+
+        when:
+        def messages = []
+        endpoint.poll(messages, 0)
+
+        then:
+        messages == [message1, message2]
+    }
+
+    def "poll returns nothing when no messages arrive and marks endpoint as waiting"() {
+        given:
+        def message = unicast()
+        def endpoint = queue.newEndpoint()
+
+        when:
+        def messages = []
+        endpoint.poll(messages, 0)
+
+        then:
+        messages.empty
+
+        when:
+        endpoint.poll(messages, 0)
+        queue.dispatch(message)
+        endpoint.poll(messages, 0)
+
+        then:
+        messages == [message]
+    }
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.messaging.remote.internal.inet
+
+import org.gradle.api.Action
+import org.gradle.internal.id.UUIDGenerator
+import org.gradle.internal.serialize.BaseSerializerFactory
+import org.gradle.internal.serialize.Serializers
+import org.gradle.messaging.remote.internal.ConnectCompletion
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Shared
+import spock.lang.Timeout
+import spock.lang.Unroll
+
+import java.nio.ByteBuffer
+import java.nio.channels.ServerSocketChannel
+import java.nio.channels.SocketChannel
+
+@Timeout(60)
+class SharedMemoryConnectionTest extends ConcurrentSpec {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    @Shared def serializer = Serializers.stateful(BaseSerializerFactory.STRING_SERIALIZER)
+    final def outgoingConnector = new SharedMemoryOutgoingConnector(new TcpOutgoingConnector())
+
+    def incomingConnector(File dir) {
+        return new SharedMemoryIncomingConnector(new TcpIncomingConnector(executorFactory, new InetAddressFactory(), new UUIDGenerator()), dir)
+    }
+
+    def "can exchange messages using shared memory"() {
+        def largeMessage = "x" * (SharedMemoryIncomingConnector.DEFAULT_CAPACITY * 3)
+
+        when:
+        def acceptor = incomingConnector(tmpDir.testDirectory).accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            assert connection instanceof SharedMemoryConnection
+            def message
+            while ((message = connection.receive()) != null) {
+                connection.dispatch(message)
+                connection.flush()
+            }
+            connection.stop()
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        connection.dispatch("hello")
+        connection.flush()
+        def first = connection.receive()
+        connection.dispatch(largeMessage)
+        connection.flush()
+        def second = connection.receive()
+
+        then:
+        connection instanceof SharedMemoryConnection
+        first == "hello"
+        second == largeMessage
+        tmpDir.testDirectory.list().length == 0
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "can receive messages from peer after peer has closed connection"() {
+        when:
+        def acceptor = incomingConnector(tmpDir.testDirectory).accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            connection.dispatch("one")
+            connection.dispatch("two")
+            connection.stop()
+            instant.closed
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        thread.blockUntil.closed
+
+        then:
+        connection.receive() == "one"
+        connection.receive() == "two"
+        connection.receive() == null
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "uses socket when shared memory file cannot be created"() {
+        when:
+        def acceptor = incomingConnector(tmpDir.file("missing")).accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            assert connection instanceof SocketConnection
+            connection.dispatch("bye")
+            connection.stop()
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+
+        then:
+        connection instanceof SocketConnection
+        connection.receive() == "bye"
+        connection.receive() == null
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    @Unroll
+    def "uses socket when peer offers invalid capacity #capacity"() {
+        def server = ServerSocketChannel.open()
+        server.socket().bind(new InetSocketAddress(InetAddress.getByName(null), 0))
+        def socket = SocketChannel.open(server.socket().localSocketAddress)
+        def peer = server.accept()
+        def path = tmpDir.file("ring").absolutePath.getBytes("UTF-8")
+        def offer = ByteBuffer.allocate(9 + path.length)
+        offer.put((byte) 1).putInt(capacity).putInt(path.length).put(path).flip()
+        peer.write(offer)
+
+        when:
+        def connection = new SharedMemoryConnectCompletion(new SocketConnectCompletion(socket, null), null, 0).create(serializer)
+        def answer = ByteBuffer.allocate(1)
+        peer.read(answer)
+
+        then:
+        connection instanceof SocketConnection
+        answer.get(0) == (byte) 0
+
+        cleanup:
+        connection?.stop()
+        peer?.close()
+        server?.close()
+
+        where:
+        capacity << [-1, 0, Integer.MAX_VALUE]
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.messaging.remote.internal.inet
+
+import org.gradle.api.Action
+import org.gradle.internal.id.UUIDGenerator
+import org.gradle.internal.serialize.BaseSerializerFactory
+import org.gradle.internal.serialize.Serializers
+import org.gradle.messaging.remote.internal.ConnectCompletion
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import spock.lang.Shared
+import spock.lang.Timeout
+
+@Timeout(60)
+class SocketSelectorTest extends ConcurrentSpec {
+    @Shared def serializer = Serializers.stateful(BaseSerializerFactory.STRING_SERIALIZER)
+    final def selector = new SocketSelector(executorFactory)
+    final def outgoingConnector = new TcpOutgoingConnector(selector)
+    final def incomingConnector = new TcpIncomingConnector(executorFactory, new InetAddressFactory(), new UUIDGenerator(), selector)
+
+    def cleanup() {
+        selector.stop()
+    }
+
+    def "can exchange messages over connections that use a selector"() {
+        def largeMessage = "x" * 200000
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            def message
+            while ((message = connection.receive()) != null) {
+                connection.dispatch(message)
+                connection.flush()
+            }
+            connection.stop()
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        connection.dispatch("hello")
+        connection.flush()
+        def first = connection.receive()
+        connection.dispatch(largeMessage)
+        connection.flush()
+        def second = connection.receive()
+
+        then:
+        first == "hello"
+        second == largeMessage
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "can receive message from peer after peer has closed connection"() {
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            connection.dispatch("bye")
+            connection.stop()
+            instant.closed
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        thread.blockUntil.closed
+
+        then:
+        connection.receive() == "bye"
+        connection.receive() == null
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "receive returns null when connection is stopped"() {
+        given:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            event.create(serializer)
+        } as Action, false)
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+
+        when:
+        async {
+            start {
+                assert connection.receive() == null
+                instant.received
+            }
+            thread.block()
+            instant.stopped
+            connection.stop()
+        }
+
+        then:
+        instant.received > instant.stopped
+
+        cleanup:
+        acceptor?.stop()
+    }
+
+    def "receive returns null when selector is stopped"() {
+        given:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            event.create(serializer)
+        } as Action, false)
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+
+        when:
+        selector.stop()
+
+        then:
+        connection.receive() == null
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+}
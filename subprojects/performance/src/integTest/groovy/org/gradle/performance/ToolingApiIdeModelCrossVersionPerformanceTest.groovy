@@ -146,6 +146,47 @@ class ToolingApiIdeModelCrossVersionPerformanceTest extends AbstractToolingApiCr
         "lotDependencies"        | 400
     }
 
+    @Unroll
+    def "walking IDEA model dependencies of a #template project"() {
+        given:
+
+        experiment(template, "walk $template IdeaProject dependencies") {
+            maxExecutionTimeRegression = millis(maxRegressionTime)
+            action {
+                def model = getModel(tapiClass(IdeaProject))
+                // walk the model several times, so that the cost of calling methods on the model objects dominates
+                10.times {
+                    model.modules.each {
+                        it.contentRoots.each {
+                            withIdeaSources(it.sourceDirectories)
+                            withIdeaSources(it.testDirectories)
+                        }
+                        it.dependencies.each {
+                            it.scope.scope
+                            it.exported
+                            if (tapiClass(ExternalDependency).isAssignableFrom(it.class)) {
+                                it.file
+                                it.source
+                                it.javadoc
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        when:
+        def results = performMeasurements()
+
+        then:
+        noExceptionThrown()
+
+        where:
+        template                 | maxRegressionTime
+        "bigOldJava"             | 100
+        "lotDependencies"        | 400
+    }
+
     private static void forEachEclipseProject(def elm, @DelegatesTo(value=EclipseProject) Closure<?> action) {
         action.delegate = elm
         action.call()
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance
+
+import org.gradle.performance.categories.JavaPerformanceTest
+import org.junit.experimental.categories.Category
+import spock.lang.Unroll
+
+@Category(JavaPerformanceTest)
+class WorkerMessagingPerformanceTest extends AbstractCrossBuildPerformanceTest {
+
+    @Unroll
+    def "#testProject test execution using each worker transport"() {
+        when:
+        runner.testGroup = "worker messaging"
+        runner.testId = "$testProject test execution using each worker transport"
+        runner.buildSpec {
+            projectName(testProject).displayName("socket selector").invocation {
+                tasksToRun("cleanTest", "test").args("-q").gradleOpts("-Dorg.gradle.messaging.socket.selector=true").useDaemon()
+            }
+        }
+        runner.buildSpec {
+            projectName(testProject).displayName("shared memory").invocation {
+                tasksToRun("cleanTest", "test").args("-q").gradleOpts("-Dorg.gradle.messaging.shared.memory=true").useDaemon()
+            }
+        }
+        runner.baseline {
+            projectName(testProject).displayName("socket").invocation {
+                tasksToRun("cleanTest", "test").args("-q").useDaemon()
+            }
+        }
+
+        then:
+        runner.run()
+
+        where:
+        testProject << ["withVerboseJUnit", "withVerboseTestNG"]
+    }
+}
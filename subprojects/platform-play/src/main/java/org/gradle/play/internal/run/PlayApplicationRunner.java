@@ -37,6 +37,7 @@ public class PlayApplicationRunner {
         WorkerProcess process = createWorkerProcess(spec.getProjectPath(), workerFactory, spec, adapter);
         process.start();
 
+        process.getConnection().useParameterSerializers(PlayWorkerProtocolSerializer.create());
         PlayWorkerClient clientCallBack = new PlayWorkerClient();
         process.getConnection().addIncoming(PlayRunWorkerClientProtocol.class, clientCallBack);
         PlayRunWorkerServerProtocol workerServer = process.getConnection().addOutgoing(PlayRunWorkerServerProtocol.class);
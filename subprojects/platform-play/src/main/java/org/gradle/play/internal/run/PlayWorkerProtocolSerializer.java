@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.play.internal.run;
+
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializerRegistry;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SerializerRegistry;
+
+/**
+ * Serializers for the method parameters sent between the build process and a Play worker.
+ */
+public class PlayWorkerProtocolSerializer {
+    public static SerializerRegistry create() {
+        DefaultSerializerRegistry registry = new DefaultSerializerRegistry();
+        registry.register(PlayAppLifecycleUpdate.class, new PlayAppLifecycleUpdateSerializer());
+        registry.register(Throwable.class, BaseSerializerFactory.THROWABLE_SERIALIZER);
+        return registry;
+    }
+
+    private static class PlayAppLifecycleUpdateSerializer implements Serializer<PlayAppLifecycleUpdate> {
+        private static final byte STOPPED = 0;
+        private static final byte RUNNING = 1;
+        private static final byte FAILED = 2;
+
+        @Override
+        public PlayAppLifecycleUpdate read(Decoder decoder) throws Exception {
+            switch (decoder.readByte()) {
+                case STOPPED:
+                    return PlayAppLifecycleUpdate.stopped();
+                case RUNNING:
+                    return PlayAppLifecycleUpdate.running();
+                default:
+                    return PlayAppLifecycleUpdate.failed((Exception) BaseSerializerFactory.THROWABLE_SERIALIZER.read(decoder));
+            }
+        }
+
+        @Override
+        public void write(Encoder encoder, PlayAppLifecycleUpdate value) throws Exception {
+            if (value.isFailed()) {
+                encoder.writeByte(FAILED);
+                BaseSerializerFactory.THROWABLE_SERIALIZER.write(encoder, value.getException());
+            } else {
+                encoder.writeByte(value.isRunning() ? RUNNING : STOPPED);
+            }
+        }
+    }
+}
@@ -45,6 +45,7 @@ public class PlayWorkerServer implements Action<WorkerProcessContext>, PlayRunWo
     @Override
     public void execute(WorkerProcessContext context) {
         stop = new CountDownLatch(1);
+        context.getServerConnection().useParameterSerializers(PlayWorkerProtocolSerializer.create());
         final PlayRunWorkerClientProtocol clientProtocol = context.getServerConnection().addOutgoing(PlayRunWorkerClientProtocol.class);
         context.getServerConnection().addIncoming(PlayRunWorkerServerProtocol.class, this);
         context.getServerConnection().connect();
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.play.internal.toolchain;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.RelativeFile;
+import org.gradle.api.internal.tasks.compile.BaseForkOptionsSerializer;
+import org.gradle.api.internal.tasks.compile.daemon.CompileSpecSerializerRegistration;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SerializerRegistry;
+import org.gradle.language.twirl.TwirlImports;
+import org.gradle.play.internal.javascript.DefaultJavaScriptCompileSpec;
+import org.gradle.play.internal.routes.DefaultRoutesCompileSpec;
+import org.gradle.play.internal.twirl.DefaultTwirlCompileSpec;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Registers serializers for the specs of the Play compilers that run in a compiler daemon.
+ */
+public class PlayCompileSpecSerializerRegistration implements CompileSpecSerializerRegistration {
+    @Override
+    public void registerSerializers(SerializerRegistry registry) {
+        registry.register(DefaultTwirlCompileSpec.class, new TwirlCompileSpecSerializer());
+        registry.register(DefaultRoutesCompileSpec.class, new RoutesCompileSpecSerializer());
+        registry.register(DefaultJavaScriptCompileSpec.class, new JavaScriptCompileSpecSerializer());
+    }
+
+    private static class TwirlCompileSpecSerializer implements Serializer<DefaultTwirlCompileSpec> {
+        private final BaseForkOptionsSerializer forkOptionsSerializer = new BaseForkOptionsSerializer();
+
+        @Override
+        public DefaultTwirlCompileSpec read(Decoder decoder) throws Exception {
+            List<RelativeFile> sources = readRelativeFiles(decoder);
+            File destinationDir = readFile(decoder);
+            TwirlImports defaultImports = decoder.readBoolean() ? TwirlImports.values()[decoder.readSmallInt()] : null;
+            return new DefaultTwirlCompileSpec(sources, destinationDir, forkOptionsSerializer.read(decoder), defaultImports);
+        }
+
+        @Override
+        public void write(Encoder encoder, DefaultTwirlCompileSpec value) throws Exception {
+            writeRelativeFiles(encoder, value.getSources());
+            writeFile(encoder, value.getDestinationDir());
+            encoder.writeBoolean(value.getDefaultImports() != null);
+            if (value.getDefaultImports() != null) {
+                encoder.writeSmallInt(value.getDefaultImports().ordinal());
+            }
+            forkOptionsSerializer.write(encoder, value.getForkOptions());
+        }
+    }
+
+    private static class RoutesCompileSpecSerializer implements Serializer<DefaultRoutesCompileSpec> {
+        private final BaseForkOptionsSerializer forkOptionsSerializer = new BaseForkOptionsSerializer();
+
+        @Override
+        public DefaultRoutesCompileSpec read(Decoder decoder) throws Exception {
+            int sourceCount = decoder.readSmallInt();
+            List<File> sources = new ArrayList<File>(sourceCount);
+            for (int i = 0; i < sourceCount; i++) {
+                sources.add(readFile(decoder));
+            }
+            File destinationDir = readFile(decoder);
+            boolean javaProject = decoder.readBoolean();
+            boolean namespaceReverseRouter = decoder.readBoolean();
+            boolean generateReverseRoutes = decoder.readBoolean();
+            boolean injectedRoutesGenerator = decoder.readBoolean();
+            int importCount = decoder.readSmallInt();
+            List<String> additionalImports = new ArrayList<String>(importCount);
+            for (int i = 0; i < importCount; i++) {
+                additionalImports.add(decoder.readString());
+            }
+            return new DefaultRoutesCompileSpec(sources, destinationDir, forkOptionsSerializer.read(decoder), javaProject, namespaceReverseRouter,
+                generateReverseRoutes, injectedRoutesGenerator, additionalImports);
+        }
+
+        @Override
+        public void write(Encoder encoder, DefaultRoutesCompileSpec value) throws Exception {
+            List<File> sources = new ArrayList<File>();
+            for (File source : value.getSources()) {
+                sources.add(source);
+            }
+            encoder.writeSmallInt(sources.size());
+            for (File source : sources) {
+                writeFile(encoder, source);
+            }
+            writeFile(encoder, value.getDestinationDir());
+            encoder.writeBoolean(value.isJavaProject());
+            encoder.writeBoolean(value.isNamespaceReverseRouter());
+            encoder.writeBoolean(value.isGenerateReverseRoutes());
+            encoder.writeBoolean(value.isInjectedRoutesGenerator());
+            Collection<String> additionalImports = value.getAdditionalImports();
+            encoder.writeSmallInt(additionalImports.size());
+            for (String additionalImport : additionalImports) {
+                encoder.writeString(additionalImport);
+            }
+            forkOptionsSerializer.write(encoder, value.getForkOptions());
+        }
+    }
+
+    private static class JavaScriptCompileSpecSerializer implements Serializer<DefaultJavaScriptCompileSpec> {
+        private final BaseForkOptionsSerializer forkOptionsSerializer = new BaseForkOptionsSerializer();
+
+        @Override
+        public DefaultJavaScriptCompileSpec read(Decoder decoder) throws Exception {
+            List<RelativeFile> sources = readRelativeFiles(decoder);
+            File destinationDir = readFile(decoder);
+            return new DefaultJavaScriptCompileSpec(sources, destinationDir, forkOptionsSerializer.read(decoder));
+        }
+
+        @Override
+        public void write(Encoder encoder, DefaultJavaScriptCompileSpec value) throws Exception {
+            writeRelativeFiles(encoder, value.getSources());
+            writeFile(encoder, value.getDestinationDir());
+            forkOptionsSerializer.write(encoder, value.getForkOptions());
+        }
+    }
+
+    @Nullable
+    private static File readFile(Decoder decoder) throws Exception {
+        String path = decoder.readNullableString();
+        return path == null ? null : new File(path);
+    }
+
+    private static void writeFile(Encoder encoder, @Nullable File file) throws Exception {
+        encoder.writeNullableString(file == null ? null : file.getPath());
+    }
+
+    private static List<RelativeFile> readRelativeFiles(Decoder decoder) throws Exception {
+        int count = decoder.readSmallInt();
+        List<RelativeFile> files = new ArrayList<RelativeFile>(count);
+        for (int i = 0; i < count; i++) {
+            File file = readFile(decoder);
+            RelativePath relativePath = null;
+            if (decoder.readBoolean()) {
+                boolean isFile = decoder.readBoolean();
+                String[] segments = new String[decoder.readSmallInt()];
+                for (int j = 0; j < segments.length; j++) {
+                    segments[j] = decoder.readString();
+                }
+                relativePath = new RelativePath(isFile, segments);
+            }
+            files.add(new RelativeFile(file, relativePath));
+        }
+        return files;
+    }
+
+    private static void writeRelativeFiles(Encoder encoder, Iterable<RelativeFile> files) throws Exception {
+        List<RelativeFile> list = new ArrayList<RelativeFile>();
+        for (RelativeFile file : files) {
+            list.add(file);
+        }
+        encoder.writeSmallInt(list.size());
+        for (RelativeFile file : list) {
+            writeFile(encoder, file.getFile());
+            RelativePath relativePath = file.getRelativePath();
+            encoder.writeBoolean(relativePath != null);
+            if (relativePath != null) {
+                encoder.writeBoolean(relativePath.isFile());
+                encoder.writeSmallInt(relativePath.getSegments().length);
+                for (String segment : relativePath.getSegments()) {
+                    encoder.writeString(segment);
+                }
+            }
+        }
+    }
+}
@@ -30,6 +30,7 @@ public class PlayToolChainServiceRegistry implements PluginServiceRegistry {
     @Override
     public void registerGlobalServices(ServiceRegistration registration) {
         registration.add(PlayApplicationBinaryRenderer.class);
+        registration.add(PlayCompileSpecSerializerRegistration.class);
     }
 
     @Override
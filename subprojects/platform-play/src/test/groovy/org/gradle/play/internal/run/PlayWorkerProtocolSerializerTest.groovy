@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.play.internal.run
+
+import org.gradle.internal.serialize.SerializerSpec
+
+class PlayWorkerProtocolSerializerTest extends SerializerSpec {
+    def serializer = PlayWorkerProtocolSerializer.create().build(Object)
+
+    def "serializes running and stopped updates"() {
+        expect:
+        usesEfficientSerialization(PlayAppLifecycleUpdate.running(), serializer).running
+        usesEfficientSerialization(PlayAppLifecycleUpdate.stopped(), serializer).stopped
+    }
+
+    def "serializes failed update"() {
+        def failure = new IllegalStateException("broken", new RuntimeException("cause"))
+
+        when:
+        def result = serialize(PlayAppLifecycleUpdate.failed(failure), serializer)
+
+        then:
+        result.failed
+        result.exception instanceof IllegalStateException
+        result.exception.message == "broken"
+        result.exception.cause.message == "cause"
+    }
+
+    def "serializes failures sent by the worker"() {
+        when:
+        def result = serialize(new IllegalArgumentException("broken"), serializer)
+
+        then:
+        result instanceof IllegalArgumentException
+        result.message == "broken"
+    }
+}
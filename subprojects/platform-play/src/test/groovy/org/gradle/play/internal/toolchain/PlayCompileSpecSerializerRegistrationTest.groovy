@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.play.internal.toolchain
+
+import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.file.RelativeFile
+import org.gradle.api.internal.tasks.compile.daemon.CompilerDaemonProtocolSerializer
+import org.gradle.api.tasks.compile.BaseForkOptions
+import org.gradle.internal.serialize.SerializerSpec
+import org.gradle.language.base.internal.compile.CompileSpec
+import org.gradle.language.twirl.TwirlImports
+import org.gradle.play.internal.javascript.DefaultJavaScriptCompileSpec
+import org.gradle.play.internal.routes.DefaultRoutesCompileSpec
+import org.gradle.play.internal.twirl.DefaultTwirlCompileSpec
+
+class PlayCompileSpecSerializerRegistrationTest extends SerializerSpec {
+    def serializer = CompilerDaemonProtocolSerializer.create([new PlayCompileSpecSerializerRegistration()]).build(CompileSpec)
+    def forkOptions = new BaseForkOptions(memoryInitialSize: "128m", memoryMaximumSize: "1g", jvmArgs: ["-Dfoo=bar"])
+    def sources = [
+        new RelativeFile(new File("app/views/index.scala.html"), RelativePath.parse(true, "views/index.scala.html")),
+        new RelativeFile(new File("app/views/other.scala.html"), null)
+    ]
+
+    def "serializes twirl compile spec"() {
+        def spec = new DefaultTwirlCompileSpec(sources, new File("twirl"), forkOptions, TwirlImports.JAVA)
+
+        when:
+        def result = serialize(spec, serializer)
+
+        then:
+        result instanceof DefaultTwirlCompileSpec
+        assertSources(result.sources)
+        result.destinationDir == new File("twirl")
+        result.defaultImports == TwirlImports.JAVA
+        assertForkOptions(result.forkOptions)
+    }
+
+    def "serializes twirl compile spec without default imports"() {
+        def spec = new DefaultTwirlCompileSpec(sources, new File("twirl"), new BaseForkOptions(), null)
+
+        when:
+        def result = serialize(spec, serializer)
+
+        then:
+        result.defaultImports == null
+        result.forkOptions.memoryInitialSize == null
+        result.forkOptions.memoryMaximumSize == null
+        result.forkOptions.jvmArgs == []
+    }
+
+    def "serializes routes compile spec"() {
+        def spec = new DefaultRoutesCompileSpec([new File("conf/routes"), new File("conf/admin.routes")], new File("routes"), forkOptions, true, false, true, false, ["controllers.Admin"])
+
+        when:
+        def result = serialize(spec, serializer)
+
+        then:
+        result instanceof DefaultRoutesCompileSpec
+        result.sources as List == [new File("conf/routes"), new File("conf/admin.routes")]
+        result.destinationDir == new File("routes")
+        result.javaProject
+        !result.namespaceReverseRouter
+        result.generateReverseRoutes
+        !result.injectedRoutesGenerator
+        result.additionalImports as List == ["controllers.Admin"]
+        assertForkOptions(result.forkOptions)
+    }
+
+    def "serializes javascript compile spec"() {
+        def spec = new DefaultJavaScriptCompileSpec(sources, new File("js"), forkOptions)
+
+        when:
+        def result = serialize(spec, serializer)
+
+        then:
+        result instanceof DefaultJavaScriptCompileSpec
+        assertSources(result.sources)
+        result.destinationDir == new File("js")
+        assertForkOptions(result.forkOptions)
+    }
+
+    void assertSources(Iterable<RelativeFile> result) {
+        def files = result as List
+        assert files.size() == 2
+        assert files[0].file == sources[0].file
+        assert files[0].relativePath == sources[0].relativePath
+        assert files[1].file == sources[1].file
+        assert files[1].relativePath == null
+    }
+
+    void assertForkOptions(BaseForkOptions result) {
+        assert result.memoryInitialSize == "128m"
+        assert result.memoryMaximumSize == "1g"
+        assert result.jvmArgs == ["-Dfoo=bar"]
+    }
+}
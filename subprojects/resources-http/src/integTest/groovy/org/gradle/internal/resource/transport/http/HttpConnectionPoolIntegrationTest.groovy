@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.apache.http.HttpResponse
+import org.apache.http.HttpResponseInterceptor
+import org.apache.http.client.methods.CloseableHttpClient
+import org.apache.http.client.methods.HttpGet
+import org.apache.http.client.protocol.HttpClientContext
+import org.apache.http.conn.ManagedHttpClientConnection
+import org.apache.http.impl.client.HttpClientBuilder
+import org.apache.http.protocol.HttpContext
+import org.apache.http.ssl.SSLContexts
+import org.apache.http.ssl.TrustStrategy
+import org.apache.http.util.EntityUtils
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.test.fixtures.keystore.TestKeyStore
+import org.gradle.test.fixtures.server.http.HttpServer
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.net.ssl.SSLContext
+import javax.servlet.http.HttpServletRequest
+import javax.servlet.http.HttpServletResponse
+import java.security.KeyStore
+import java.util.concurrent.TimeUnit
+
+class HttpConnectionPoolIntegrationTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    @Rule HttpServer server = new HttpServer()
+    def pool = new HttpConnectionPool(2, 10)
+    def clients = []
+    def connections = []
+    SSLContext sslContext
+
+    def setup() {
+        def keyStore = TestKeyStore.init(temp.testDirectory)
+        keyStore.enableSslWithServerCert(server)
+        server.start()
+        def trustStore = KeyStore.getInstance(KeyStore.defaultType)
+        keyStore.trustStore.withInputStream { trustStore.load(it, keyStore.trustStorePassword.toCharArray()) }
+        sslContext = SSLContexts.custom().loadTrustMaterial(trustStore, (TrustStrategy) null).build()
+    }
+
+    def cleanup() {
+        clients*.close()
+        pool.stop()
+    }
+
+    def "keeps https connection alive across clients"() {
+        server.expect("/first.jar", ["GET"], ok())
+        server.expect("/second.jar", ["GET"], ok())
+
+        when:
+        get(newClient(), "/first.jar")
+        get(newClient(), "/second.jar")
+
+        then:
+        connections.size() == 2
+        connections[0].localPort == connections[1].localPort
+        pool.leaseCount == 2
+        pool.failedLeaseCount == 0
+    }
+
+    def "resumes tls session when a new connection is opened"() {
+        def client = newClient()
+        server.expect("/first.jar", ["GET"], ok())
+        server.expect("/second.jar", ["GET"], ok())
+
+        when:
+        get(client, "/first.jar")
+        pool.getConnectionManager(sslContext).closeIdleConnections(0, TimeUnit.MILLISECONDS)
+        get(client, "/second.jar")
+
+        then:
+        connections.size() == 2
+        connections[0].localPort != connections[1].localPort
+        connections[0].sessionId == connections[1].sessionId
+    }
+
+    private CloseableHttpClient newClient() {
+        def client = HttpClientBuilder.create()
+            .setConnectionManager(pool.getConnectionManager(sslContext))
+            .setConnectionManagerShared(true)
+            .addInterceptorLast(new HttpResponseInterceptor() {
+                void process(HttpResponse response, HttpContext context) {
+                    def connection = HttpClientContext.adapt(context).getConnection(ManagedHttpClientConnection)
+                    connections << [localPort: connection.socket.localPort, sessionId: connection.SSLSession.id.encodeHex().toString()]
+                }
+            })
+            .build()
+        clients << client
+        return client
+    }
+
+    private void get(CloseableHttpClient client, String path) {
+        def response = client.execute(new HttpGet(server.uri.resolve(path)))
+        try {
+            assert response.statusLine.statusCode == 200
+            EntityUtils.consume(response.entity)
+        } finally {
+            response.close()
+        }
+    }
+
+    private static HttpServer.Action ok() {
+        return new HttpServer.ActionSupport("return 200 OK") {
+            void handle(HttpServletRequest request, HttpServletResponse response) {
+                response.setContentLength(2)
+                response.outputStream.write("ok".bytes)
+            }
+        }
+    }
+}
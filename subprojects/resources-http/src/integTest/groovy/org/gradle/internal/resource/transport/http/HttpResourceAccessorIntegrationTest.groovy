@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.gradle.authentication.Authentication
+import org.gradle.internal.resource.metadata.DefaultExternalResourceMetaData
+import org.gradle.test.fixtures.server.http.HttpServer
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.servlet.http.HttpServletRequest
+import javax.servlet.http.HttpServletResponse
+
+class HttpResourceAccessorIntegrationTest extends Specification {
+    static final long CACHED_LAST_MODIFIED = 1400000000000L
+    static final long SERVER_LAST_MODIFIED = 1500000000000L
+
+    @Rule HttpServer server = new HttpServer()
+    def http = new HttpClientHelper(new DefaultHttpSettings(Collections.<Authentication>emptyList(), new DefaultSslContextFactory()))
+    def accessor = new HttpResourceAccessor(http)
+    def requests = []
+
+    def setup() {
+        server.start()
+    }
+
+    def cleanup() {
+        http.close()
+    }
+
+    def "sends validators of cached metadata and reuses cached metadata when server responds with 304"() {
+        def cached = cachedMetaData("\"abc\"", CACHED_LAST_MODIFIED)
+        server.expect("/thing.jar", ["HEAD"], notModified())
+
+        when:
+        def result = accessor.getMetaData(uri("/thing.jar"), cached)
+
+        then:
+        result.is(cached)
+        requests == [["\"abc\"", CACHED_LAST_MODIFIED]]
+    }
+
+    def "replaces cached metadata when server responds with 200"() {
+        def cached = cachedMetaData("\"abc\"", CACHED_LAST_MODIFIED)
+        server.expect("/thing.jar", ["HEAD"], modified("\"def\"", SERVER_LAST_MODIFIED, 12))
+
+        when:
+        def result = accessor.getMetaData(uri("/thing.jar"), cached)
+
+        then:
+        !result.is(cached)
+        result.location == uri("/thing.jar")
+        result.etag == "\"def\""
+        result.lastModified == new Date(SERVER_LAST_MODIFIED)
+        result.contentLength == 12
+        requests == [["\"abc\"", CACHED_LAST_MODIFIED]]
+    }
+
+    def "sends only the validators that cached metadata has"() {
+        server.expect("/etag.jar", ["HEAD"], notModified())
+        server.expect("/modified.jar", ["HEAD"], notModified())
+
+        when:
+        accessor.getMetaData(uri("/etag.jar"), cachedMetaData("\"abc\"", 0))
+        accessor.getMetaData(uri("/modified.jar"), cachedMetaData(null, CACHED_LAST_MODIFIED))
+
+        then:
+        requests == [["\"abc\"", -1L], [null, CACHED_LAST_MODIFIED]]
+    }
+
+    def "sends unconditional request when cached metadata has no validators"() {
+        server.expect("/thing.jar", ["HEAD"], modified("\"def\"", SERVER_LAST_MODIFIED, 12))
+
+        when:
+        def result = accessor.getMetaData(uri("/thing.jar"), cachedMetaData(null, 0))
+
+        then:
+        result.etag == "\"def\""
+        requests == [[null, -1L]]
+    }
+
+    def "returns null when resource is missing"() {
+        server.expectHeadMissing("/thing.jar")
+
+        expect:
+        accessor.getMetaData(uri("/thing.jar"), cachedMetaData("\"abc\"", CACHED_LAST_MODIFIED)) == null
+    }
+
+    private URI uri(String path) {
+        return server.uri.resolve(path)
+    }
+
+    private static DefaultExternalResourceMetaData cachedMetaData(String etag, long lastModified) {
+        return new DefaultExternalResourceMetaData(new URI("http://cached"), lastModified, 10, null, etag, null)
+    }
+
+    private HttpServer.Action notModified() {
+        return new HttpServer.ActionSupport("return 304 Not Modified") {
+            void handle(HttpServletRequest request, HttpServletResponse response) {
+                recordValidators(request)
+                response.status = HttpServletResponse.SC_NOT_MODIFIED
+            }
+        }
+    }
+
+    private HttpServer.Action modified(String etag, long lastModified, int contentLength) {
+        return new HttpServer.ActionSupport("return 200 OK") {
+            void handle(HttpServletRequest request, HttpServletResponse response) {
+                recordValidators(request)
+                response.setHeader("ETag", etag)
+                response.setDateHeader("Last-Modified", lastModified)
+                response.setContentLength(contentLength)
+            }
+        }
+    }
+
+    void recordValidators(HttpServletRequest request) {
+        requests << [request.getHeader("If-None-Match"), request.getDateHeader("If-Modified-Since")]
+    }
+}
@@ -16,6 +16,7 @@
 package org.gradle.internal.resource.transport.http;
 
 
+import org.gradle.api.Nullable;
 import org.gradle.authentication.Authentication;
 
 import java.util.Collection;
@@ -25,14 +26,20 @@ public class DefaultHttpSettings implements HttpSettings {
     private final HttpProxySettings secureProxySettings = new JavaSystemPropertiesSecureHttpProxySettings();
     private final Collection<Authentication> authenticationSettings;
     private final SslContextFactory sslContextFactory;
+    private final HttpConnectionPool connectionPool;
 
     public DefaultHttpSettings(Collection<Authentication> authenticationSettings, SslContextFactory sslContextFactory) {
+        this(authenticationSettings, sslContextFactory, null);
+    }
+
+    public DefaultHttpSettings(Collection<Authentication> authenticationSettings, SslContextFactory sslContextFactory, @Nullable HttpConnectionPool connectionPool) {
         if (authenticationSettings == null) {
             throw new IllegalArgumentException("Authentication settings cannot be null.");
         }
 
         this.authenticationSettings = authenticationSettings;
         this.sslContextFactory = sslContextFactory;
+        this.connectionPool = connectionPool;
     }
 
     @Override
@@ -54,4 +61,9 @@ public class DefaultHttpSettings implements HttpSettings {
     public SslContextFactory getSslContextFactory() {
         return sslContextFactory;
     }
+
+    @Override
+    public HttpConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
 }
@@ -67,6 +67,7 @@ public class HttpClientConfigurer {
     public void configure(HttpClientBuilder builder) {
         SystemDefaultCredentialsProvider credentialsProvider = new SystemDefaultCredentialsProvider();
         configureSslSocketConnectionFactory(builder, httpSettings.getSslContextFactory());
+        configureConnectionPool(builder, httpSettings.getSslContextFactory(), httpSettings.getConnectionPool());
         configureAuthSchemeRegistry(builder);
         configureCredentials(builder, credentialsProvider, httpSettings.getAuthenticationSettings());
         configureProxy(builder, credentialsProvider, httpSettings);
@@ -78,6 +79,14 @@ public class HttpClientConfigurer {
         builder.setSSLSocketFactory(new SSLConnectionSocketFactory(sslContextFactory.createSslContext(), new DefaultHostnameVerifier(null)));
     }
 
+    private void configureConnectionPool(HttpClientBuilder builder, SslContextFactory sslContextFactory, HttpConnectionPool connectionPool) {
+        if (connectionPool == null) {
+            return;
+        }
+        builder.setConnectionManager(connectionPool.getConnectionManager(sslContextFactory.createSslContext()));
+        builder.setConnectionManagerShared(true);
+    }
+
     private void configureAuthSchemeRegistry(HttpClientBuilder builder) {
         builder.setDefaultAuthSchemeRegistry(RegistryBuilder.<AuthSchemeProvider>create()
             .register(AuthSchemes.BASIC, new BasicSchemeFactory())
@@ -16,21 +16,26 @@
 
 package org.gradle.internal.resource.transport.http;
 
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.DateUtils;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.util.EntityUtils;
+import org.gradle.api.Nullable;
 import org.gradle.api.UncheckedIOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Date;
 
 /**
  * Provides some convenience and unified logging.
@@ -54,6 +59,20 @@ public class HttpClientHelper implements Closeable {
         return processResponse(source, "HEAD", performRawHead(source));
     }
 
+    /**
+     * Performs a HEAD request that the server may answer with {@code 304 Not Modified} when the resource matches the given validators.
+     */
+    public HttpResponse performConditionalHead(String source, @Nullable String etag, @Nullable Date lastModified) {
+        HttpHead request = new HttpHead(source);
+        if (etag != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        if (lastModified != null) {
+            request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, DateUtils.formatDate(lastModified));
+        }
+        return processResponse(source, "HEAD", performRequest(request));
+    }
+
     public HttpResponse performRawGet(String source) {
         return performRequest(new HttpGet(source));
     }
@@ -85,6 +104,10 @@ public class HttpClientHelper implements Closeable {
         return httpResponse;
     }
 
+    public boolean wasNotModified(HttpResponse response) {
+        return response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED;
+    }
+
     public boolean wasMissing(HttpResponse response) {
         int statusCode = response.getStatusLine().getStatusCode();
         return statusCode == 404;
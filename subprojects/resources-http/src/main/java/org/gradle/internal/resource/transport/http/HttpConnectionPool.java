@@ -0,0 +1,252 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.DefaultHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.gradle.internal.concurrent.Stoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the HTTP connections to repository hosts open across all HTTP clients of the process, so that connections and TLS sessions are reused
+ * by later requests, repositories and builds. There is one connection manager per SSL context, each with a limited number of connections per host.
+ *
+ * <p>SSL contexts are held weakly, so that the connection manager of a context is shut down once the context is no longer used. The connection
+ * manager only references the socket factory of its context, not the context itself.</p>
+ */
+public class HttpConnectionPool implements Stoppable {
+    public static final String MAX_CONNECTIONS_PER_ROUTE_PROPERTY = "org.gradle.internal.http.maxConnectionsPerHost";
+    public static final String MAX_CONNECTIONS_PROPERTY = "org.gradle.internal.http.maxConnections";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpConnectionPool.class);
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    private static final int DEFAULT_MAX_CONNECTIONS = 100;
+    // Connections that were idle longer than this, for example between two builds, are checked before they are reused
+    private static final int VALIDATE_AFTER_INACTIVITY_MILLIS = 2000;
+    private static final long MAX_IDLE_SECONDS = 60;
+
+    private final Cache<SSLContext, InstrumentedConnectionManager> connectionManagers = CacheBuilder.newBuilder()
+        .weakKeys()
+        .removalListener(new RemovalListener<SSLContext, InstrumentedConnectionManager>() {
+            @Override
+            public void onRemoval(RemovalNotification<SSLContext, InstrumentedConnectionManager> notification) {
+                notification.getValue().shutdownPool();
+            }
+        })
+        .build();
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong failedLeases = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final int maxConnectionsPerRoute;
+    private final int maxConnections;
+
+    public HttpConnectionPool() {
+        this(Integer.getInteger(MAX_CONNECTIONS_PER_ROUTE_PROPERTY, DEFAULT_MAX_CONNECTIONS_PER_ROUTE), Integer.getInteger(MAX_CONNECTIONS_PROPERTY, DEFAULT_MAX_CONNECTIONS));
+    }
+
+    HttpConnectionPool(int maxConnectionsPerRoute, int maxConnections) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        this.maxConnections = Math.max(maxConnections, maxConnectionsPerRoute);
+    }
+
+    /**
+     * Returns the connection manager to use for clients with the given SSL context. The connection manager must not be shut down by the client.
+     */
+    public synchronized HttpClientConnectionManager getConnectionManager(SSLContext sslContext) {
+        InstrumentedConnectionManager connectionManager = connectionManagers.getIfPresent(sslContext);
+        if (connectionManager == null) {
+            Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", new SSLConnectionSocketFactory(sslContext.getSocketFactory(), new DefaultHostnameVerifier(null)))
+                .build();
+            PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager(socketFactories);
+            pool.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+            pool.setMaxTotal(maxConnections);
+            pool.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MILLIS);
+            connectionManager = new InstrumentedConnectionManager(pool);
+            connectionManagers.put(sslContext, connectionManager);
+        } else {
+            connectionManager.closeIdleConnections(MAX_IDLE_SECONDS, TimeUnit.SECONDS);
+        }
+        return connectionManager;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Returns the number of connections leased from this pool so far.
+     */
+    public long getLeaseCount() {
+        return leases.get();
+    }
+
+    /**
+     * Returns the number of requests for a connection that failed or timed out so far.
+     */
+    public long getFailedLeaseCount() {
+        return failedLeases.get();
+    }
+
+    /**
+     * Returns the total time that requests have waited for a connection, whether or not they got one, in milliseconds.
+     */
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+    }
+
+    /**
+     * Returns the number of connection managers in use, after shutting down those whose SSL context is no longer used.
+     */
+    synchronized long getConnectionManagerCount() {
+        connectionManagers.cleanUp();
+        return connectionManagers.size();
+    }
+
+    @Override
+    public synchronized void stop() {
+        connectionManagers.invalidateAll();
+        connectionManagers.cleanUp();
+    }
+
+    /**
+     * Records how long requests wait to lease a connection from the pool.
+     */
+    private class InstrumentedConnectionManager implements HttpClientConnectionManager {
+        private final PoolingHttpClientConnectionManager pool;
+        private final AtomicLong poolLeases = new AtomicLong();
+        private final AtomicLong poolFailedLeases = new AtomicLong();
+        private final AtomicLong poolWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        InstrumentedConnectionManager(PoolingHttpClientConnectionManager pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public ConnectionRequest requestConnection(final HttpRoute route, Object state) {
+            final ConnectionRequest request = pool.requestConnection(route, state);
+            return new ConnectionRequest() {
+                @Override
+                public HttpClientConnection get(long timeout, TimeUnit tunit) throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                    long start = System.nanoTime();
+                    boolean leased = false;
+                    try {
+                        HttpClientConnection connection = request.get(timeout, tunit);
+                        leased = true;
+                        return connection;
+                    } finally {
+                        recordWait(route, System.nanoTime() - start, leased);
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return request.cancel();
+                }
+            };
+        }
+
+        private void recordWait(HttpRoute route, long nanos, boolean leased) {
+            if (leased) {
+                leases.incrementAndGet();
+                poolLeases.incrementAndGet();
+            } else {
+                failedLeases.incrementAndGet();
+                poolFailedLeases.incrementAndGet();
+            }
+            waitNanos.addAndGet(nanos);
+            poolWaitNanos.addAndGet(nanos);
+            long max = maxWaitNanos.get();
+            while (nanos > max && !maxWaitNanos.compareAndSet(max, nanos)) {
+                max = maxWaitNanos.get();
+            }
+            if (LOGGER.isDebugEnabled() && nanos > TimeUnit.MILLISECONDS.toNanos(100)) {
+                LOGGER.debug("Waited {} ms for a connection to {} ({}).", TimeUnit.NANOSECONDS.toMillis(nanos), route, pool.getStats(route));
+            }
+        }
+
+        void shutdownPool() {
+            LOGGER.debug("HTTP connection pool statistics: {} connections leased, {} failed leases, {} ms total wait, {} ms max wait ({}).",
+                poolLeases.get(), poolFailedLeases.get(), TimeUnit.NANOSECONDS.toMillis(poolWaitNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()), pool.getTotalStats());
+            pool.shutdown();
+        }
+
+        @Override
+        public void releaseConnection(HttpClientConnection conn, Object newState, long validDuration, TimeUnit timeUnit) {
+            pool.releaseConnection(conn, newState, validDuration, timeUnit);
+        }
+
+        @Override
+        public void connect(HttpClientConnection conn, HttpRoute route, int connectTimeout, HttpContext context) throws IOException {
+            pool.connect(conn, route, connectTimeout, context);
+        }
+
+        @Override
+        public void upgrade(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+            pool.upgrade(conn, route, context);
+        }
+
+        @Override
+        public void routeComplete(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+            pool.routeComplete(conn, route, context);
+        }
+
+        @Override
+        public void closeIdleConnections(long idletime, TimeUnit tunit) {
+            pool.closeIdleConnections(idletime, tunit);
+        }
+
+        @Override
+        public void closeExpiredConnections() {
+            pool.closeExpiredConnections();
+        }
+
+        @Override
+        public void shutdown() {
+            // The pool is shared, and is shut down when the process stops
+        }
+    }
+}
@@ -86,6 +86,24 @@ public class HttpResourceAccessor implements ExternalResourceAccessor {
         return response == null ? null : new HttpResponseResource("HEAD", uri, response).getMetaData();
     }
 
+    public ExternalResourceMetaData getMetaData(URI uri, @Nullable ExternalResourceMetaData cached) {
+        if (cached == null || (cached.getEtag() == null && cached.getLastModified() == null)) {
+            return getMetaData(uri);
+        }
+        abortOpenResources();
+        String location = uri.toString();
+        LOGGER.debug("Revalidating external resource metadata: {}", location);
+        HttpResponse response = http.performConditionalHead(location, cached.getEtag(), cached.getLastModified());
+        if (response == null) {
+            return null;
+        }
+        if (http.wasNotModified(response)) {
+            LOGGER.debug("External resource is not modified: {}", location);
+            return cached;
+        }
+        return new HttpResponseResource("HEAD", uri, response).getMetaData();
+    }
+
     private HttpResponseResource recordOpenGetResource(HttpResponseResource httpResource) {
         openResources.add(httpResource);
         return httpResource;
@@ -48,8 +48,12 @@ public class HttpResourcesPluginServiceRegistry implements PluginServiceRegistry
             return new DefaultSslContextFactory();
         }
 
-        ResourceConnectorFactory createHttpConnectorFactory(SslContextFactory sslContextFactory) {
-            return new HttpConnectorFactory(sslContextFactory);
+        HttpConnectionPool createHttpConnectionPool() {
+            return new HttpConnectionPool();
+        }
+
+        ResourceConnectorFactory createHttpConnectorFactory(SslContextFactory sslContextFactory, HttpConnectionPool connectionPool) {
+            return new HttpConnectorFactory(sslContextFactory, connectionPool);
         }
     }
 
@@ -16,6 +16,7 @@
 package org.gradle.internal.resource.transport.http;
 
 
+import org.gradle.api.Nullable;
 import org.gradle.authentication.Authentication;
 
 import java.util.Collection;
@@ -28,4 +29,10 @@ public interface HttpSettings {
     Collection<Authentication> getAuthenticationSettings();
 
     SslContextFactory getSslContextFactory();
+
+    /**
+     * The pool that clients should lease their connections from, or null when each client should manage its own connections.
+     */
+    @Nullable
+    HttpConnectionPool getConnectionPool();
 }
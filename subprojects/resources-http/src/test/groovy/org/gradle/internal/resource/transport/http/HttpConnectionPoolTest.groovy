@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.apache.http.HttpHost
+import org.apache.http.conn.ConnectionPoolTimeoutException
+import org.apache.http.conn.routing.HttpRoute
+import org.apache.http.impl.client.HttpClientBuilder
+import org.apache.http.ssl.SSLContexts
+import org.gradle.test.fixtures.ConcurrentTestUtil
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class HttpConnectionPoolTest extends Specification {
+    def pool = new HttpConnectionPool(2, 10)
+    def route = new HttpRoute(new HttpHost("repo.example.com", 443, "https"))
+
+    def cleanup() {
+        pool.stop()
+    }
+
+    def "reuses connection manager for the same ssl context"() {
+        def sslContext = SSLContexts.createDefault()
+
+        expect:
+        pool.getConnectionManager(sslContext).is(pool.getConnectionManager(sslContext))
+        !pool.getConnectionManager(sslContext).is(pool.getConnectionManager(SSLContexts.createDefault()))
+    }
+
+    def "limits the number of connections per host and records leases"() {
+        def connectionManager = pool.getConnectionManager(SSLContexts.createDefault())
+
+        when:
+        connectionManager.requestConnection(route, null).get(1, TimeUnit.SECONDS)
+        connectionManager.requestConnection(route, null).get(1, TimeUnit.SECONDS)
+        connectionManager.requestConnection(route, null).get(100, TimeUnit.MILLISECONDS)
+
+        then:
+        thrown(ConnectionPoolTimeoutException)
+        pool.leaseCount == 2
+        pool.failedLeaseCount == 1
+        pool.totalWaitMillis >= 100
+    }
+
+    def "released connection can be leased again"() {
+        def connectionManager = pool.getConnectionManager(SSLContexts.createDefault())
+        def first = connectionManager.requestConnection(route, null).get(1, TimeUnit.SECONDS)
+        connectionManager.requestConnection(route, null).get(1, TimeUnit.SECONDS)
+
+        when:
+        connectionManager.releaseConnection(first, null, 1, TimeUnit.MINUTES)
+        def next = connectionManager.requestConnection(route, null).get(1, TimeUnit.SECONDS)
+
+        then:
+        next != null
+        pool.leaseCount == 3
+    }
+
+    def "shuts down connection manager once its ssl context is no longer used"() {
+        def sslContext = SSLContexts.createDefault()
+        pool.getConnectionManager(sslContext)
+        leaseFromUnreferencedContext()
+
+        expect:
+        ConcurrentTestUtil.poll {
+            System.gc()
+            assert pool.connectionManagerCount == 1
+        }
+        pool.getConnectionManager(sslContext).requestConnection(route, null).get(1, TimeUnit.SECONDS) != null
+    }
+
+    def "clients do not shut down the shared pool"() {
+        def sslContext = SSLContexts.createDefault()
+        def connectionManager = pool.getConnectionManager(sslContext)
+        def client = HttpClientBuilder.create().setConnectionManager(connectionManager).setConnectionManagerShared(true).build()
+
+        when:
+        client.close()
+        connectionManager.shutdown()
+        def connection = pool.getConnectionManager(sslContext).requestConnection(route, null).get(1, TimeUnit.SECONDS)
+
+        then:
+        connection != null
+    }
+
+    private void leaseFromUnreferencedContext() {
+        pool.getConnectionManager(SSLContexts.createDefault()).requestConnection(route, null).get(1, TimeUnit.SECONDS)
+    }
+}
@@ -69,6 +69,10 @@ public class S3ResourceConnector implements ExternalResourceConnector {
                 null); // Passing null for sha1 - TODO - consider using the etag which is an MD5 hash of the file (when less than 5Gb)
     }
 
+    public ExternalResourceMetaData getMetaData(URI location, ExternalResourceMetaData cached) {
+        return getMetaData(location);
+    }
+
     @Override
     public void upload(LocalResource resource, URI destination) throws IOException {
         LOGGER.debug("Attempting to upload stream to : {}", destination);
@@ -52,6 +52,10 @@ public class SftpResourceAccessor implements ExternalResourceAccessor {
         }
     }
 
+    public ExternalResourceMetaData getMetaData(URI uri, ExternalResourceMetaData cached) {
+        return getMetaData(uri);
+    }
+
     private ExternalResourceMetaData toMetaData(URI uri, SftpATTRS attributes) {
         long lastModified = -1;
         long contentLength = -1;
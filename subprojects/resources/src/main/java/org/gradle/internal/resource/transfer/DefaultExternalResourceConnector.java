@@ -47,6 +47,12 @@ public class DefaultExternalResourceConnector implements ExternalResourceConnect
         return accessor.getMetaData(location);
     }
 
+    @Nullable
+    @Override
+    public ExternalResourceMetaData getMetaData(URI location, @Nullable ExternalResourceMetaData cached) {
+        return accessor.getMetaData(location, cached);
+    }
+
     @Nullable
     @Override
     public List<String> list(URI parent) {
@@ -53,5 +53,18 @@ public interface ExternalResourceAccessor {
      */
     @Nullable
     ExternalResourceMetaData getMetaData(URI location) throws ResourceException;
-    
+
+    /**
+     * Obtains only the metadata about the resource, revalidating the given metadata of a previously fetched copy of the resource.
+     *
+     * Implementations that support conditional requests may return the given cached metadata when the resource is known to be unchanged,
+     * without fetching the full metadata. Other implementations behave the same as {@link #getMetaData(URI)}.
+     *
+     * @param location The location of the resource to obtain the metadata for
+     * @param cached The metadata of a previously fetched copy of the resource, if any
+     * @return The available metadata, null if the resource doesn't exist
+     * @throws ResourceException If the resource may exist, but not could be obtained for some reason
+     */
+    @Nullable
+    ExternalResourceMetaData getMetaData(URI location, @Nullable ExternalResourceMetaData cached) throws ResourceException;
 }
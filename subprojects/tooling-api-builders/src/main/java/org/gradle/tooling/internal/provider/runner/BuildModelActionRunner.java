@@ -19,6 +19,8 @@ package org.gradle.tooling.internal.provider.runner;
 import org.gradle.api.Project;
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.execution.ProjectConfigurer;
 import org.gradle.internal.invocation.BuildAction;
 import org.gradle.internal.invocation.BuildActionRunner;
@@ -27,12 +29,21 @@ import org.gradle.tooling.internal.protocol.InternalUnsupportedModelException;
 import org.gradle.tooling.internal.provider.BuildActionResult;
 import org.gradle.tooling.internal.provider.BuildModelAction;
 import org.gradle.tooling.internal.provider.PayloadSerializer;
+import org.gradle.tooling.internal.provider.SerializedPayload;
 import org.gradle.tooling.model.internal.ProjectSensitiveToolingModelBuilder;
 import org.gradle.tooling.provider.model.ToolingModelBuilder;
 import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry;
 import org.gradle.tooling.provider.model.UnknownModelException;
 
 public class BuildModelActionRunner implements BuildActionRunner {
+    private static final Logger LOGGER = Logging.getLogger(BuildModelActionRunner.class);
+
+    private final ToolingModelCache modelCache;
+
+    public BuildModelActionRunner(ToolingModelCache modelCache) {
+        this.modelCache = modelCache;
+    }
+
     @Override
     public void run(BuildAction action, BuildController buildController) {
         if (!(action instanceof BuildModelAction)) {
@@ -41,6 +52,20 @@ public class BuildModelActionRunner implements BuildActionRunner {
 
         BuildModelAction buildModelAction = (BuildModelAction) action;
         GradleInternal gradle = buildController.getGradle();
+        String modelName = buildModelAction.getModelName();
+
+        String cacheKey = null;
+        ToolingModelCache.InputRecorder inputRecorder = null;
+        if (!buildModelAction.isRunTasks() && modelCache.isEnabledFor(buildModelAction.getStartParameter())) {
+            cacheKey = modelCache.keyFor(modelName, buildModelAction.getStartParameter());
+            SerializedPayload cachedModel = modelCache.get(cacheKey);
+            if (cachedModel != null) {
+                LOGGER.info("Using cached model {}, as its inputs have not changed.", modelName);
+                buildController.setResult(new BuildActionResult(cachedModel, null));
+                return;
+            }
+            inputRecorder = modelCache.startRecording(gradle);
+        }
 
         if (buildModelAction.isRunTasks()) {
             buildController.run();
@@ -55,7 +80,6 @@ public class BuildModelActionRunner implements BuildActionRunner {
             }
         }
 
-        String modelName = buildModelAction.getModelName();
         ToolingModelBuilderRegistry builderRegistry = getToolingModelBuilderRegistry(gradle);
         ToolingModelBuilder builder;
         try {
@@ -72,7 +96,11 @@ public class BuildModelActionRunner implements BuildActionRunner {
         }
 
         PayloadSerializer payloadSerializer = gradle.getServices().get(PayloadSerializer.class);
-        BuildActionResult buildActionResult = new BuildActionResult(payloadSerializer.serialize(result), null);
+        SerializedPayload serializedResult = payloadSerializer.serialize(result);
+        if (inputRecorder != null) {
+            modelCache.put(cacheKey, gradle, inputRecorder, serializedResult);
+        }
+        BuildActionResult buildActionResult = new BuildActionResult(serializedResult, null);
         buildController.setResult(buildActionResult);
     }
 
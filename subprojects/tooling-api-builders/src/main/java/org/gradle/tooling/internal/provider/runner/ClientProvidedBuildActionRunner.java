@@ -19,6 +19,7 @@ package org.gradle.tooling.internal.provider.runner;
 import org.gradle.api.BuildCancelledException;
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.execution.ProjectConfigurer;
+import org.gradle.initialization.BuildEventConsumer;
 import org.gradle.internal.invocation.BuildAction;
 import org.gradle.internal.invocation.BuildActionRunner;
 import org.gradle.internal.invocation.BuildController;
@@ -46,7 +47,8 @@ public class ClientProvidedBuildActionRunner implements BuildActionRunner {
         // Currently need to force everything to be configured
         gradle.getServices().get(ProjectConfigurer.class).configureHierarchy(gradle.getRootProject());
 
-        InternalBuildController internalBuildController = new DefaultBuildController(gradle);
+        BuildEventConsumer streamedValueConsumer = clientProvidedBuildAction.isSendStreamedValues() ? gradle.getServices().get(BuildEventConsumer.class) : null;
+        InternalBuildController internalBuildController = new DefaultBuildController(gradle, streamedValueConsumer);
         Object model = null;
         Throwable failure = null;
         try {
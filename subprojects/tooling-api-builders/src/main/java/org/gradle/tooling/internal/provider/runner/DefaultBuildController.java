@@ -17,22 +17,31 @@
 package org.gradle.tooling.internal.provider.runner;
 
 import org.gradle.api.BuildCancelledException;
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.initialization.BuildEventConsumer;
 import org.gradle.tooling.internal.gradle.GradleProjectIdentity;
 import org.gradle.tooling.internal.protocol.*;
+import org.gradle.tooling.internal.provider.PayloadSerializer;
+import org.gradle.tooling.internal.provider.StreamedValue;
 import org.gradle.tooling.internal.provider.connection.ProviderBuildResult;
 import org.gradle.tooling.model.internal.ProjectSensitiveToolingModelBuilder;
 import org.gradle.tooling.provider.model.ToolingModelBuilder;
 import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry;
 import org.gradle.tooling.provider.model.UnknownModelException;
 
-class DefaultBuildController implements InternalBuildController {
+class DefaultBuildController implements InternalBuildController, InternalStreamedValueRelay {
     private final GradleInternal gradle;
+    private final BuildEventConsumer streamedValueConsumer;
 
-    public DefaultBuildController(GradleInternal gradle) {
+    /**
+     * @param streamedValueConsumer Receives the values sent by the action, or null when the client does not listen for these values.
+     */
+    public DefaultBuildController(GradleInternal gradle, @Nullable BuildEventConsumer streamedValueConsumer) {
         this.gradle = gradle;
+        this.streamedValueConsumer = streamedValueConsumer;
     }
 
     public BuildResult<?> getBuildModel() throws BuildExceptionVersion1 {
@@ -73,4 +82,12 @@ class DefaultBuildController implements InternalBuildController {
         }
         return new ProviderBuildResult<Object>(model);
     }
+
+    public void dispatch(Object value) {
+        if (streamedValueConsumer == null) {
+            return;
+        }
+        PayloadSerializer payloadSerializer = gradle.getServices().get(PayloadSerializer.class);
+        streamedValueConsumer.dispatch(new StreamedValue(payloadSerializer.serialize(value)));
+    }
 }
@@ -17,6 +17,7 @@
 package org.gradle.tooling.internal.provider.runner;
 
 import org.gradle.internal.composite.CompositeBuildActionRunner;
+import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.invocation.BuildActionRunner;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.PluginServiceRegistry;
@@ -30,9 +31,15 @@ public class ToolingBuilderServices implements PluginServiceRegistry {
     public void registerGlobalServices(ServiceRegistration registration) {
 
         registration.addProvider(new Object() {
-            BuildActionRunner createBuildActionRunner() {
+            ToolingModelCache createToolingModelCache(ListenerManager listenerManager) {
+                ToolingModelCache modelCache = new ToolingModelCache();
+                listenerManager.addListener(modelCache);
+                return modelCache;
+            }
+
+            BuildActionRunner createBuildActionRunner(ToolingModelCache modelCache) {
                 return new SubscribableBuildActionRunner(new ChainingBuildActionRunner(Arrays.asList(
-                                                                new BuildModelActionRunner(),
+                                                                new BuildModelActionRunner(modelCache),
                                                                 new TestExecutionRequestActionRunner(),
                                                                 new ClientProvidedBuildActionRunner())));
             }
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.provider.runner;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.gradle.StartParameter;
+import org.gradle.api.Nullable;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.DependencyResolutionListener;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.ResolvableDependencies;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.file.SourceDirectorySet;
+import org.gradle.api.internal.BeanDynamicObject;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.cache.MemoryPressureListener;
+import org.gradle.groovy.scripts.Script;
+import org.gradle.groovy.scripts.ScriptExecutionListener;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.tooling.internal.provider.SerializedPayload;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Keeps the tooling models built by this process, so that a model request can be answered without configuring the build when none of the inputs of
+ * the model have changed since the model was built. Enabled by setting {@value #ENABLED_PROPERTY}.
+ *
+ * <p>A cached model is used for a request for the same model with the same start parameter, system properties and environment variables, when the
+ * following files are unchanged: the scripts that were run to configure the build, the build file and {@code gradle.properties} of each project, the
+ * settings file and {@code gradle.properties} of the build, the init scripts, {@code init.d} directory and {@code gradle.properties} in the Gradle user home, and the files of the
+ * {@code buildSrc} project. The files of the dependencies that were resolved, including file dependencies and artifacts from local repositories, must
+ * not have been changed, added or removed, and the source directories of each project must not have been added or removed.</p>
+ *
+ * <p>A model is not cached when the build resolves a dynamic or changing dependency, fails to resolve the files of a dependency, or runs a script that is
+ * not read from a local file, as the model could change without any of these inputs changing. Other files that are read by the build scripts, for example
+ * a properties file that is loaded by a script, are not tracked.</p>
+ */
+public class ToolingModelCache implements MemoryPressureListener {
+    public static final String ENABLED_PROPERTY = "org.gradle.tooling.model-cache";
+    private static final int MAX_ENTRIES = 10;
+    private static final String MISSING = "missing";
+    private static final String DIRECTORY = "directory";
+
+    private final Cache<String, CachedModel> models = CacheBuilder.newBuilder().maximumSize(MAX_ENTRIES).build();
+
+    /**
+     * Returns true when models for the given build can be taken from and added to the cache.
+     */
+    public boolean isEnabledFor(StartParameter startParameter) {
+        return Boolean.getBoolean(ENABLED_PROPERTY) && !startParameter.isRefreshDependencies() && !startParameter.isRecompileScripts();
+    }
+
+    public String keyFor(String modelName, StartParameter startParameter) {
+        StringBuilder key = new StringBuilder();
+        key.append(modelName).append('\n');
+        key.append(startParameter.getCurrentDir()).append('\n');
+        key.append(startParameter.getProjectDir()).append('\n');
+        key.append(startParameter.getBuildFile()).append('\n');
+        key.append(startParameter.getSettingsFile()).append('\n');
+        key.append(startParameter.isSearchUpwards()).append(startParameter.isUseEmptySettings()).append(startParameter.isOffline()).append('\n');
+        key.append(startParameter.getGradleUserHomeDir()).append('\n');
+        key.append(startParameter.getTaskNames()).append(new TreeSet<String>(startParameter.getExcludedTaskNames())).append('\n');
+        key.append(new TreeMap<String, String>(startParameter.getProjectProperties())).append('\n');
+        key.append(new TreeMap<String, String>(startParameter.getSystemPropertiesArgs())).append('\n');
+        // The client's system properties and environment variables have been applied to this process
+        key.append(new TreeMap<Object, Object>(System.getProperties())).append('\n');
+        key.append(new TreeMap<String, String>(System.getenv()));
+        return HashUtil.createHash(key.toString(), "MD5").asHexString();
+    }
+
+    /**
+     * Returns the cached model for the given key, or null when there is no model or when the inputs of the model have changed.
+     */
+    @Nullable
+    public SerializedPayload get(String key) {
+        CachedModel cachedModel = models.getIfPresent(key);
+        if (cachedModel == null) {
+            return null;
+        }
+        if (!cachedModel.inputs.equals(fingerprint(cachedModel.inputs.keySet())) || !cachedModel.files.equals(describe(cachedModel.files.keySet()))) {
+            models.invalidate(key);
+            return null;
+        }
+        return cachedModel.model;
+    }
+
+    /**
+     * Starts recording the inputs of a model built for the given build. Must be called before the build is configured.
+     */
+    public InputRecorder startRecording(GradleInternal gradle) {
+        InputRecorder recorder = new InputRecorder();
+        gradle.addListener(recorder);
+        return recorder;
+    }
+
+    /**
+     * Adds the model built for the given build, unless the build used an input that cannot be tracked.
+     */
+    public void put(String key, GradleInternal gradle, InputRecorder recorder, SerializedPayload model) {
+        gradle.removeListener(recorder);
+        if (!recorder.trackable) {
+            return;
+        }
+        Set<File> inputs = new TreeSet<File>(recorder.scripts);
+        StartParameter startParameter = gradle.getStartParameter();
+        inputs.addAll(startParameter.getAllInitScripts());
+        inputs.add(new File(startParameter.getGradleUserHomeDir(), "init.d"));
+        inputs.add(new File(startParameter.getGradleUserHomeDir(), Project.GRADLE_PROPERTIES));
+        File rootDir = gradle.getRootProject().getProjectDir();
+        inputs.add(startParameter.getSettingsFile() != null ? startParameter.getSettingsFile() : new File(rootDir, "settings.gradle"));
+        for (Project project : gradle.getRootProject().getAllprojects()) {
+            inputs.add(project.getBuildFile());
+            inputs.add(new File(project.getProjectDir(), Project.GRADLE_PROPERTIES));
+        }
+        inputs.add(new File(rootDir, "buildSrc"));
+
+        Set<File> files = new TreeSet<File>();
+        for (Project project : gradle.getRootProject().getAllprojects()) {
+            files.addAll(sourceDirsOf(project));
+        }
+        for (ResolvableDependencies dependencies : recorder.getResolvedDependencies()) {
+            try {
+                files.addAll(dependencies.getFiles().getFiles());
+            } catch (RuntimeException e) {
+                // The model may not include the files that could not be resolved
+                return;
+            }
+        }
+        models.put(key, new CachedModel(fingerprint(inputs), describe(files), model));
+    }
+
+    private static Collection<File> sourceDirsOf(Project project) {
+        // The source sets are added by plugins that this module does not depend on
+        if (!project.hasProperty("sourceSets") || !(project.property("sourceSets") instanceof Iterable)) {
+            return Collections.emptySet();
+        }
+        Set<File> sourceDirs = new TreeSet<File>();
+        for (Object sourceSet : (Iterable<?>) project.property("sourceSets")) {
+            BeanDynamicObject properties = new BeanDynamicObject(sourceSet);
+            if (properties.hasProperty("allSource") && properties.getProperty("allSource") instanceof SourceDirectorySet) {
+                sourceDirs.addAll(((SourceDirectorySet) properties.getProperty("allSource")).getSrcDirs());
+            }
+        }
+        return sourceDirs;
+    }
+
+    @Override
+    public void releaseMemory() {
+        models.invalidateAll();
+    }
+
+    private static Map<File, String> fingerprint(Set<File> files) {
+        Map<File, String> fingerprints = new HashMap<File, String>(files.size());
+        for (File file : files) {
+            if (file.isDirectory()) {
+                StringBuilder listing = new StringBuilder();
+                appendTree(file, listing);
+                fingerprints.put(file, HashUtil.createHash(listing.toString(), "MD5").asHexString());
+            } else if (file.isFile()) {
+                fingerprints.put(file, HashUtil.createHash(file, "MD5").asHexString());
+            } else {
+                fingerprints.put(file, MISSING);
+            }
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Describes the given files using their length and timestamp, which is cheaper than hashing the content of many large files, and directories by
+     * their presence only.
+     */
+    private static Map<File, String> describe(Set<File> files) {
+        Map<File, String> descriptions = new HashMap<File, String>(files.size());
+        for (File file : files) {
+            if (file.isDirectory()) {
+                descriptions.put(file, DIRECTORY);
+            } else if (file.isFile()) {
+                descriptions.put(file, file.length() + ":" + file.lastModified());
+            } else {
+                descriptions.put(file, MISSING);
+            }
+        }
+        return descriptions;
+    }
+
+    private static void appendTree(File dir, StringBuilder listing) {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : new TreeSet<File>(Arrays.asList(children))) {
+            if (child.isDirectory()) {
+                // Skip the output of the buildSrc build
+                if (!child.getName().equals("build") && !child.getName().equals(".gradle")) {
+                    appendTree(child, listing);
+                }
+            } else {
+                listing.append(child.getPath()).append(':').append(child.length()).append(':').append(child.lastModified()).append('\n');
+            }
+        }
+    }
+
+    private static boolean isDynamicOrChanging(String version) {
+        return version.endsWith("+") || version.startsWith("[") || version.startsWith("]") || version.startsWith("(")
+            || version.startsWith("latest.") || version.endsWith("-SNAPSHOT");
+    }
+
+    /**
+     * Records the scripts that are run and the dependencies that are resolved, and whether any dependency that is resolved could change without the
+     * inputs of the build changing.
+     */
+    public static class InputRecorder implements ScriptExecutionListener, DependencyResolutionListener {
+        private final Set<File> scripts = Collections.synchronizedSet(new TreeSet<File>());
+        private final List<ResolvableDependencies> resolvedDependencies = new ArrayList<ResolvableDependencies>();
+        private volatile boolean trackable = true;
+
+        @Override
+        public void scriptClassLoaded(ScriptSource source, Class<? extends Script> scriptClass) {
+            File file = source.getResource().getFile();
+            if (file != null) {
+                scripts.add(file);
+            } else if (source.getResource().getLocation().getURI() != null) {
+                trackable = false;
+            }
+        }
+
+        @Override
+        public void beforeResolve(ResolvableDependencies dependencies) {
+            for (Dependency dependency : dependencies.getDependencies()) {
+                if (dependency instanceof ExternalModuleDependency && ((ExternalModuleDependency) dependency).isChanging()) {
+                    trackable = false;
+                }
+            }
+        }
+
+        @Override
+        public void afterResolve(ResolvableDependencies dependencies) {
+            for (DependencyResult dependency : dependencies.getResolutionResult().getAllDependencies()) {
+                ComponentSelector requested = dependency.getRequested();
+                if (requested instanceof ModuleComponentSelector && isDynamicOrChanging(((ModuleComponentSelector) requested).getVersion())) {
+                    trackable = false;
+                }
+            }
+            synchronized (resolvedDependencies) {
+                resolvedDependencies.add(dependencies);
+            }
+        }
+
+        private List<ResolvableDependencies> getResolvedDependencies() {
+            synchronized (resolvedDependencies) {
+                return new ArrayList<ResolvableDependencies>(resolvedDependencies);
+            }
+        }
+    }
+
+    private static class CachedModel {
+        private final Map<File, String> inputs;
+        private final Map<File, String> files;
+        private final SerializedPayload model;
+
+        private CachedModel(Map<File, String> inputs, Map<File, String> files, SerializedPayload model) {
+            this.inputs = inputs;
+            this.files = files;
+            this.model = model;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.gradle.internal.service.ServiceRegistry
 import org.gradle.tooling.internal.protocol.InternalBuildAction
 import org.gradle.tooling.internal.protocol.InternalBuildActionFailureException
 import org.gradle.tooling.internal.protocol.InternalBuildCancelledException
+import org.gradle.tooling.internal.protocol.InternalStreamedValueRelay
 import org.gradle.tooling.internal.provider.*
 import spock.lang.Specification
 
@@ -45,7 +46,7 @@ class ClientProvidedBuildActionRunnerTest extends Specification {
             }
         }
     }
-    def clientProvidedBuildAction = new ClientProvidedBuildAction(startParameter, action, clientSubscriptions)
+    def clientProvidedBuildAction = new ClientProvidedBuildAction(startParameter, action, clientSubscriptions, false)
     def runner = new ClientProvidedBuildActionRunner()
 
     def "can run action and returns result when completed"() {
@@ -67,6 +68,45 @@ class ClientProvidedBuildActionRunnerTest extends Specification {
         }
     }
 
+    def "sends values from action to client when client listens for them"() {
+        given:
+        def value = new Object()
+        def serializedValue = Mock(SerializedPayload)
+        def internalAction = Mock(InternalBuildAction)
+        def streamingAction = new ClientProvidedBuildAction(startParameter, action, clientSubscriptions, true)
+
+        when:
+        runner.run(streamingAction, buildController)
+
+        then:
+        1 * payloadSerializer.deserialize(action) >> internalAction
+        1 * internalAction.execute(_) >> { InternalStreamedValueRelay controller ->
+            controller.dispatch(value)
+            return null
+        }
+        1 * payloadSerializer.serialize(value) >> serializedValue
+        1 * buildEventConsumer.dispatch({ it instanceof StreamedValue && it.value == serializedValue })
+        1 * buildController.setResult(_)
+    }
+
+    def "discards values from action when client does not listen for them"() {
+        given:
+        def value = new Object()
+        def internalAction = Mock(InternalBuildAction)
+
+        when:
+        runner.run(clientProvidedBuildAction, buildController)
+
+        then:
+        1 * payloadSerializer.deserialize(action) >> internalAction
+        1 * internalAction.execute(_) >> { InternalStreamedValueRelay controller ->
+            controller.dispatch(value)
+            return null
+        }
+        0 * payloadSerializer.serialize(value)
+        0 * buildEventConsumer._
+    }
+
     def "can run action and reports failure"() {
         given:
         def failure = new RuntimeException()
@@ -47,7 +47,7 @@ class DefaultBuildControllerTest extends Specification {
         getName() >> 'some.model'
     }
     def modelBuilder = Stub(ToolingModelBuilder)
-    def controller = new DefaultBuildController(gradle)
+    def controller = new DefaultBuildController(gradle, null)
 
     def "adapts model not found exception to protocol exception"() {
         def failure = new UnknownModelException("not found")
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.provider.runner
+
+import org.gradle.StartParameter
+import org.gradle.api.Project
+import org.gradle.api.artifacts.ResolvableDependencies
+import org.gradle.api.artifacts.result.ResolutionResult
+import org.gradle.api.file.FileCollection
+import org.gradle.api.file.SourceDirectorySet
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.internal.resource.ResourceLocation
+import org.gradle.internal.resource.TextResource
+import org.gradle.tooling.internal.provider.SerializedPayload
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class ToolingModelCacheTest extends Specification {
+    @Rule TemporaryFolder tmp = new TemporaryFolder()
+
+    def cache = new ToolingModelCache()
+    def model = new SerializedPayload(null, [1, 2, 3] as byte[])
+    File rootDir
+    File buildFile
+    ProjectInternal project
+    GradleInternal gradle
+
+    def setup() {
+        rootDir = tmp.newFolder("root")
+        buildFile = new File(rootDir, "build.gradle")
+        buildFile.text = "apply plugin: 'java'"
+        def startParameter = new StartParameter()
+        startParameter.gradleUserHomeDir = tmp.newFolder("user-home")
+        project = Stub(ProjectInternal) {
+            getProjectDir() >> rootDir
+            getBuildFile() >> buildFile
+        }
+        project.getAllprojects() >> ([project] as Set<Project>)
+        gradle = Stub(GradleInternal) {
+            getStartParameter() >> startParameter
+            getRootProject() >> project
+        }
+    }
+
+    def "returns cached model while inputs are unchanged"() {
+        given:
+        def recorder = cache.startRecording(gradle)
+        cache.put("key", gradle, recorder, model)
+
+        expect:
+        cache.get("key").is(model)
+        cache.get("other") == null
+    }
+
+    def "discards cached model when build file changes"() {
+        given:
+        def recorder = cache.startRecording(gradle)
+        cache.put("key", gradle, recorder, model)
+
+        when:
+        buildFile.text = "apply plugin: 'groovy'"
+
+        then:
+        cache.get("key") == null
+    }
+
+    def "discards cached model when a file is added to buildSrc"() {
+        given:
+        def recorder = cache.startRecording(gradle)
+        cache.put("key", gradle, recorder, model)
+
+        when:
+        def source = new File(rootDir, "buildSrc/src/main/groovy/Plugin.groovy")
+        source.parentFile.mkdirs()
+        source.text = "class Plugin {}"
+
+        then:
+        cache.get("key") == null
+    }
+
+    def "discards cached model when a script that was run changes"() {
+        given:
+        def script = new File(rootDir, "other.gradle")
+        script.text = "println 'hello'"
+        def recorder = cache.startRecording(gradle)
+        recorder.scriptClassLoaded(scriptSource(script), null)
+        cache.put("key", gradle, recorder, model)
+
+        when:
+        script.text = "println 'goodbye'"
+
+        then:
+        cache.get("key") == null
+    }
+
+    def "does not cache model when a script is not read from a local file"() {
+        given:
+        def recorder = cache.startRecording(gradle)
+        def resource = Stub(TextResource) {
+            getLocation() >> Stub(ResourceLocation) {
+                getURI() >> new URI("http://example.com/script.gradle")
+            }
+        }
+        recorder.scriptClassLoaded(Stub(ScriptSource) { getResource() >> resource }, null)
+        cache.put("key", gradle, recorder, model)
+
+        expect:
+        cache.get("key") == null
+    }
+
+    def "discards cached model when a resolved dependency file changes"() {
+        given:
+        def jar = tmp.newFile("lib.jar")
+        jar.text = "content"
+        def fileDependency = tmp.newFile("classes.jar")
+        def recorder = cache.startRecording(gradle)
+        recorder.afterResolve(resolved(jar, fileDependency))
+        cache.put("key", gradle, recorder, model)
+
+        expect:
+        cache.get("key").is(model)
+
+        when:
+        jar.text = "changed content"
+
+        then:
+        cache.get("key") == null
+    }
+
+    def "discards cached model when a resolved dependency file is removed"() {
+        given:
+        def jar = tmp.newFile("lib.jar")
+        def recorder = cache.startRecording(gradle)
+        recorder.afterResolve(resolved(jar))
+        cache.put("key", gradle, recorder, model)
+
+        when:
+        jar.delete()
+
+        then:
+        cache.get("key") == null
+    }
+
+    def "does not cache model when the files of a dependency cannot be resolved"() {
+        given:
+        def dependencies = Stub(ResolvableDependencies) {
+            getResolutionResult() >> Stub(ResolutionResult) {
+                getAllDependencies() >> ([] as Set)
+            }
+            getFiles() >> Stub(FileCollection) {
+                getFiles() >> { throw new RuntimeException("broken") }
+            }
+        }
+        def recorder = cache.startRecording(gradle)
+        recorder.afterResolve(dependencies)
+        cache.put("key", gradle, recorder, model)
+
+        expect:
+        cache.get("key") == null
+    }
+
+    def "discards cached model when a source directory is added"() {
+        given:
+        def srcDir = new File(rootDir, "src/main/java")
+        def sourceSet = new TestSourceSet(allSource: Stub(SourceDirectorySet) {
+            getSrcDirs() >> ([srcDir] as Set)
+        })
+        project.hasProperty("sourceSets") >> true
+        project.property("sourceSets") >> [sourceSet]
+        def recorder = cache.startRecording(gradle)
+        cache.put("key", gradle, recorder, model)
+
+        expect:
+        cache.get("key").is(model)
+
+        when:
+        srcDir.mkdirs()
+
+        then:
+        cache.get("key") == null
+    }
+
+    def "keeps cached model when a source file changes"() {
+        given:
+        def srcDir = new File(rootDir, "src/main/java")
+        srcDir.mkdirs()
+        def sourceSet = new TestSourceSet(allSource: Stub(SourceDirectorySet) {
+            getSrcDirs() >> ([srcDir] as Set)
+        })
+        project.hasProperty("sourceSets") >> true
+        project.property("sourceSets") >> [sourceSet]
+        def recorder = cache.startRecording(gradle)
+        cache.put("key", gradle, recorder, model)
+
+        when:
+        new File(srcDir, "Thing.java").text = "class Thing {}"
+
+        then:
+        cache.get("key").is(model)
+    }
+
+    def "discards all models when memory is released"() {
+        given:
+        def recorder = cache.startRecording(gradle)
+        cache.put("key", gradle, recorder, model)
+
+        when:
+        cache.releaseMemory()
+
+        then:
+        cache.get("key") == null
+    }
+
+    def "key differs for different models and start parameters"() {
+        given:
+        def startParameter = new StartParameter()
+        def otherStartParameter = new StartParameter()
+        otherStartParameter.projectProperties = [prop: "value"]
+
+        expect:
+        cache.keyFor("model", startParameter) == cache.keyFor("model", new StartParameter())
+        cache.keyFor("model", startParameter) != cache.keyFor("other", startParameter)
+        cache.keyFor("model", startParameter) != cache.keyFor("model", otherStartParameter)
+    }
+
+    def "is not enabled when dependencies are refreshed"() {
+        given:
+        def startParameter = new StartParameter()
+        startParameter.refreshDependencies = true
+
+        expect:
+        !cache.isEnabledFor(startParameter)
+    }
+
+    private ResolvableDependencies resolved(File... files) {
+        return Stub(ResolvableDependencies) {
+            getResolutionResult() >> Stub(ResolutionResult) {
+                getAllDependencies() >> ([] as Set)
+            }
+            getFiles() >> Stub(FileCollection) {
+                getFiles() >> (files as Set)
+            }
+        }
+    }
+
+    static class TestSourceSet {
+        SourceDirectorySet allSource
+    }
+
+    private ScriptSource scriptSource(File file) {
+        def resource = Stub(TextResource) {
+            getFile() >> file
+        }
+        return Stub(ScriptSource) {
+            getResource() >> resource
+        }
+    }
+}
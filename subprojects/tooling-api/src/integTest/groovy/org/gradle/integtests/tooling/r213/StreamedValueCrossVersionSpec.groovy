@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.integtests.tooling.r213
+
+import org.gradle.integtests.tooling.fixture.TargetGradleVersion
+import org.gradle.integtests.tooling.fixture.ToolingApiSpecification
+import org.gradle.integtests.tooling.fixture.ToolingApiVersion
+import org.gradle.tooling.BuildActionFailureException
+import org.gradle.tooling.ListenerFailedException
+import org.gradle.tooling.StreamedValueListener
+import org.gradle.tooling.UnsupportedVersionException
+
+@ToolingApiVersion(">=2.13")
+@TargetGradleVersion(">=2.13")
+class StreamedValueCrossVersionSpec extends ToolingApiSpecification {
+    def setup() {
+        file("settings.gradle") << """
+rootProject.name = 'root'
+include 'a', 'b'
+"""
+    }
+
+    def "client receives values sent by the action before the result"() {
+        def received = Collections.synchronizedList([])
+
+        when:
+        def result = withConnection {
+            it.action(new SendProjectNamesAction())
+                .setStreamedValueListener({ received << it } as StreamedValueListener)
+                .run()
+        }
+        received << "result ${result}"
+
+        then:
+        received == ["root", "a", "b", "result 3"]
+    }
+
+    def "action can send values when client has not registered a listener"() {
+        when:
+        def result = withConnection { it.action(new SendProjectNamesAction()).run() }
+
+        then:
+        result == 3
+    }
+
+    def "client receives failure of the listener when the action completes"() {
+        def failure = new RuntimeException("broken listener")
+        def received = []
+
+        when:
+        withConnection {
+            it.action(new SendProjectNamesAction())
+                .setStreamedValueListener({ received << it; throw failure } as StreamedValueListener)
+                .run()
+        }
+
+        then:
+        ListenerFailedException e = thrown()
+        e.message.startsWith("Could not run build action using")
+        e.causes == [failure]
+
+        and: "values sent after the failure are discarded"
+        received == ["root"]
+    }
+
+    @TargetGradleVersion(">=1.8 <2.13")
+    def "action receives UnsupportedVersionException when target Gradle version does not support sending values"() {
+        when:
+        withConnection {
+            it.action(new SendProjectNamesAction())
+                .setStreamedValueListener({ throw new AssertionError("Should not receive values") } as StreamedValueListener)
+                .run()
+        }
+
+        then:
+        BuildActionFailureException e = thrown()
+        e.cause instanceof UnsupportedVersionException
+        e.cause.message == "The version of Gradle you are using does not support sending values from a build action to the client. Support for this is available in Gradle 2.13 and all later versions."
+    }
+}
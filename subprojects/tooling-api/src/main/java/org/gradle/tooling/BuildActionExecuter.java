@@ -55,4 +55,14 @@ public interface BuildActionExecuter<T> extends ConfigurableLauncher<BuildAction
      * @since 1.8
      */
     void run(ResultHandler<? super T> handler) throws IllegalStateException;
+
+    /**
+     * Sets the listener that receives the values that the action sends using {@link BuildController#send(Object)}. The listener is called from a thread
+     * managed by the Tooling API, while the action is running, so that values can be processed as they arrive.
+     *
+     * @param listener The listener.
+     * @return this
+     * @since 2.13
+     */
+    BuildActionExecuter<T> setStreamedValueListener(StreamedValueListener listener);
 }
@@ -111,4 +111,18 @@ public interface BuildController {
      */
     @Nullable
     <T> T findModel(Model target, Class<T> modelType);
+
+    /**
+     * Sends a value to the client while the action is still running. The value is passed to the {@link StreamedValueListener} registered using
+     * {@link BuildActionExecuter#setStreamedValueListener(StreamedValueListener)}, and is discarded when there is no such listener.
+     *
+     * <p>This allows an action to hand over a large result in parts as they become available, for example the model of each project, instead of
+     * returning all of them at once as the result of the action. Each part is serialized and transferred to the client separately, so neither the
+     * build process nor the client has to hold the entire result in memory at the same time.</p>
+     *
+     * @param value The value to send. Must be serializable.
+     * @throws UnsupportedVersionException When the target Gradle version does not support streaming values to the client.
+     * @since 2.13
+     */
+    void send(Object value) throws UnsupportedVersionException;
 }
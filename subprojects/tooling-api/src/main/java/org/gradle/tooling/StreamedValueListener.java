@@ -0,0 +1,35 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling;
+
+import org.gradle.api.Incubating;
+
+/**
+ * A listener which is notified when a {@link BuildAction} sends a value using {@link BuildController#send(Object)}.
+ *
+ * @since 2.13
+ */
+@Incubating
+public interface StreamedValueListener {
+    /**
+     * Called when a value sent by the action is received. Values are received in the order in which they were sent, before the result of the action.
+     *
+     * @param value The value, deserialized using the class loaders of the action.
+     * @since 2.13
+     */
+    void onValue(Object value);
+}
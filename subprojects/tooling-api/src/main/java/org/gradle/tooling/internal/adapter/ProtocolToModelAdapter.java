@@ -17,6 +17,7 @@ package org.gradle.tooling.internal.adapter;
 
 import com.google.common.base.Optional;
 import org.gradle.api.Action;
+import org.gradle.api.Nullable;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.reflect.DirectInstantiator;
 import org.gradle.internal.typeconversion.EnumFromCharSequenceNotationParser;
@@ -32,7 +33,8 @@ import java.io.Serializable;
 import java.lang.ref.SoftReference;
 import java.lang.reflect.*;
 import java.util.*;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -384,8 +386,7 @@ public class ProtocolToModelAdapter implements Serializable {
     }
 
     private static class MethodInvocationCache {
-        private final Map<MethodInvocationKey, Optional<Method>> store = new HashMap<MethodInvocationKey, Optional<Method>>();
-        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final ConcurrentMap<MethodInvocationKey, Optional<Method>> store = new ConcurrentHashMap<MethodInvocationKey, Optional<Method>>();
         private final static long MINIMAL_CLEANUP_INTERVAL = 30000;
 
         // For stats we don't really care about thread safety
@@ -393,18 +394,14 @@ public class ProtocolToModelAdapter implements Serializable {
         private int cacheHit;
         private int evict;
 
-        private long lastCleanup = System.currentTimeMillis();
+        private volatile long lastCleanup = System.currentTimeMillis();
 
-        private static class MethodInvocationKey {
-            private final SoftReference<Class<?>> lookupClass;
+        private static abstract class MethodInvocationKey {
             private final String methodName;
-            private final SoftReference<Class<?>[]> parameterTypes;
             private final int hashCode;
 
             private MethodInvocationKey(Class<?> lookupClass, String methodName, Class<?>[] parameterTypes) {
-                this.lookupClass = new SoftReference<Class<?>>(lookupClass);
                 this.methodName = methodName;
-                this.parameterTypes = new SoftReference<Class<?>[]>(parameterTypes);
                 // hashcode will always be used, so we precompute it in order to make sure we
                 // won't compute it multiple times during comparisons
                 int result = lookupClass != null ? lookupClass.hashCode() : 0;
@@ -413,8 +410,14 @@ public class ProtocolToModelAdapter implements Serializable {
                 this.hashCode = result;
             }
 
+            @Nullable
+            protected abstract Class<?> getLookupClass();
+
+            @Nullable
+            protected abstract Class<?>[] getParameterTypes();
+
             public boolean isDirty() {
-                return lookupClass.get() == null || parameterTypes.get() == null;
+                return getLookupClass() == null || getParameterTypes() == null;
             }
 
             @Override
@@ -422,47 +425,73 @@ public class ProtocolToModelAdapter implements Serializable {
                 if (this == o) {
                     return true;
                 }
-                if (o == null || getClass() != o.getClass()) {
+                if (!(o instanceof MethodInvocationKey)) {
                     return false;
                 }
 
                 MethodInvocationKey that = (MethodInvocationKey) o;
-
-                if (isDirty() && that.isDirty()) {
-                    return true;
-                }
-                if (!eq(lookupClass, that.lookupClass)) {
+                if (hashCode != that.hashCode || !methodName.equals(that.methodName)) {
                     return false;
                 }
-                if (!methodName.equals(that.methodName)) {
+                Class<?> lookupClass = getLookupClass();
+                if (lookupClass == null || lookupClass != that.getLookupClass()) {
                     return false;
                 }
-                return eq(parameterTypes, that.parameterTypes);
+                Class<?>[] parameterTypes = getParameterTypes();
+                return parameterTypes != null && Arrays.equals(parameterTypes, that.getParameterTypes());
+            }
 
+            @Override
+            public int hashCode() {
+                return hashCode;
             }
+        }
 
-            private static boolean eq(SoftReference<?> aRef, SoftReference<?> bRef) {
-                Object a = aRef.get();
-                Object b = bRef.get();
-                return eq(a, b);
+        /**
+         * The key stored in the cache, which does not prevent the classes it refers to from being collected.
+         */
+        private static class StoredMethodInvocationKey extends MethodInvocationKey {
+            private final SoftReference<Class<?>> lookupClass;
+            private final SoftReference<Class<?>[]> parameterTypes;
+
+            private StoredMethodInvocationKey(Class<?> lookupClass, String methodName, Class<?>[] parameterTypes) {
+                super(lookupClass, methodName, parameterTypes);
+                this.lookupClass = new SoftReference<Class<?>>(lookupClass);
+                this.parameterTypes = new SoftReference<Class<?>[]>(parameterTypes);
             }
 
-            private static boolean eq(Object a, Object b) {
-                if (a == b) {
-                    return true;
-                }
-                if (a == null) {
-                    return false;
-                }
-                if (a.getClass().isArray()) {
-                    return Arrays.equals((Object[]) a, (Object[]) b);
-                }
-                return a.equals(b);
+            @Override
+            protected Class<?> getLookupClass() {
+                return lookupClass.get();
             }
 
             @Override
-            public int hashCode() {
-                return hashCode;
+            protected Class<?>[] getParameterTypes() {
+                return parameterTypes.get();
+            }
+        }
+
+        /**
+         * The key used to look up a method, which is only referenced for the duration of the lookup.
+         */
+        private static class LookupMethodInvocationKey extends MethodInvocationKey {
+            private final Class<?> lookupClass;
+            private final Class<?>[] parameterTypes;
+
+            private LookupMethodInvocationKey(Class<?> lookupClass, String methodName, Class<?>[] parameterTypes) {
+                super(lookupClass, methodName, parameterTypes);
+                this.lookupClass = lookupClass;
+                this.parameterTypes = parameterTypes;
+            }
+
+            @Override
+            protected Class<?> getLookupClass() {
+                return lookupClass;
+            }
+
+            @Override
+            protected Class<?>[] getParameterTypes() {
+                return parameterTypes;
             }
         }
 
@@ -470,38 +499,18 @@ public class ProtocolToModelAdapter implements Serializable {
             Class<?> owner = invocation.getDelegate().getClass();
             String name = invocation.getName();
             Class<?>[] parameterTypes = invocation.getParameterTypes();
-            MethodInvocationKey key = new MethodInvocationKey(
-                owner,
-                name,
-                parameterTypes
-            );
-            lock.readLock().lock();
-            Optional<Method> cached = store.get(key);
+            Optional<Method> cached = store.get(new LookupMethodInvocationKey(owner, name, parameterTypes));
             if (cached == null) {
                 cacheMiss++;
-                lock.readLock().unlock();
-                lock.writeLock().lock();
-                try {
-                    cached = store.get(key);
-                    if (cached == null) {
-                        cached = lookup(owner, name, parameterTypes);
-                        if (cacheMiss % 10 == 0) {
-                            removeDirtyEntries();
-                        }
-                        store.put(key, cached);
-                    }
-                    lock.readLock().lock();
-                } finally {
-                    lock.writeLock().unlock();
+                cached = lookup(owner, name, parameterTypes);
+                if (cacheMiss % 10 == 0) {
+                    removeDirtyEntries();
                 }
+                store.put(new StoredMethodInvocationKey(owner, name, parameterTypes), cached);
             } else {
                 cacheHit++;
             }
-            try {
-                return cached.orNull();
-            } finally {
-                lock.readLock().unlock();
-            }
+            return cached.orNull();
         }
 
         /**
@@ -513,17 +522,12 @@ public class ProtocolToModelAdapter implements Serializable {
             if (now - lastCleanup < MINIMAL_CLEANUP_INTERVAL) {
                 return;
             }
-            lock.writeLock().lock();
-            try {
-                for (MethodInvocationKey key : new LinkedList<MethodInvocationKey>(store.keySet())) {
-                    if (key.isDirty()) {
-                        evict++;
-                        store.remove(key);
-                    }
+            lastCleanup = now;
+            for (MethodInvocationKey key : store.keySet()) {
+                if (key.isDirty()) {
+                    evict++;
+                    store.remove(key);
                 }
-            } finally {
-                lastCleanup = now;
-                lock.writeLock().unlock();
             }
         }
 
@@ -587,8 +591,8 @@ public class ProtocolToModelAdapter implements Serializable {
     }
 
     private static class PropertyCachingMethodInvoker implements MethodInvoker {
-        private final Map<String, Object> properties = new HashMap<String, Object>();
-        private final Set<String> unknown = new HashSet<String>();
+        private final Map<String, Object> properties = new HashMap<String, Object>(4);
+        private Set<String> unknown;
         private final MethodInvoker next;
 
         private PropertyCachingMethodInvoker(MethodInvoker next) {
@@ -601,13 +605,16 @@ public class ProtocolToModelAdapter implements Serializable {
                     method.setResult(properties.get(method.getName()));
                     return;
                 }
-                if (unknown.contains(method.getName())) {
+                if (unknown != null && unknown.contains(method.getName())) {
                     return;
                 }
 
                 Object value;
                 next.invoke(method);
                 if (!method.found()) {
+                    if (unknown == null) {
+                        unknown = new HashSet<String>();
+                    }
                     unknown.add(method.getName());
                     return;
                 }
@@ -656,7 +663,13 @@ public class ProtocolToModelAdapter implements Serializable {
         }
 
         public void invoke(MethodInvocation invocation) throws Throwable {
-            Matcher matcher = IS_SUPPORT_METHOD.matcher(invocation.getName());
+            // Avoid the cost of matching the pattern for most methods
+            String name = invocation.getName();
+            if (!name.startsWith("is") || !name.endsWith("Supported")) {
+                next.invoke(invocation);
+                return;
+            }
+            Matcher matcher = IS_SUPPORT_METHOD.matcher(name);
             if (!matcher.matches()) {
                 next.invoke(invocation);
                 return;
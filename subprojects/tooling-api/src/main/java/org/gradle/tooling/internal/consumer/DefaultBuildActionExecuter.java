@@ -21,6 +21,7 @@ import org.gradle.tooling.BuildAction;
 import org.gradle.tooling.BuildActionExecuter;
 import org.gradle.tooling.GradleConnectionException;
 import org.gradle.tooling.ResultHandler;
+import org.gradle.tooling.StreamedValueListener;
 import org.gradle.tooling.internal.consumer.async.AsyncConsumerActionExecutor;
 import org.gradle.tooling.internal.consumer.connection.ConsumerAction;
 import org.gradle.tooling.internal.consumer.connection.ConsumerConnection;
@@ -42,6 +43,11 @@ class DefaultBuildActionExecuter<T> extends AbstractLongRunningOperation<Default
         return this;
     }
 
+    public BuildActionExecuter<T> setStreamedValueListener(StreamedValueListener listener) {
+        operationParamsBuilder.setStreamedValueListener(listener);
+        return getThis();
+    }
+
     public T run() throws GradleConnectionException {
         BlockingResultHandler<Object> handler = new BlockingResultHandler<Object>(Object.class);
         run(handler);
@@ -18,10 +18,12 @@ package org.gradle.tooling.internal.consumer.connection;
 
 import org.gradle.tooling.BuildController;
 import org.gradle.tooling.UnknownModelException;
+import org.gradle.tooling.UnsupportedVersionException;
 import org.gradle.tooling.internal.adapter.ProtocolToModelAdapter;
 import org.gradle.tooling.internal.consumer.versioning.ModelMapping;
 import org.gradle.tooling.internal.protocol.BuildResult;
 import org.gradle.tooling.internal.protocol.InternalBuildController;
+import org.gradle.tooling.internal.protocol.InternalStreamedValueRelay;
 import org.gradle.tooling.internal.protocol.InternalUnsupportedModelException;
 import org.gradle.tooling.internal.protocol.ModelIdentifier;
 import org.gradle.tooling.model.gradle.GradleBuild;
@@ -78,4 +80,11 @@ class BuildControllerAdapter implements BuildController {
 
         return adapter.adapt(modelType, result.getModel());
     }
+
+    public void send(Object value) {
+        if (!(buildController instanceof InternalStreamedValueRelay)) {
+            throw new UnsupportedVersionException("The version of Gradle you are using does not support sending values from a build action to the client. Support for this is available in Gradle 2.13 and all later versions.");
+        }
+        ((InternalStreamedValueRelay) buildController).dispatch(value);
+    }
 }
@@ -21,6 +21,7 @@ import org.gradle.initialization.BuildCancellationToken;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.composite.GradleParticipantBuild;
 import org.gradle.tooling.CancellationToken;
+import org.gradle.tooling.StreamedValueListener;
 import org.gradle.tooling.internal.connection.DefaultBuildIdentifier;
 import org.gradle.tooling.model.BuildIdentifier;
 import org.gradle.tooling.events.ProgressListener;
@@ -68,6 +69,7 @@ public class ConsumerOperationParameters implements BuildOperationParametersVers
         private List<InternalLaunchable> launchables;
         private ClassPath injectedPluginClasspath = ClassPath.EMPTY;
         private BuildIdentifier buildIdentifier;
+        private StreamedValueListener streamedValueListener;
 
         private Builder() {
         }
@@ -169,6 +171,10 @@ public class ConsumerOperationParameters implements BuildOperationParametersVers
             buildOperationProgressListeners.add(listener);
         }
 
+        public void setStreamedValueListener(StreamedValueListener streamedValueListener) {
+            this.streamedValueListener = streamedValueListener;
+        }
+
         public void setCancellationToken(CancellationToken cancellationToken) {
             this.cancellationToken = cancellationToken;
         }
@@ -189,7 +195,7 @@ public class ConsumerOperationParameters implements BuildOperationParametersVers
             }
 
             return new ConsumerOperationParameters(entryPoint, parameters, stdout, stderr, colorOutput, stdin, javaHome, jvmArguments, arguments, tasks, launchables, injectedPluginClasspath,
-                legacyProgressListeners, testProgressListeners, taskProgressListeners, buildOperationProgressListeners, cancellationToken, buildIdentifier);
+                legacyProgressListeners, testProgressListeners, taskProgressListeners, buildOperationProgressListeners, cancellationToken, buildIdentifier, streamedValueListener);
         }
 
         public void copyFrom(ConsumerOperationParameters operationParameters) {
@@ -208,6 +214,7 @@ public class ConsumerOperationParameters implements BuildOperationParametersVers
             colorOutput = operationParameters.colorOutput;
             javaHome = operationParameters.javaHome;
             injectedPluginClasspath = operationParameters.injectedPluginClasspath;
+            streamedValueListener = operationParameters.streamedValueListener;
         }
     }
 
@@ -235,11 +242,13 @@ public class ConsumerOperationParameters implements BuildOperationParametersVers
     private final List<ProgressListener> testProgressListeners;
     private final List<ProgressListener> taskProgressListeners;
     private final List<ProgressListener> buildOperationProgressListeners;
+    private final StreamedValueListener streamedValueListener;
 
     private ConsumerOperationParameters(String entryPointName, ConnectionParameters parameters, OutputStream stdout, OutputStream stderr, Boolean colorOutput, InputStream stdin,
                                         File javaHome, List<String> jvmArguments, List<String> arguments, List<String> tasks, List<InternalLaunchable> launchables, ClassPath injectedPluginClasspath,
                                         List<org.gradle.tooling.ProgressListener> legacyProgressListeners, List<ProgressListener> testProgressListeners, List<ProgressListener> taskProgressListeners,
-                                        List<ProgressListener> buildOperationProgressListeners, CancellationToken cancellationToken, BuildIdentifier buildIdentifier) {
+                                        List<ProgressListener> buildOperationProgressListeners, CancellationToken cancellationToken, BuildIdentifier buildIdentifier,
+                                        StreamedValueListener streamedValueListener) {
         this.entryPointName = entryPointName;
         this.parameters = parameters;
         this.stdout = stdout;
@@ -258,6 +267,7 @@ public class ConsumerOperationParameters implements BuildOperationParametersVers
         this.testProgressListeners = testProgressListeners;
         this.taskProgressListeners = taskProgressListeners;
         this.buildOperationProgressListeners = buildOperationProgressListeners;
+        this.streamedValueListener = streamedValueListener;
 
         // create the listener adapters right when the ConsumerOperationParameters are instantiated but no earlier,
         // this ensures that when multiple requests are issued that are built from the same builder, such requests do not share any state kept in the listener adapters
@@ -409,6 +419,13 @@ public class ConsumerOperationParameters implements BuildOperationParametersVers
         return buildProgressListener;
     }
 
+    /**
+     * @since 2.13-rc-1
+     */
+    public InternalStreamedValueListener getStreamedValueListener() {
+        return streamedValueListener == null ? null : new StreamedValueListenerAdapter(streamedValueListener);
+    }
+
     public BuildCancellationToken getCancellationToken() {
         return ((CancellationTokenInternal) cancellationToken).getToken();
     }
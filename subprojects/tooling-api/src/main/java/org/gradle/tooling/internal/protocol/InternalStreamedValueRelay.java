@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.protocol;
+
+/**
+ * Mixed into a provider's {@link InternalBuildController}, to allow a client-provided action to send values to the client while the action is running.
+ *
+ * <p>DO NOT CHANGE THIS INTERFACE - it is part of the cross-version protocol.
+ *
+ * <p>Consumer compatibility: This interface is used by all consumer versions from 2.13-rc-1.</p>
+ * <p>Provider compatibility: This interface is implemented by all provider versions from 2.13-rc-1.</p>
+ *
+ * @since 2.13-rc-1
+ */
+public interface InternalStreamedValueRelay {
+    /**
+     * Sends the given value to the client. The value is passed to the {@link InternalStreamedValueListener} provided by the client, if any, before the
+     * result of the action. The value must be serializable.
+     *
+     * <p>Consumer compatibility: This method is used by all consumer versions from 2.13-rc-1.</p>
+     * <p>Provider compatibility: This method is implemented by all provider versions from 2.13-rc-1.</p>
+     *
+     * @since 2.13-rc-1
+     */
+    void dispatch(Object value);
+}
@@ -432,6 +432,25 @@ class ProtocolToModelAdapterTest extends Specification {
         }
     }
 
+    def "locates methods separately for each type of source object"() {
+        given:
+        def project = adapter.adapt(TestProject.class, new TestProtocolProjectImpl())
+        def partial = adapter.adapt(TestModel.class, new PartialTestProtocolModelImpl())
+        def other = adapter.adapt(TestModel.class, new Object())
+
+        expect:
+        project.name == "name"
+        partial.name == "partial"
+        !partial.configSupported
+
+        when:
+        other.name
+
+        then:
+        UnsupportedMethodException e = thrown()
+        e.message.contains "TestModel.getName()"
+    }
+
     def "view objects can be serialized"() {
         def protocolModel = new TestProtocolProjectImpl()
 
@@ -531,6 +550,10 @@ class TestProtocolProjectImpl implements Serializable {
     String name = "name"
 }
 
+class PartialTestProtocolModelImpl implements PartialTestProtocolModel {
+    String name = "partial"
+}
+
 class ConfigMixin {
     TestModel model
 
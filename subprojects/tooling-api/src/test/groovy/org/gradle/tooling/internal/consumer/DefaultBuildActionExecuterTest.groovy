@@ -20,9 +20,11 @@ import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 import org.gradle.tooling.BuildAction
 import org.gradle.tooling.GradleConnectionException
 import org.gradle.tooling.ResultHandler
+import org.gradle.tooling.StreamedValueListener
 import org.gradle.tooling.internal.consumer.async.AsyncConsumerActionExecutor
 import org.gradle.tooling.internal.consumer.connection.ConsumerAction
 import org.gradle.tooling.internal.consumer.connection.ConsumerConnection
+import org.gradle.tooling.internal.consumer.parameters.ConsumerOperationParameters
 import org.gradle.tooling.internal.protocol.ResultHandlerVersion1
 import org.gradle.tooling.model.GradleProject
 
@@ -59,6 +61,27 @@ class DefaultBuildActionExecuterTest extends ConcurrentSpec {
         0 * _._
     }
 
+    def "passes values sent by action to streamed value listener"() {
+        StreamedValueListener listener = Mock()
+        ResultHandler<GradleProject> handler = Mock()
+
+        when:
+        executer.setStreamedValueListener(listener)
+        executer.run(handler)
+
+        then:
+        1 * asyncConnection.run(!null, !null) >> { args ->
+            ConsumerAction<GradleProject> action = args[0]
+            action.run(connection)
+        }
+        1 * connection.run(action, _) >> { args ->
+            ConsumerOperationParameters operationParameters = args[1]
+            operationParameters.streamedValueListener.onValue("value")
+            return null
+        }
+        1 * listener.onValue("value")
+    }
+
     def "notifies handler of failure"() {
         ResultHandlerVersion1<GradleProject> adaptedHandler
         ResultHandler<GradleProject> handler = Mock()
@@ -17,6 +17,7 @@
 package org.gradle.tooling.internal.consumer.connection
 
 import org.gradle.tooling.UnknownModelException
+import org.gradle.tooling.UnsupportedVersionException
 import org.gradle.tooling.internal.adapter.ProtocolToModelAdapter
 import org.gradle.tooling.internal.consumer.versioning.ModelMapping
 import org.gradle.tooling.internal.protocol.*
@@ -119,4 +120,28 @@ class BuildControllerAdapterTest extends Specification {
         and:
         1 * internalController.getModel(null, _) >> { throw new InternalUnsupportedModelException() }
     }
+
+    def "sends value to client"() {
+        def streamingController = Mock(StreamingBuildController)
+        def controller = new BuildControllerAdapter(adapter, streamingController, mapping)
+        def value = "value"
+
+        when:
+        controller.send(value)
+
+        then:
+        1 * streamingController.dispatch(value)
+    }
+
+    def "fails to send value when provider does not support it"() {
+        when:
+        controller.send("value")
+
+        then:
+        UnsupportedVersionException e = thrown()
+        e.message == "The version of Gradle you are using does not support sending values from a build action to the client. Support for this is available in Gradle 2.13 and all later versions."
+    }
+
+    interface StreamingBuildController extends InternalBuildController, InternalStreamedValueRelay {
+    }
 }